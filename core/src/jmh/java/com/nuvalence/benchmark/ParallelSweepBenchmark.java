@@ -0,0 +1,84 @@
+package com.nuvalence.benchmark;
+
+import com.nuvalence.engine.BoxEdges;
+import com.nuvalence.engine.ParallelSweep;
+import com.nuvalence.engine.PlaneSweep;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the sequential {@link PlaneSweep} with the {@link ParallelSweep} over pools of a few sizes, both collecting
+ * the sorted touching pairs of a large input, so scaling with the number of threads can be read off the results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ParallelSweepBenchmark {
+
+    @Param({"RANDOM", "TILES"})
+    private RectangleDistribution distribution;
+
+    @Param({"1000000"})
+    private int size;
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    private int[] x0;
+    private int[] y0;
+    private int[] x1;
+    private int[] y1;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BoxEdges edges = BoxEdges.of(distribution.generate(size, 42));
+        x0 = edges.getX0();
+        y0 = edges.getY0();
+        x1 = edges.getX1();
+        y1 = edges.getY1();
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int sequential() {
+        long[][] found = {new long[1024]};
+        int[] count = {0};
+        PlaneSweep.touchingPairs(x0, y0, x1, y1, (i, j) -> {
+            if (count[0] == found[0].length) {
+                found[0] = Arrays.copyOf(found[0], count[0] * 2);
+            }
+            found[0][count[0]++] = ParallelSweep.pair(i, j);
+        });
+        Arrays.sort(found[0], 0, count[0]);
+        return count[0];
+    }
+
+    @Benchmark
+    public int parallel() {
+        return ParallelSweep.sortedPairs(x0, y0, x1, y1, ParallelSweep::pair, pool, threads * 4).length;
+    }
+}
@@ -0,0 +1,72 @@
+package com.nuvalence.benchmark;
+
+import com.nuvalence.model.Rectangle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Input shapes used by the benchmarks, so results can be compared across the cases where branches are predictable and
+ * where they are not.
+ */
+public enum RectangleDistribution {
+
+    /**
+     * Rectangles of varied sizes spread uniformly over a large area, so most pairs are far apart.
+     */
+    RANDOM {
+        @Override
+        Rectangle next(Random random, int i) {
+            return new Rectangle(random.nextInt(100_000), random.nextInt(100_000), 1 + random.nextInt(1_000), 1 + random.nextInt(1_000));
+        }
+    },
+
+    /**
+     * Rectangles packed around a few centers, so most pairs overlap, touch or nest.
+     */
+    CLUSTERED {
+        @Override
+        Rectangle next(Random random, int i) {
+            int center = (i % 8) * 10_000;
+            return new Rectangle(center + (int) (random.nextGaussian() * 50), center + (int) (random.nextGaussian() * 50),
+                    1 + random.nextInt(100), 1 + random.nextInt(100));
+        }
+    },
+
+    /**
+     * Tiles of similar sizes spread evenly over an area they about cover once, as in dense map layers.
+     */
+    TILES {
+        @Override
+        Rectangle next(Random random, int i) {
+            return new Rectangle(random.nextInt(32_000), random.nextInt(32_000), 90 + random.nextInt(20), 90 + random.nextInt(20));
+        }
+    },
+
+    /**
+     * Unit squares and zero-area rectangles on a small grid, so many pairs share edges or corners exactly.
+     */
+    DEGENERATE {
+        @Override
+        Rectangle next(Random random, int i) {
+            return new Rectangle(random.nextInt(32), random.nextInt(32), random.nextInt(2), random.nextInt(2));
+        }
+    };
+
+    abstract Rectangle next(Random random, int i);
+
+    /**
+     * @param count the number of {@link Rectangle} to generate
+     * @param seed  the random seed, so that every run sees the same input
+     * @return the generated {@link Rectangle}
+     */
+    public List<Rectangle> generate(int count, long seed) {
+        Random random = new Random(seed);
+        List<Rectangle> rectangles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rectangles.add(next(random, i));
+        }
+        return rectangles;
+    }
+}
@@ -0,0 +1,93 @@
+package com.nuvalence.benchmark;
+
+import com.nuvalence.model.Coverage;
+import com.nuvalence.model.IndexPair;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.service.RectangleService;
+import com.nuvalence.service.RectangleServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link RectangleServiceImpl} operations: the pairwise calls made by each controller request, and the
+ * batch operations over a whole list.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RectangleServiceBenchmark {
+
+    @Param({"RANDOM", "CLUSTERED", "DEGENERATE"})
+    private RectangleDistribution distribution;
+
+    @Param({"10000"})
+    private int size;
+
+    private final RectangleService rectangleService = new RectangleServiceImpl();
+    private List<Rectangle> rectangles;
+    private Rectangle r1;
+    private Rectangle r2;
+
+    @Setup
+    public void setUp() {
+        rectangles = distribution.generate(size, 42);
+        r1 = rectangles.get(0);
+        r2 = rectangles.get(1);
+    }
+
+    @Benchmark
+    public boolean pairwiseIntersects() {
+        return rectangleService.intersects(r1, r2);
+    }
+
+    @Benchmark
+    public List<Integer> pairwiseIntersectionPoints() {
+        return rectangleService.intersectionPoints(r1, r2);
+    }
+
+    @Benchmark
+    public List<IndexPair> batchIntersectingPairs() {
+        return rectangleService.intersectingPairs(rectangles);
+    }
+
+    @Benchmark
+    public List<IndexPair> batchContainingPairs() {
+        return rectangleService.containingPairs(rectangles);
+    }
+
+    @Benchmark
+    public List<IndexPair> batchAdjacentPairs() {
+        return rectangleService.adjacentPairs(rectangles);
+    }
+
+    @Benchmark
+    public Coverage coverage() {
+        return rectangleService.coverage(rectangles, 2);
+    }
+
+    @Benchmark
+    public List<Integer> clusters() {
+        return rectangleService.clusters(rectangles);
+    }
+
+    @Benchmark
+    public List<Integer> nestingForest() {
+        return rectangleService.nestingForest(rectangles);
+    }
+
+}
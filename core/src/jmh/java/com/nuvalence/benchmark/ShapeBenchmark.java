@@ -0,0 +1,118 @@
+package com.nuvalence.benchmark;
+
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.RectangleBatch;
+import com.nuvalence.model.Shape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks each {@link Shape} operation over consecutive pairs of a fixed set of {@link Rectangle}, and the
+ * {@link RectangleBatch} kernels checking one query against the same set.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShapeBenchmark {
+
+    private static final int SIZE = 1024;
+
+    @Param({"RANDOM", "CLUSTERED", "DEGENERATE"})
+    private RectangleDistribution distribution;
+
+    private Rectangle[] rectangles;
+    private RectangleBatch batch;
+    private long[] mask;
+    private final int[] coordinates = new int[Shape.MAX_INTERSECTION_COORDINATES];
+
+    @Setup
+    public void setUp() {
+        List<Rectangle> generated = distribution.generate(SIZE, 42);
+        rectangles = generated.toArray(new Rectangle[0]);
+        batch = RectangleBatch.of(generated);
+        mask = batch.newMask();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void isAdjacentTo(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(rectangles[i].isAdjacentTo(rectangles[(i + 1) & (SIZE - 1)]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void contains(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(rectangles[i].contains(rectangles[(i + 1) & (SIZE - 1)]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void intersects(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(rectangles[i].intersects(rectangles[(i + 1) & (SIZE - 1)]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void intersectionPoints(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(rectangles[i].intersectionPoints(rectangles[(i + 1) & (SIZE - 1)]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void intersectionPointsIntoArray(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(rectangles[i].intersectionPoints(rectangles[(i + 1) & (SIZE - 1)], coordinates));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int intersectsOneAgainstAll() {
+        Rectangle query = rectangles[0];
+        int count = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (rectangles[i].intersects(query)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int batchIntersecting() {
+        return batch.intersecting(rectangles[0], mask);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int batchAdjacent() {
+        return batch.adjacent(rectangles[0], mask);
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.nuvalence.benchmark;
+
+import com.nuvalence.index.BoxBuffer;
+import com.nuvalence.index.DatasetStatistics;
+import com.nuvalence.index.IndexStrategy;
+import com.nuvalence.index.NearestEntries;
+import com.nuvalence.index.SpatialIndex;
+import com.nuvalence.model.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the kinds of {@link SpatialIndex} on the distributions of {@link RectangleDistribution}: building one with
+ * every Rectangle, inserted one at a time or loaded at once, searching it with Rectangles from the same distribution,
+ * and finding the 10 Rectangles nearest to the corner of each of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpatialIndexBenchmark {
+
+    @Param({"RANDOM", "CLUSTERED", "TILES", "DEGENERATE"})
+    private RectangleDistribution distribution;
+
+    @Param({"RTREE", "GRID", "COMPRESSED"})
+    private IndexStrategy strategy;
+
+    @Param({"100000"})
+    private int size;
+
+    // whether the searched index is loaded at once rather than built by insertions
+    @Param({"false", "true"})
+    private boolean loaded;
+
+    private List<Rectangle> rectangles;
+    private List<Rectangle> queries;
+    private BoxBuffer boxes;
+    private DatasetStatistics statistics;
+    private SpatialIndex index;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        rectangles = distribution.generate(size, 42);
+        queries = distribution.generate(1024, 43);
+        boxes = BoxBuffer.of(rectangles);
+        statistics = DatasetStatistics.of(boxes::scan);
+        index = loaded ? load() : build();
+    }
+
+    private SpatialIndex build() {
+        SpatialIndex index = strategy.create(statistics);
+        for (int i = 0; i < rectangles.size(); i++) {
+            Rectangle r = rectangles.get(i);
+            index.insert(i, r.getX(), r.getY(), r.getX() + r.getWidth(), r.getY() + r.getHeight());
+        }
+        return index;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SpatialIndex insert() {
+        return build();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SpatialIndex load() {
+        SpatialIndex loaded = strategy.create(statistics);
+        loaded.load(boxes);
+        return loaded;
+    }
+
+    @Benchmark
+    public void search(Blackhole blackhole) {
+        Rectangle q = queries.get(next++ & 1023);
+        index.search(q.getX(), q.getY(), q.getX() + q.getWidth(), q.getY() + q.getHeight(),
+                (id, x0, y0, x1, y1) -> blackhole.consume(id));
+    }
+
+    @Benchmark
+    public void nearest(Blackhole blackhole) {
+        Rectangle q = queries.get(next++ & 1023);
+        NearestEntries nearest = new NearestEntries(10, q.getX(), q.getY(), q.getX(), q.getY());
+        index.nearest(nearest);
+        nearest.report((id, x0, y0, x1, y1) -> blackhole.consume(id));
+    }
+}
@@ -0,0 +1,74 @@
+package com.nuvalence.benchmark;
+
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.store.WriteAheadLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of durable changes through the {@link WriteAheadLog}: each operation appends a record and
+ * waits until it is synced, alone or with concurrent writers sharing syncs. The log is written to the temporary
+ * directory, so the results depend on the disk behind it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class WriteAheadLogBenchmark {
+
+    private final Rectangle rectangle = new Rectangle(1, 2, 3, 4);
+    private final AtomicLong ids = new AtomicLong();
+    private Path file;
+    private WriteAheadLog log;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("benchmark", ".wal");
+        Files.delete(file);
+        log = WriteAheadLog.open(file, (operation, id, x, y, width, height) -> {
+        });
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        log.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void durablePutOneWriter() throws IOException {
+        log.awaitDurable(log.appendPut(ids.incrementAndGet(), rectangle));
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void durablePutSixteenWriters() throws IOException {
+        log.awaitDurable(log.appendPut(ids.incrementAndGet(), rectangle));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long appendOnly() throws IOException {
+        return log.appendPut(ids.incrementAndGet(), rectangle);
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.nuvalence.engine;
+
+import com.nuvalence.model.Rectangle;
+
+import java.util.List;
+
+/**
+ * Edges of a list of {@link Rectangle}, in the parallel arrays the sweeps take: box i spans [x0[i], x1[i]]
+ * horizontally and [y0[i], y1[i]] vertically, where i is the position of its {@link Rectangle} in the list.
+ */
+public final class BoxEdges {
+
+    private final int[] x0;
+    private final int[] y0;
+    private final int[] x1;
+    private final int[] y1;
+
+    private BoxEdges(int n) {
+        x0 = new int[n];
+        y0 = new int[n];
+        x1 = new int[n];
+        y1 = new int[n];
+    }
+
+    /**
+     * @param rectangles the {@link Rectangle} whose edges are needed
+     * @return the edges of each {@link Rectangle}, at its position in the list
+     */
+    public static BoxEdges of(List<Rectangle> rectangles) {
+        BoxEdges edges = new BoxEdges(rectangles.size());
+        int i = 0;
+        for (Rectangle r : rectangles) {
+            edges.x0[i] = r.getX();
+            edges.y0[i] = r.getY();
+            edges.x1[i] = r.getX() + r.getWidth();
+            edges.y1[i] = r.getY() + r.getHeight();
+            i++;
+        }
+        return edges;
+    }
+
+    /**
+     * @return the number of boxes
+     */
+    public int size() {
+        return x0.length;
+    }
+
+    // Getters
+    public int[] getX0() {
+        return x0;
+    }
+
+    public int[] getY0() {
+        return y0;
+    }
+
+    public int[] getX1() {
+        return x1;
+    }
+
+    public int[] getY1() {
+        return y1;
+    }
+
+}
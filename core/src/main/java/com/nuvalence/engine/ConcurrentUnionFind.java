@@ -0,0 +1,102 @@
+package com.nuvalence.engine;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Lock-free union-find over the indices 0 to n - 1, whose unions may be called concurrently, such as from the tasks of
+ * a {@link ParallelSweep}.
+ * <p>
+ * Each index holds the index of its parent in an {@link AtomicIntegerArray}. A union links the root with the larger
+ * index under the one with the smaller index by compare-and-set, retrying if another thread moved either root first,
+ * and finds halve the paths they walk the same way. Parents are then always smaller than their children, so the
+ * parents never form a cycle and the root of each set is its smallest index.
+ */
+public final class ConcurrentUnionFind {
+
+    private final AtomicIntegerArray parents;
+
+    /**
+     * @param size the number of indices, each in a set of its own
+     */
+    public ConcurrentUnionFind(int size) {
+        parents = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            parents.set(i, i);
+        }
+    }
+
+    /**
+     * @return the number of indices
+     */
+    public int size() {
+        return parents.length();
+    }
+
+    /**
+     * @param i an index
+     * @return the smallest index in the set of i, at the time of the call
+     */
+    public int find(int i) {
+        while (true) {
+            int parent = parents.get(i);
+            if (parent == i) {
+                return i;
+            }
+            int grandparent = parents.get(parent);
+            if (grandparent != parent) {
+                // path halving: losing the race only means another thread shortened the path first
+                parents.compareAndSet(i, parent, grandparent);
+            }
+            i = parent;
+        }
+    }
+
+    /**
+     * Merges the sets of two indices.
+     *
+     * @param first  an index
+     * @param second another index
+     * @return true if the indices were in different sets; false otherwise
+     */
+    public boolean union(int first, int second) {
+        while (true) {
+            int a = find(first);
+            int b = find(second);
+            if (a == b) {
+                return false;
+            }
+            if (a < b ? parents.compareAndSet(b, b, a) : parents.compareAndSet(a, a, b)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Numbers the sets from 0, in the order of their smallest index. It must not be called concurrently with
+     * {@link #union(int, int)}.
+     *
+     * @return the number of the set of each index
+     */
+    public int[] labels() {
+        int[] labels = new int[parents.length()];
+        labels(labels);
+        return labels;
+    }
+
+    /**
+     * Numbers the sets from 0, as {@link #labels()}, into the given array.
+     *
+     * @param labels the array receiving the number of the set of each index, at least {@link #size()} long
+     * @return the number of sets
+     */
+    public int labels(int[] labels) {
+        int n = parents.length();
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            int root = find(i);
+            // the root is the smallest index of the set, so it was numbered first
+            labels[i] = root == i ? count++ : labels[root];
+        }
+        return count;
+    }
+}
@@ -0,0 +1,435 @@
+package com.nuvalence.engine;
+
+import com.nuvalence.model.Coverage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sweep computing the {@link Coverage} of a set of boxes in O(n log n) for the areas, without ever comparing boxes
+ * pairwise, so overlaps of any number of boxes are counted right.
+ * <p>
+ * A vertical line sweeps the left and right edges of the boxes, in x order. A segment tree over the distinct y
+ * coordinates holds, for the boxes crossing the line, how many of them cover each elementary y interval: every node
+ * keeps the number of boxes covering its whole interval, and the length of its interval covered at least t times for
+ * t up to k. Between two events, the area covered at least t times grows by that length at the root times the
+ * distance swept. Lengths and areas are longs, so no box or area overflows them.
+ * <p>
+ * The outline of the region covered at least k times is made of the y intervals whose k-coverage changes at some
+ * event, found by listing the k-covered parts of the edges of the event before and after it, plus the x intervals
+ * found by the same sweep along the y axis. The outline edges are then chained into rings. Listing the k-covered parts
+ * of an edge takes time proportional to their number, so the outline takes longer when many covered parts meet
+ * the same edges.
+ */
+public final class CoverageSweep {
+
+    /**
+     * The largest k a {@link Coverage} can be computed for, since each segment tree node keeps a length per t up to k.
+     */
+    public static final int MAX_K = 16;
+
+    private CoverageSweep() {
+    }
+
+    /**
+     * Computes the {@link Coverage} of a set of boxes. Box i spans [x0[i], x1[i]] horizontally and [y0[i], y1[i]]
+     * vertically; boxes without area cover nothing.
+     *
+     * @param x0 the left edge of each box
+     * @param y0 the bottom edge of each box
+     * @param x1 the right edge of each box
+     * @param y1 the top edge of each box
+     * @param k  the number of boxes a point must be covered by to count, between 1 and {@value #MAX_K}
+     * @return the {@link Coverage} of the boxes
+     * @throws ArithmeticException if an area doesn't fit in a long
+     */
+    public static Coverage coverage(int[] x0, int[] y0, int[] x1, int[] y1, int k) {
+        if (k < 1 || k > MAX_K) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_K);
+        }
+        int n = 0;
+        for (int i = 0; i < x0.length; i++) {
+            if (x0[i] < x1[i] && y0[i] < y1[i]) {
+                n++;
+            }
+        }
+        // boxes without area are left out, so counts never go below zero in the middle of an event
+        int[] bx0 = new int[n];
+        int[] by0 = new int[n];
+        int[] bx1 = new int[n];
+        int[] by1 = new int[n];
+        for (int i = 0, j = 0; i < x0.length; i++) {
+            if (x0[i] < x1[i] && y0[i] < y1[i]) {
+                bx0[j] = x0[i];
+                by0[j] = y0[i];
+                bx1[j] = x1[i];
+                by1[j] = y1[i];
+                j++;
+            }
+        }
+
+        List<long[]> edges = new ArrayList<>();
+        Sweep vertical = new Sweep(bx0, by0, bx1, by1, k);
+        vertical.run(edges, false);
+        Sweep horizontal = new Sweep(by0, bx0, by1, bx1, k);
+        horizontal.run(edges, true);
+        return new Coverage(k, vertical.areas[1], vertical.areas[k], rings(edges));
+    }
+
+    /**
+     * One sweep along the first axis, with the segment tree over the second one.
+     */
+    private static final class Sweep {
+        private final int[] a0;
+        private final int[] a1;
+        private final int k;
+        private final int[] coordinates;
+        // index in coordinates of the ends of each box along the second axis
+        private final int[] begins;
+        private final int[] ends;
+        private final int[] count;
+        // length of node i at lengths[i * (k + 1)], then its length covered at least t times at lengths[i * (k + 1) + t],
+        // together so that updating a node reads a single cache line
+        private final long[] lengths;
+        private final long[] areas;
+        private final int leaves;
+
+        Sweep(int[] a0, int[] b0, int[] a1, int[] b1, int k) {
+            this.a0 = a0;
+            this.a1 = a1;
+            this.k = k;
+            int n = a0.length;
+            int[] all = Arrays.copyOf(b0, 2 * n);
+            System.arraycopy(b1, 0, all, n, n);
+            Arrays.sort(all);
+            int distinct = 0;
+            for (int i = 0; i < all.length; i++) {
+                if (i == 0 || all[i] != all[i - 1]) {
+                    all[distinct++] = all[i];
+                }
+            }
+            coordinates = Arrays.copyOf(all, distinct);
+            begins = new int[n];
+            ends = new int[n];
+            for (int i = 0; i < n; i++) {
+                begins[i] = Arrays.binarySearch(coordinates, b0[i]);
+                ends[i] = Arrays.binarySearch(coordinates, b1[i]);
+            }
+            leaves = Math.max(1, distinct - 1);
+            count = new int[4 * leaves];
+            lengths = new long[4 * leaves * (k + 1)];
+            areas = new long[k + 1];
+            if (distinct > 1) {
+                build(1, 0, leaves);
+            }
+        }
+
+        private void build(int node, int lo, int hi) {
+            lengths[node * (k + 1)] = (long) coordinates[hi] - coordinates[lo];
+            if (hi - lo > 1) {
+                int middle = (lo + hi) >>> 1;
+                build(2 * node, lo, middle);
+                build(2 * node + 1, middle, hi);
+            }
+        }
+
+        /**
+         * Sweeps the events in order, accumulating the areas and adding the outline edges found, as {begin, end}
+         * points packed by {@link #point}.
+         */
+        void run(List<long[]> edges, boolean swapped) {
+            int n = a0.length;
+            // events sorted by edge coordinate, as the box index for removals and the index plus n for insertions
+            long[] events = new long[2 * n];
+            for (int i = 0; i < n; i++) {
+                events[2 * i] = ((long) a0[i] << 32) | (i + n);
+                events[2 * i + 1] = ((long) a1[i] << 32) | i;
+            }
+            Arrays.sort(events);
+            List<int[]> changed = new ArrayList<>();
+            List<int[]> before = new ArrayList<>();
+            List<int[]> after = new ArrayList<>();
+            int e = 0;
+            while (e < events.length) {
+                int position = (int) (events[e] >> 32);
+                int end = e;
+                while (end < events.length && (int) (events[end] >> 32) == position) {
+                    end++;
+                }
+                changed.clear();
+                for (int j = e; j < end; j++) {
+                    int i = (int) events[j] % n;
+                    changed.add(new int[]{begins[i], ends[i]});
+                }
+                mergeIntervals(changed);
+                before.clear();
+                for (int[] interval : changed) {
+                    covered(1, 0, leaves, interval[0], interval[1], k, before);
+                }
+                for (; e < end; e++) {
+                    int i = (int) events[e];
+                    boolean insertion = i >= n;
+                    i = insertion ? i - n : i;
+                    update(1, 0, leaves, begins[i], ends[i], insertion ? 1 : -1);
+                }
+                after.clear();
+                for (int[] interval : changed) {
+                    covered(1, 0, leaves, interval[0], interval[1], k, after);
+                }
+                outline(position, before, after, edges, swapped);
+                if (e < events.length) {
+                    long width = (long) (int) (events[e] >> 32) - position;
+                    for (int t = 1; t <= k; t++) {
+                        areas[t] = Math.addExact(areas[t], Math.multiplyExact(lengths[k + 1 + t], width));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds delta to the count of the elementary intervals in [from, to) under the node spanning [lo, hi).
+         */
+        private void update(int node, int lo, int hi, int from, int to, int delta) {
+            if (to <= lo || hi <= from) {
+                return;
+            }
+            if (from <= lo && hi <= to) {
+                count[node] += delta;
+            } else {
+                int middle = (lo + hi) >>> 1;
+                update(2 * node, lo, middle, from, to, delta);
+                update(2 * node + 1, middle, hi, from, to, delta);
+            }
+            pull(node, lo, hi);
+        }
+
+        private void pull(int node, int lo, int hi) {
+            int stride = k + 1;
+            int base = node * stride;
+            int c = count[node];
+            boolean leaf = hi - lo == 1;
+            for (int t = 1; t <= k; t++) {
+                long length;
+                if (c >= t) {
+                    length = lengths[base];
+                } else if (leaf) {
+                    length = 0;
+                } else {
+                    // a child's length covered at least 0 times is its whole length, at offset 0
+                    length = lengths[2 * base + t - c] + lengths[2 * base + stride + t - c];
+                }
+                lengths[base + t] = length;
+            }
+        }
+
+        /**
+         * Adds the parts of [from, to) covered at least t times under the node spanning [lo, hi), as intervals of
+         * elementary interval indices, merging touching ones.
+         */
+        private void covered(int node, int lo, int hi, int from, int to, int t, List<int[]> parts) {
+            if (to <= lo || hi <= from) {
+                return;
+            }
+            long full = lengths[node * (k + 1)];
+            long length = lengths[node * (k + 1) + Math.max(t, 0)];
+            if (length == 0) {
+                return;
+            }
+            if (length == full) {
+                int begin = Math.max(lo, from);
+                int end = Math.min(hi, to);
+                int last = parts.size() - 1;
+                if (last >= 0 && parts.get(last)[1] == begin) {
+                    parts.get(last)[1] = end;
+                } else {
+                    parts.add(new int[]{begin, end});
+                }
+                return;
+            }
+            // partly covered, so the node isn't a leaf, and its own count covers part of t for its children
+            int middle = (lo + hi) >>> 1;
+            covered(2 * node, lo, middle, from, to, t - count[node], parts);
+            covered(2 * node + 1, middle, hi, from, to, t - count[node], parts);
+        }
+
+        /**
+         * Adds the outline edges at the given position: the parts covered on one side of it only, directed so the
+         * covered side is on their left.
+         */
+        private void outline(int position, List<int[]> before, List<int[]> after, List<long[]> edges,
+                             boolean swapped) {
+            int[] cuts = new int[2 * (before.size() + after.size())];
+            int c = 0;
+            for (int[] part : before) {
+                cuts[c++] = part[0];
+                cuts[c++] = part[1];
+            }
+            for (int[] part : after) {
+                cuts[c++] = part[0];
+                cuts[c++] = part[1];
+            }
+            Arrays.sort(cuts);
+            int i = 0;
+            int j = 0;
+            int pendingBegin = 0;
+            int pendingEnd = -1;
+            boolean pendingBefore = false;
+            for (int cut = 0; cut + 1 < cuts.length; cut++) {
+                int lo = cuts[cut];
+                int hi = cuts[cut + 1];
+                if (lo == hi) {
+                    continue;
+                }
+                while (i < before.size() && before.get(i)[1] <= lo) {
+                    i++;
+                }
+                while (j < after.size() && after.get(j)[1] <= lo) {
+                    j++;
+                }
+                boolean inBefore = i < before.size() && before.get(i)[0] <= lo;
+                boolean inAfter = j < after.size() && after.get(j)[0] <= lo;
+                if (inBefore == inAfter) {
+                    continue;
+                }
+                if (pendingEnd == lo && pendingBefore == inBefore) {
+                    pendingEnd = hi;
+                } else {
+                    if (pendingEnd >= 0) {
+                        addEdge(position, pendingBegin, pendingEnd, pendingBefore, edges, swapped);
+                    }
+                    pendingBegin = lo;
+                    pendingEnd = hi;
+                    pendingBefore = inBefore;
+                }
+            }
+            if (pendingEnd >= 0) {
+                addEdge(position, pendingBegin, pendingEnd, pendingBefore, edges, swapped);
+            }
+        }
+
+        private void addEdge(int position, int begin, int end, boolean coveredBefore, List<long[]> edges,
+                             boolean swapped) {
+            int low = coordinates[begin];
+            int high = coordinates[end];
+            long from;
+            long to;
+            if (!swapped) {
+                // vertical edge: up when covered on the left, down when covered on the right
+                from = coveredBefore ? point(position, low) : point(position, high);
+                to = coveredBefore ? point(position, high) : point(position, low);
+            } else {
+                // horizontal edge: left when covered below, right when covered above
+                from = coveredBefore ? point(high, position) : point(low, position);
+                to = coveredBefore ? point(low, position) : point(high, position);
+            }
+            edges.add(new long[]{from, to});
+        }
+    }
+
+    /**
+     * Merges overlapping or touching intervals, in place.
+     */
+    private static void mergeIntervals(List<int[]> intervals) {
+        intervals.sort((p, q) -> Integer.compare(p[0], q[0]));
+        int merged = 0;
+        for (int[] interval : intervals) {
+            if (merged > 0 && interval[0] <= intervals.get(merged - 1)[1]) {
+                int[] last = intervals.get(merged - 1);
+                last[1] = Math.max(last[1], interval[1]);
+            } else {
+                intervals.set(merged++, interval);
+            }
+        }
+        intervals.subList(merged, intervals.size()).clear();
+    }
+
+    private static long point(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private static int x(long point) {
+        return (int) (point >> 32);
+    }
+
+    private static int y(long point) {
+        return (int) point;
+    }
+
+    /**
+     * Chains directed edges into rings, starting from the lowest then leftmost corner left. Where two rings touch at a
+     * corner, the chain turns left, so each ring keeps to its own covered region.
+     */
+    private static List<List<Integer>> rings(List<long[]> edges) {
+        edges.sort((p, q) -> {
+            int c = Integer.compare(y(p[0]), y(q[0]));
+            return c != 0 ? c : Integer.compare(x(p[0]), x(q[0]));
+        });
+        Map<Long, List<Integer>> outgoing = new HashMap<>();
+        for (int e = 0; e < edges.size(); e++) {
+            outgoing.computeIfAbsent(edges.get(e)[0], p -> new ArrayList<>(2)).add(e);
+        }
+        boolean[] used = new boolean[edges.size()];
+        List<List<Integer>> rings = new ArrayList<>();
+        for (int first = 0; first < edges.size(); first++) {
+            if (used[first]) {
+                continue;
+            }
+            List<Integer> ring = new ArrayList<>();
+            int e = first;
+            do {
+                used[e] = true;
+                long[] edge = edges.get(e);
+                int next = next(edges, outgoing.get(edge[1]), edge, used, first);
+                if (turns(edge, edges.get(next))) {
+                    ring.add(x(edge[1]));
+                    ring.add(y(edge[1]));
+                }
+                e = next;
+            } while (e != first);
+            // the first corner was reached last, and belongs at the start
+            int size = ring.size();
+            ring.add(0, ring.remove(size - 1));
+            ring.add(0, ring.remove(size - 1));
+            rings.add(ring);
+        }
+        return rings;
+    }
+
+    /**
+     * Picks the edge following the given one: the unused outgoing edge turning the most to the left, or the first edge
+     * of the ring once nothing else is left.
+     */
+    private static int next(List<long[]> edges, List<Integer> candidates, long[] edge, boolean[] used, int first) {
+        int best = -1;
+        int bestTurn = Integer.MIN_VALUE;
+        for (int candidate : candidates) {
+            if (used[candidate] && candidate != first) {
+                continue;
+            }
+            int turn = turn(edge, edges.get(candidate));
+            if (turn > bestTurn) {
+                best = candidate;
+                bestTurn = turn;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return 1 for a left turn, 0 for going straight, -1 for a right turn
+     */
+    private static int turn(long[] in, long[] out) {
+        long dx1 = Long.signum((long) x(in[1]) - x(in[0]));
+        long dy1 = Long.signum((long) y(in[1]) - y(in[0]));
+        long dx2 = Long.signum((long) x(out[1]) - x(out[0]));
+        long dy2 = Long.signum((long) y(out[1]) - y(out[0]));
+        return Long.signum(dx1 * dy2 - dy1 * dx2);
+    }
+
+    private static boolean turns(long[] in, long[] out) {
+        return turn(in, out) != 0;
+    }
+}
@@ -0,0 +1,94 @@
+package com.nuvalence.engine;
+
+import java.util.Arrays;
+
+/**
+ * Set of long keys drawn from a universe known in advance, used as the active set of a sweep.
+ * <p>
+ * The universe is sorted once, and the set is a Fenwick tree counting the keys present at each rank, so adding,
+ * removing, counting and finding the largest key up to a bound all take O(log n) with no boxing and no allocation
+ * after construction.
+ */
+class FenwickKeySet {
+
+    private final long[] universe;
+    private final int[] counts;
+    private final int highestStep;
+
+    /**
+     * Default constructor.
+     *
+     * @param universe the distinct keys that may be added, in any order; the array is sorted in place
+     */
+    FenwickKeySet(long[] universe) {
+        Arrays.sort(universe);
+        this.universe = universe;
+        this.counts = new int[universe.length + 1];
+        this.highestStep = Integer.highestOneBit(Math.max(universe.length, 1));
+    }
+
+    /**
+     * @param key a key of the universe, not in the set
+     */
+    void add(long key) {
+        for (int i = Arrays.binarySearch(universe, key) + 1; i < counts.length; i += i & -i) {
+            counts[i]++;
+        }
+    }
+
+    /**
+     * @param key a key of the set
+     */
+    void remove(long key) {
+        for (int i = Arrays.binarySearch(universe, key) + 1; i < counts.length; i += i & -i) {
+            counts[i]--;
+        }
+    }
+
+    /**
+     * @return the number of keys of the set smaller than the bound
+     */
+    int countBelow(long bound) {
+        int rank = Arrays.binarySearch(universe, bound);
+        return countRanksBelow(rank >= 0 ? rank : -rank - 1);
+    }
+
+    /**
+     * @return the rank in the universe of the largest key of the set at most the bound, or -1 if there is none
+     */
+    int floor(long bound) {
+        int k = countAtMost(bound);
+        if (k == 0) {
+            return -1;
+        }
+        // finds the rank of the k-th key of the set by walking down the implicit tree
+        int rank = 0;
+        for (int step = highestStep; step > 0; step >>>= 1) {
+            if (rank + step < counts.length && counts[rank + step] < k) {
+                rank += step;
+                k -= counts[rank];
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * @return the key of the given rank in the universe
+     */
+    long keyAt(int rank) {
+        return universe[rank];
+    }
+
+    private int countAtMost(long bound) {
+        int rank = Arrays.binarySearch(universe, bound);
+        return countRanksBelow(rank >= 0 ? rank + 1 : -rank - 1);
+    }
+
+    private int countRanksBelow(int rank) {
+        int count = 0;
+        for (int i = rank; i > 0; i -= i & -i) {
+            count += counts[i];
+        }
+        return count;
+    }
+}
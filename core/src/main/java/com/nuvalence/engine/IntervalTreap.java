@@ -0,0 +1,164 @@
+package com.nuvalence.engine;
+
+/**
+ * Set of closed intervals [begin, end] keyed by their begin coordinate, used as the active set of a sweep.
+ * <p>
+ * The set is a treap whose nodes are the interval indices themselves, so it allocates nothing after construction.
+ * Every node keeps the largest end coordinate found in its subtree, which lets {@link #overlapping} skip whole
+ * subtrees that cannot overlap the queried interval.
+ */
+class IntervalTreap {
+
+    /**
+     * Callback receiving the intervals found by {@link #overlapping}.
+     */
+    @FunctionalInterface
+    interface IntervalConsumer {
+        void accept(int index);
+    }
+
+    private static final int NIL = -1;
+
+    private final int[] begin;
+    private final int[] end;
+    private final int[] left;
+    private final int[] right;
+    private final int[] priority;
+    private final int[] maxEnd;
+    private int root = NIL;
+    private int size;
+
+    // results of the last split
+    private int splitLeft;
+    private int splitRight;
+
+    /**
+     * Default constructor.
+     *
+     * @param begin the begin coordinate of each interval
+     * @param end   the end coordinate of each interval
+     */
+    IntervalTreap(int[] begin, int[] end) {
+        int n = begin.length;
+        this.begin = begin;
+        this.end = end;
+        this.left = new int[n];
+        this.right = new int[n];
+        this.priority = new int[n];
+        this.maxEnd = new int[n];
+        int seed = 0x9E3779B9;
+        for (int i = 0; i < n; i++) {
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            priority[i] = seed;
+        }
+    }
+
+    /**
+     * @return the number of intervals currently in the set
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds the interval at the given index to the set.
+     *
+     * @param i the interval index
+     */
+    void insert(int i) {
+        left[i] = NIL;
+        right[i] = NIL;
+        maxEnd[i] = end[i];
+        split(root, begin[i], i);
+        root = merge(merge(splitLeft, i), splitRight);
+        size++;
+    }
+
+    /**
+     * Removes the interval at the given index from the set.
+     *
+     * @param i the interval index, which must be in the set
+     */
+    void remove(int i) {
+        split(root, begin[i], i);
+        int lower = splitLeft;
+        split(splitRight, begin[i], i + 1);
+        root = merge(lower, splitRight);
+        size--;
+    }
+
+    /**
+     * Reports every interval in the set that shares at least one point with [from, to].
+     *
+     * @param from     the begin coordinate of the queried interval
+     * @param to       the end coordinate of the queried interval
+     * @param consumer the callback receiving the index of each overlapping interval
+     */
+    void overlapping(int from, int to, IntervalConsumer consumer) {
+        overlapping(root, from, to, consumer);
+    }
+
+    private void overlapping(int t, int from, int to, IntervalConsumer consumer) {
+        while (t != NIL && maxEnd[t] >= from) {
+            overlapping(left[t], from, to, consumer);
+            if (begin[t] > to) {
+                return;
+            }
+            if (end[t] >= from) {
+                consumer.accept(t);
+            }
+            t = right[t];
+        }
+    }
+
+    /**
+     * Splits the subtree t into the nodes ordered before (key, index) and the remaining ones.
+     */
+    private void split(int t, int key, int index) {
+        if (t == NIL) {
+            splitLeft = NIL;
+            splitRight = NIL;
+        } else if (begin[t] < key || (begin[t] == key && t < index)) {
+            split(right[t], key, index);
+            right[t] = splitLeft;
+            update(t);
+            splitLeft = t;
+        } else {
+            split(left[t], key, index);
+            left[t] = splitRight;
+            update(t);
+            splitRight = t;
+        }
+    }
+
+    private int merge(int a, int b) {
+        if (a == NIL) {
+            return b;
+        }
+        if (b == NIL) {
+            return a;
+        }
+        if (priority[a] > priority[b]) {
+            right[a] = merge(right[a], b);
+            update(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        update(b);
+        return b;
+    }
+
+    private void update(int t) {
+        int m = end[t];
+        if (left[t] != NIL && maxEnd[left[t]] > m) {
+            m = maxEnd[left[t]];
+        }
+        if (right[t] != NIL && maxEnd[right[t]] > m) {
+            m = maxEnd[right[t]];
+        }
+        maxEnd[t] = m;
+    }
+
+}
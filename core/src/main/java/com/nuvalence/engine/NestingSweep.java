@@ -0,0 +1,275 @@
+package com.nuvalence.engine;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Sweep that builds the nesting forest of a set of boxes: the parent of each box is the smallest box that strictly
+ * contains it, with all four edges strictly inside, as in {@link com.nuvalence.model.Rectangle#contains}, the first one
+ * of the smallest ones if several are.
+ * <p>
+ * The boxes are processed by left edge, outer boxes first, while the bottom and top edges of the boxes crossing the
+ * sweep line are kept in a {@link FenwickKeySet}. When the boxes are laminar, that is when any two of them either don't
+ * overlap or one contains the other, edges included, the boxes crossing the sweep line are nested intervals, and the
+ * innermost box containing a new box is found from the edge right below its bottom edge: it is the box of that edge if
+ * it is a bottom edge, and the box containing the box of that edge if it is a top edge. Boxes sharing an edge with the
+ * new box contain it but not strictly, so the parent is the first box strictly containing it up that chain of
+ * containers, found in constant time from the first container further out on each side, kept for every box. The sweep
+ * runs in O(n log n).
+ * <p>
+ * Each new box is checked against the boxes crossing the sweep line: an edge strictly between its bottom and top
+ * edges, or an innermost container that doesn't reach its right or top edge, means two boxes overlap without one
+ * containing the other. The sweep then gives up, as it does from the start if a box has no area, and every pair of
+ * overlapping or touching boxes found by a {@link PlaneSweep} is checked instead, which is exact for any boxes, in
+ * O(n log n + k) for k such pairs.
+ * <p>
+ * Boxes must not have a negative width or height, and their edges are compared as ints.
+ */
+public final class NestingSweep {
+
+    /**
+     * Parent of the boxes that no other box strictly contains.
+     */
+    public static final int NO_PARENT = -1;
+
+    private static final long TOP_EDGE = 0;
+    private static final long BOTTOM_EDGE = 1L << 31;
+
+    private NestingSweep() {
+    }
+
+    /**
+     * Finds the smallest box strictly containing each box. Box i spans [x0[i], x1[i]] horizontally and [y0[i], y1[i]]
+     * vertically.
+     *
+     * @param x0 the left edge of each box
+     * @param y0 the bottom edge of each box
+     * @param x1 the right edge of each box
+     * @param y1 the top edge of each box
+     * @return the index of the parent of each box, or {@link #NO_PARENT}
+     * @throws IllegalArgumentException if the edge arrays don't have the same length or a box has a negative width or
+     *                                  height
+     */
+    public static int[] parents(int[] x0, int[] y0, int[] x1, int[] y1) {
+        return parents(x0, y0, x1, y1, null);
+    }
+
+    /**
+     * Finds the smallest box strictly containing each box, as {@link #parents(int[], int[], int[], int[])}, advancing
+     * a {@link SweepProgress} as the boxes are swept.
+     *
+     * @param x0       the left edge of each box
+     * @param y0       the bottom edge of each box
+     * @param x1       the right edge of each box
+     * @param y1       the top edge of each box
+     * @param progress the progress of the sweep, or null
+     * @return the index of the parent of each box, or {@link #NO_PARENT}
+     * @throws IllegalArgumentException if the edge arrays don't have the same length or a box has a negative width or
+     *                                  height
+     * @throws java.util.concurrent.CancellationException if the progress is cancelled
+     */
+    public static int[] parents(int[] x0, int[] y0, int[] x1, int[] y1, SweepProgress progress) {
+        PlaneSweep.requireBoxes(x0, y0, x1, y1);
+        if (progress != null) {
+            progress.expect(x0.length);
+        }
+        int[] parents = laminarParents(x0, y0, x1, y1, progress);
+        return parents != null ? parents : containingParents(x0, y0, x1, y1, progress);
+    }
+
+    /**
+     * Sweeps laminar boxes.
+     *
+     * @return the parent of each box, or null if a box has no area or as soon as two boxes overlap without one
+     * containing the other
+     */
+    static int[] laminarParents(int[] x0, int[] y0, int[] x1, int[] y1, SweepProgress progress) {
+        int n = x0.length;
+        for (int i = 0; i < n; i++) {
+            // a box with no area could end at the sweep line before being swept
+            if (x1[i] == x0[i] || y1[i] == y0[i]) {
+                return null;
+            }
+        }
+        int[] order = processingOrder(x0, y0, x1, y1);
+        int[] sequences = new int[n];
+        long[] keys = new long[2 * n];
+        for (int k = 0; k < n; k++) {
+            int i = order[k];
+            sequences[i] = k;
+            keys[2 * k] = bottomEdge(y0[i], k);
+            keys[2 * k + 1] = topEdge(y1[i], k, n);
+        }
+        FenwickKeySet edges = new FenwickKeySet(keys);
+        int[] byRight = PlaneSweep.sortedBy(x1);
+        // innermost box containing each box, edges included, found when the box was swept
+        int[] enclosing = new int[n];
+        int[] depths = new int[n];
+        // first container of each box further out on each side, up the chain of enclosing boxes
+        int[] outerLeft = new int[n];
+        int[] outerBottom = new int[n];
+        int[] outerRight = new int[n];
+        int[] outerTop = new int[n];
+        int[] parents = new int[n];
+        int next = 0;
+        for (int k = 0; k < n; k++) {
+            int i = order[k];
+            // boxes ending at or before the sweep line can't contain this or any later box
+            while (next < n && x1[byRight[next]] <= x0[i]) {
+                int j = byRight[next++];
+                edges.remove(bottomEdge(y0[j], sequences[j]));
+                edges.remove(topEdge(y1[j], sequences[j], n));
+            }
+            int below = edges.floor(bottomEdge(y0[i], Integer.MAX_VALUE));
+            int e = NO_PARENT;
+            if (below >= 0) {
+                long edge = edges.keyAt(below);
+                int rank = (int) (edge & Integer.MAX_VALUE);
+                e = (edge & BOTTOM_EDGE) != 0 ? order[rank] : enclosing[order[n - 1 - rank]];
+            }
+            if (crossesEdge(edges, y0[i], y1[i])
+                    || e != NO_PARENT && (x1[e] < x1[i] || y0[e] > y0[i] || y1[e] < y1[i])) {
+                if (progress != null) {
+                    // the boxes swept so far are swept again
+                    progress.expect(k - k % SweepProgress.STEP);
+                }
+                return null;
+            }
+            enclosing[i] = e;
+            if (e == NO_PARENT) {
+                depths[i] = 0;
+                outerLeft[i] = outerBottom[i] = outerRight[i] = outerTop[i] = NO_PARENT;
+            } else {
+                // the containers of e contain each other, so each side only moves outwards up the chain
+                depths[i] = depths[e] + 1;
+                outerLeft[i] = x0[e] < x0[i] ? e : outerLeft[e];
+                outerBottom[i] = y0[e] < y0[i] ? e : outerBottom[e];
+                outerRight[i] = x1[e] > x1[i] ? e : outerRight[e];
+                outerTop[i] = y1[e] > y1[i] ? e : outerTop[e];
+            }
+            // the first container strictly containing the box is the outermost of those four
+            parents[i] = outermost(outermost(outerLeft[i], outerBottom[i], depths),
+                    outermost(outerRight[i], outerTop[i], depths), depths);
+            edges.add(bottomEdge(y0[i], k));
+            edges.add(topEdge(y1[i], k, n));
+            if (progress != null && (k + 1) % SweepProgress.STEP == 0) {
+                progress.advance(SweepProgress.STEP);
+            }
+        }
+        if (progress != null) {
+            progress.advance(n % SweepProgress.STEP);
+        }
+        return parents;
+    }
+
+    /**
+     * @return the one of two containers of the same chain that is further up, or {@link #NO_PARENT} if either is
+     */
+    private static int outermost(int a, int b, int[] depths) {
+        if (a == NO_PARENT || b == NO_PARENT) {
+            return NO_PARENT;
+        }
+        return depths[a] <= depths[b] ? a : b;
+    }
+
+    /**
+     * @return true if an edge of the set lies strictly between the bottom and top edges of a box
+     */
+    private static boolean crossesEdge(FenwickKeySet edges, int y0, int y1) {
+        return (long) y1 - y0 > 1
+                && edges.countBelow((long) y1 << 32) > edges.countBelow(((long) y0 + 1) << 32);
+    }
+
+    /**
+     * Checks every pair of overlapping or touching boxes found by a {@link PlaneSweep}, keeping for each box the
+     * smallest box strictly containing it, the first one of the smallest ones.
+     */
+    private static int[] containingParents(int[] x0, int[] y0, int[] x1, int[] y1, SweepProgress progress) {
+        int[] parents = new int[x0.length];
+        Arrays.fill(parents, NO_PARENT);
+        PlaneSweep.sweep(x0, y0, x1, y1, (a, b) -> {
+            if (strictlyContains(a, b, x0, y0, x1, y1)) {
+                offerParent(parents, b, a, x0, y0, x1, y1);
+            } else if (strictlyContains(b, a, x0, y0, x1, y1)) {
+                offerParent(parents, a, b, x0, y0, x1, y1);
+            }
+        }, progress);
+        return parents;
+    }
+
+    private static void offerParent(int[] parents, int inner, int outer, int[] x0, int[] y0, int[] x1, int[] y1) {
+        int current = parents[inner];
+        if (current == NO_PARENT) {
+            parents[inner] = outer;
+            return;
+        }
+        // areas are below 2^64, so they are exact as unsigned longs
+        int c = Long.compareUnsigned(area(outer, x0, y0, x1, y1), area(current, x0, y0, x1, y1));
+        if (c < 0 || c == 0 && outer < current) {
+            parents[inner] = outer;
+        }
+    }
+
+    private static long area(int i, int[] x0, int[] y0, int[] x1, int[] y1) {
+        return ((long) x1[i] - x0[i]) * ((long) y1[i] - y0[i]);
+    }
+
+    /**
+     * Packs a bottom edge so that, at the same height, it comes after the top edges, and after the bottom edges of the
+     * boxes swept before it, which contain it if they contain each other.
+     */
+    private static long bottomEdge(int y, int sequence) {
+        return ((long) y << 32) | BOTTOM_EDGE | sequence;
+    }
+
+    /**
+     * Packs a top edge so that, at the same height, it comes before the bottom edges, and after the top edges of the
+     * boxes swept after it, which it contains if they contain each other.
+     */
+    private static long topEdge(int y, int sequence, int n) {
+        return ((long) y << 32) | TOP_EDGE | (n - 1 - sequence);
+    }
+
+    private static boolean strictlyContains(int outer, int inner, int[] x0, int[] y0, int[] x1, int[] y1) {
+        return x0[inner] > x0[outer] && y0[inner] > y0[outer] && x1[inner] < x1[outer] && y1[inner] < y1[outer];
+    }
+
+    /**
+     * Sorts the boxes by left edge, then by right edge, bottom edge and top edge so that a box comes before the boxes
+     * it contains, then by descending index, so that the first of identical boxes is swept last and is the innermost.
+     * Only boxes sharing a left edge need the comparator, so it is only applied to their runs.
+     */
+    static int[] processingOrder(int[] x0, int[] y0, int[] x1, int[] y1) {
+        int n = x0.length;
+        int[] order = PlaneSweep.sortedBy(x0);
+        Comparator<Integer> outerFirst = (a, b) -> {
+            int c = Integer.compare(x1[b], x1[a]);
+            if (c == 0) {
+                c = Integer.compare(y0[a], y0[b]);
+            }
+            if (c == 0) {
+                c = Integer.compare(y1[b], y1[a]);
+            }
+            return c != 0 ? c : Integer.compare(b, a);
+        };
+        int begin = 0;
+        while (begin < n) {
+            int end = begin + 1;
+            while (end < n && x0[order[end]] == x0[order[begin]]) {
+                end++;
+            }
+            if (end - begin > 1) {
+                Integer[] run = new Integer[end - begin];
+                for (int k = begin; k < end; k++) {
+                    run[k - begin] = order[k];
+                }
+                Arrays.sort(run, outerFirst);
+                for (int k = begin; k < end; k++) {
+                    order[k] = run[k - begin];
+                }
+            }
+            begin = end;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,325 @@
+package com.nuvalence.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel version of {@link PlaneSweep} for very large inputs, which cuts the plane into vertical strips holding about
+ * the same number of boxes and sweeps each strip in a {@link ForkJoinPool} task.
+ * <p>
+ * Strips are split recursively: each task halves its range of strips and hands each half the boxes that reach it, so
+ * boxes crossing a strip boundary are copied into every strip they reach. Two touching boxes then meet in every strip
+ * their common part crosses, and only the strip holding the left edge of that common part, the larger of their left
+ * edges, reports them, so each pair is still reported once.
+ * <p>
+ * Pairs are turned into results by a {@link PairFunction}, called concurrently from the pool threads, and the results
+ * are returned sorted, so they don't depend on the number of strips or threads. As in {@link PlaneSweep}, boxes with
+ * a negative width or height are rejected with an {@link IllegalArgumentException}.
+ */
+public final class ParallelSweep {
+
+    /**
+     * Function deciding, for two touching boxes, which pair to report, if any. It is called concurrently, so it must be
+     * thread safe.
+     */
+    @FunctionalInterface
+    public interface PairFunction {
+        /**
+         * @param first  the index of one box of the pair
+         * @param second the index of the other box of the pair, in no particular order
+         * @return the pair to be reported, packed by {@link #pair(int, int)}, or {@link #NO_PAIR}
+         */
+        long apply(int first, int second);
+    }
+
+    /**
+     * Result of a {@link PairFunction} for a pair that isn't reported.
+     */
+    public static final long NO_PAIR = -1;
+
+    // fewer boxes per strip would spend more time copying boxes across strips than sweeping them
+    static final int MIN_STRIP_BOXES = 1 << 14;
+    private static final int STRIPS_PER_THREAD = 4;
+
+    private ParallelSweep() {
+    }
+
+    /**
+     * @param first  the first index of a pair, 0 or more
+     * @param second the second index of a pair, 0 or more
+     * @return the pair packed in a long, so that packed pairs sort by first then second index
+     */
+    public static long pair(int first, int second) {
+        return ((long) first << 32) | second;
+    }
+
+    /**
+     * @param pair a pair packed by {@link #pair(int, int)}
+     * @return the first index of the pair
+     */
+    public static int first(long pair) {
+        return (int) (pair >>> 32);
+    }
+
+    /**
+     * @param pair a pair packed by {@link #pair(int, int)}
+     * @return the second index of the pair
+     */
+    public static int second(long pair) {
+        return (int) pair;
+    }
+
+    /**
+     * Finds every pair of overlapping or touching boxes in the common pool, with a few strips per thread. Box i spans
+     * [x0[i], x1[i]] horizontally and [y0[i], y1[i]] vertically.
+     *
+     * @param x0       the left edge of each box
+     * @param y0       the bottom edge of each box
+     * @param x1       the right edge of each box
+     * @param y1       the top edge of each box
+     * @param function the function turning each pair of touching boxes into a result
+     * @return the results other than {@link #NO_PAIR}, sorted
+     */
+    public static long[] sortedPairs(int[] x0, int[] y0, int[] x1, int[] y1, PairFunction function) {
+        return sortedPairs(x0, y0, x1, y1, function, null);
+    }
+
+    /**
+     * Finds every pair of overlapping or touching boxes in the common pool, as {@link #sortedPairs(int[], int[],
+     * int[], int[], PairFunction)}, advancing a {@link SweepProgress} as the strips are swept. A box is counted once
+     * for each strip it reaches, and the results are reported to the progress as the strips collect them.
+     *
+     * @param x0       the left edge of each box
+     * @param y0       the bottom edge of each box
+     * @param x1       the right edge of each box
+     * @param y1       the top edge of each box
+     * @param function the function turning each pair of touching boxes into a result
+     * @param progress the progress of the sweep, or null
+     * @return the results other than {@link #NO_PAIR}, sorted
+     * @throws java.util.concurrent.CancellationException if the progress is cancelled, or the results go past its
+     *                                                    limit
+     */
+    public static long[] sortedPairs(int[] x0, int[] y0, int[] x1, int[] y1, PairFunction function,
+                                     SweepProgress progress) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int strips = (int) Math.max(1, Math.min((long) pool.getParallelism() * STRIPS_PER_THREAD,
+                x0.length / MIN_STRIP_BOXES));
+        return sortedPairs(x0, y0, x1, y1, function, pool, strips, progress);
+    }
+
+    /**
+     * Finds every pair of overlapping or touching boxes in the given pool, sweeping up to the given number of strips.
+     * Box i spans [x0[i], x1[i]] horizontally and [y0[i], y1[i]] vertically.
+     *
+     * @param x0       the left edge of each box
+     * @param y0       the bottom edge of each box
+     * @param x1       the right edge of each box
+     * @param y1       the top edge of each box
+     * @param function the function turning each pair of touching boxes into a result
+     * @param pool     the pool running the sweeps
+     * @param strips   the number of strips to cut the plane into, fewer if many boxes share a left edge
+     * @return the results other than {@link #NO_PAIR}, sorted
+     */
+    public static long[] sortedPairs(int[] x0, int[] y0, int[] x1, int[] y1, PairFunction function,
+                                     ForkJoinPool pool, int strips) {
+        return sortedPairs(x0, y0, x1, y1, function, pool, strips, null);
+    }
+
+    static long[] sortedPairs(int[] x0, int[] y0, int[] x1, int[] y1, PairFunction function,
+                              ForkJoinPool pool, int strips, SweepProgress progress) {
+        PlaneSweep.requireBoxes(x0, y0, x1, y1);
+        int n = x0.length;
+        long[] bounds = stripBounds(x0, strips);
+        if (progress != null) {
+            progress.expect(stripMembers(x0, x1, bounds));
+        }
+        long[][] found = new long[bounds.length - 1][];
+        int[] counts = new int[found.length];
+        int[] all = new int[n];
+        Arrays.setAll(all, i -> i);
+        pool.invoke(new StripTask(new Boxes(x0, y0, x1, y1, bounds, function, progress, found, counts), all, n, 0, found.length));
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        long[] pairs = new long[total];
+        int position = 0;
+        for (int strip = 0; strip < found.length; strip++) {
+            System.arraycopy(found[strip], 0, pairs, position, counts[strip]);
+            position += counts[strip];
+        }
+        Arrays.parallelSort(pairs);
+        return pairs;
+    }
+
+    /**
+     * Picks strip boundaries at quantiles of the left edges, so strips start with about the same number of boxes.
+     * Strip k spans [bounds[k], bounds[k + 1]), and the outer strips reach past any coordinate.
+     */
+    static long[] stripBounds(int[] x0, int strips) {
+        int n = x0.length;
+        int[] sorted = x0.clone();
+        Arrays.parallelSort(sorted);
+        strips = Math.max(1, Math.min(strips, n));
+        long[] bounds = new long[strips + 1];
+        int count = 0;
+        bounds[count++] = Long.MIN_VALUE;
+        for (int k = 1; k < strips; k++) {
+            long bound = sorted[(int) ((long) k * n / strips)];
+            // boxes sharing a left edge can't be told apart, so equal quantiles make one strip
+            if (bound > bounds[count - 1]) {
+                bounds[count++] = bound;
+            }
+        }
+        bounds[count++] = Long.MAX_VALUE;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * Counts the boxes each strip sweeps: a box reaches the strips from the one holding its left edge to the one
+     * holding its right edge.
+     */
+    private static long stripMembers(int[] x0, int[] x1, long[] bounds) {
+        long members = 0;
+        for (int i = 0; i < x0.length; i++) {
+            members += strip(bounds, x1[i]) - strip(bounds, x0[i]) + 1;
+        }
+        return members;
+    }
+
+    /**
+     * @return the strip k such that bounds[k] <= x < bounds[k + 1]
+     */
+    private static int strip(long[] bounds, int x) {
+        int low = 0;
+        int high = bounds.length - 2;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (bounds[middle] <= x) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Input and output shared by every task of a sweep.
+     */
+    private static final class Boxes {
+        final int[] x0;
+        final int[] y0;
+        final int[] x1;
+        final int[] y1;
+        final long[] bounds;
+        final PairFunction function;
+        final SweepProgress progress;
+        final long[][] found;
+        final int[] counts;
+
+        Boxes(int[] x0, int[] y0, int[] x1, int[] y1, long[] bounds, PairFunction function, SweepProgress progress,
+              long[][] found, int[] counts) {
+            this.x0 = x0;
+            this.y0 = y0;
+            this.x1 = x1;
+            this.y1 = y1;
+            this.bounds = bounds;
+            this.function = function;
+            this.progress = progress;
+            this.found = found;
+            this.counts = counts;
+        }
+    }
+
+    /**
+     * Sweeps the strips in [from, to) over the boxes reaching them, given by their indices.
+     */
+    private static final class StripTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Boxes boxes;
+        private final int[] members;
+        private final int count;
+        private final int from;
+        private final int to;
+
+        StripTask(Boxes boxes, int[] members, int count, int from, int to) {
+            this.boxes = boxes;
+            this.members = members;
+            this.count = count;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                sweep();
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            long bound = boxes.bounds[middle];
+            int[] left = new int[count];
+            int[] right = new int[count];
+            int leftCount = 0;
+            int rightCount = 0;
+            for (int k = 0; k < count; k++) {
+                int i = members[k];
+                if (boxes.x0[i] < bound) {
+                    left[leftCount++] = i;
+                }
+                if (boxes.x1[i] >= bound) {
+                    right[rightCount++] = i;
+                }
+            }
+            invokeAll(new StripTask(boxes, left, leftCount, from, middle),
+                    new StripTask(boxes, right, rightCount, middle, to));
+        }
+
+        private void sweep() {
+            long begin = boxes.bounds[from];
+            long end = boxes.bounds[from + 1];
+            int[] x0 = new int[count];
+            int[] y0 = new int[count];
+            int[] x1 = new int[count];
+            int[] y1 = new int[count];
+            for (int k = 0; k < count; k++) {
+                int i = members[k];
+                x0[k] = boxes.x0[i];
+                y0[k] = boxes.y0[i];
+                x1[k] = boxes.x1[i];
+                y1[k] = boxes.y1[i];
+            }
+            long[][] found = {new long[16]};
+            int[] size = {0};
+            int[] reported = {0};
+            PlaneSweep.sweep(x0, y0, x1, y1, (p, q) -> {
+                // the common part of the boxes starts at the larger left edge, which only one strip holds
+                int reference = Math.max(x0[p], x0[q]);
+                if (reference < begin || reference >= end) {
+                    return;
+                }
+                long pair = boxes.function.apply(members[p], members[q]);
+                if (pair != NO_PAIR) {
+                    if (size[0] == found[0].length) {
+                        if (boxes.progress != null) {
+                            // reported when the buffer grows, so the limit is checked before the memory is taken
+                            boxes.progress.found(size[0] - reported[0]);
+                            reported[0] = size[0];
+                        }
+                        found[0] = Arrays.copyOf(found[0], size[0] * 2);
+                    }
+                    found[0][size[0]++] = pair;
+                }
+            }, boxes.progress);
+            if (boxes.progress != null) {
+                boxes.progress.found(size[0] - reported[0]);
+            }
+            boxes.found[from] = found[0];
+            boxes.counts[from] = size[0];
+        }
+    }
+}
@@ -0,0 +1,572 @@
+package com.nuvalence.engine;
+
+import com.nuvalence.index.BoxBuffer;
+import com.nuvalence.index.RTree;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.SpatialRelation;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Join of two datasets of rectangles too large for the heap, reporting every pair of a rectangle of the left dataset
+ * and a rectangle of the right one between which a {@link SpatialRelation} holds, the left one being tested as the
+ * stored {@link Rectangle} and the right one as the query.
+ * <p>
+ * Datasets are files in the binary wire format, 16 bytes little-endian records holding {@code x}, {@code y},
+ * {@code width} and {@code height} as int32, and rectangles are identified by their position in their file. Each file
+ * is read once by {@link #scan(Path, String)}, which checks it and finds its extent, and once more to partition it over a grid
+ * of tiles covering the part of the plane where both datasets are, each rectangle going to every tile its closed box
+ * touches. Partitions are buffered in memory, and the largest ones are spilled to temporary files whenever the buffers
+ * of a dataset exceed a quarter of the memory budget.
+ * <p>
+ * Tiles are then joined in parallel, largest first, at most one per worker of the join at a time: the left partition is loaded into an {@link RTree}, a chunk at a
+ * time if it doesn't fit the share of the budget of a worker, and the right partition is streamed through it. Since a
+ * pair of rectangles meets in every tile both touch, only the tile holding the bottom left corner of their
+ * intersection reports it. Pairs are handed to the consumer on the calling thread, in no particular order, through a
+ * bounded queue, so a slow consumer holds the workers of its join back rather than letting pairs pile up, while the
+ * other threads of the {@link Executor} are left to the other joins.
+ * <p>
+ * The memory used is bounded by the budget, whatever the size of the datasets, except for the rectangles so large
+ * that they touch many tiles, which are copied to each of them.
+ */
+public final class PartitionedJoin {
+
+    /**
+     * Callback receiving the pairs found by a join.
+     */
+    @FunctionalInterface
+    public interface PairConsumer {
+        void accept(int left, int right) throws IOException;
+    }
+
+    /**
+     * A dataset file that was checked, with the number of rectangles it holds and the extent of their closed boxes.
+     */
+    public static final class Dataset {
+        private final Path path;
+        private final int count;
+        private int minX = Integer.MAX_VALUE;
+        private int minY = Integer.MAX_VALUE;
+        private int maxX = Integer.MIN_VALUE;
+        private int maxY = Integer.MIN_VALUE;
+
+        private Dataset(Path path, int count) {
+            this.path = path;
+            this.count = count;
+        }
+
+        // Getters
+        public Path getPath() {
+            return path;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    static final int RECORD_BYTES = 16;
+    static final int MAX_SIDE = 128;
+    static final int PAIR_CHUNK = 4096;
+    // a partition record is the position of the rectangle and its box, as int32
+    static final int PARTITION_INTS = 5;
+    // bytes taken by a left rectangle loaded in an RTree, counting its BoxBuffer
+    static final int LOADED_BYTES = 96;
+    static final int MIN_CHUNK = 1024;
+    private static final int READ_BYTES = 1 << 16;
+    private static final long[] DONE = new long[0];
+
+    private final Executor executor;
+    private final int workers;
+    private final long memoryBudget;
+    private final Path temporaryDirectory;
+
+    /**
+     * @param executor           the {@link Executor} joining the tiles
+     * @param workers            the number of tiles a join runs at the same time, each taking a thread of the executor
+     * @param memoryBudget       the bytes a join may keep in memory
+     * @param temporaryDirectory the directory where partitions are spilled
+     */
+    public PartitionedJoin(Executor executor, int workers, long memoryBudget, Path temporaryDirectory) {
+        this.executor = executor;
+        this.workers = workers;
+        this.memoryBudget = memoryBudget;
+        this.temporaryDirectory = temporaryDirectory;
+    }
+
+    /**
+     * Reads a dataset file, checking that it is made of whole records of valid {@link Rectangle}, and finds its extent.
+     *
+     * @param path the dataset file
+     * @param name the name of the dataset in error messages
+     * @return the checked {@link Dataset}
+     * @throws IllegalArgumentException if the file isn't made of whole records, or holds an invalid {@link Rectangle}
+     * @throws IOException              if the file can't be read
+     */
+    public static Dataset scan(Path path, String name) throws IOException {
+        long bytes = Files.size(path);
+        if (bytes % RECORD_BYTES != 0 || bytes / RECORD_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The " + name + " dataset should be made of whole 16 bytes records.");
+        }
+        Dataset dataset = new Dataset(path, (int) (bytes / RECORD_BYTES));
+        read(path, (index, x0, y0, x1, y1) -> {
+            if (x1 <= x0 || y1 <= y0) {
+                throw new IllegalArgumentException("The rectangle " + index + " of the " + name + " dataset isn't valid.");
+            }
+            dataset.minX = Math.min(dataset.minX, x0);
+            dataset.minY = Math.min(dataset.minY, y0);
+            dataset.maxX = Math.max(dataset.maxX, x1);
+            dataset.maxY = Math.max(dataset.maxY, y1);
+        });
+        return dataset;
+    }
+
+    /**
+     * Joins two datasets, handing each pair found to the consumer, on the calling thread.
+     *
+     * @param left     the left {@link Dataset}
+     * @param right    the right {@link Dataset}
+     * @param relation the {@link SpatialRelation} holding between the left and the right rectangle of each pair
+     * @param consumer the callback receiving each pair
+     * @return the number of pairs found
+     * @throws IOException if the datasets or the spilled partitions can't be read, or the consumer fails
+     */
+    public long join(Dataset left, Dataset right, SpatialRelation relation, PairConsumer consumer) throws IOException {
+        int x0 = Math.max(left.minX, right.minX);
+        int y0 = Math.max(left.minY, right.minY);
+        int x1 = Math.min(left.maxX, right.maxX);
+        int y1 = Math.min(left.maxY, right.maxY);
+        if (left.count == 0 || right.count == 0 || x0 > x1 || y0 > y1) {
+            return 0;
+        }
+        long bytes = ((long) left.count + right.count) * PARTITION_INTS * Integer.BYTES;
+        long partitionBytes = Math.max(1, memoryBudget / (4L * workers));
+        int side = (int) Math.min(MAX_SIDE, Math.max(1, Math.ceil(Math.sqrt((double) bytes / partitionBytes))));
+        Tiling tiling = new Tiling(x0, y0, x1, y1, side);
+        Path directory = Files.createTempDirectory(temporaryDirectory, "join-");
+        try {
+            Partitions lefts = partition(left, tiling, directory.resolve("left-"));
+            Partitions rights = partition(right, tiling, directory.resolve("right-"));
+            return joinTiles(tiling, lefts, rights, relation, consumer);
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private Partitions partition(Dataset dataset, Tiling tiling, Path prefix) throws IOException {
+        Partitions partitions = new Partitions(tiling.side * tiling.side, prefix, memoryBudget / 4);
+        try {
+            read(dataset.path, (index, x0, y0, x1, y1) -> {
+                if (x0 > tiling.x1 || x1 < tiling.x0 || y0 > tiling.y1 || y1 < tiling.y0) {
+                    return;
+                }
+                int lastColumn = tiling.column(Math.min(x1, tiling.x1));
+                int lastRow = tiling.row(Math.min(y1, tiling.y1));
+                for (int row = tiling.row(Math.max(y0, tiling.y0)); row <= lastRow; row++) {
+                    for (int column = tiling.column(Math.max(x0, tiling.x0)); column <= lastColumn; column++) {
+                        partitions.add(row * tiling.side + column, index, x0, y0, x1, y1);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return partitions;
+    }
+
+    private long joinTiles(Tiling tiling, Partitions lefts, Partitions rights, SpatialRelation relation,
+                           PairConsumer consumer) throws IOException {
+        List<Integer> tiles = new ArrayList<>();
+        for (int tile = 0; tile < tiling.side * tiling.side; tile++) {
+            if (lefts.size(tile) > 0 && rights.size(tile) > 0) {
+                tiles.add(tile);
+            }
+        }
+        tiles.sort(Comparator.comparingLong((Integer tile) -> lefts.size(tile) + rights.size(tile)).reversed());
+        int chunk = (int) Math.min(Integer.MAX_VALUE - 8,
+                Math.max(MIN_CHUNK, memoryBudget / (4L * workers * LOADED_BYTES)));
+        BlockingQueue<long[]> queue = new ArrayBlockingQueue<>(2 * workers);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        int runners = Math.min(workers, tiles.size());
+        CountDownLatch finished = new CountDownLatch(runners);
+        Cancellation cancellation = new Cancellation();
+        AtomicInteger next = new AtomicInteger();
+        for (int runner = 0; runner < runners; runner++) {
+            // each worker takes the next tile when it is done with one, so the join never holds more threads than it
+            // has workers, even when its consumer blocks them all
+            executor.execute(() -> {
+                try {
+                    for (int i = next.getAndIncrement(); i < tiles.size(); i = next.getAndIncrement()) {
+                        joinTile(new TileJoin(tiling, tiles.get(i), lefts, rights, relation, chunk, queue,
+                                cancellation), failure);
+                    }
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+        long pairs = 0;
+        boolean completed = false;
+        try {
+            for (int pending = tiles.size(); pending > 0; ) {
+                long[] found = queue.take();
+                if (found == DONE) {
+                    pending--;
+                    if (failure.get() != null) {
+                        throw failure.get() instanceof IOException ? (IOException) failure.get()
+                                : new IOException("A tile of the join failed", failure.get());
+                    }
+                    continue;
+                }
+                for (long pair : found) {
+                    consumer.accept((int) (pair >>> 32), (int) pair);
+                }
+                pairs += found.length;
+            }
+            completed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("The join was interrupted");
+        } finally {
+            if (!completed) {
+                // the workers must stop reading the partitions before they are deleted
+                cancellation.cancelled = true;
+                awaitQuietly(finished);
+            }
+        }
+        return pairs;
+    }
+
+    private static void joinTile(TileJoin tileJoin, AtomicReference<Throwable> failure) {
+        try {
+            if (!tileJoin.cancellation.cancelled) {
+                tileJoin.run();
+            }
+        } catch (CancellationException e) {
+            // the join stopped, so nothing waits for the pairs
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            try {
+                offer(tileJoin.queue, DONE, tileJoin.cancellation);
+            } catch (CancellationException e) {
+                // nothing waits for the end of the tile either
+            }
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues a chunk of pairs, giving up once the join is cancelled, since nothing takes the chunks anymore.
+     */
+    private static void offer(BlockingQueue<long[]> queue, long[] chunk, Cancellation cancellation) {
+        try {
+            while (!queue.offer(chunk, 10, TimeUnit.MILLISECONDS)) {
+                if (cancellation.cancelled) {
+                    throw new CancellationException();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * Callback receiving the records of a dataset or a partition, with the closed box of each rectangle.
+     */
+    @FunctionalInterface
+    interface RecordConsumer {
+        void accept(int index, int x0, int y0, int x1, int y1);
+    }
+
+    private static void read(Path path, RecordConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            int index = 0;
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_BYTES) {
+                    int x = buffer.getInt();
+                    int y = buffer.getInt();
+                    int width = buffer.getInt();
+                    int height = buffer.getInt();
+                    consumer.accept(index++, x, y, x + width, y + height);
+                }
+                buffer.compact();
+            }
+        }
+    }
+
+    private static final class Cancellation {
+        volatile boolean cancelled;
+    }
+
+    /**
+     * A grid of side x side tiles over a closed box. Tiles are half-open, except the last column and row.
+     */
+    static final class Tiling {
+        final int x0;
+        final int y0;
+        final int x1;
+        final int y1;
+        final int side;
+        final long width;
+        final long height;
+
+        Tiling(int x0, int y0, int x1, int y1, int side) {
+            this.x0 = x0;
+            this.y0 = y0;
+            this.x1 = x1;
+            this.y1 = y1;
+            this.side = side;
+            this.width = (((long) x1 - x0 + 1) + side - 1) / side;
+            this.height = (((long) y1 - y0 + 1) + side - 1) / side;
+        }
+
+        int column(int x) {
+            return (int) Math.min(side - 1, ((long) x - x0) / width);
+        }
+
+        int row(int y) {
+            return (int) Math.min(side - 1, ((long) y - y0) / height);
+        }
+    }
+
+    /**
+     * The partitions of a dataset, one per tile: the records spilled to the file of the partition, followed by the
+     * records still buffered. Filled by one thread, then only read.
+     */
+    static final class Partitions {
+        private final int[][] buffers;
+        private final int[] lengths;
+        private final long[] spilled;
+        private final Path prefix;
+        private final long maxBufferedInts;
+        private long bufferedInts;
+
+        Partitions(int tiles, Path prefix, long maxBufferedBytes) {
+            this.buffers = new int[tiles][];
+            this.lengths = new int[tiles];
+            this.spilled = new long[tiles];
+            this.prefix = prefix;
+            this.maxBufferedInts = Math.max(PARTITION_INTS, maxBufferedBytes / Integer.BYTES);
+        }
+
+        void add(int tile, int index, int x0, int y0, int x1, int y1) {
+            int[] buffer = buffers[tile];
+            int length = lengths[tile];
+            if (buffer == null || length == buffer.length) {
+                buffer = buffers[tile] = Arrays.copyOf(buffer == null ? new int[0] : buffer,
+                        Math.max(16 * PARTITION_INTS, 2 * length));
+            }
+            buffer[length] = index;
+            buffer[length + 1] = x0;
+            buffer[length + 2] = y0;
+            buffer[length + 3] = x1;
+            buffer[length + 4] = y1;
+            lengths[tile] = length + PARTITION_INTS;
+            bufferedInts += PARTITION_INTS;
+            if (bufferedInts > maxBufferedInts) {
+                spill();
+            }
+        }
+
+        /**
+         * Spills the largest buffers to their files until half of the buffered records are left.
+         */
+        private void spill() {
+            try {
+                while (bufferedInts > maxBufferedInts / 2) {
+                    int largest = 0;
+                    for (int tile = 1; tile < lengths.length; tile++) {
+                        if (lengths[tile] > lengths[largest]) {
+                            largest = tile;
+                        }
+                    }
+                    write(largest);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void write(int tile) throws IOException {
+            ByteBuffer bytes = ByteBuffer.allocate(READ_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            try (FileChannel channel = FileChannel.open(file(tile),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                int[] buffer = buffers[tile];
+                for (int i = 0; i < lengths[tile]; i++) {
+                    if (!bytes.hasRemaining()) {
+                        writeFully(channel, bytes);
+                    }
+                    bytes.putInt(buffer[i]);
+                }
+                writeFully(channel, bytes);
+            }
+            spilled[tile] += lengths[tile] / PARTITION_INTS;
+            bufferedInts -= lengths[tile];
+            lengths[tile] = 0;
+            buffers[tile] = null;
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            bytes.clear();
+        }
+
+        private Path file(int tile) {
+            return prefix.resolveSibling(prefix.getFileName() + Integer.toString(tile));
+        }
+
+        long size(int tile) {
+            return spilled[tile] + lengths[tile] / PARTITION_INTS;
+        }
+
+        void scan(int tile, RecordConsumer consumer) throws IOException {
+            if (spilled[tile] > 0) {
+                try (FileChannel channel = FileChannel.open(file(tile), StandardOpenOption.READ)) {
+                    ByteBuffer bytes = ByteBuffer.allocate(READ_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                    int recordBytes = PARTITION_INTS * Integer.BYTES;
+                    while (channel.read(bytes) >= 0) {
+                        bytes.flip();
+                        while (bytes.remaining() >= recordBytes) {
+                            consumer.accept(bytes.getInt(), bytes.getInt(), bytes.getInt(), bytes.getInt(),
+                                    bytes.getInt());
+                        }
+                        bytes.compact();
+                    }
+                }
+            }
+            int[] buffer = buffers[tile];
+            for (int i = 0; i < lengths[tile]; i += PARTITION_INTS) {
+                consumer.accept(buffer[i], buffer[i + 1], buffer[i + 2], buffer[i + 3], buffer[i + 4]);
+            }
+        }
+    }
+
+    /**
+     * The join of the partitions of one tile, loading the left one a chunk at a time and streaming the right one
+     * through each chunk.
+     */
+    private static final class TileJoin {
+        private final Tiling tiling;
+        private final int tile;
+        private final Partitions lefts;
+        private final Partitions rights;
+        private final SpatialRelation relation;
+        private final BlockingQueue<long[]> queue;
+        private final Cancellation cancellation;
+        private final int chunk;
+        private final long[] pairs = new long[PAIR_CHUNK];
+        private int count;
+
+        TileJoin(Tiling tiling, int tile, Partitions lefts, Partitions rights, SpatialRelation relation, int chunk,
+                 BlockingQueue<long[]> queue, Cancellation cancellation) {
+            this.tiling = tiling;
+            this.tile = tile;
+            this.lefts = lefts;
+            this.rights = rights;
+            this.relation = relation;
+            this.queue = queue;
+            this.cancellation = cancellation;
+            this.chunk = (int) Math.min(chunk, lefts.size(tile));
+        }
+
+        void run() throws IOException {
+            BoxBuffer[] buffer = {new BoxBuffer(chunk)};
+            try {
+                lefts.scan(tile, (index, x0, y0, x1, y1) -> {
+                    buffer[0].accept(index, x0, y0, x1, y1);
+                    if (buffer[0].size() == chunk) {
+                        joinChunk(buffer[0]);
+                        buffer[0] = new BoxBuffer(chunk);
+                    }
+                });
+                if (buffer[0].size() > 0) {
+                    joinChunk(buffer[0]);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (count > 0) {
+                offerChunk();
+            }
+        }
+
+        private void joinChunk(BoxBuffer boxes) {
+            if (cancellation.cancelled) {
+                throw new CancellationException();
+            }
+            RTree tree = new RTree();
+            tree.load(boxes);
+            int column = tile % tiling.side;
+            int row = tile / tiling.side;
+            try {
+                rights.scan(tile, (index, x0, y0, x1, y1) -> {
+                    Rectangle query = new Rectangle(x0, y0, x1 - x0, y1 - y0);
+                    tree.search(x0, y0, x1, y1, (id, lx0, ly0, lx1, ly1) -> {
+                        // the bottom left corner of the intersection is in exactly one tile
+                        if (tiling.column(Math.max(x0, lx0)) == column && tiling.row(Math.max(y0, ly0)) == row
+                                && relation.test(lx0, ly0, lx1 - lx0, ly1 - ly0, query)) {
+                            pairs[count++] = id << 32 | (index & 0xFFFFFFFFL);
+                            if (count == PAIR_CHUNK) {
+                                offerChunk();
+                            }
+                        }
+                    });
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void offerChunk() {
+            offer(queue, Arrays.copyOf(pairs, count), cancellation);
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.nuvalence.engine;
+
+import com.nuvalence.model.Rectangle;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sort-based plane sweep that finds every pair of rectangles whose closed areas share at least one point, that is,
+ * every pair that overlaps or touches.
+ * <p>
+ * Those pairs are a superset of the pairs that intersect, contain each other or are adjacent, so callers use them
+ * as candidates and refine each one with the predicates of {@link Rectangle}. The sweep sorts the rectangles by
+ * their left edge and keeps the rectangles crossing the sweep line in an {@link IntervalTreap} over their vertical
+ * extents, so it runs in O(n log n + k) for k reported pairs instead of testing all O(n^2) pairs.
+ * <p>
+ * Edges are computed as {@code x + width} and {@code y + height}, which are assumed not to overflow an int. Boxes
+ * whose right or top edge is before their left or bottom edge are rejected with an {@link IllegalArgumentException}.
+ */
+public final class PlaneSweep {
+
+    /**
+     * Callback receiving the pairs of indices found by a sweep.
+     */
+    @FunctionalInterface
+    public interface PairConsumer {
+        /**
+         * @param first  the index of one rectangle of the pair
+         * @param second the index of the other rectangle of the pair, always different from first
+         */
+        void accept(int first, int second);
+    }
+
+    private PlaneSweep() {
+    }
+
+    /**
+     * Reports each pair of overlapping or touching rectangles of the given list exactly once.
+     *
+     * @param rectangles the rectangles to be swept
+     * @param consumer   the callback receiving the indices of each pair
+     */
+    public static void touchingPairs(List<Rectangle> rectangles, PairConsumer consumer) {
+        touchingPairs(rectangles, consumer, null);
+    }
+
+    /**
+     * Reports each pair of overlapping or touching rectangles of the given list exactly once, advancing a
+     * {@link SweepProgress} as they are swept.
+     *
+     * @param rectangles the rectangles to be swept
+     * @param consumer   the callback receiving the indices of each pair
+     * @param progress   the progress of the sweep, or null
+     * @throws java.util.concurrent.CancellationException if the progress is cancelled
+     */
+    public static void touchingPairs(List<Rectangle> rectangles, PairConsumer consumer, SweepProgress progress) {
+        BoxEdges edges = BoxEdges.of(rectangles);
+        touchingPairs(edges.getX0(), edges.getY0(), edges.getX1(), edges.getY1(), consumer, progress);
+    }
+
+    /**
+     * Reports each pair of overlapping or touching boxes exactly once. Box i spans [x0[i], x1[i]] horizontally and
+     * [y0[i], y1[i]] vertically.
+     *
+     * @param x0       the left edge of each box
+     * @param y0       the bottom edge of each box
+     * @param x1       the right edge of each box
+     * @param y1       the top edge of each box
+     * @param consumer the callback receiving the indices of each pair
+     * @throws IllegalArgumentException if a box has a negative width or height
+     */
+    public static void touchingPairs(int[] x0, int[] y0, int[] x1, int[] y1, PairConsumer consumer) {
+        requireBoxes(x0, y0, x1, y1);
+        sweep(x0, y0, x1, y1, consumer, null);
+    }
+
+    /**
+     * Reports each pair of overlapping or touching boxes exactly once, as {@link #touchingPairs(int[], int[], int[],
+     * int[], PairConsumer)}, advancing a {@link SweepProgress} as the boxes are swept.
+     *
+     * @param x0       the left edge of each box
+     * @param y0       the bottom edge of each box
+     * @param x1       the right edge of each box
+     * @param y1       the top edge of each box
+     * @param consumer the callback receiving the indices of each pair
+     * @param progress the progress of the sweep, or null
+     * @throws IllegalArgumentException                   if a box has a negative width or height
+     * @throws java.util.concurrent.CancellationException if the progress is cancelled
+     */
+    public static void touchingPairs(int[] x0, int[] y0, int[] x1, int[] y1, PairConsumer consumer,
+                                     SweepProgress progress) {
+        requireBoxes(x0, y0, x1, y1);
+        if (progress != null) {
+            progress.expect(x0.length);
+        }
+        sweep(x0, y0, x1, y1, consumer, progress);
+    }
+
+    /**
+     * Sweeps the boxes, advancing the progress, if any, every {@link SweepProgress#STEP} boxes.
+     */
+    static void sweep(int[] x0, int[] y0, int[] x1, int[] y1, PairConsumer consumer, SweepProgress progress) {
+        int n = x0.length;
+        int[] byLeft = sortedBy(x0);
+        int[] byRight = sortedBy(x1);
+        IntervalTreap active = new IntervalTreap(y0, y1);
+        int next = 0;
+        for (int k = 0; k < n; k++) {
+            int i = byLeft[k];
+            int sweepX = x0[i];
+            // boxes ending before the sweep line can't touch this or any later box
+            while (x1[byRight[next]] < sweepX) {
+                active.remove(byRight[next++]);
+            }
+            active.overlapping(y0[i], y1[i], j -> consumer.accept(j, i));
+            active.insert(i);
+            if (progress != null && (k + 1) % SweepProgress.STEP == 0) {
+                progress.advance(SweepProgress.STEP);
+            }
+        }
+        if (progress != null) {
+            progress.advance(n % SweepProgress.STEP);
+        }
+    }
+
+    /**
+     * Rejects boxes whose right or top edge is before their left or bottom edge: such a box would leave the sweep
+     * line before entering it.
+     *
+     * @throws IllegalArgumentException if the edge arrays don't have the same length or a box is inverted
+     */
+    static void requireBoxes(int[] x0, int[] y0, int[] x1, int[] y1) {
+        int n = x0.length;
+        if (y0.length != n || x1.length != n || y1.length != n) {
+            throw new IllegalArgumentException("The edges of " + n + " boxes should be given for each side");
+        }
+        for (int i = 0; i < n; i++) {
+            if (x1[i] < x0[i] || y1[i] < y0[i]) {
+                throw new IllegalArgumentException("Box " + i + " has a negative width or height");
+            }
+        }
+    }
+
+    /**
+     * Sorts the indices of the given keys by key, then by index, without boxing.
+     */
+    static int[] sortedBy(int[] keys) {
+        int n = keys.length;
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            packed[i] = ((long) keys[i] << 32) | i;
+        }
+        Arrays.sort(packed);
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = (int) packed[i];
+        }
+        return indices;
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.nuvalence.engine;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a sweep, shared with the thread that started it, which may also cancel it.
+ * <p>
+ * A sweep announces the number of boxes it will sweep, then advances the progress every {@link #STEP} boxes, so
+ * reporting costs nothing per box. Advancing a cancelled progress throws a {@link CancellationException}, which stops
+ * the sweep, and the strips of a {@link ParallelSweep} along with it.
+ * <p>
+ * The number of results a sweep may collect can also be limited: the sweep reports them with {@link #found(long)} as
+ * it collects them, and going past the limit cancels the progress, so a sweep finding too many pairs stops before
+ * they exhaust the memory.
+ */
+public final class SweepProgress {
+
+    /**
+     * Number of boxes swept between two updates of the progress.
+     */
+    static final int STEP = 1 << 12;
+
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong done = new AtomicLong();
+    private final AtomicLong results = new AtomicLong();
+    private volatile long maxResults = Long.MAX_VALUE;
+    private volatile boolean cancelled;
+    private volatile boolean overLimit;
+
+    /**
+     * Adds boxes to be swept.
+     *
+     * @param boxes the number of boxes
+     */
+    void expect(long boxes) {
+        total.addAndGet(boxes);
+    }
+
+    /**
+     * Adds boxes swept.
+     *
+     * @param boxes the number of boxes
+     * @throws CancellationException if the progress is cancelled
+     */
+    void advance(long boxes) {
+        if (cancelled) {
+            throw new CancellationException("The sweep was cancelled");
+        }
+        done.addAndGet(boxes);
+    }
+
+    /**
+     * Limits the number of results the sweep may collect.
+     *
+     * @param max the number of results, beyond which the sweep is cancelled
+     */
+    public void limitResults(long max) {
+        maxResults = max;
+    }
+
+    /**
+     * Adds results collected by the sweep.
+     *
+     * @param count the number of results
+     * @throws CancellationException if the results go past the limit
+     */
+    public void found(long count) {
+        if (results.addAndGet(count) > maxResults) {
+            overLimit = true;
+            cancelled = true;
+            throw new CancellationException("The sweep found more than " + maxResults + " results");
+        }
+    }
+
+    /**
+     * Asks the sweep to stop, the next time it advances.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true if the sweep was asked to stop; false otherwise
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return true if the sweep was cancelled because it found more results than the limit; false otherwise
+     */
+    public boolean isOverLimit() {
+        return overLimit;
+    }
+
+    /**
+     * @return the fraction of the announced boxes already swept, from 0 to 1
+     */
+    public double fraction() {
+        long expected = total.get();
+        return expected == 0 ? 0 : Math.min(1, (double) done.get() / expected);
+    }
+}
@@ -0,0 +1,194 @@
+package com.nuvalence.index;
+
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.RectangleBatch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Growable columns of boxes identified by a long id, gathered to be loaded into a {@link SpatialIndex} at once with
+ * {@link SpatialIndex#load(BoxBuffer)}.
+ * <p>
+ * The boxes are kept in primitive arrays, 24 bytes per box, so buffering millions of them creates no object per box.
+ * Boxes read from a list, a {@link RectangleBatch} or a file are given the ids 1, 2, 3... in their order, as the store
+ * does.
+ */
+public final class BoxBuffer implements SpatialIndex.EntryConsumer {
+
+    static final int RECTANGLE_BYTES = 16;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int READ_BYTES = RECTANGLE_BYTES * 4096;
+
+    long[] ids;
+    int[] minX;
+    int[] minY;
+    int[] maxX;
+    int[] maxY;
+    private int size;
+
+    /**
+     * Creates an empty buffer.
+     */
+    public BoxBuffer() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an empty buffer holding a number of boxes before it grows.
+     *
+     * @param capacity the initial capacity
+     */
+    public BoxBuffer(int capacity) {
+        int initial = Math.max(capacity, 1);
+        ids = new long[initial];
+        minX = new int[initial];
+        minY = new int[initial];
+        maxX = new int[initial];
+        maxY = new int[initial];
+    }
+
+    /**
+     * @param rectangles the {@link Rectangle} to be buffered
+     * @return a buffer holding the box of each {@link Rectangle}, with the ids 1, 2, 3...
+     */
+    public static BoxBuffer of(List<Rectangle> rectangles) {
+        BoxBuffer boxes = new BoxBuffer(rectangles.size());
+        long id = 0;
+        for (Rectangle r : rectangles) {
+            boxes.accept(++id, r.getX(), r.getY(), r.getX() + r.getWidth(), r.getY() + r.getHeight());
+        }
+        return boxes;
+    }
+
+    /**
+     * @param batch the {@link RectangleBatch} to be buffered
+     * @return a buffer holding the box of each row, with the ids 1, 2, 3...
+     */
+    public static BoxBuffer of(RectangleBatch batch) {
+        BoxBuffer boxes = new BoxBuffer(batch.size());
+        for (int row = 0; row < batch.size(); row++) {
+            boxes.accept(row + 1L, batch.getX(row), batch.getY(row), batch.getRight(row), batch.getTop(row));
+        }
+        return boxes;
+    }
+
+    /**
+     * Reads a file of {@link Rectangle} in the binary wire format: 16 bytes little-endian records holding {@code x},
+     * {@code y}, {@code width} and {@code height} as int32.
+     *
+     * @param path the file to be read
+     * @return a buffer holding the box of each record, with the ids 1, 2, 3...
+     * @throws IOException if the file can't be read or isn't made of whole records
+     */
+    public static BoxBuffer read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            if (bytes % RECTANGLE_BYTES != 0 || bytes / RECTANGLE_BYTES > Integer.MAX_VALUE - 8) {
+                throw new IOException(path + " isn't a file of rectangle records");
+            }
+            BoxBuffer boxes = new BoxBuffer((int) (bytes / RECTANGLE_BYTES));
+            ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            long id = 0;
+            while (id * RECTANGLE_BYTES < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException(path + " was truncated while it was read");
+                }
+                buffer.flip();
+                while (buffer.remaining() >= RECTANGLE_BYTES) {
+                    int x = buffer.getInt();
+                    int y = buffer.getInt();
+                    int width = buffer.getInt();
+                    int height = buffer.getInt();
+                    boxes.accept(++id, x, y, x + width, y + height);
+                }
+                buffer.compact();
+            }
+            return boxes;
+        }
+    }
+
+    /**
+     * Adds a box to the buffer.
+     */
+    @Override
+    public void accept(long id, int x0, int y0, int x1, int y1) {
+        if (size == ids.length) {
+            grow();
+        }
+        ids[size] = id;
+        minX[size] = x0;
+        minY[size] = y0;
+        maxX[size] = x1;
+        maxY[size] = y1;
+        size++;
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, 2L * ids.length);
+        if (capacity == ids.length) {
+            throw new IllegalStateException("A buffer can't hold more than " + capacity + " boxes");
+        }
+        ids = Arrays.copyOf(ids, capacity);
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+    }
+
+    /**
+     * @return the number of boxes in the buffer
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Reports every box of the buffer, in the order they were added, which makes the buffer a
+     * {@link DatasetStatistics.Source}.
+     *
+     * @param consumer the callback receiving each box
+     */
+    public void scan(SpatialIndex.EntryConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(ids[i], minX[i], minY[i], maxX[i], maxY[i]);
+        }
+    }
+
+    /**
+     * Finds a box by id, in a buffer whose boxes were added in increasing order of id.
+     *
+     * @param id the id of the box
+     * @return the position of the box in the buffer, or a negative number if no box has the id
+     */
+    public int indexOf(long id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    // Getters
+    public long getId(int i) {
+        return ids[i];
+    }
+
+    public int getMinX(int i) {
+        return minX[i];
+    }
+
+    public int getMinY(int i) {
+        return minY[i];
+    }
+
+    public int getMaxX(int i) {
+        return maxX[i];
+    }
+
+    public int getMaxY(int i) {
+        return maxY[i];
+    }
+}
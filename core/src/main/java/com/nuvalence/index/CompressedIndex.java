@@ -0,0 +1,633 @@
+package com.nuvalence.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * {@link SpatialIndex} keeping its boxes compressed, for sets of boxes too large for the heap of the other indexes.
+ * <p>
+ * Boxes are ordered by the Hilbert key of their centers over the extent the index was created for, and cut into blocks
+ * of consecutive keys, holding {@value #BLOCK_ENTRIES} boxes when loaded and at most twice as many. A block is a
+ * bounding box and a byte array of columns of unsigned varints: the left and bottom edges of the boxes as offsets from
+ * the bounding box, then their widths, then their heights, then their ids in increasing order, as zigzag deltas from
+ * the previous id. Boxes near each other on the Hilbert curve are near each other in the plane, so the offsets and
+ * sizes take one or two bytes each, and a box takes about 9 bytes of heap, four times less than in an {@link RTree} or
+ * a {@link GridIndex}. Blocks are grouped by {@value #GROUP_BLOCKS} under a second level of bounding boxes.
+ * <p>
+ * Searches skip the groups and blocks whose bounding box doesn't touch the searched box, and decode the others; the id
+ * column is only decoded for blocks holding a match. Nearest entries are found best-first over the groups and blocks.
+ * Changes decode and encode again the block holding the key of the box, splitting it in two halves when it is full,
+ * so boxes inserted after a load stay as compact as the loaded ones. Boxes outside the extent are keyed as if they were
+ * on its edges, which keeps the index correct but makes their blocks larger. Searches may run concurrently with each
+ * other, but the index is otherwise not thread safe.
+ */
+public class CompressedIndex implements SpatialIndex {
+
+    static final int BLOCK_ENTRIES = 64;
+    static final int GROUP_BLOCKS = 64;
+    private static final int MAX_BLOCK_ENTRIES = 2 * BLOCK_ENTRIES;
+    private static final int MAX_GROUP_BLOCKS = 2 * GROUP_BLOCKS;
+    // bits of each coordinate of the centers in the Hilbert keys
+    private static final int KEY_BITS = 15;
+    // the most bytes an entry takes: four int offsets and a long delta, as varints
+    private static final int MAX_ENTRY_BYTES = 4 * 5 + 10;
+
+    // the extent of the keys, in doubled coordinates so centers are whole
+    private final long originX;
+    private final long originY;
+    private final double scaleX;
+    private final double scaleY;
+
+    private final List<Group> groups = new ArrayList<>();
+    private final Entries editing = new Entries();
+    private int size;
+
+    /**
+     * Creates an index keying boxes over the whole plane, which suits any boxes but compresses them less than an
+     * extent fitting them.
+     */
+    public CompressedIndex() {
+        this(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates an index keying boxes over an extent, which should hold most of the boxes to be indexed.
+     *
+     * @param minX the left edge of the extent
+     * @param minY the bottom edge of the extent
+     * @param maxX the right edge of the extent
+     * @param maxY the top edge of the extent
+     */
+    public CompressedIndex(int minX, int minY, int maxX, int maxY) {
+        originX = 2L * minX;
+        originY = 2L * minY;
+        scaleX = (1 << KEY_BITS) / (2.0 * maxX - 2.0 * minX + 1);
+        scaleY = (1 << KEY_BITS) / (2.0 * maxY - 2.0 * minY + 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of bytes of the encoded blocks, without the bounding boxes and the object headers
+     */
+    long encodedBytes() {
+        long bytes = 0;
+        for (Group group : groups) {
+            for (Block block : group.blocks) {
+                bytes += block.data.length;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the number of blocks of the index
+     */
+    int blocks() {
+        return groups.stream().mapToInt(group -> group.blocks.size()).sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        groups.clear();
+        size = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The boxes are sorted by key and cut into blocks of {@value #BLOCK_ENTRIES} boxes, so each block can take as many
+     * insertions before it splits.
+     */
+    @Override
+    public void load(BoxBuffer boxes) {
+        clear();
+        int count = boxes.size();
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (long) key(boxes.minX[i], boxes.minY[i], boxes.maxX[i], boxes.maxY[i]) << 32 | i;
+        }
+        Arrays.parallelSort(order);
+        Group group = null;
+        for (int start = 0; start < count; start += BLOCK_ENTRIES) {
+            editing.count = 0;
+            for (int k = start; k < Math.min(count, start + BLOCK_ENTRIES); k++) {
+                int i = (int) order[k];
+                editing.add(boxes.ids[i], boxes.minX[i], boxes.minY[i], boxes.maxX[i], boxes.maxY[i]);
+            }
+            if (group == null || group.blocks.size() == GROUP_BLOCKS) {
+                group = new Group();
+                groups.add(group);
+            }
+            Block block = new Block((int) (order[start] >>> 32));
+            editing.encode(block, 0, editing.count);
+            group.blocks.add(block);
+            group.include(block);
+        }
+        size = count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insert(long id, int x0, int y0, int x1, int y1) {
+        int key = key(x0, y0, x1, y1);
+        if (groups.isEmpty()) {
+            Group group = new Group();
+            group.blocks.add(new Block(key));
+            groups.add(group);
+        }
+        int g = groupOf(key);
+        Group group = groups.get(g);
+        int b = blockOf(group, key);
+        Block block = group.blocks.get(b);
+        // only the first block may be given a key below its own
+        block.firstKey = Math.min(block.firstKey, key);
+        editing.decode(block);
+        editing.add(id, x0, y0, x1, y1);
+        if (editing.count <= MAX_BLOCK_ENTRIES) {
+            editing.encode(block, 0, editing.count);
+            group.include(block);
+        } else {
+            editing.sortByKey(this);
+            int half = editing.count / 2;
+            Block upper = new Block(key(editing.x0[half], editing.y0[half], editing.x1[half], editing.y1[half]));
+            editing.encode(block, 0, half);
+            editing.encode(upper, half, editing.count);
+            group.blocks.add(b + 1, upper);
+            group.include(upper);
+            if (group.blocks.size() > MAX_GROUP_BLOCKS) {
+                Group split = new Group();
+                List<Block> moved = group.blocks.subList(group.blocks.size() / 2, group.blocks.size());
+                split.blocks.addAll(moved);
+                moved.clear();
+                group.bound();
+                split.bound();
+                groups.add(g + 1, split);
+            }
+        }
+        size++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean remove(long id, int x0, int y0, int x1, int y1) {
+        if (groups.isEmpty()) {
+            return false;
+        }
+        int key = key(x0, y0, x1, y1);
+        int g = groupOf(key);
+        int b = blockOf(groups.get(g), key);
+        while (true) {
+            Group group = groups.get(g);
+            Block block = group.blocks.get(b);
+            editing.decode(block);
+            int found = editing.indexOf(id, x0, y0, x1, y1);
+            if (found >= 0) {
+                editing.removeAt(found);
+                if (editing.count > 0) {
+                    editing.encode(block, 0, editing.count);
+                    group.bound();
+                } else if (group.blocks.size() > 1) {
+                    group.blocks.remove(b);
+                    group.bound();
+                } else {
+                    groups.remove(g);
+                }
+                size--;
+                return true;
+            }
+            // a split may leave boxes of the first key of a block at the end of the previous one
+            if (block.firstKey != key) {
+                return false;
+            }
+            if (b > 0) {
+                b--;
+            } else if (g > 0) {
+                g--;
+                b = groups.get(g).blocks.size() - 1;
+            } else {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void search(int x0, int y0, int x1, int y1, EntryConsumer consumer) {
+        Entries entries = null;
+        int[] matches = null;
+        for (Group group : groups) {
+            if (!group.touches(x0, y0, x1, y1)) {
+                continue;
+            }
+            for (Block block : group.blocks) {
+                if (!block.touches(x0, y0, x1, y1)) {
+                    continue;
+                }
+                if (entries == null) {
+                    entries = new Entries();
+                    matches = new int[MAX_BLOCK_ENTRIES];
+                }
+                int position = entries.decodeBoxes(block);
+                int count = 0;
+                for (int i = 0; i < entries.count; i++) {
+                    if (entries.x0[i] <= x1 && x0 <= entries.x1[i] && entries.y0[i] <= y1 && y0 <= entries.y1[i]) {
+                        matches[count++] = i;
+                    }
+                }
+                if (count > 0) {
+                    entries.decodeIds(block, position);
+                    for (int m = 0; m < count; m++) {
+                        int i = matches[m];
+                        consumer.accept(entries.ids[i], entries.x0[i], entries.y0[i], entries.x1[i], entries.y1[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Groups and blocks are visited in order of the distance of their bounding box, and the search stops at the first
+     * one farther away than the k nearest entries found so far.
+     */
+    @Override
+    public void nearest(NearestEntries nearest) {
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        for (Group group : groups) {
+            double distance = nearest.squaredDistance(group.minX, group.minY, group.maxX, group.maxY);
+            if (nearest.reaches(distance)) {
+                queue.add(new Candidate(distance, group, null));
+            }
+        }
+        Entries entries = null;
+        while (!queue.isEmpty()) {
+            Candidate candidate = queue.poll();
+            if (!nearest.reaches(candidate.distance)) {
+                return;
+            }
+            if (candidate.block == null) {
+                for (Block block : candidate.group.blocks) {
+                    double distance = nearest.squaredDistance(block.minX, block.minY, block.maxX, block.maxY);
+                    if (nearest.reaches(distance)) {
+                        queue.add(new Candidate(distance, null, block));
+                    }
+                }
+            } else {
+                if (entries == null) {
+                    entries = new Entries();
+                }
+                entries.decode(candidate.block);
+                for (int i = 0; i < entries.count; i++) {
+                    nearest.offer(entries.ids[i], entries.x0[i], entries.y0[i], entries.x1[i], entries.y1[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the Hilbert key of the center of a box, in the extent of the index
+     */
+    int key(int x0, int y0, int x1, int y1) {
+        int side = 1 << KEY_BITS;
+        int x = (int) Math.max(0, Math.min(side - 1, ((long) x0 + x1 - originX) * scaleX));
+        int y = (int) Math.max(0, Math.min(side - 1, ((long) y0 + y1 - originY) * scaleY));
+        return hilbert(x, y);
+    }
+
+    /**
+     * @return the distance along the Hilbert curve filling the square of side 2^{@value #KEY_BITS} of a cell
+     */
+    static int hilbert(int x, int y) {
+        int side = 1 << KEY_BITS;
+        int d = 0;
+        for (int s = side / 2; s > 0; s /= 2) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += s * s * ((3 * rx) ^ ry);
+            // rotates the quadrant so the curve within it starts and ends where the curve of the square does
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = side - 1 - x;
+                    y = side - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * @return the last group whose first key is at most the key, or the first group
+     */
+    private int groupOf(int key) {
+        int low = 1;
+        int high = groups.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (groups.get(middle).blocks.get(0).firstKey <= key) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * @return the last block of the group whose first key is at most the key, or the first block
+     */
+    private static int blockOf(Group group, int key) {
+        int low = 1;
+        int high = group.blocks.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (group.blocks.get(middle).firstKey <= key) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * Block of boxes whose keys are at least the first key, and at most the first key of the next block.
+     */
+    private static final class Block {
+        int firstKey;
+        int count;
+        int minX;
+        int minY;
+        int maxX;
+        int maxY;
+        byte[] data = new byte[0];
+
+        Block(int firstKey) {
+            this.firstKey = firstKey;
+        }
+
+        boolean touches(int x0, int y0, int x1, int y1) {
+            return minX <= x1 && x0 <= maxX && minY <= y1 && y0 <= maxY;
+        }
+    }
+
+    /**
+     * Consecutive blocks, with the box bounding them.
+     */
+    private static final class Group {
+        final List<Block> blocks = new ArrayList<>(GROUP_BLOCKS);
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+
+        void include(Block block) {
+            minX = Math.min(minX, block.minX);
+            minY = Math.min(minY, block.minY);
+            maxX = Math.max(maxX, block.maxX);
+            maxY = Math.max(maxY, block.maxY);
+        }
+
+        void bound() {
+            minX = Integer.MAX_VALUE;
+            minY = Integer.MAX_VALUE;
+            maxX = Integer.MIN_VALUE;
+            maxY = Integer.MIN_VALUE;
+            blocks.forEach(this::include);
+        }
+
+        boolean touches(int x0, int y0, int x1, int y1) {
+            return minX <= x1 && x0 <= maxX && minY <= y1 && y0 <= maxY;
+        }
+    }
+
+    /**
+     * Group or block to be visited by a nearest search.
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+        final double distance;
+        final Group group;
+        final Block block;
+
+        Candidate(double distance, Group group, Block block) {
+            this.distance = distance;
+            this.group = group;
+            this.block = block;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            return Double.compare(distance, other.distance);
+        }
+    }
+
+    /**
+     * Decoded entries of a block, in parallel arrays with room for one entry more than a full block.
+     */
+    private static final class Entries {
+        final long[] ids = new long[MAX_BLOCK_ENTRIES + 1];
+        final int[] x0 = new int[MAX_BLOCK_ENTRIES + 1];
+        final int[] y0 = new int[MAX_BLOCK_ENTRIES + 1];
+        final int[] x1 = new int[MAX_BLOCK_ENTRIES + 1];
+        final int[] y1 = new int[MAX_BLOCK_ENTRIES + 1];
+        int count;
+        private int cursor;
+        private byte[] buffer;
+        private int[] order;
+
+        void add(long id, int bx0, int by0, int bx1, int by1) {
+            ids[count] = id;
+            x0[count] = bx0;
+            y0[count] = by0;
+            x1[count] = bx1;
+            y1[count] = by1;
+            count++;
+        }
+
+        int indexOf(long id, int bx0, int by0, int bx1, int by1) {
+            for (int i = 0; i < count; i++) {
+                if (ids[i] == id && x0[i] == bx0 && y0[i] == by0 && x1[i] == bx1 && y1[i] == by1) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void removeAt(int i) {
+            count--;
+            ids[i] = ids[count];
+            x0[i] = x0[count];
+            y0[i] = y0[count];
+            x1[i] = x1[count];
+            y1[i] = y1[count];
+        }
+
+        void sortByKey(CompressedIndex index) {
+            long[] order = new long[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = (long) index.key(x0[i], y0[i], x1[i], y1[i]) << 32 | i;
+            }
+            Arrays.sort(order);
+            long[] sortedIds = new long[count];
+            int[][] sorted = new int[4][count];
+            for (int k = 0; k < count; k++) {
+                int i = (int) order[k];
+                sortedIds[k] = ids[i];
+                sorted[0][k] = x0[i];
+                sorted[1][k] = y0[i];
+                sorted[2][k] = x1[i];
+                sorted[3][k] = y1[i];
+            }
+            System.arraycopy(sortedIds, 0, ids, 0, count);
+            System.arraycopy(sorted[0], 0, x0, 0, count);
+            System.arraycopy(sorted[1], 0, y0, 0, count);
+            System.arraycopy(sorted[2], 0, x1, 0, count);
+            System.arraycopy(sorted[3], 0, y1, 0, count);
+        }
+
+        /**
+         * Encodes the entries from one position to another into a block, bounding them. The entries are written in
+         * order of id, so the deltas between ids are as small as they can be.
+         */
+        void encode(Block block, int from, int to) {
+            int minX = Integer.MAX_VALUE;
+            int minY = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE;
+            int maxY = Integer.MIN_VALUE;
+            for (int i = from; i < to; i++) {
+                minX = Math.min(minX, x0[i]);
+                minY = Math.min(minY, y0[i]);
+                maxX = Math.max(maxX, x1[i]);
+                maxY = Math.max(maxY, y1[i]);
+            }
+            if (buffer == null) {
+                buffer = new byte[(MAX_BLOCK_ENTRIES + 1) * MAX_ENTRY_BYTES];
+                order = new int[MAX_BLOCK_ENTRIES + 1];
+            }
+            int count = to - from;
+            for (int k = 0; k < count; k++) {
+                int i = from + k;
+                int j = k;
+                while (j > 0 && ids[order[j - 1]] > ids[i]) {
+                    order[j] = order[j - 1];
+                    j--;
+                }
+                order[j] = i;
+            }
+            int position = 0;
+            for (int k = 0; k < count; k++) {
+                position = write(buffer, position, (long) x0[order[k]] - minX);
+            }
+            for (int k = 0; k < count; k++) {
+                position = write(buffer, position, (long) y0[order[k]] - minY);
+            }
+            for (int k = 0; k < count; k++) {
+                position = write(buffer, position, (long) x1[order[k]] - x0[order[k]]);
+            }
+            for (int k = 0; k < count; k++) {
+                position = write(buffer, position, (long) y1[order[k]] - y0[order[k]]);
+            }
+            long previous = 0;
+            for (int k = 0; k < count; k++) {
+                long delta = ids[order[k]] - previous;
+                position = write(buffer, position, delta << 1 ^ delta >> 63);
+                previous = ids[order[k]];
+            }
+            block.count = count;
+            block.minX = minX;
+            block.minY = minY;
+            block.maxX = maxX;
+            block.maxY = maxY;
+            block.data = Arrays.copyOf(buffer, position);
+        }
+
+        void decode(Block block) {
+            decodeIds(block, decodeBoxes(block));
+        }
+
+        /**
+         * Decodes the boxes of a block.
+         *
+         * @return the position of the id column in the data of the block
+         */
+        int decodeBoxes(Block block) {
+            byte[] data = block.data;
+            count = block.count;
+            cursor = 0;
+            for (int i = 0; i < count; i++) {
+                x0[i] = (int) (block.minX + read(data));
+            }
+            for (int i = 0; i < count; i++) {
+                y0[i] = (int) (block.minY + read(data));
+            }
+            for (int i = 0; i < count; i++) {
+                x1[i] = (int) (x0[i] + read(data));
+            }
+            for (int i = 0; i < count; i++) {
+                y1[i] = (int) (y0[i] + read(data));
+            }
+            return cursor;
+        }
+
+        void decodeIds(Block block, int position) {
+            byte[] data = block.data;
+            cursor = position;
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                long delta = read(data);
+                previous += delta >>> 1 ^ -(delta & 1);
+                ids[i] = previous;
+            }
+        }
+
+        /**
+         * Reads the unsigned varint at the cursor, and moves the cursor after it.
+         */
+        private long read(byte[] data) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[cursor++];
+                value |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    /**
+     * Writes an unsigned varint.
+     *
+     * @return the position after it
+     */
+    private static int write(byte[] buffer, int position, long value) {
+        while ((value & ~0x7fL) != 0) {
+            buffer[position++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+}
@@ -0,0 +1,169 @@
+package com.nuvalence.index;
+
+/**
+ * Summary of a set of boxes, used by {@link IndexStrategy} to pick the {@link SpatialIndex} that suits them: their
+ * extent, the distribution of their sizes, and how unevenly they are spread over the extent.
+ */
+public class DatasetStatistics {
+
+    /**
+     * Source of the boxes to be summarized, which must report the same boxes each time it is scanned.
+     */
+    @FunctionalInterface
+    public interface Source {
+        void scan(SpatialIndex.EntryConsumer consumer);
+    }
+
+    static final int MAX_HISTOGRAM_SIDE = 32;
+    // expected boxes per histogram bin when they are spread evenly, so that random noise stays small against skew
+    static final int BOXES_PER_BIN = 16;
+
+    private long count;
+    private int minX = Integer.MAX_VALUE;
+    private int minY = Integer.MAX_VALUE;
+    private int maxX = Integer.MIN_VALUE;
+    private int maxY = Integer.MIN_VALUE;
+    private double meanWidth;
+    private double meanHeight;
+    private double widthVariation;
+    private double heightVariation;
+    private double skew;
+
+    private DatasetStatistics() {
+    }
+
+    /**
+     * Summarizes the boxes of a source, scanning it twice: once for the extent and sizes, and once to count the box
+     * centers falling in each bin of a histogram over the extent.
+     *
+     * @param source the boxes to be summarized
+     * @return the statistics of the boxes
+     */
+    public static DatasetStatistics of(Source source) {
+        DatasetStatistics statistics = new DatasetStatistics();
+        double[] sums = new double[4];
+        source.scan((id, x0, y0, x1, y1) -> {
+            statistics.count++;
+            statistics.minX = Math.min(statistics.minX, x0);
+            statistics.minY = Math.min(statistics.minY, y0);
+            statistics.maxX = Math.max(statistics.maxX, x1);
+            statistics.maxY = Math.max(statistics.maxY, y1);
+            double width = (double) x1 - x0;
+            double height = (double) y1 - y0;
+            sums[0] += width;
+            sums[1] += width * width;
+            sums[2] += height;
+            sums[3] += height * height;
+        });
+        long n = statistics.count;
+        if (n == 0) {
+            return statistics;
+        }
+        statistics.meanWidth = sums[0] / n;
+        statistics.meanHeight = sums[2] / n;
+        statistics.widthVariation = variation(statistics.meanWidth, sums[1] / n);
+        statistics.heightVariation = variation(statistics.meanHeight, sums[3] / n);
+
+        int side = (int) Math.max(1, Math.min(MAX_HISTOGRAM_SIDE, Math.sqrt((double) n / BOXES_PER_BIN)));
+        double binWidth = ((double) statistics.maxX - statistics.minX + 1) / side;
+        double binHeight = ((double) statistics.maxY - statistics.minY + 1) / side;
+        long[] bins = new long[side * side];
+        source.scan((id, x0, y0, x1, y1) -> {
+            int bx = Math.min(side - 1, (int) (((x0 + (double) x1) / 2 - statistics.minX) / binWidth));
+            int by = Math.min(side - 1, (int) (((y0 + (double) y1) / 2 - statistics.minY) / binHeight));
+            bins[by * side + bx]++;
+        });
+        double mean = (double) n / bins.length;
+        double squares = 0;
+        for (long bin : bins) {
+            squares += (double) bin * bin;
+        }
+        statistics.skew = variation(mean, squares / bins.length);
+        return statistics;
+    }
+
+    /**
+     * @return the coefficient of variation, the standard deviation over the mean, or 0 if the mean is 0
+     */
+    private static double variation(double mean, double meanOfSquares) {
+        return mean == 0 ? 0 : Math.sqrt(Math.max(0, meanOfSquares - mean * mean)) / mean;
+    }
+
+    /**
+     * @return the number of boxes
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the smallest left edge of the boxes
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    /**
+     * @return the smallest bottom edge of the boxes
+     */
+    public int getMinY() {
+        return minY;
+    }
+
+    /**
+     * @return the largest right edge of the boxes
+     */
+    public int getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * @return the largest top edge of the boxes
+     */
+    public int getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * @return the mean width of the boxes
+     */
+    public double getMeanWidth() {
+        return meanWidth;
+    }
+
+    /**
+     * @return the mean height of the boxes
+     */
+    public double getMeanHeight() {
+        return meanHeight;
+    }
+
+    /**
+     * @return the coefficient of variation of the widths, 0 when they are all the same
+     */
+    public double getWidthVariation() {
+        return widthVariation;
+    }
+
+    /**
+     * @return the coefficient of variation of the heights, 0 when they are all the same
+     */
+    public double getHeightVariation() {
+        return heightVariation;
+    }
+
+    /**
+     * @return the coefficient of variation of the number of box centers in each bin of a histogram over the extent,
+     * with bins holding {@value #BOXES_PER_BIN} boxes on average: about 0.25 when the boxes are spread evenly, and
+     * higher the more they are clustered
+     */
+    public double getSkew() {
+        return skew;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d boxes over [%d, %d]x[%d, %d], mean size %.1fx%.1f, size variation %.2fx%.2f, skew %.2f",
+                count, minX, maxX, minY, maxY, meanWidth, meanHeight, widthVariation, heightVariation, skew);
+    }
+}
@@ -0,0 +1,555 @@
+package com.nuvalence.index;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid of boxes identified by a long id, hashing each cell to the list of entries whose box covers it, so only
+ * the occupied cells take memory.
+ * <p>
+ * An entry is listed in every cell its box covers, and a search only reports it from the first cell, in x then y order,
+ * that it shares with the searched cells, so each entry is reported once without remembering what was reported. Boxes
+ * covering more than {@value #MAX_ENTRY_CELLS} cells are kept apart in a list scanned by every search instead, so a
+ * few large boxes don't fill the grid. A cell is freed as soon as its last entry is removed, so the table only holds
+ * the occupied cells however the boxes move.
+ * <p>
+ * Nearest entries are found ring by ring: first in the cells covered by the searched box, then in the rings of cells
+ * around them, until the next ring is farther away than the k nearest entries found so far. An entry is only offered
+ * from its cell in the first ring it reaches, for the same reason.
+ * <p>
+ * It is faster than an {@link RTree} when the boxes have similar sizes and are spread evenly, with cells about as large
+ * as the boxes; {@link IndexStrategy} picks it in that case. Boxes are closed, as for any {@link SpatialIndex}. The
+ * grid is not thread safe.
+ */
+public class GridIndex implements SpatialIndex {
+
+    public static final int MIN_CELL_SIZE = 4;
+    static final int MAX_ENTRY_CELLS = 64;
+    private static final int INITIAL_CELL_ENTRIES = 4;
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+
+    private final int originX;
+    private final int originY;
+    private final int cellWidth;
+    private final int cellHeight;
+
+    // entries, in parallel arrays; removed entries are chained into a free list through their x0
+    private long[] ids = new long[16];
+    private int[] minX = new int[16];
+    private int[] minY = new int[16];
+    private int[] maxX = new int[16];
+    private int[] maxY = new int[16];
+    private int entryCount;
+    private int freeEntry = -1;
+    private int size;
+
+    // open addressing hash table from the cell key to the cell number, with the key and entry list of each cell;
+    // cell numbers are kept dense, the last cell taking the number of a freed one
+    private long[] keys;
+    private int[] cellNumbers;
+    private long[] cellKeys;
+    private int[][] cellEntries;
+    private int[] cellSizes;
+    private int cellCount;
+
+    // range of the occupied cells, widened as cells are added, and recomputed once as many cells were freed as remain
+    // occupied, so it is never much larger than the occupied cells and costs O(1) amortized per freed cell
+    private int minCellX;
+    private int minCellY;
+    private int maxCellX;
+    private int maxCellY;
+    private int freedCells;
+
+    private int[] largeEntries = new int[16];
+    private int largeCount;
+
+    /**
+     * Default Constructor.
+     *
+     * @param originX    the left edge of the cell (0, 0)
+     * @param originY    the bottom edge of the cell (0, 0)
+     * @param cellWidth  the width of the cells, {@value #MIN_CELL_SIZE} or more
+     * @param cellHeight the height of the cells, {@value #MIN_CELL_SIZE} or more
+     */
+    public GridIndex(int originX, int originY, int cellWidth, int cellHeight) {
+        if (cellWidth < MIN_CELL_SIZE || cellHeight < MIN_CELL_SIZE) {
+            throw new IllegalArgumentException("Cells must be at least " + MIN_CELL_SIZE + " wide and high");
+        }
+        this.originX = originX;
+        this.originY = originY;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        clear();
+    }
+
+    /**
+     * @return the width of the cells
+     */
+    public int getCellWidth() {
+        return cellWidth;
+    }
+
+    /**
+     * @return the height of the cells
+     */
+    public int getCellHeight() {
+        return cellHeight;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of cells holding at least one entry
+     */
+    int cellCount() {
+        return cellCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        keys = new long[64];
+        Arrays.fill(keys, EMPTY_KEY);
+        cellNumbers = new int[64];
+        cellKeys = new long[32];
+        cellEntries = new int[32][];
+        cellSizes = new int[32];
+        cellCount = 0;
+        computeExtents();
+        entryCount = 0;
+        freeEntry = -1;
+        largeCount = 0;
+        size = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insert(long id, int x0, int y0, int x1, int y1) {
+        int entry = newEntry(id, x0, y0, x1, y1);
+        int cx0 = cellX(x0);
+        int cy0 = cellY(y0);
+        int cx1 = cellX(x1);
+        int cy1 = cellY(y1);
+        if (cells(cx0, cy0, cx1, cy1) > MAX_ENTRY_CELLS) {
+            if (largeCount == largeEntries.length) {
+                largeEntries = Arrays.copyOf(largeEntries, largeCount * 2);
+            }
+            largeEntries[largeCount++] = entry;
+        } else {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                for (int cy = cy0; cy <= cy1; cy++) {
+                    addToCell(cell(key(cx, cy), true), entry);
+                }
+            }
+        }
+        size++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean remove(long id, int x0, int y0, int x1, int y1) {
+        int cx0 = cellX(x0);
+        int cy0 = cellY(y0);
+        int cx1 = cellX(x1);
+        int cy1 = cellY(y1);
+        int entry;
+        if (cells(cx0, cy0, cx1, cy1) > MAX_ENTRY_CELLS) {
+            int i = find(largeEntries, largeCount, id, x0, y0, x1, y1);
+            if (i < 0) {
+                return false;
+            }
+            entry = largeEntries[i];
+            largeEntries[i] = largeEntries[--largeCount];
+        } else {
+            int first = cell(key(cx0, cy0), false);
+            int i = first < 0 ? -1 : find(cellEntries[first], cellSizes[first], id, x0, y0, x1, y1);
+            if (i < 0) {
+                return false;
+            }
+            entry = cellEntries[first][i];
+            for (int cx = cx0; cx <= cx1; cx++) {
+                for (int cy = cy0; cy <= cy1; cy++) {
+                    removeFromCell(cell(key(cx, cy), false), entry);
+                }
+            }
+        }
+        minX[entry] = freeEntry;
+        freeEntry = entry;
+        size--;
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void search(int x0, int y0, int x1, int y1, EntryConsumer consumer) {
+        for (int i = 0; i < largeCount; i++) {
+            report(largeEntries[i], x0, y0, x1, y1, consumer);
+        }
+        int cx0 = cellX(x0);
+        int cy0 = cellY(y0);
+        int cx1 = cellX(x1);
+        int cy1 = cellY(y1);
+        if (cells(cx0, cy0, cx1, cy1) <= cellCount) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                for (int cy = cy0; cy <= cy1; cy++) {
+                    int cell = cell(key(cx, cy), false);
+                    if (cell >= 0) {
+                        search(cell, cx, cy, cx0, cy0, x0, y0, x1, y1, consumer);
+                    }
+                }
+            }
+        } else {
+            // the searched box covers more cells than there are occupied ones, so they are looked at instead
+            for (int slot = 0; slot < keys.length; slot++) {
+                long key = keys[slot];
+                if (key != EMPTY_KEY) {
+                    int cx = (int) (key >> 32);
+                    int cy = (int) key;
+                    if (cx0 <= cx && cx <= cx1 && cy0 <= cy && cy <= cy1) {
+                        search(cellNumbers[slot], cx, cy, cx0, cy0, x0, y0, x1, y1, consumer);
+                    }
+                }
+            }
+        }
+    }
+
+    private void search(int cell, int cx, int cy, int cx0, int cy0, int x0, int y0, int x1, int y1,
+                        EntryConsumer consumer) {
+        int[] entries = cellEntries[cell];
+        for (int i = 0, n = cellSizes[cell]; i < n; i++) {
+            int entry = entries[i];
+            // only the first cell shared by the entry and the searched cells reports it
+            if (cx == Math.max(cellX(minX[entry]), cx0) && cy == Math.max(cellY(minY[entry]), cy0)) {
+                report(entry, x0, y0, x1, y1, consumer);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void nearest(NearestEntries nearest) {
+        for (int i = 0; i < largeCount; i++) {
+            int entry = largeEntries[i];
+            nearest.offer(ids[entry], minX[entry], minY[entry], maxX[entry], maxY[entry]);
+        }
+        if (cellCount == 0) {
+            return;
+        }
+        int cx0 = cellX(nearest.getX0());
+        int cy0 = cellY(nearest.getY0());
+        int cx1 = cellX(nearest.getX1());
+        int cy1 = cellY(nearest.getY1());
+        // rings up to the first one reaching an occupied cell are empty, and the last one covers them all
+        long first = ring(cx0, cy0, cx1, cy1, minCellX, minCellY, maxCellX, maxCellY);
+        long last = Math.max(Math.max((long) cx0 - minCellX, (long) maxCellX - cx1),
+                Math.max((long) cy0 - minCellY, (long) maxCellY - cy1));
+        double step = Math.min(cellWidth, cellHeight);
+        for (long r = first; r <= last; r++) {
+            // cells of ring r are more than r - 1 cells away from the searched box
+            double gap = Math.max(0, r - 1) * step;
+            if (!nearest.reaches(gap * gap)) {
+                return;
+            }
+            long x0 = Math.max(minCellX, cx0 - r);
+            long y0 = Math.max(minCellY, cy0 - r);
+            long x1 = Math.min(maxCellX, cx1 + r);
+            long y1 = Math.min(maxCellY, cy1 + r);
+            if ((x1 - x0 + 1) * (y1 - y0 + 1) > cellCount) {
+                // the ring spans more cells than are occupied, so the occupied cells of this and later rings are
+                // looked at instead, all at once
+                for (int slot = 0; slot < keys.length; slot++) {
+                    long key = keys[slot];
+                    if (key != EMPTY_KEY && ring(cx0, cy0, cx1, cy1, (int) (key >> 32), (int) key,
+                            (int) (key >> 32), (int) key) >= r) {
+                        offer(cellNumbers[slot], (int) (key >> 32), (int) key, cx0, cy0, cx1, cy1, nearest);
+                    }
+                }
+                return;
+            }
+            if (r == 0) {
+                offer(x0, y0, x1, y1, cx0, cy0, cx1, cy1, nearest);
+            } else {
+                // the bottom and top rows of the ring, then its left and right columns between them
+                offer(x0, cy0 - r, x1, Math.min(y1, cy0 - r), cx0, cy0, cx1, cy1, nearest);
+                offer(x0, Math.max(y0, cy1 + r), x1, cy1 + r, cx0, cy0, cx1, cy1, nearest);
+                long inner0 = Math.max(y0, cy0 - r + 1);
+                long inner1 = Math.min(y1, cy1 + r - 1);
+                offer(cx0 - r, inner0, Math.min(x1, cx0 - r), inner1, cx0, cy0, cx1, cy1, nearest);
+                offer(Math.max(x0, cx1 + r), inner0, cx1 + r, inner1, cx0, cy0, cx1, cy1, nearest);
+            }
+        }
+    }
+
+    /**
+     * Offers the entries of the occupied cells in [x0, x1] x [y0, y1].
+     */
+    private void offer(long x0, long y0, long x1, long y1, int cx0, int cy0, int cx1, int cy1,
+                       NearestEntries nearest) {
+        for (long cx = Math.max(x0, minCellX), ex = Math.min(x1, maxCellX); cx <= ex; cx++) {
+            for (long cy = Math.max(y0, minCellY), ey = Math.min(y1, maxCellY); cy <= ey; cy++) {
+                int cell = cell(key((int) cx, (int) cy), false);
+                if (cell >= 0) {
+                    offer(cell, (int) cx, (int) cy, cx0, cy0, cx1, cy1, nearest);
+                }
+            }
+        }
+    }
+
+    /**
+     * Offers the entries of a cell that are offered from it: those whose first cell in the first ring they reach
+     * around the searched cells is this one.
+     */
+    private void offer(int cell, int cx, int cy, int cx0, int cy0, int cx1, int cy1, NearestEntries nearest) {
+        int[] entries = cellEntries[cell];
+        for (int i = 0, n = cellSizes[cell]; i < n; i++) {
+            int entry = entries[i];
+            int ex0 = cellX(minX[entry]);
+            int ey0 = cellY(minY[entry]);
+            long r = ring(cx0, cy0, cx1, cy1, ex0, ey0, cellX(maxX[entry]), cellY(maxY[entry]));
+            if (cx == Math.max(ex0, cx0 - r) && cy == Math.max(ey0, cy0 - r)) {
+                nearest.offer(ids[entry], minX[entry], minY[entry], maxX[entry], maxY[entry]);
+            }
+        }
+    }
+
+    /**
+     * @return the index of the first ring of cells around [cx0, cx1] x [cy0, cy1] that reaches the given range of
+     * cells, 0 if the ranges share a cell
+     */
+    private static long ring(int cx0, int cy0, int cx1, int cy1, int ex0, int ey0, int ex1, int ey1) {
+        return Math.max(Math.max(0, Math.max((long) cx0 - ex1, (long) ex0 - cx1)),
+                Math.max((long) cy0 - ey1, (long) ey0 - cy1));
+    }
+
+    private void report(int entry, int x0, int y0, int x1, int y1, EntryConsumer consumer) {
+        if (minX[entry] <= x1 && x0 <= maxX[entry] && minY[entry] <= y1 && y0 <= maxY[entry]) {
+            consumer.accept(ids[entry], minX[entry], minY[entry], maxX[entry], maxY[entry]);
+        }
+    }
+
+    private int find(int[] entries, int count, long id, int x0, int y0, int x1, int y1) {
+        for (int i = 0; i < count; i++) {
+            int entry = entries[i];
+            if (ids[entry] == id && minX[entry] == x0 && minY[entry] == y0 && maxX[entry] == x1 && maxY[entry] == y1) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int newEntry(long id, int x0, int y0, int x1, int y1) {
+        int entry;
+        if (freeEntry >= 0) {
+            entry = freeEntry;
+            freeEntry = minX[entry];
+        } else {
+            if (entryCount == ids.length) {
+                int capacity = entryCount * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                minX = Arrays.copyOf(minX, capacity);
+                minY = Arrays.copyOf(minY, capacity);
+                maxX = Arrays.copyOf(maxX, capacity);
+                maxY = Arrays.copyOf(maxY, capacity);
+            }
+            entry = entryCount++;
+        }
+        ids[entry] = id;
+        minX[entry] = x0;
+        minY[entry] = y0;
+        maxX[entry] = x1;
+        maxY[entry] = y1;
+        return entry;
+    }
+
+    private void addToCell(int cell, int entry) {
+        int[] entries = cellEntries[cell];
+        int count = cellSizes[cell];
+        if (entries == null) {
+            entries = cellEntries[cell] = new int[INITIAL_CELL_ENTRIES];
+        } else if (count == entries.length) {
+            entries = cellEntries[cell] = Arrays.copyOf(entries, count * 2);
+        }
+        entries[count] = entry;
+        cellSizes[cell] = count + 1;
+    }
+
+    private void removeFromCell(int cell, int entry) {
+        int[] entries = cellEntries[cell];
+        int last = --cellSizes[cell];
+        for (int i = 0; i <= last; i++) {
+            if (entries[i] == entry) {
+                entries[i] = entries[last];
+                break;
+            }
+        }
+        if (last == 0) {
+            freeCell(cell);
+        }
+    }
+
+    /**
+     * Removes an empty cell from the table, giving its number to the last cell.
+     */
+    private void freeCell(int cell) {
+        deleteSlot(slot(cellKeys[cell]));
+        int last = --cellCount;
+        if (cell != last) {
+            cellKeys[cell] = cellKeys[last];
+            cellEntries[cell] = cellEntries[last];
+            cellSizes[cell] = cellSizes[last];
+            cellNumbers[slot(cellKeys[cell])] = cell;
+        }
+        cellEntries[last] = null;
+        cellSizes[last] = 0;
+        if (cellEntries.length > 32 && cellCount * 4 < cellEntries.length) {
+            cellKeys = Arrays.copyOf(cellKeys, cellEntries.length / 2);
+            cellEntries = Arrays.copyOf(cellEntries, cellEntries.length / 2);
+            cellSizes = Arrays.copyOf(cellSizes, cellSizes.length / 2);
+        }
+        if (keys.length > 64 && cellCount * 8 < keys.length) {
+            rehash(keys.length / 2);
+        } else if (++freedCells > cellCount) {
+            computeExtents();
+        }
+    }
+
+    /**
+     * Empties a slot of the table, shifting back the keys after it that would no longer be found past the hole, so no
+     * tombstone is left behind.
+     */
+    private void deleteSlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        for (int next = (slot + 1) & mask; keys[next] != EMPTY_KEY; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            // the key can fill the hole unless its home slot lies after the hole, up to the key
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                cellNumbers[hole] = cellNumbers[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY_KEY;
+    }
+
+    private void computeExtents() {
+        minCellX = Integer.MAX_VALUE;
+        minCellY = Integer.MAX_VALUE;
+        maxCellX = Integer.MIN_VALUE;
+        maxCellY = Integer.MIN_VALUE;
+        for (int cell = 0; cell < cellCount; cell++) {
+            widenExtents(cellKeys[cell]);
+        }
+        freedCells = 0;
+    }
+
+    private void widenExtents(long key) {
+        int cx = (int) (key >> 32);
+        int cy = (int) key;
+        minCellX = Math.min(minCellX, cx);
+        minCellY = Math.min(minCellY, cy);
+        maxCellX = Math.max(maxCellX, cx);
+        maxCellY = Math.max(maxCellY, cy);
+    }
+
+    /**
+     * @return the slot holding the key, or the empty slot where it would be added
+     */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY_KEY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Looks the cell with the given key up, adding it if asked to.
+     *
+     * @return the cell number, or -1 if the cell isn't in the table and wasn't added
+     */
+    private int cell(long key, boolean add) {
+        int slot = slot(key);
+        if (keys[slot] == key) {
+            return cellNumbers[slot];
+        }
+        if (!add) {
+            return -1;
+        }
+        if (cellCount == cellEntries.length) {
+            cellKeys = Arrays.copyOf(cellKeys, cellCount * 2);
+            cellEntries = Arrays.copyOf(cellEntries, cellCount * 2);
+            cellSizes = Arrays.copyOf(cellSizes, cellCount * 2);
+        }
+        keys[slot] = key;
+        cellNumbers[slot] = cellCount;
+        cellKeys[cellCount] = key;
+        widenExtents(key);
+        if (++cellCount * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return cellCount - 1;
+    }
+
+    /**
+     * Moves the keys to a table of the given capacity, and recomputes the range of the occupied cells.
+     */
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldNumbers = cellNumbers;
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+        cellNumbers = new int[keys.length];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                cellNumbers[slot] = oldNumbers[i];
+            }
+        }
+        computeExtents();
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // cells of at least MIN_CELL_SIZE keep the cell coordinates within +/-2^30, so no key equals EMPTY_KEY
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    private static long cells(int cx0, int cy0, int cx1, int cy1) {
+        return ((long) cx1 - cx0 + 1) * ((long) cy1 - cy0 + 1);
+    }
+
+    private int cellX(int x) {
+        return (int) Math.floorDiv((long) x - originX, cellWidth);
+    }
+
+    private int cellY(int y) {
+        return (int) Math.floorDiv((long) y - originY, cellHeight);
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.nuvalence.index;
+
+/**
+ * Kinds of {@link SpatialIndex}, created from the {@link DatasetStatistics} of the boxes they will hold.
+ */
+public enum IndexStrategy {
+
+    /**
+     * Picks {@link #COMPRESSED} for sets of at least {@value #MIN_COMPRESSED_COUNT} boxes, too large for the heap
+     * taken by the other indexes, {@link #GRID} for large sets of boxes with similar sizes spread evenly over their
+     * extent, where a grid finds the candidates of a search with a few cell lookups, and {@link #RTREE} otherwise.
+     */
+    AUTO {
+        @Override
+        public SpatialIndex create(DatasetStatistics statistics) {
+            if (statistics.getCount() >= MIN_COMPRESSED_COUNT) {
+                return COMPRESSED.create(statistics);
+            }
+            return favorsGrid(statistics) ? GRID.create(statistics) : RTREE.create(statistics);
+        }
+    },
+
+    /**
+     * An {@link RTree}, which adapts to any distribution of boxes.
+     */
+    RTREE {
+        @Override
+        public SpatialIndex create(DatasetStatistics statistics) {
+            return new RTree();
+        }
+    },
+
+    /**
+     * A {@link GridIndex} with cells twice as large as the average box, or large enough to hold a few boxes each if
+     * the boxes are smaller than their spacing.
+     */
+    GRID {
+        @Override
+        public SpatialIndex create(DatasetStatistics statistics) {
+            if (statistics.getCount() == 0) {
+                return new GridIndex(0, 0, GridIndex.MIN_CELL_SIZE, GridIndex.MIN_CELL_SIZE);
+            }
+            double area = ((double) statistics.getMaxX() - statistics.getMinX())
+                    * ((double) statistics.getMaxY() - statistics.getMinY());
+            double spacing = Math.sqrt(area * BOXES_PER_CELL / statistics.getCount());
+            return new GridIndex(statistics.getMinX(), statistics.getMinY(),
+                    cellSize(statistics.getMeanWidth(), spacing), cellSize(statistics.getMeanHeight(), spacing));
+        }
+    },
+
+    /**
+     * A {@link CompressedIndex} keyed over the extent of the boxes, which holds them in several times less memory than
+     * the other indexes, at the cost of slower searches and changes.
+     */
+    COMPRESSED {
+        @Override
+        public SpatialIndex create(DatasetStatistics statistics) {
+            if (statistics.getCount() == 0) {
+                return new CompressedIndex();
+            }
+            return new CompressedIndex(statistics.getMinX(), statistics.getMinY(), statistics.getMaxX(),
+                    statistics.getMaxY());
+        }
+    };
+
+    /**
+     * The smallest number of boxes for which {@link #AUTO} picks a grid; below it, any index is fast enough.
+     */
+    public static final long MIN_GRID_COUNT = 1024;
+    /**
+     * The smallest number of boxes for which {@link #AUTO} picks a compressed index.
+     */
+    public static final long MIN_COMPRESSED_COUNT = 1 << 24;
+    static final double MAX_GRID_SIZE_VARIATION = 0.75;
+    static final double MAX_GRID_SKEW = 1.0;
+    static final double BOXES_PER_CELL = 4;
+
+    /**
+     * @param statistics the statistics of the boxes to be indexed
+     * @return an empty index suited to the boxes
+     */
+    public abstract SpatialIndex create(DatasetStatistics statistics);
+
+    static boolean favorsGrid(DatasetStatistics statistics) {
+        return statistics.getCount() >= MIN_GRID_COUNT
+                && statistics.getWidthVariation() <= MAX_GRID_SIZE_VARIATION
+                && statistics.getHeightVariation() <= MAX_GRID_SIZE_VARIATION
+                && statistics.getSkew() <= MAX_GRID_SKEW;
+    }
+
+    private static int cellSize(double meanSize, double spacing) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(GridIndex.MIN_CELL_SIZE, Math.max(2 * meanSize, spacing)));
+    }
+}
@@ -0,0 +1,220 @@
+package com.nuvalence.index;
+
+import java.util.Arrays;
+
+/**
+ * Bounded collection of the k entries nearest to a searched box among the entries offered to it, used by
+ * {@link SpatialIndex#nearest} to prune the parts of an index that can't hold any nearer entry.
+ * <p>
+ * Entries are ranked by their squared distance to the searched box, then by id, so ties are broken the same way
+ * whatever the index and the order entries are offered in. They are kept in a binary max-heap on that rank, so the
+ * entry to be evicted is always at the top.
+ */
+public class NearestEntries {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int k;
+    private final int x0;
+    private final int y0;
+    private final int x1;
+    private final int y1;
+    // kept entries in parallel arrays, grown up to k as entries are offered
+    private double[] distances;
+    private long[] ids;
+    private int[] minX;
+    private int[] minY;
+    private int[] maxX;
+    private int[] maxY;
+    private int size;
+
+    /**
+     * Default Constructor.
+     *
+     * @param k  the number of entries to keep, 1 or more
+     * @param x0 the left edge of the searched box
+     * @param y0 the bottom edge of the searched box
+     * @param x1 the right edge of the searched box
+     * @param y1 the top edge of the searched box
+     */
+    public NearestEntries(int k, int x0, int y0, int x1, int y1) {
+        if (k < 1) {
+            throw new IllegalArgumentException("At least one entry must be kept");
+        }
+        this.k = k;
+        this.x0 = x0;
+        this.y0 = y0;
+        this.x1 = x1;
+        this.y1 = y1;
+        int capacity = Math.min(k, INITIAL_CAPACITY);
+        distances = new double[capacity];
+        ids = new long[capacity];
+        minX = new int[capacity];
+        minY = new int[capacity];
+        maxX = new int[capacity];
+        maxY = new int[capacity];
+    }
+
+    /**
+     * @return the squared Euclidean distance between the closest points of two closed boxes, 0 if they share a point
+     */
+    public static double squaredDistance(int ax0, int ay0, int ax1, int ay1, int bx0, int by0, int bx1, int by1) {
+        double dx = Math.max(0, Math.max((long) bx0 - ax1, (long) ax0 - bx1));
+        double dy = Math.max(0, Math.max((long) by0 - ay1, (long) ay0 - by1));
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * @return the squared distance between the searched box and the given box
+     */
+    public double squaredDistance(int x0, int y0, int x1, int y1) {
+        return squaredDistance(this.x0, this.y0, this.x1, this.y1, x0, y0, x1, y1);
+    }
+
+    /**
+     * @return the left edge of the searched box
+     */
+    public int getX0() {
+        return x0;
+    }
+
+    /**
+     * @return the bottom edge of the searched box
+     */
+    public int getY0() {
+        return y0;
+    }
+
+    /**
+     * @return the right edge of the searched box
+     */
+    public int getX1() {
+        return x1;
+    }
+
+    /**
+     * @return the top edge of the searched box
+     */
+    public int getY1() {
+        return y1;
+    }
+
+    /**
+     * @return the number of entries kept
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Tells whether boxes at the given squared distance from the searched box may still be kept. Parts of an index
+     * whose boxes are all farther away can be skipped.
+     *
+     * @param squaredDistance the smallest squared distance of the boxes to be offered
+     * @return false if k entries nearer than that are already kept; true otherwise
+     */
+    public boolean reaches(double squaredDistance) {
+        return size < k || squaredDistance <= distances[0];
+    }
+
+    /**
+     * Keeps an entry if it is among the k nearest entries offered so far.
+     *
+     * @param id the entry id
+     * @param x0 the left edge of the entry box
+     * @param y0 the bottom edge of the entry box
+     * @param x1 the right edge of the entry box
+     * @param y1 the top edge of the entry box
+     */
+    public void offer(long id, int x0, int y0, int x1, int y1) {
+        double distance = squaredDistance(x0, y0, x1, y1);
+        if (size < k) {
+            if (size == ids.length) {
+                grow();
+            }
+            set(size, distance, id, x0, y0, x1, y1);
+            siftUp(size++);
+        } else if (before(distance, id, 0)) {
+            set(0, distance, id, x0, y0, x1, y1);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Reports the entries kept, nearest first, and ties by id.
+     *
+     * @param consumer the callback receiving each entry
+     */
+    public void report(SpatialIndex.EntryConsumer consumer) {
+        Integer[] order = new Integer[size];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> before(distances[a], ids[a], b) ? -1 : before(distances[b], ids[b], a) ? 1 : 0);
+        for (int i : order) {
+            consumer.accept(ids[i], minX[i], minY[i], maxX[i], maxY[i]);
+        }
+    }
+
+    private void set(int position, double distance, long id, int x0, int y0, int x1, int y1) {
+        distances[position] = distance;
+        ids[position] = id;
+        minX[position] = x0;
+        minY[position] = y0;
+        maxX[position] = x1;
+        maxY[position] = y1;
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min(k, 2L * ids.length);
+        distances = Arrays.copyOf(distances, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+    }
+
+    /**
+     * @return true if an entry ranks before the one at the given heap position
+     */
+    private boolean before(double distance, long id, int position) {
+        return distance < distances[position] || distance == distances[position] && id < ids[position];
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!before(distances[parent], ids[parent], position)) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int largest = position;
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                if (before(distances[largest], ids[largest], child)) {
+                    largest = child;
+                }
+            }
+            if (largest == position) {
+                return;
+            }
+            swap(position, largest);
+            position = largest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        double distance = distances[a];
+        long id = ids[a];
+        int x0 = minX[a];
+        int y0 = minY[a];
+        int x1 = maxX[a];
+        int y1 = maxY[a];
+        set(a, distances[b], ids[b], minX[b], minY[b], maxX[b], maxY[b]);
+        set(b, distance, id, x0, y0, x1, y1);
+    }
+}
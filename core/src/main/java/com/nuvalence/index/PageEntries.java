@@ -0,0 +1,158 @@
+package com.nuvalence.index;
+
+import java.util.Arrays;
+
+/**
+ * Bounded collection of the entries with the smallest ids after a cursor among the entries offered to it, so a page of
+ * the results of a search can be found in any order while keeping at most one page in memory.
+ * <p>
+ * Entries are kept in a binary max-heap on their id, so the entry to be evicted is always at the top, and are reported
+ * by increasing id. The last id reported is the cursor of the next page, since ids are stable.
+ */
+public class PageEntries {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final long after;
+    private final int limit;
+    // kept entries in parallel arrays, grown up to the limit as entries are offered
+    private long[] ids;
+    private int[] minX;
+    private int[] minY;
+    private int[] maxX;
+    private int[] maxY;
+    private int size;
+    private boolean more;
+
+    /**
+     * Default Constructor.
+     *
+     * @param after the cursor: only entries with a larger id are kept
+     * @param limit the number of entries to keep, 1 or more
+     */
+    public PageEntries(long after, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("At least one entry must be kept");
+        }
+        this.after = after;
+        this.limit = limit;
+        int capacity = Math.min(limit, INITIAL_CAPACITY);
+        ids = new long[capacity];
+        minX = new int[capacity];
+        minY = new int[capacity];
+        maxX = new int[capacity];
+        maxY = new int[capacity];
+    }
+
+    /**
+     * @return the number of entries kept
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if entries after the cursor were offered but not kept, so there is a next page; false otherwise
+     */
+    public boolean hasMore() {
+        return more;
+    }
+
+    /**
+     * Keeps an entry if its id is after the cursor and among the smallest ones offered so far.
+     *
+     * @param id the entry id
+     * @param x0 the left edge of the entry box
+     * @param y0 the bottom edge of the entry box
+     * @param x1 the right edge of the entry box
+     * @param y1 the top edge of the entry box
+     */
+    public void offer(long id, int x0, int y0, int x1, int y1) {
+        if (id <= after) {
+            return;
+        }
+        if (size < limit) {
+            if (size == ids.length) {
+                grow();
+            }
+            set(size, id, x0, y0, x1, y1);
+            siftUp(size++);
+        } else {
+            more = true;
+            if (id < ids[0]) {
+                set(0, id, x0, y0, x1, y1);
+                siftDown(0, size);
+            }
+        }
+    }
+
+    /**
+     * Reports the entries kept by increasing id. The entries are sorted in place, so none may be offered afterwards.
+     *
+     * @param consumer the callback receiving each entry
+     */
+    public void report(SpatialIndex.EntryConsumer consumer) {
+        // heapsort: moving the largest id after the heap each time leaves the ids increasing
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        for (int i = 0; i < size; i++) {
+            consumer.accept(ids[i], minX[i], minY[i], maxX[i], maxY[i]);
+        }
+    }
+
+    private void set(int position, long id, int x0, int y0, int x1, int y1) {
+        ids[position] = id;
+        minX[position] = x0;
+        minY[position] = y0;
+        maxX[position] = x1;
+        maxY[position] = y1;
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min(limit, 2L * ids.length);
+        ids = Arrays.copyOf(ids, capacity);
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (ids[parent] >= ids[position]) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position, int heapSize) {
+        while (true) {
+            int largest = position;
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < heapSize; child++) {
+                if (ids[child] > ids[largest]) {
+                    largest = child;
+                }
+            }
+            if (largest == position) {
+                return;
+            }
+            swap(position, largest);
+            position = largest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long id = ids[a];
+        int x0 = minX[a];
+        int y0 = minY[a];
+        int x1 = maxX[a];
+        int y1 = maxY[a];
+        set(a, ids[b], minX[b], minY[b], maxX[b], maxY[b]);
+        set(b, id, x0, y0, x1, y1);
+    }
+}
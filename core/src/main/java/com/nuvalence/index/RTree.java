@@ -0,0 +1,603 @@
+package com.nuvalence.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * R-tree of boxes identified by a long id, using the R*-tree insertion strategy: subtrees are chosen by least overlap
+ * enlargement near the leaves, overflowing nodes first try forced reinsertion, and splits pick the axis with the
+ * smallest margin and then the distribution with the smallest overlap.
+ * <p>
+ * It adapts to any distribution of boxes, which makes it the default {@link SpatialIndex}. Nearest entries are found
+ * best-first: nodes are visited in order of their distance to the searched box, and the search stops at the first node
+ * farther away than the k nearest entries found so far.
+ * <p>
+ * A known set of boxes is loaded with Sort-Tile-Recursive packing rather than inserted one at a time: the boxes are
+ * sorted by the x of their center, cut into vertical slices of about the square root of the number of leaves, and each
+ * slice is sorted by the y of the centers and cut into full leaves. The leaves are packed into the upper levels the
+ * same way. The sorts run in parallel, and the packed nodes overlap much less than the nodes left by insertions.
+ */
+public class RTree implements SpatialIndex {
+
+    static final int MAX_ENTRIES = 16;
+    static final int MIN_ENTRIES = 6;
+    static final int REINSERT_ENTRIES = 5;
+    // boxes below which the slices of a load are sorted by the calling thread alone
+    static final int PARALLEL_LOAD = 1 << 14;
+
+    private Node root = new Node(0);
+    private int size;
+
+    // levels that already had a forced reinsertion during the current insertion
+    private long reinsertedLevels;
+    private final List<Node> pendingNodes = new ArrayList<>();
+    private final List<Integer> pendingSlots = new ArrayList<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of levels of the tree, 1 when the root is a leaf
+     */
+    public int height() {
+        return root.level + 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        root = new Node(0);
+        size = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insert(long id, int x0, int y0, int x1, int y1) {
+        reinsertedLevels = 0;
+        Node carrier = new Node(0);
+        carrier.add(id, null, x0, y0, x1, y1);
+        insertSlot(carrier, 0, 0);
+        // entries evicted by forced reinsertion are inserted again from the root, at their original level
+        while (!pendingNodes.isEmpty()) {
+            int last = pendingNodes.size() - 1;
+            Node node = pendingNodes.remove(last);
+            int slot = pendingSlots.remove(last);
+            insertSlot(node, slot, node.level);
+        }
+        size++;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The tree is packed with Sort-Tile-Recursive, each node but the last ones of the slices holding
+     * {@value #MAX_ENTRIES} entries.
+     */
+    @Override
+    public void load(BoxBuffer boxes) {
+        int count = boxes.size();
+        int[] order = new int[count];
+        int[] starts = tile(boxes.minX, boxes.minY, boxes.maxX, boxes.maxY, count, order);
+        List<Node> level = new ArrayList<>(starts.length - 1);
+        for (int n = 0; n + 1 < starts.length; n++) {
+            Node leaf = new Node(0);
+            for (int k = starts[n]; k < starts[n + 1]; k++) {
+                int i = order[k];
+                leaf.add(boxes.ids[i], null, boxes.minX[i], boxes.minY[i], boxes.maxX[i], boxes.maxY[i]);
+            }
+            level.add(leaf);
+        }
+        while (level.size() > 1) {
+            level = pack(level);
+        }
+        root = level.isEmpty() ? new Node(0) : level.get(0);
+        size = count;
+    }
+
+    /**
+     * Packs the nodes of a level into the nodes of the level above.
+     */
+    private static List<Node> pack(List<Node> nodes) {
+        int count = nodes.size();
+        int[] minX = new int[count];
+        int[] minY = new int[count];
+        int[] maxX = new int[count];
+        int[] maxY = new int[count];
+        for (int i = 0; i < count; i++) {
+            Node node = nodes.get(i);
+            minX[i] = node.boundsMinX();
+            minY[i] = node.boundsMinY();
+            maxX[i] = node.boundsMaxX();
+            maxY[i] = node.boundsMaxY();
+        }
+        int[] order = new int[count];
+        int[] starts = tile(minX, minY, maxX, maxY, count, order);
+        List<Node> parents = new ArrayList<>(starts.length - 1);
+        for (int n = 0; n + 1 < starts.length; n++) {
+            Node parent = new Node(nodes.get(0).level + 1);
+            for (int k = starts[n]; k < starts[n + 1]; k++) {
+                int i = order[k];
+                parent.add(0, nodes.get(i), minX[i], minY[i], maxX[i], maxY[i]);
+            }
+            parents.add(parent);
+        }
+        return parents;
+    }
+
+    /**
+     * Orders boxes into the nodes of one level with Sort-Tile-Recursive. Within a slice, the entries are spread evenly
+     * over its nodes, so only a slice holding fewer than {@value #MAX_ENTRIES} entries has a node below
+     * {@value #MIN_ENTRIES} entries.
+     *
+     * @param order receives the positions of the boxes, node after node
+     * @return the position in the order where each node starts, followed by the number of boxes
+     */
+    private static int[] tile(int[] minX, int[] minY, int[] maxX, int[] maxY, int count, int[] order) {
+        int nodes = (count + MAX_ENTRIES - 1) / MAX_ENTRIES;
+        int slices = (int) Math.ceil(Math.sqrt(nodes));
+        long sliceEntries = (long) ((nodes + slices - 1) / Math.max(slices, 1)) * MAX_ENTRIES;
+        // the center goes in the high half of each key and the position in the low half, so sorting the keys sorts
+        // the positions by center
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = (long) center(minX[i], maxX[i]) << 32 | i;
+        }
+        Arrays.parallelSort(keys);
+        int[] sliceStarts = new int[slices + 1];
+        for (int s = 0; s <= slices; s++) {
+            sliceStarts[s] = (int) Math.min(count, s * sliceEntries);
+        }
+        IntStream range = IntStream.range(0, slices);
+        (count >= PARALLEL_LOAD ? range.parallel() : range).forEach(s -> {
+            for (int k = sliceStarts[s]; k < sliceStarts[s + 1]; k++) {
+                int i = (int) keys[k];
+                keys[k] = (long) center(minY[i], maxY[i]) << 32 | i;
+            }
+            Arrays.sort(keys, sliceStarts[s], sliceStarts[s + 1]);
+        });
+        int[] starts = new int[nodes + 1];
+        int node = 0;
+        for (int s = 0; s < slices; s++) {
+            int from = sliceStarts[s];
+            int entries = sliceStarts[s + 1] - from;
+            int sliceNodes = (entries + MAX_ENTRIES - 1) / MAX_ENTRIES;
+            for (int j = 0; j < sliceNodes; j++) {
+                starts[node++] = from + (int) ((long) j * entries / sliceNodes);
+            }
+        }
+        starts[node] = count;
+        for (int k = 0; k < count; k++) {
+            order[k] = (int) keys[k];
+        }
+        return Arrays.copyOf(starts, node + 1);
+    }
+
+    private static int center(int min, int max) {
+        return (int) (((long) min + max) >> 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean remove(long id, int x0, int y0, int x1, int y1) {
+        List<Node> orphans = new ArrayList<>();
+        if (!remove(root, id, x0, y0, x1, y1, orphans)) {
+            return false;
+        }
+        size--;
+        while (!root.isLeaf() && root.count == 1) {
+            root = root.children[0];
+        }
+        if (root.count == 0) {
+            root = new Node(0);
+        }
+        for (Node orphan : orphans) {
+            reinsertLeaves(orphan);
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void search(int x0, int y0, int x1, int y1, EntryConsumer consumer) {
+        search(root, x0, y0, x1, y1, consumer);
+    }
+
+    private void search(Node node, int x0, int y0, int x1, int y1, EntryConsumer consumer) {
+        for (int i = 0; i < node.count; i++) {
+            if (node.minX[i] <= x1 && x0 <= node.maxX[i] && node.minY[i] <= y1 && y0 <= node.maxY[i]) {
+                if (node.isLeaf()) {
+                    consumer.accept(node.ids[i], node.minX[i], node.minY[i], node.maxX[i], node.maxY[i]);
+                } else {
+                    search(node.children[i], x0, y0, x1, y1, consumer);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void nearest(NearestEntries nearest) {
+        PriorityQueue<Visit> queue = new PriorityQueue<>(Comparator.comparingDouble(visit -> visit.distance));
+        queue.add(new Visit(root, 0));
+        while (!queue.isEmpty()) {
+            Visit visit = queue.poll();
+            // every node left is at least as far away, so none can hold a nearer entry
+            if (!nearest.reaches(visit.distance)) {
+                return;
+            }
+            Node node = visit.node;
+            for (int i = 0; i < node.count; i++) {
+                if (node.isLeaf()) {
+                    nearest.offer(node.ids[i], node.minX[i], node.minY[i], node.maxX[i], node.maxY[i]);
+                } else {
+                    double distance = nearest.squaredDistance(node.minX[i], node.minY[i], node.maxX[i], node.maxY[i]);
+                    if (nearest.reaches(distance)) {
+                        queue.add(new Visit(node.children[i], distance));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts the entry held at the given slot of the source node into a node of the given level.
+     */
+    private void insertSlot(Node source, int slot, int level) {
+        Node sibling = insert(root, source, slot, level);
+        if (sibling != null) {
+            Node newRoot = new Node(root.level + 1);
+            newRoot.addChild(root);
+            newRoot.addChild(sibling);
+            root = newRoot;
+        }
+    }
+
+    /**
+     * Recursive insertion step. Returns the node split off from the given node, if it had to be split.
+     */
+    private Node insert(Node node, Node source, int slot, int level) {
+        if (node.level == level) {
+            node.addFrom(source, slot);
+        } else {
+            int best = chooseSubtree(node, source.minX[slot], source.minY[slot], source.maxX[slot], source.maxY[slot]);
+            Node child = node.children[best];
+            Node sibling = insert(child, source, slot, level);
+            node.updateBounds(best);
+            if (sibling == null) {
+                return null;
+            }
+            node.addChild(sibling);
+        }
+        return node.count > MAX_ENTRIES ? overflow(node) : null;
+    }
+
+    private Node overflow(Node node) {
+        long levelBit = 1L << node.level;
+        if (node != root && (reinsertedLevels & levelBit) == 0) {
+            reinsertedLevels |= levelBit;
+            forceReinsert(node);
+            return null;
+        }
+        return split(node);
+    }
+
+    /**
+     * Evicts the entries whose centers are farthest from the node center, to be inserted again from the root.
+     */
+    private void forceReinsert(Node node) {
+        long cx = (long) node.boundsMinX() + node.boundsMaxX();
+        long cy = (long) node.boundsMinY() + node.boundsMaxY();
+        double[] distance = new double[node.count];
+        Integer[] order = new Integer[node.count];
+        for (int i = 0; i < node.count; i++) {
+            double dx = (double) node.minX[i] + node.maxX[i] - cx;
+            double dy = (double) node.minY[i] + node.maxY[i] - cy;
+            distance[i] = dx * dx + dy * dy;
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(distance[a], distance[b]));
+
+        Node evicted = new Node(node.level);
+        Node kept = new Node(node.level);
+        for (int k = 0; k < node.count; k++) {
+            (k < node.count - REINSERT_ENTRIES ? kept : evicted).addFrom(node, order[k]);
+        }
+        node.copyFrom(kept);
+        // closest entries are reinserted first
+        for (int k = evicted.count - 1; k >= 0; k--) {
+            pendingNodes.add(evicted);
+            pendingSlots.add(k);
+        }
+    }
+
+    private Node split(Node node) {
+        int n = node.count;
+        Integer[][] byX = sortedEntries(node, node.minX, node.maxX);
+        Integer[][] byY = sortedEntries(node, node.minY, node.maxY);
+        Integer[][] axis = marginSum(node, byX) <= marginSum(node, byY) ? byX : byY;
+
+        Integer[] bestOrder = null;
+        int bestSplit = -1;
+        double bestOverlap = Double.POSITIVE_INFINITY;
+        double bestArea = Double.POSITIVE_INFINITY;
+        for (Integer[] order : axis) {
+            for (int k = MIN_ENTRIES; k <= n - MIN_ENTRIES; k++) {
+                long[] a = bounds(node, order, 0, k);
+                long[] b = bounds(node, order, k, n);
+                double overlap = area(Math.max(a[0], b[0]), Math.max(a[1], b[1]), Math.min(a[2], b[2]), Math.min(a[3], b[3]));
+                double area = area(a[0], a[1], a[2], a[3]) + area(b[0], b[1], b[2], b[3]);
+                if (overlap < bestOverlap || (overlap == bestOverlap && area < bestArea)) {
+                    bestOverlap = overlap;
+                    bestArea = area;
+                    bestOrder = order;
+                    bestSplit = k;
+                }
+            }
+        }
+
+        Node first = new Node(node.level);
+        Node second = new Node(node.level);
+        for (int k = 0; k < n; k++) {
+            (k < bestSplit ? first : second).addFrom(node, bestOrder[k]);
+        }
+        node.copyFrom(first);
+        return second;
+    }
+
+    /**
+     * Returns the entry positions sorted by lower and by upper coordinate on one axis.
+     */
+    private static Integer[][] sortedEntries(Node node, int[] lower, int[] upper) {
+        Integer[] byLower = new Integer[node.count];
+        for (int i = 0; i < node.count; i++) {
+            byLower[i] = i;
+        }
+        Integer[] byUpper = byLower.clone();
+        Arrays.sort(byLower, (a, b) -> lower[a] != lower[b] ? Integer.compare(lower[a], lower[b]) : Integer.compare(upper[a], upper[b]));
+        Arrays.sort(byUpper, (a, b) -> upper[a] != upper[b] ? Integer.compare(upper[a], upper[b]) : Integer.compare(lower[a], lower[b]));
+        return new Integer[][]{byLower, byUpper};
+    }
+
+    private static double marginSum(Node node, Integer[][] orders) {
+        double sum = 0;
+        int n = node.count;
+        for (Integer[] order : orders) {
+            for (int k = MIN_ENTRIES; k <= n - MIN_ENTRIES; k++) {
+                long[] a = bounds(node, order, 0, k);
+                long[] b = bounds(node, order, k, n);
+                sum += (a[2] - a[0]) + (a[3] - a[1]) + (b[2] - b[0]) + (b[3] - b[1]);
+            }
+        }
+        return sum;
+    }
+
+    private static long[] bounds(Node node, Integer[] order, int from, int to) {
+        long[] b = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE};
+        for (int k = from; k < to; k++) {
+            int i = order[k];
+            b[0] = Math.min(b[0], node.minX[i]);
+            b[1] = Math.min(b[1], node.minY[i]);
+            b[2] = Math.max(b[2], node.maxX[i]);
+            b[3] = Math.max(b[3], node.maxY[i]);
+        }
+        return b;
+    }
+
+    private static double area(long x0, long y0, long x1, long y1) {
+        return x1 <= x0 || y1 <= y0 ? 0 : (double) (x1 - x0) * (y1 - y0);
+    }
+
+    private static int chooseSubtree(Node node, int x0, int y0, int x1, int y1) {
+        boolean pointsToLeaves = node.level == 1;
+        int best = 0;
+        double bestOverlap = Double.POSITIVE_INFINITY;
+        double bestEnlargement = Double.POSITIVE_INFINITY;
+        double bestArea = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < node.count; i++) {
+            long ex0 = Math.min(node.minX[i], x0);
+            long ey0 = Math.min(node.minY[i], y0);
+            long ex1 = Math.max(node.maxX[i], x1);
+            long ey1 = Math.max(node.maxY[i], y1);
+            double area = area(node.minX[i], node.minY[i], node.maxX[i], node.maxY[i]);
+            double enlargement = area(ex0, ey0, ex1, ey1) - area;
+            double overlap = 0;
+            if (pointsToLeaves) {
+                for (int j = 0; j < node.count; j++) {
+                    if (j != i) {
+                        overlap += area(Math.max(ex0, node.minX[j]), Math.max(ey0, node.minY[j]),
+                                Math.min(ex1, node.maxX[j]), Math.min(ey1, node.maxY[j]))
+                                - area(Math.max(node.minX[i], node.minX[j]), Math.max(node.minY[i], node.minY[j]),
+                                Math.min(node.maxX[i], node.maxX[j]), Math.min(node.maxY[i], node.maxY[j]));
+                    }
+                }
+            }
+            if (overlap < bestOverlap
+                    || (overlap == bestOverlap && enlargement < bestEnlargement)
+                    || (overlap == bestOverlap && enlargement == bestEnlargement && area < bestArea)) {
+                best = i;
+                bestOverlap = overlap;
+                bestEnlargement = enlargement;
+                bestArea = area;
+            }
+        }
+        return best;
+    }
+
+    private boolean remove(Node node, long id, int x0, int y0, int x1, int y1, List<Node> orphans) {
+        for (int i = 0; i < node.count; i++) {
+            if (node.isLeaf()) {
+                if (node.ids[i] == id && node.minX[i] == x0 && node.minY[i] == y0 && node.maxX[i] == x1 && node.maxY[i] == y1) {
+                    node.removeAt(i);
+                    return true;
+                }
+            } else if (node.minX[i] <= x0 && node.minY[i] <= y0 && x1 <= node.maxX[i] && y1 <= node.maxY[i]) {
+                Node child = node.children[i];
+                if (remove(child, id, x0, y0, x1, y1, orphans)) {
+                    if (child.count < MIN_ENTRIES) {
+                        node.removeAt(i);
+                        orphans.add(child);
+                    } else {
+                        node.updateBounds(i);
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void reinsertLeaves(Node node) {
+        for (int i = 0; i < node.count; i++) {
+            if (node.isLeaf()) {
+                insert(node.ids[i], node.minX[i], node.minY[i], node.maxX[i], node.maxY[i]);
+                size--;
+            } else {
+                reinsertLeaves(node.children[i]);
+            }
+        }
+    }
+
+    /**
+     * A node waiting to be visited by a nearest entries search, with the squared distance of its box.
+     */
+    private static final class Visit {
+        final Node node;
+        final double distance;
+
+        Visit(Node node, double distance) {
+            this.node = node;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * A node holds up to {@link #MAX_ENTRIES} entries, plus one while it overflows. Leaf entries are ids, inner node
+     * entries are child nodes, and each entry keeps its box in the parallel coordinate arrays.
+     */
+    private static final class Node {
+        final int level;
+        int count;
+        final int[] minX = new int[MAX_ENTRIES + 1];
+        final int[] minY = new int[MAX_ENTRIES + 1];
+        final int[] maxX = new int[MAX_ENTRIES + 1];
+        final int[] maxY = new int[MAX_ENTRIES + 1];
+        final long[] ids;
+        final Node[] children;
+
+        Node(int level) {
+            this.level = level;
+            this.ids = level == 0 ? new long[MAX_ENTRIES + 1] : null;
+            this.children = level == 0 ? null : new Node[MAX_ENTRIES + 1];
+        }
+
+        boolean isLeaf() {
+            return level == 0;
+        }
+
+        void add(long id, Node child, int x0, int y0, int x1, int y1) {
+            if (isLeaf()) {
+                ids[count] = id;
+            } else {
+                children[count] = child;
+            }
+            minX[count] = x0;
+            minY[count] = y0;
+            maxX[count] = x1;
+            maxY[count] = y1;
+            count++;
+        }
+
+        void addFrom(Node source, int slot) {
+            add(source.isLeaf() ? source.ids[slot] : 0, source.isLeaf() ? null : source.children[slot],
+                    source.minX[slot], source.minY[slot], source.maxX[slot], source.maxY[slot]);
+        }
+
+        void addChild(Node child) {
+            add(0, child, child.boundsMinX(), child.boundsMinY(), child.boundsMaxX(), child.boundsMaxY());
+        }
+
+        void updateBounds(int slot) {
+            Node child = children[slot];
+            minX[slot] = child.boundsMinX();
+            minY[slot] = child.boundsMinY();
+            maxX[slot] = child.boundsMaxX();
+            maxY[slot] = child.boundsMaxY();
+        }
+
+        void removeAt(int slot) {
+            int last = --count;
+            if (isLeaf()) {
+                ids[slot] = ids[last];
+            } else {
+                children[slot] = children[last];
+                children[last] = null;
+            }
+            minX[slot] = minX[last];
+            minY[slot] = minY[last];
+            maxX[slot] = maxX[last];
+            maxY[slot] = maxY[last];
+        }
+
+        void copyFrom(Node other) {
+            count = 0;
+            for (int i = 0; i < other.count; i++) {
+                addFrom(other, i);
+            }
+            if (!isLeaf()) {
+                Arrays.fill(children, count, children.length, null);
+            }
+        }
+
+        int boundsMinX() {
+            int m = Integer.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                m = Math.min(m, minX[i]);
+            }
+            return m;
+        }
+
+        int boundsMinY() {
+            int m = Integer.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                m = Math.min(m, minY[i]);
+            }
+            return m;
+        }
+
+        int boundsMaxX() {
+            int m = Integer.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                m = Math.max(m, maxX[i]);
+            }
+            return m;
+        }
+
+        int boundsMaxY() {
+            int m = Integer.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                m = Math.max(m, maxY[i]);
+            }
+            return m;
+        }
+    }
+
+}
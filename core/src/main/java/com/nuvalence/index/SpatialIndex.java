@@ -0,0 +1,86 @@
+package com.nuvalence.index;
+
+/**
+ * Index of boxes identified by a long id, answering which boxes share at least one point with a searched box, and which
+ * boxes are nearest to it.
+ * <p>
+ * Boxes are closed: box (x0, y0, x1, y1) spans [x0, x1] horizontally and [y0, y1] vertically, so searches also report
+ * boxes that only touch the searched box. Every relation between rectangles implies that they share a point, so
+ * callers refine the boxes found with the exact predicates. Implementations are not thread safe.
+ */
+public interface SpatialIndex {
+
+    /**
+     * Callback receiving the entries found by a search.
+     */
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long id, int x0, int y0, int x1, int y1);
+    }
+
+    /**
+     * @return the number of entries in the index
+     */
+    int size();
+
+    /**
+     * Removes every entry from the index.
+     */
+    void clear();
+
+    /**
+     * Adds an entry to the index. Ids are not required to be unique, but {@link #remove} needs both the id and the
+     * box to find an entry.
+     *
+     * @param id the entry id
+     * @param x0 the left edge of the entry box
+     * @param y0 the bottom edge of the entry box
+     * @param x1 the right edge of the entry box
+     * @param y1 the top edge of the entry box
+     */
+    void insert(long id, int x0, int y0, int x1, int y1);
+
+    /**
+     * Replaces the entries of the index with the boxes of a {@link BoxBuffer}, which is left unchanged. By default,
+     * the boxes are inserted one at a time; indexes that can build themselves faster from a known set of boxes
+     * override it.
+     *
+     * @param boxes the boxes to be indexed
+     */
+    default void load(BoxBuffer boxes) {
+        clear();
+        boxes.scan(this::insert);
+    }
+
+    /**
+     * Removes an entry from the index.
+     *
+     * @param id the entry id
+     * @param x0 the left edge of the entry box
+     * @param y0 the bottom edge of the entry box
+     * @param x1 the right edge of the entry box
+     * @param y1 the top edge of the entry box
+     * @return true if the entry was found and removed; false otherwise
+     */
+    boolean remove(long id, int x0, int y0, int x1, int y1);
+
+    /**
+     * Reports every entry whose box shares at least one point with the searched box, each one once.
+     *
+     * @param x0       the left edge of the searched box
+     * @param y0       the bottom edge of the searched box
+     * @param x1       the right edge of the searched box
+     * @param y1       the top edge of the searched box
+     * @param consumer the callback receiving each entry found
+     */
+    void search(int x0, int y0, int x1, int y1, EntryConsumer consumer);
+
+    /**
+     * Offers the entries nearest to the searched box of a {@link NearestEntries} to it, so that it ends up holding the
+     * nearest of them, skipping the parts of the index it can't keep any entry from. Entries it already holds from
+     * elsewhere are taken into account.
+     *
+     * @param nearest the {@link NearestEntries} receiving the entries
+     */
+    void nearest(NearestEntries nearest);
+}
@@ -0,0 +1,87 @@
+package com.nuvalence.model;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A Coverage describes the area covered by a set of {@link Rectangle}: the area of their union, the area covered by at
+ * least {@code k} of them, and the outline of that k-covered region.
+ * <p>
+ * The outline is a list of closed rings, each given as the coordinates of its corners in the form of x0, y0, x1, y1...,
+ * without repeating the first corner. Rings keep the covered region on their left, so outer boundaries run
+ * counterclockwise and the boundaries of holes run clockwise.
+ *
+ * @author Thiago Puluceno <puluceno@gmail.com>
+ */
+public class Coverage {
+    private final int k;
+    private final long unionArea;
+    private final long coveredArea;
+    private final List<List<Integer>> outline;
+
+    /**
+     * Default constructor.
+     *
+     * @param k           the number of {@link Rectangle} a point must be covered by to count in coveredArea
+     * @param unionArea   the area covered by at least one {@link Rectangle}
+     * @param coveredArea the area covered by at least k {@link Rectangle}
+     * @param outline     the rings outlining the area covered by at least k {@link Rectangle}
+     */
+    public Coverage(int k, long unionArea, long coveredArea, List<List<Integer>> outline) {
+        this.k = k;
+        this.unionArea = unionArea;
+        this.coveredArea = coveredArea;
+        this.outline = outline;
+    }
+
+    // Getters
+    public int getK() {
+        return k;
+    }
+
+    public long getUnionArea() {
+        return unionArea;
+    }
+
+    public long getCoveredArea() {
+        return coveredArea;
+    }
+
+    public List<List<Integer>> getOutline() {
+        return outline;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Coverage that = (Coverage) o;
+        return k == that.k && unionArea == that.unionArea && coveredArea == that.coveredArea
+                && outline.equals(that.outline);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(k, unionArea, coveredArea, outline);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "Coverage{" +
+                "k=" + k +
+                ", unionArea=" + unionArea +
+                ", coveredArea=" + coveredArea +
+                ", outline=" + outline +
+                '}';
+    }
+
+}
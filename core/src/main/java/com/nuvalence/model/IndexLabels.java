@@ -0,0 +1,49 @@
+package com.nuvalence.model;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * An IndexLabels holds one int value per element of a list of {@link Rectangle}, such as the cluster of each one or
+ * the position of its parent in the nesting forest, along with the number of groups the values describe, so the
+ * result of a batch operation is neither boxed up front nor scanned again to be counted.
+ *
+ * @author Thiago Puluceno <puluceno@gmail.com>
+ */
+public final class IndexLabels extends AbstractList<Integer> implements RandomAccess {
+    private final int[] labels;
+    private final int groups;
+
+    /**
+     * Default constructor.
+     *
+     * @param labels the value of each element, which the list keeps without copying
+     * @param groups the number of groups: the clusters, or the roots of the nesting forest
+     */
+    public IndexLabels(int[] labels, int groups) {
+        this.labels = labels;
+        this.groups = groups;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer get(int index) {
+        return labels[index];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return labels.length;
+    }
+
+    // Getters
+    public int getGroups() {
+        return groups;
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.nuvalence.model;
+
+/**
+ * An IndexPair identifies two elements of a list of {@link Rectangle} by their positions, and is used to report the
+ * pairs matched by the batch operations.
+ *
+ * @author Thiago Puluceno <puluceno@gmail.com>
+ */
+public class IndexPair implements Comparable<IndexPair> {
+    private final int first;
+    private final int second;
+
+    /**
+     * Default constructor.
+     *
+     * @param first  the index of the first {@link Rectangle} of the pair
+     * @param second the index of the second {@link Rectangle} of the pair
+     */
+    public IndexPair(int first, int second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    // Getters
+    public int getFirst() {
+        return first;
+    }
+
+    public int getSecond() {
+        return second;
+    }
+
+    /**
+     * Orders pairs by their first index, then by their second index.
+     */
+    @Override
+    public int compareTo(IndexPair o) {
+        int c = Integer.compare(first, o.first);
+        return c != 0 ? c : Integer.compare(second, o.second);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IndexPair indexPair = (IndexPair) o;
+        return first == indexPair.first && second == indexPair.second;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return 31 * first + second;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "IndexPair{" +
+                "first=" + first +
+                ", second=" + second +
+                '}';
+    }
+
+}
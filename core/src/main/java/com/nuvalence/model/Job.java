@@ -0,0 +1,109 @@
+package com.nuvalence.model;
+
+import java.util.Objects;
+
+/**
+ * A Job describes, at a point in time, a {@link JobOperation} run in the background over a list of {@link Rectangle}:
+ * its state, the fraction of the {@link Rectangle} already swept, and once it succeeded the number of elements of its
+ * result.
+ *
+ * @author Thiago Puluceno <puluceno@gmail.com>
+ */
+public class Job {
+    private final long id;
+    private final JobOperation operation;
+    private final JobState state;
+    private final int rectangles;
+    private final double progress;
+    private final long resultSize;
+    private final String error;
+
+    /**
+     * Default constructor.
+     *
+     * @param id         the id of the job
+     * @param operation  the {@link JobOperation} run by the job
+     * @param state      the {@link JobState} of the job
+     * @param rectangles the number of {@link Rectangle} the operation runs over
+     * @param progress   the fraction of the {@link Rectangle} already swept, from 0 to 1
+     * @param resultSize the number of elements of the result, 0 until the job succeeded
+     * @param error      the reason the job failed, or null
+     */
+    public Job(long id, JobOperation operation, JobState state, int rectangles, double progress, long resultSize,
+               String error) {
+        this.id = id;
+        this.operation = operation;
+        this.state = state;
+        this.rectangles = rectangles;
+        this.progress = progress;
+        this.resultSize = resultSize;
+        this.error = error;
+    }
+
+    // Getters
+    public long getId() {
+        return id;
+    }
+
+    public JobOperation getOperation() {
+        return operation;
+    }
+
+    public JobState getState() {
+        return state;
+    }
+
+    public int getRectangles() {
+        return rectangles;
+    }
+
+    public double getProgress() {
+        return progress;
+    }
+
+    public long getResultSize() {
+        return resultSize;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Job that = (Job) o;
+        return id == that.id && operation == that.operation && state == that.state && rectangles == that.rectangles
+                && Double.compare(progress, that.progress) == 0 && resultSize == that.resultSize
+                && Objects.equals(error, that.error);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, operation, state, rectangles, progress, resultSize, error);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "Job{" +
+                "id=" + id +
+                ", operation=" + operation +
+                ", state=" + state +
+                ", rectangles=" + rectangles +
+                ", progress=" + progress +
+                ", resultSize=" + resultSize +
+                ", error='" + error + '\'' +
+                '}';
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.nuvalence.model;
+
+/**
+ * Operations that can be run as a {@link Job} over a list of {@link Rectangle}, following the semantics of the batch
+ * operations of the same name.
+ */
+public enum JobOperation {
+
+    /**
+     * Every pair of {@link Rectangle} that intersect each other, as {@link IndexPair}.
+     */
+    INTERSECTS,
+
+    /**
+     * Every pair of {@link Rectangle} where the first entirely contains the second, as {@link IndexPair}.
+     */
+    CONTAINS,
+
+    /**
+     * Every pair of {@link Rectangle} adjacent to each other, as {@link IndexPair}.
+     */
+    ADJACENT,
+
+    /**
+     * The cluster of each {@link Rectangle}.
+     */
+    CLUSTERS,
+
+    /**
+     * The position of the parent of each {@link Rectangle} in the nesting forest, or -1.
+     */
+    NESTING
+}
@@ -0,0 +1,40 @@
+package com.nuvalence.model;
+
+/**
+ * States of a {@link Job}. A job starts {@link #QUEUED}, and {@link #SUCCEEDED}, {@link #FAILED} and
+ * {@link #CANCELLED} are final.
+ */
+public enum JobState {
+
+    /**
+     * The job waits for a worker.
+     */
+    QUEUED,
+
+    /**
+     * A worker runs the job.
+     */
+    RUNNING,
+
+    /**
+     * The job finished, and its result can be read.
+     */
+    SUCCEEDED,
+
+    /**
+     * The job stopped on an error.
+     */
+    FAILED,
+
+    /**
+     * The job was cancelled before it finished.
+     */
+    CANCELLED;
+
+    /**
+     * @return true if the state can't change anymore; false otherwise
+     */
+    public boolean isFinal() {
+        return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,338 @@
+package com.nuvalence.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A Rectangle specifies an area in a coordinate space that is enclosed by the Rectangle object's
+ * bottom-left point (x,y) in the coordinate space, its width, and its height.
+ *
+ * @author Thiago Puluceno <puluceno@gmail.com>
+ */
+public class Rectangle implements Shape {
+    private final int x;
+    private final int y;
+    private final int height;
+    private final int width;
+
+    /**
+     * Default constructor.
+     *
+     * @param x      the bottom left X coordinate
+     * @param y      the bottom left Y coordinate
+     * @param width  the rectangle width
+     * @param height the rectangle height
+     */
+    public Rectangle(int x, int y, int width, int height) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAdjacentTo(Rectangle r) {
+        return isAdjacentTo(x, y, width, height, r.getX(), r.getY(), r.getWidth(), r.getHeight());
+    }
+
+    /**
+     * Checks if a rectangle is adjacent to another one, given by their primitive values.
+     *
+     * @return true if the rectangles are adjacent; false otherwise
+     * @see #isAdjacentTo(Rectangle)
+     */
+    static boolean isAdjacentTo(int currX0, int currY0, int currW, int currH,
+                                int otherX0, int otherY0, int otherW, int otherH) {
+        return verifyAdjacentOnTopOrBottom(currX0, currY0, currW, currH, otherX0, otherY0, otherW, otherH)
+                || verifyAdjacentOnLeftOrRight(currX0, currY0, currW, currH, otherX0, otherY0, otherW, otherH);
+    }
+
+    /**
+     * Verifies if a given rectangle is adjacent to the left or right of the current rectangle
+     *
+     * @return true if adjacent to the left or right, false otherwise.
+     */
+    private static boolean verifyAdjacentOnLeftOrRight(int currX0, int currY0, int currW, int currH,
+                                                       int otherX0, int otherY0, int otherW, int otherH) {
+        int beginR = otherY0;
+        int endR = beginR + otherH;
+        int end0 = currY0 + currH;
+        int begin0 = currY0;
+
+        return ((begin0 <= beginR && beginR <= end0)
+                ||
+                (begin0 <= endR && endR <= end0)
+                ||
+                (beginR <= begin0 && endR >= end0))
+                &&
+                ((otherX0 == currX0 + currW)
+                ||
+                (otherX0 + otherW == currX0));
+    }
+
+    /**
+     * Verifies if a given rectangle is adjacent to the top or bottom of the current rectangle
+     *
+     * @return true if adjacent to the top or bottom, false otherwise.
+     */
+    private static boolean verifyAdjacentOnTopOrBottom(int currX0, int currY0, int currW, int currH,
+                                                       int otherX0, int otherY0, int otherW, int otherH) {
+        int beginR = otherX0;
+        int endR = beginR + otherW;
+        int end0 = currX0 + currW;
+        int begin0 = currX0;
+
+        return ((begin0 <= beginR && beginR <= end0)
+                ||
+                (begin0 <= endR && endR <= end0)
+                ||
+                (beginR <= begin0 && endR >= end0))
+                &&
+                ((otherY0 == currY0 + currH)
+                ||
+                (otherY0 + otherH == currY0));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(Rectangle r) {
+        return contains(x, y, width, height, r.getX(), r.getY(), r.getWidth(), r.getHeight());
+    }
+
+    /**
+     * Checks if a rectangle entirely contains another one, given by their primitive values.
+     *
+     * @return true if the specified rectangle is contained entirely inside the comparing one; false otherwise
+     * @see #contains(Rectangle)
+     */
+    static boolean contains(int currX0, int currY0, int currW, int currH,
+                            int otherX0, int otherY0, int otherW, int otherH) {
+        return (otherX0 > currX0)
+                &&
+                (otherY0 > currY0)
+                &&
+                (otherX0 + otherW < currX0 + currW)
+                &&
+                (otherY0 + otherH < currY0 + currH);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Integer> intersectionPoints(Rectangle r) {
+        int[] c = new int[MAX_INTERSECTION_COORDINATES];
+        return coordinateList(c, intersectionPoints(r, c));
+    }
+
+    /**
+     * @param c     the coordinates written by one of the intersectionPoints methods
+     * @param count the number of coordinates written
+     * @return the coordinates as an immutable {@link List}
+     */
+    static List<Integer> coordinateList(int[] c, int count) {
+        switch (count) {
+            case 4:
+                return List.of(c[0], c[1], c[2], c[3]);
+            case 8:
+                return List.of(c[0], c[1], c[2], c[3], c[4], c[5], c[6], c[7]);
+            default:
+                return Collections.emptyList();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int intersectionPoints(Rectangle r, int[] coordinates) {
+        return intersectionPoints(x, y, width, height, r.getX(), r.getY(), r.getWidth(), r.getHeight(), coordinates);
+    }
+
+    /**
+     * Produces the coordinates where a rectangle intersects another one, given by their primitive values, so that
+     * callers holding rectangles in other forms share the exact semantics of {@link #intersectionPoints(Rectangle)}.
+     *
+     * @param currX0      the bottom left X coordinate of the comparing rectangle
+     * @param currY0      the bottom left Y coordinate of the comparing rectangle
+     * @param currW       the width of the comparing rectangle
+     * @param currH       the height of the comparing rectangle
+     * @param otherX0     the bottom left X coordinate of the specified rectangle
+     * @param otherY0     the bottom left Y coordinate of the specified rectangle
+     * @param otherW      the width of the specified rectangle
+     * @param otherH      the height of the specified rectangle
+     * @param coordinates the array receiving the coordinates, at least {@link #MAX_INTERSECTION_COORDINATES} long
+     * @return the number of coordinates written
+     */
+    static int intersectionPoints(int currX0, int currY0, int currW, int currH,
+                                  int otherX0, int otherY0, int otherW, int otherH, int[] coordinates) {
+        if (intersects(currX0, currY0, currW, currH, otherX0, otherY0, otherW, otherH)) {
+
+            int currX1 = currX0 + currW;
+            int currY1 = currY0 + currH;
+            int otherX1 = otherX0 + otherW;
+            int otherY1 = otherY0 + otherH;
+
+            int x0 = Math.max(currX0, otherX0);
+            int y0 = Math.max(currY0, otherY0);
+            int x1 = Math.min(currX1, otherX1);
+            int y1 = Math.min(currY1, otherY1);
+
+            if ((currX0 > otherX0 && currY0 > otherY0 && currX1 > otherX1 && currY1 < otherY1)
+                    || (currX0 < otherX0 && currY0 < otherY0 && currX1 < otherX1 && currY1 > otherY1)) {
+                return put(coordinates, x1, y0, x1, y1);
+            } else if ((currX0 < otherY0 && currY0 > otherY0 && currX1 < otherX1 && currY1 < otherY1)
+                    || (currX0 > otherX0 && currY0 < otherY0 && currY1 > otherY1 && currX1 > otherX1)) {
+                return put(coordinates, x0, y0, x0, y1);
+            } else if ((currX0 < otherX0 && currY0 > otherY0 && currX1 > otherX1 && currY1 > otherY1)
+                    || (currX0 > otherX0 && currY0 < otherY0 && currX1 < otherX1 && currY1 < otherY1)) {
+                return put(coordinates, x0, y0, x1, y0);
+            } else if ((currX0 > otherX0 && currY0 > otherY0 && currX1 < otherX1 && currY1 > otherY1)
+                    || (currX0 < otherX0 && currY0 < otherY0 && currX1 > otherX1 && currY1 < otherY1)) {
+                return put(coordinates, x0, y1, x1, y1);
+            } else if ((currX0 > otherX0 && currY0 < otherY0 && currX1 > otherX1 && currY1 < otherY1)
+                    || (currX0 < otherX0 && currY0 > otherY0 && currX1 < otherX1 && currY1 > otherY1)) {
+                return put(coordinates, x0, y0, x1, y1);
+            } else if ((currX0 > otherX0 && currY0 > otherY0 && currX1 > otherX1 && currY1 > otherY1)
+                    || (currX0 < otherX0 && currY0 < otherY0 && currY1 < otherY1 && currX1 < otherX1)) {
+                return put(coordinates, x1, y0, x0, y1);
+            } else {
+                put(coordinates, x0, y0, x1, y0);
+                coordinates[4] = x1;
+                coordinates[5] = y1;
+                coordinates[6] = x0;
+                coordinates[7] = y1;
+                return 8;
+            }
+        }
+        return 0;
+    }
+
+    private static int put(int[] coordinates, int x0, int y0, int x1, int y1) {
+        coordinates[0] = x0;
+        coordinates[1] = y0;
+        coordinates[2] = x1;
+        coordinates[3] = y1;
+        return 4;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean intersects(Rectangle r) {
+        return intersects(x, y, width, height, r.getX(), r.getY(), r.getWidth(), r.getHeight());
+    }
+
+    /**
+     * Checks if a rectangle intersects another one, given by their primitive values.
+     *
+     * @return true if the rectangles intersect; false otherwise
+     * @see #intersects(Rectangle)
+     */
+    static boolean intersects(int currX0, int currY0, int currW, int currH,
+                              int otherX0, int otherY0, int otherW, int otherH) {
+        if (otherW <= 0 || otherH <= 0 || currW <= 0 || currH <= 0) {
+            return false;
+        }
+        int currX1 = currX0 + currW;
+        int currY1 = currY0 + currH;
+        int otherX1 = otherX0 + otherW;
+        int otherY1 = otherY0 + otherH;
+
+        return ((otherX1 < otherX0 || otherX1 > currX0) &&
+                (otherY1 < otherY0 || otherY1 > currY0) &&
+                (currX1 < currX0 || currX1 > otherX0) &&
+                (currY1 < currY0 || currY1 > otherY0));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double distanceTo(Rectangle r) {
+        return distance(x, y, width, height, r.getX(), r.getY(), r.getWidth(), r.getHeight());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double distanceTo(int x, int y) {
+        return distance(this.x, this.y, width, height, x, y, 0, 0);
+    }
+
+    /**
+     * Measures the distance between a rectangle and another one, given by their primitive values. A point is a
+     * rectangle with no width and no height.
+     *
+     * @return the distance between the closest points of the rectangles
+     * @see #distanceTo(Rectangle)
+     */
+    static double distance(int currX0, int currY0, int currW, int currH,
+                           int otherX0, int otherY0, int otherW, int otherH) {
+        // gaps are computed in longs, since they may not fit in an int
+        long dx = Math.max(0, Math.max((long) otherX0 - ((long) currX0 + currW), (long) currX0 - ((long) otherX0 + otherW)));
+        long dy = Math.max(0, Math.max((long) otherY0 - ((long) currY0 + currH), (long) currY0 - ((long) otherY0 + otherH)));
+        return Math.sqrt((double) dx * dx + (double) dy * dy);
+    }
+
+    // Getters
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Rectangle rectangle = (Rectangle) o;
+        return getX() == rectangle.getX() && getY() == rectangle.getY() && getHeight() == rectangle.getHeight() && getWidth() == rectangle.getWidth();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        // same value as Objects.hash(x, y, height, width), without boxing
+        int result = 31 + x;
+        result = 31 * result + y;
+        result = 31 * result + height;
+        return 31 * result + width;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "Rectangle{" +
+                "x=" + x +
+                ", y=" + y +
+                ", height=" + height +
+                ", width=" + width +
+                '}';
+    }
+
+}
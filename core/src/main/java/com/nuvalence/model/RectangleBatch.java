@@ -0,0 +1,334 @@
+package com.nuvalence.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A RectangleBatch stores many rectangles as rows of parallel int arrays instead of one {@link Rectangle} object each,
+ * and checks one query {@link Rectangle} against every row at once.
+ * <p>
+ * Right and top edges are computed once, when a row is added, and each predicate runs as a tight loop over the arrays
+ * that tests the most selective condition first. Results are written into a caller-supplied bit mask with one bit per
+ * row, so the mask can be reused across queries: bit {@code row % 64} of {@code mask[row / 64]} is set when the
+ * predicate holds for that row. Every predicate gives exactly the same result as the matching {@link Rectangle} method
+ * called on the row.
+ *
+ * @author Thiago Puluceno <puluceno@gmail.com>
+ */
+public class RectangleBatch {
+    private int[] x;
+    private int[] y;
+    private int[] width;
+    private int[] height;
+    private int[] right;
+    private int[] top;
+    private int size;
+
+    /**
+     * Default constructor.
+     *
+     * @param capacity the number of rows to allocate room for
+     */
+    public RectangleBatch(int capacity) {
+        x = new int[capacity];
+        y = new int[capacity];
+        width = new int[capacity];
+        height = new int[capacity];
+        right = new int[capacity];
+        top = new int[capacity];
+    }
+
+    /**
+     * Creates a batch holding the given {@link Rectangle}, in the same order.
+     *
+     * @param rectangles the {@link Rectangle} to be copied into the batch
+     * @return a new batch, whose row i is the {@link Rectangle} at index i
+     */
+    public static RectangleBatch of(List<Rectangle> rectangles) {
+        RectangleBatch batch = new RectangleBatch(rectangles.size());
+        for (Rectangle r : rectangles) {
+            batch.add(r);
+        }
+        return batch;
+    }
+
+    /**
+     * Appends a row to the batch.
+     *
+     * @param x      the bottom left X coordinate
+     * @param y      the bottom left Y coordinate
+     * @param width  the rectangle width
+     * @param height the rectangle height
+     * @return the index of the new row
+     */
+    public int add(int x, int y, int width, int height) {
+        if (size == this.x.length) {
+            int capacity = Math.max(16, size + (size >> 1));
+            this.x = Arrays.copyOf(this.x, capacity);
+            this.y = Arrays.copyOf(this.y, capacity);
+            this.width = Arrays.copyOf(this.width, capacity);
+            this.height = Arrays.copyOf(this.height, capacity);
+            this.right = Arrays.copyOf(this.right, capacity);
+            this.top = Arrays.copyOf(this.top, capacity);
+        }
+        this.x[size] = x;
+        this.y[size] = y;
+        this.width[size] = width;
+        this.height[size] = height;
+        this.right[size] = x + width;
+        this.top[size] = y + height;
+        return size++;
+    }
+
+    /**
+     * Appends a {@link Rectangle} to the batch.
+     *
+     * @param r the {@link Rectangle} to be copied
+     * @return the index of the new row
+     */
+    public int add(Rectangle r) {
+        return add(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+    }
+
+    /**
+     * Removes every row, keeping the allocated arrays.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param row the row index
+     * @return a new {@link Rectangle} with the values of the row
+     */
+    public Rectangle get(int row) {
+        return new Rectangle(x[row], y[row], width[row], height[row]);
+    }
+
+    /**
+     * @return a read-only {@link List} view of the rows, creating a {@link Rectangle} each time a row is read
+     */
+    public List<Rectangle> asList() {
+        return new Rows();
+    }
+
+    // Getters
+    public int getX(int row) {
+        return x[row];
+    }
+
+    public int getY(int row) {
+        return y[row];
+    }
+
+    public int getWidth(int row) {
+        return width[row];
+    }
+
+    public int getHeight(int row) {
+        return height[row];
+    }
+
+    public int getRight(int row) {
+        return right[row];
+    }
+
+    public int getTop(int row) {
+        return top[row];
+    }
+
+    /**
+     * @param rows a number of rows
+     * @return the number of longs needed by a mask with one bit per row
+     */
+    public static int maskLength(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    /**
+     * @return a new mask large enough for the current rows
+     */
+    public long[] newMask() {
+        return new long[maskLength(size)];
+    }
+
+    /**
+     * Marks the rows that intersect the query, as {@link Rectangle#intersects(Rectangle)} called on each row.
+     *
+     * @param q    the query {@link Rectangle}
+     * @param mask the mask receiving one bit per row, at least {@link #maskLength(int)} longs long
+     * @return the number of marked rows
+     */
+    public int intersecting(Rectangle q, long[] mask) {
+        int qx0 = q.getX();
+        int qy0 = q.getY();
+        int qx1 = qx0 + q.getWidth();
+        int qy1 = qy0 + q.getHeight();
+        boolean qValid = q.getWidth() > 0 & q.getHeight() > 0;
+        boolean qRight = qx1 < qx0;
+        boolean qTop = qy1 < qy0;
+        int count = 0;
+        if (!qValid) {
+            Arrays.fill(mask, 0, maskLength(size), 0);
+            return 0;
+        }
+        for (int base = 0; base < size; base += 64) {
+            int end = Math.min(base + 64, size);
+            long word = 0;
+            for (int i = base; i < end; i++) {
+                int x0 = x[i];
+                int x1 = right[i];
+                if ((qRight || qx1 > x0) && (x1 < x0 || x1 > qx0) && width[i] > 0) {
+                    int y0 = y[i];
+                    int y1 = top[i];
+                    if ((qTop || qy1 > y0) && (y1 < y0 || y1 > qy0) && height[i] > 0) {
+                        word |= 1L << i;
+                    }
+                }
+            }
+            mask[base >>> 6] = word;
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Marks the rows that entirely contain the query, as {@link Rectangle#contains(Rectangle)} called on each row.
+     *
+     * @param q    the query {@link Rectangle}
+     * @param mask the mask receiving one bit per row, at least {@link #maskLength(int)} longs long
+     * @return the number of marked rows
+     */
+    public int containing(Rectangle q, long[] mask) {
+        int qx0 = q.getX();
+        int qy0 = q.getY();
+        int qx1 = qx0 + q.getWidth();
+        int qy1 = qy0 + q.getHeight();
+        int count = 0;
+        for (int base = 0; base < size; base += 64) {
+            int end = Math.min(base + 64, size);
+            long word = 0;
+            for (int i = base; i < end; i++) {
+                if (qx0 > x[i] && qx1 < right[i] && qy0 > y[i] && qy1 < top[i]) {
+                    word |= 1L << i;
+                }
+            }
+            mask[base >>> 6] = word;
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Marks the rows entirely contained by the query, as {@link Rectangle#contains(Rectangle)} called on the query with
+     * each row.
+     *
+     * @param q    the query {@link Rectangle}
+     * @param mask the mask receiving one bit per row, at least {@link #maskLength(int)} longs long
+     * @return the number of marked rows
+     */
+    public int containedBy(Rectangle q, long[] mask) {
+        int qx0 = q.getX();
+        int qy0 = q.getY();
+        int qx1 = qx0 + q.getWidth();
+        int qy1 = qy0 + q.getHeight();
+        int count = 0;
+        for (int base = 0; base < size; base += 64) {
+            int end = Math.min(base + 64, size);
+            long word = 0;
+            for (int i = base; i < end; i++) {
+                if (x[i] > qx0 && right[i] < qx1 && y[i] > qy0 && top[i] < qy1) {
+                    word |= 1L << i;
+                }
+            }
+            mask[base >>> 6] = word;
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Marks the rows adjacent to the query, as {@link Rectangle#isAdjacentTo(Rectangle)} called on each row.
+     *
+     * @param q    the query {@link Rectangle}
+     * @param mask the mask receiving one bit per row, at least {@link #maskLength(int)} longs long
+     * @return the number of marked rows
+     */
+    public int adjacent(Rectangle q, long[] mask) {
+        int qx0 = q.getX();
+        int qy0 = q.getY();
+        int qx1 = qx0 + q.getWidth();
+        int qy1 = qy0 + q.getHeight();
+        int count = 0;
+        for (int base = 0; base < size; base += 64) {
+            int end = Math.min(base + 64, size);
+            long word = 0;
+            for (int i = base; i < end; i++) {
+                int x0 = x[i];
+                int y0 = y[i];
+                int x1 = right[i];
+                int y1 = top[i];
+                // the shared line is checked first, as it rules out almost every row
+                if (((qy0 == y1 || qy1 == y0)
+                        && ((x0 <= qx0 && qx0 <= x1) || (x0 <= qx1 && qx1 <= x1) || (qx0 <= x0 && qx1 >= x1)))
+                        || ((qx0 == x1 || qx1 == x0)
+                        && ((y0 <= qy0 && qy0 <= y1) || (y0 <= qy1 && qy1 <= y1) || (qy0 <= y0 && qy1 >= y1)))) {
+                    word |= 1L << i;
+                }
+            }
+            mask[base >>> 6] = word;
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Produces the coordinates where a row intersects the query, as
+     * {@link Rectangle#intersectionPoints(Rectangle, int[])} called on the row, without allocating.
+     *
+     * @param row         the row index
+     * @param q           the query {@link Rectangle}
+     * @param coordinates the array receiving the coordinates, at least {@link Shape#MAX_INTERSECTION_COORDINATES} long
+     * @return the number of coordinates written
+     */
+    public int intersectionPoints(int row, Rectangle q, int[] coordinates) {
+        return Rectangle.intersectionPoints(x[row], y[row], width[row], height[row],
+                q.getX(), q.getY(), q.getWidth(), q.getHeight(), coordinates);
+    }
+
+    /**
+     * Checks if a row is marked in a mask.
+     *
+     * @param mask the mask written by one of the predicates
+     * @param row  the row index
+     * @return true if the row is marked; false otherwise
+     */
+    public static boolean isMarked(long[] mask, int row) {
+        return (mask[row >>> 6] & (1L << row)) != 0;
+    }
+
+    private final class Rows extends AbstractList<Rectangle> implements RandomAccess {
+        @Override
+        public Rectangle get(int row) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+            }
+            return RectangleBatch.this.get(row);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.nuvalence.model;
+
+import java.util.List;
+
+/**
+ * A RectanglePair holds the two {@link Rectangle} of a pairwise request as their primitive values, and checks them with
+ * the same predicates as {@link Rectangle}, so the request is answered without creating either {@link Rectangle}.
+ * <p>
+ * Every predicate compares the first {@link Rectangle} to the second one, as the matching {@link Rectangle} method
+ * called on the first one with the second one as argument.
+ *
+ * @author Thiago Puluceno <puluceno@gmail.com>
+ */
+public final class RectanglePair {
+    private final int x1;
+    private final int y1;
+    private final int width1;
+    private final int height1;
+    private final int x2;
+    private final int y2;
+    private final int width2;
+    private final int height2;
+
+    /**
+     * Default constructor.
+     *
+     * @param x1      the bottom left X coordinate of the first rectangle
+     * @param y1      the bottom left Y coordinate of the first rectangle
+     * @param width1  the width of the first rectangle
+     * @param height1 the height of the first rectangle
+     * @param x2      the bottom left X coordinate of the second rectangle
+     * @param y2      the bottom left Y coordinate of the second rectangle
+     * @param width2  the width of the second rectangle
+     * @param height2 the height of the second rectangle
+     */
+    public RectanglePair(int x1, int y1, int width1, int height1, int x2, int y2, int width2, int height2) {
+        this.x1 = x1;
+        this.y1 = y1;
+        this.width1 = width1;
+        this.height1 = height1;
+        this.x2 = x2;
+        this.y2 = y2;
+        this.width2 = width2;
+        this.height2 = height2;
+    }
+
+    /**
+     * @return true if the width and height of both rectangles are positive; false otherwise
+     */
+    public boolean isValid() {
+        return width1 > 0 && height1 > 0 && width2 > 0 && height2 > 0;
+    }
+
+    /**
+     * @return true if the first rectangle is adjacent to the second one; false otherwise
+     * @see Rectangle#isAdjacentTo(Rectangle)
+     */
+    public boolean isAdjacent() {
+        return Rectangle.isAdjacentTo(x1, y1, width1, height1, x2, y2, width2, height2);
+    }
+
+    /**
+     * @return true if the second rectangle is contained entirely inside the first one; false otherwise
+     * @see Rectangle#contains(Rectangle)
+     */
+    public boolean contains() {
+        return Rectangle.contains(x1, y1, width1, height1, x2, y2, width2, height2);
+    }
+
+    /**
+     * @return true if the rectangles intersect; false otherwise
+     * @see Rectangle#intersects(Rectangle)
+     */
+    public boolean intersects() {
+        return Rectangle.intersects(x1, y1, width1, height1, x2, y2, width2, height2);
+    }
+
+    /**
+     * @return a {@link List} containing the coordinates where the first rectangle intersects the second one
+     * @see Rectangle#intersectionPoints(Rectangle)
+     */
+    public List<Integer> intersectionPoints() {
+        int[] coordinates = new int[Shape.MAX_INTERSECTION_COORDINATES];
+        return Rectangle.coordinateList(coordinates, intersectionPoints(coordinates));
+    }
+
+    /**
+     * @param coordinates the array receiving the coordinates, at least {@link Shape#MAX_INTERSECTION_COORDINATES} long
+     * @return the number of coordinates written at the start of the array, 0 if the rectangles don't intersect
+     * @see Rectangle#intersectionPoints(Rectangle, int[])
+     */
+    public int intersectionPoints(int[] coordinates) {
+        return Rectangle.intersectionPoints(x1, y1, width1, height1, x2, y2, width2, height2, coordinates);
+    }
+
+    /**
+     * @return a new {@link Rectangle} with the values of the first rectangle
+     */
+    public Rectangle getFirst() {
+        return new Rectangle(x1, y1, width1, height1);
+    }
+
+    /**
+     * @return a new {@link Rectangle} with the values of the second rectangle
+     */
+    public Rectangle getSecond() {
+        return new Rectangle(x2, y2, width2, height2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RectanglePair pair = (RectanglePair) o;
+        return x1 == pair.x1 && y1 == pair.y1 && width1 == pair.width1 && height1 == pair.height1
+                && x2 == pair.x2 && y2 == pair.y2 && width2 == pair.width2 && height2 == pair.height2;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = 31 + x1;
+        result = 31 * result + y1;
+        result = 31 * result + width1;
+        result = 31 * result + height1;
+        result = 31 * result + x2;
+        result = 31 * result + y2;
+        result = 31 * result + width2;
+        return 31 * result + height2;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "RectanglePair{" + getFirst() + ", " + getSecond() + '}';
+    }
+
+}
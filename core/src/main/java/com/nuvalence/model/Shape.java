@@ -0,0 +1,73 @@
+package com.nuvalence.model;
+
+import java.util.List;
+
+public interface Shape {
+
+    /**
+     * The largest number of coordinates produced by an intersection, that is, four points.
+     */
+    int MAX_INTERSECTION_COORDINATES = 8;
+
+    /**
+     * Checks if the comparing {@link Rectangle} is adjacent to the specified {@link Rectangle} r.
+     *
+     * @param r the specified {@link Rectangle}
+     * @return true if the specified {@link Rectangle} r is adjacent to the comparing {@link Rectangle}; false otherwise
+     */
+    boolean isAdjacentTo(Rectangle r);
+
+    /**
+     * Checks if the comparing {@link Rectangle} entirely contains the specified {@link Rectangle} r.
+     *
+     * @param r the specified {@link Rectangle}
+     * @return true if the specified {@link Rectangle} is contained entirely inside the comparing {@link Rectangle}; false otherwise
+     */
+    boolean contains(Rectangle r);
+
+    /**
+     * Checks if the comparing {@link Rectangle} intersects the specified {@link Rectangle} r.
+     *
+     * @param r the specified {@link Rectangle}
+     * @return true if the specified {@link Rectangle} intersects the comparing {@link Rectangle}; false otherwise
+     */
+    boolean intersects(Rectangle r);
+
+    /**
+     * Produces the coordinates where the comparing {@link Rectangle} intersects the specified {@link Rectangle} r.
+     *
+     * @param r the specified {@link Rectangle}
+     * @return a {@link List} containing the coordinates in the form of x0,y0, x1, y1 where the specified {@link Rectangle} intersects the comparing {@link Rectangle}
+     */
+    List<Integer> intersectionPoints(Rectangle r);
+
+    /**
+     * Produces the coordinates where the comparing {@link Rectangle} intersects the specified {@link Rectangle} r,
+     * without allocating: the coordinates are the same as those of {@link #intersectionPoints(Rectangle)}, written
+     * into a caller-supplied array.
+     *
+     * @param r           the specified {@link Rectangle}
+     * @param coordinates the array receiving the coordinates, at least {@link #MAX_INTERSECTION_COORDINATES} long
+     * @return the number of coordinates written at the start of the array, 0 if the {@link Rectangle} don't intersect
+     */
+    int intersectionPoints(Rectangle r, int[] coordinates);
+
+    /**
+     * Measures the Euclidean distance between the comparing {@link Rectangle} and the specified {@link Rectangle} r,
+     * that is, between their closest points, edges included.
+     *
+     * @param r the specified {@link Rectangle}
+     * @return the distance between the {@link Rectangle}, 0 if they overlap or touch
+     */
+    double distanceTo(Rectangle r);
+
+    /**
+     * Measures the Euclidean distance between the comparing {@link Rectangle} and the specified point, that is,
+     * between the point and the closest point of the {@link Rectangle}, edges included.
+     *
+     * @param x the X coordinate of the point
+     * @param y the Y coordinate of the point
+     * @return the distance between the {@link Rectangle} and the point, 0 if the point is inside or on an edge
+     */
+    double distanceTo(int x, int y);
+}
@@ -0,0 +1,75 @@
+package com.nuvalence.model;
+
+/**
+ * Relations that can be queried between a stored {@link Rectangle} and a query {@link Rectangle}, following the
+ * semantics of the {@link Shape} operations.
+ */
+public enum SpatialRelation {
+
+    /**
+     * The stored {@link Rectangle} intersects the query {@link Rectangle}.
+     */
+    INTERSECTS {
+        @Override
+        public boolean test(int x, int y, int width, int height, Rectangle query) {
+            return Rectangle.intersects(x, y, width, height, query.getX(), query.getY(), query.getWidth(), query.getHeight());
+        }
+    },
+
+    /**
+     * The stored {@link Rectangle} entirely contains the query {@link Rectangle}.
+     */
+    CONTAINS {
+        @Override
+        public boolean test(int x, int y, int width, int height, Rectangle query) {
+            return Rectangle.contains(x, y, width, height, query.getX(), query.getY(), query.getWidth(), query.getHeight());
+        }
+    },
+
+    /**
+     * The stored {@link Rectangle} is entirely contained by the query {@link Rectangle}.
+     */
+    CONTAINED_BY {
+        @Override
+        public boolean test(int x, int y, int width, int height, Rectangle query) {
+            return Rectangle.contains(query.getX(), query.getY(), query.getWidth(), query.getHeight(), x, y, width, height);
+        }
+    },
+
+    /**
+     * The stored {@link Rectangle} is adjacent to the query {@link Rectangle}.
+     */
+    ADJACENT {
+        @Override
+        public boolean test(int x, int y, int width, int height, Rectangle query) {
+            return Rectangle.isAdjacentTo(x, y, width, height, query.getX(), query.getY(), query.getWidth(), query.getHeight());
+        }
+    };
+
+    /**
+     * Checks if the relation holds between a stored {@link Rectangle} and a query {@link Rectangle}. Every relation
+     * implies that both {@link Rectangle} overlap or touch, so spatial indexes only need to test the stored
+     * {@link Rectangle} that share at least one point with the query.
+     *
+     * @param stored the stored {@link Rectangle}
+     * @param query  the query {@link Rectangle}
+     * @return true if the relation holds; false otherwise
+     */
+    public boolean test(Rectangle stored, Rectangle query) {
+        return test(stored.getX(), stored.getY(), stored.getWidth(), stored.getHeight(), query);
+    }
+
+    /**
+     * Checks if the relation holds between a stored rectangle, given by its primitive values, and a query
+     * {@link Rectangle}, so that stores keeping rectangles in other forms don't need to create a {@link Rectangle}
+     * for each one.
+     *
+     * @param x      the bottom left X coordinate of the stored rectangle
+     * @param y      the bottom left Y coordinate of the stored rectangle
+     * @param width  the width of the stored rectangle
+     * @param height the height of the stored rectangle
+     * @param query  the query {@link Rectangle}
+     * @return true if the relation holds; false otherwise
+     */
+    public abstract boolean test(int x, int y, int width, int height, Rectangle query);
+}
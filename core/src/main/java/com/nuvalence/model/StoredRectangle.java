@@ -0,0 +1,64 @@
+package com.nuvalence.model;
+
+import java.util.Objects;
+
+/**
+ * A StoredRectangle is a {@link Rectangle} kept by the service under a stable id.
+ *
+ * @author Thiago Puluceno <puluceno@gmail.com>
+ */
+public class StoredRectangle {
+    private final long id;
+    private final Rectangle rectangle;
+
+    /**
+     * Default constructor.
+     *
+     * @param id        the id the {@link Rectangle} is stored under
+     * @param rectangle the stored {@link Rectangle}
+     */
+    public StoredRectangle(long id, Rectangle rectangle) {
+        this.id = id;
+        this.rectangle = rectangle;
+    }
+
+    // Getters
+    public long getId() {
+        return id;
+    }
+
+    public Rectangle getRectangle() {
+        return rectangle;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StoredRectangle that = (StoredRectangle) o;
+        return id == that.id && rectangle.equals(that.rectangle);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, rectangle);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "StoredRectangle{" +
+                "id=" + id +
+                ", rectangle=" + rectangle +
+                '}';
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.nuvalence.model;
+
+import java.util.Objects;
+
+/**
+ * A WatchEvent tells a watch that a stored {@link Rectangle} started or stopped intersecting its region, as in
+ * {@link Rectangle#intersects(Rectangle)}.
+ *
+ * @author Thiago Puluceno <puluceno@gmail.com>
+ */
+public class WatchEvent {
+    private final long watch;
+    private final WatchEventType type;
+    private final StoredRectangle rectangle;
+
+    /**
+     * Default constructor.
+     *
+     * @param watch     the id of the watch receiving the event
+     * @param type      the {@link WatchEventType} of the event
+     * @param rectangle the {@link StoredRectangle} after the change, or before it if it was deleted
+     */
+    public WatchEvent(long watch, WatchEventType type, StoredRectangle rectangle) {
+        this.watch = watch;
+        this.type = type;
+        this.rectangle = rectangle;
+    }
+
+    // Getters
+    public long getWatch() {
+        return watch;
+    }
+
+    public WatchEventType getType() {
+        return type;
+    }
+
+    public StoredRectangle getRectangle() {
+        return rectangle;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WatchEvent that = (WatchEvent) o;
+        return watch == that.watch && type == that.type && rectangle.equals(that.rectangle);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(watch, type, rectangle);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "WatchEvent{" +
+                "watch=" + watch +
+                ", type=" + type +
+                ", rectangle=" + rectangle +
+                '}';
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.nuvalence.model;
+
+/**
+ * Kinds of {@link WatchEvent}.
+ */
+public enum WatchEventType {
+
+    /**
+     * A stored {@link Rectangle} started intersecting the watched region, because it was inserted or moved into it,
+     * or was already intersecting it when the watch started.
+     */
+    ENTER,
+
+    /**
+     * A stored {@link Rectangle} stopped intersecting the watched region, because it was moved out of it or deleted.
+     */
+    EXIT
+}
@@ -0,0 +1,221 @@
+package com.nuvalence.service;
+
+import com.nuvalence.engine.SweepProgress;
+import com.nuvalence.model.Coverage;
+import com.nuvalence.model.IndexPair;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.RectanglePair;
+import com.nuvalence.model.Shape;
+
+import java.util.List;
+
+/**
+ * Interface describing the available operations between two {@link Rectangle}, and their batch counterparts over
+ * a list of {@link Rectangle}.
+ * <p>
+ * The batch operations finding pairs and clusters reject a list holding a {@link Rectangle} with a negative width or
+ * height with an {@link IllegalArgumentException}.
+ */
+public interface RectangleService {
+
+    /**
+     * Checks if {@link Rectangle} r1 is adjacent to the specified {@link Rectangle} r2.
+     *
+     * @param r1 the first specified {@link Rectangle}
+     * @param r2 the second specified {@link Rectangle}
+     * @return true if the specified {@link Rectangle} r1 is adjacent to the {@link Rectangle} r2; false otherwise
+     */
+    boolean isAdjacentTo(Rectangle r1, Rectangle r2);
+
+    /**
+     * Checks if {@link Rectangle} r1 entirely contains the specified {@link Rectangle} r2.
+     *
+     * @param r1 the first specified {@link Rectangle}
+     * @param r2 the second specified {@link Rectangle}
+     * @return true if the specified {@link Rectangle} r2 is contained entirely inside the {@link Rectangle} r1; false otherwise
+     */
+    boolean contains(Rectangle r1, Rectangle r2);
+
+    /**
+     * Produces a {@link Rectangle} data, created by the intersection between {@link Rectangle} r1 and {@link Rectangle} r2
+     *
+     * @param r1 the first specified {@link Rectangle}
+     * @param r2 the second specified {@link Rectangle}
+     * @return the intersected {@link Rectangle} data, created by the intersection between {@link Rectangle} r1 and {@link Rectangle} r2
+     */
+    boolean intersects(Rectangle r1, Rectangle r2);
+
+    /**
+     * Produces the coordinates where the comparing {@link Rectangle} intersects the specified {@link Rectangle} r.
+     *
+     * @param r1 the first specified {@link Rectangle}
+     * @param r2 the second specified {@link Rectangle}
+     * @return a {@link List} containing the coordinates in the form of x0,y0, x1, y1 where the specified {@link Rectangle} r1 intersects the comparing {@link Rectangle} r2
+     */
+    List<Integer> intersectionPoints(Rectangle r1, Rectangle r2);
+
+    /**
+     * Produces the coordinates where the comparing {@link Rectangle} intersects the specified {@link Rectangle} r,
+     * writing them into a caller-supplied array instead of allocating a {@link List}.
+     *
+     * @param r1          the first specified {@link Rectangle}
+     * @param r2          the second specified {@link Rectangle}
+     * @param coordinates the array receiving the coordinates, at least {@link Shape#MAX_INTERSECTION_COORDINATES} long
+     * @return the number of coordinates written at the start of the array, 0 if the {@link Rectangle} don't intersect
+     */
+    int intersectionPoints(Rectangle r1, Rectangle r2, int[] coordinates);
+
+    /**
+     * Checks if the first {@link Rectangle} of the pair is adjacent to the second one, as
+     * {@link #isAdjacentTo(Rectangle, Rectangle)}.
+     *
+     * @param pair the {@link RectanglePair} read from a request
+     * @return true if the first {@link Rectangle} is adjacent to the second one; false otherwise
+     */
+    boolean isAdjacentTo(RectanglePair pair);
+
+    /**
+     * Checks if the first {@link Rectangle} of the pair entirely contains the second one, as
+     * {@link #contains(Rectangle, Rectangle)}.
+     *
+     * @param pair the {@link RectanglePair} read from a request
+     * @return true if the second {@link Rectangle} is contained entirely inside the first one; false otherwise
+     */
+    boolean contains(RectanglePair pair);
+
+    /**
+     * Checks if the {@link Rectangle} of the pair intersect each other, as {@link #intersects(Rectangle, Rectangle)}.
+     *
+     * @param pair the {@link RectanglePair} read from a request
+     * @return true if the {@link Rectangle} intersect; false otherwise
+     */
+    boolean intersects(RectanglePair pair);
+
+    /**
+     * Produces the coordinates where the first {@link Rectangle} of the pair intersects the second one, as
+     * {@link #intersectionPoints(Rectangle, Rectangle)}.
+     *
+     * @param pair the {@link RectanglePair} read from a request
+     * @return a {@link List} containing the coordinates in the form of x0,y0, x1, y1 where the {@link Rectangle}
+     * intersect
+     */
+    List<Integer> intersectionPoints(RectanglePair pair);
+
+    /**
+     * Finds every pair of {@link Rectangle} of the list that intersect each other.
+     *
+     * @param rectangles the specified list of {@link Rectangle}
+     * @return the sorted {@link IndexPair} list of intersecting {@link Rectangle}, each pair reported once with its smaller index first
+     */
+    List<IndexPair> intersectingPairs(List<Rectangle> rectangles);
+
+    /**
+     * Finds every pair of {@link Rectangle} of the list that intersect each other, as
+     * {@link #intersectingPairs(List)}, advancing a {@link SweepProgress} as they are swept and reporting the pairs
+     * found to it.
+     *
+     * @param rectangles the specified list of {@link Rectangle}
+     * @param progress   the {@link SweepProgress} of the operation, whose cancellation stops it
+     * @return the sorted {@link IndexPair} list of intersecting {@link Rectangle}
+     * @throws java.util.concurrent.CancellationException if the progress is cancelled, or the pairs go past its limit
+     */
+    List<IndexPair> intersectingPairs(List<Rectangle> rectangles, SweepProgress progress);
+
+    /**
+     * Finds every pair of {@link Rectangle} of the list where one entirely contains the other.
+     *
+     * @param rectangles the specified list of {@link Rectangle}
+     * @return the sorted {@link IndexPair} list where the first {@link Rectangle} entirely contains the second one
+     */
+    List<IndexPair> containingPairs(List<Rectangle> rectangles);
+
+    /**
+     * Finds every pair of {@link Rectangle} of the list where one entirely contains the other, as
+     * {@link #containingPairs(List)}, advancing a {@link SweepProgress} as they are swept and reporting the pairs
+     * found to it.
+     *
+     * @param rectangles the specified list of {@link Rectangle}
+     * @param progress   the {@link SweepProgress} of the operation, whose cancellation stops it
+     * @return the sorted {@link IndexPair} list where the first {@link Rectangle} entirely contains the second one
+     * @throws java.util.concurrent.CancellationException if the progress is cancelled, or the pairs go past its limit
+     */
+    List<IndexPair> containingPairs(List<Rectangle> rectangles, SweepProgress progress);
+
+    /**
+     * Finds every pair of {@link Rectangle} of the list that are adjacent to each other.
+     *
+     * @param rectangles the specified list of {@link Rectangle}
+     * @return the sorted {@link IndexPair} list of adjacent {@link Rectangle}, each pair reported once with its smaller index first
+     */
+    List<IndexPair> adjacentPairs(List<Rectangle> rectangles);
+
+    /**
+     * Finds every pair of {@link Rectangle} of the list that are adjacent to each other, as
+     * {@link #adjacentPairs(List)}, advancing a {@link SweepProgress} as they are swept and reporting the pairs
+     * found to it.
+     *
+     * @param rectangles the specified list of {@link Rectangle}
+     * @param progress   the {@link SweepProgress} of the operation, whose cancellation stops it
+     * @return the sorted {@link IndexPair} list of adjacent {@link Rectangle}
+     * @throws java.util.concurrent.CancellationException if the progress is cancelled, or the pairs go past its limit
+     */
+    List<IndexPair> adjacentPairs(List<Rectangle> rectangles, SweepProgress progress);
+
+    /**
+     * Computes the area covered by the {@link Rectangle} of the list, counting each point once however many
+     * {@link Rectangle} cover it, along with the area covered by at least k of them and its outline.
+     *
+     * @param rectangles the specified list of {@link Rectangle}
+     * @param k          the number of {@link Rectangle} a point must be covered by to count in the covered area
+     * @return the {@link Coverage} of the {@link Rectangle}
+     */
+    Coverage coverage(List<Rectangle> rectangles, int k);
+
+    /**
+     * Groups the {@link Rectangle} of the list into clusters, the connected components of the graph linking every two
+     * {@link Rectangle} that overlap or touch, even at a single corner.
+     *
+     * @param rectangles the specified list of {@link Rectangle}
+     * @return the cluster of each {@link Rectangle}, at the same position as in the list, with clusters numbered from 0
+     * in the order of their first {@link Rectangle}
+     */
+    List<Integer> clusters(List<Rectangle> rectangles);
+
+    /**
+     * Groups the {@link Rectangle} of the list into clusters, as {@link #clusters(List)}, advancing a
+     * {@link SweepProgress} as they are swept.
+     *
+     * @param rectangles the specified list of {@link Rectangle}
+     * @param progress   the {@link SweepProgress} of the operation, whose cancellation stops it
+     * @return the cluster of each {@link Rectangle}, at the same position as in the list
+     * @throws java.util.concurrent.CancellationException if the progress is cancelled
+     */
+    List<Integer> clusters(List<Rectangle> rectangles, SweepProgress progress);
+
+    /**
+     * Builds the nesting forest of the {@link Rectangle} of the list, where the parent of each {@link Rectangle} is
+     * the smallest one that contains it, as in {@link Rectangle#contains(Rectangle)}, the first one of the smallest
+     * ones if several are.
+     * <p>
+     * The forest is built in O(n log n) when the {@link Rectangle} are laminar, that is when any two of them either
+     * don't overlap or one contains the other, edges included. Otherwise every pair of overlapping or touching
+     * {@link Rectangle} is checked, which takes time in proportion to the number of such pairs.
+     *
+     * @param rectangles the specified list of {@link Rectangle}
+     * @return the position of the parent of each {@link Rectangle}, at the same position as in the list, or -1 for
+     * the {@link Rectangle} no other one contains
+     */
+    List<Integer> nestingForest(List<Rectangle> rectangles);
+
+
+    /**
+     * Builds the nesting forest of the {@link Rectangle} of the list, as {@link #nestingForest(List)}, advancing a
+     * {@link SweepProgress} as they are swept.
+     *
+     * @param rectangles the specified list of {@link Rectangle}
+     * @param progress   the {@link SweepProgress} of the operation, whose cancellation stops it
+     * @return the position of the parent of each {@link Rectangle}, at the same position as in the list, or -1
+     * @throws java.util.concurrent.CancellationException if the progress is cancelled
+     */
+    List<Integer> nestingForest(List<Rectangle> rectangles, SweepProgress progress);
+}
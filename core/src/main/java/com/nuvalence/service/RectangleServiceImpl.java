@@ -0,0 +1,307 @@
+package com.nuvalence.service;
+
+import com.nuvalence.engine.BoxEdges;
+import com.nuvalence.engine.ConcurrentUnionFind;
+import com.nuvalence.engine.CoverageSweep;
+import com.nuvalence.engine.NestingSweep;
+import com.nuvalence.engine.ParallelSweep;
+import com.nuvalence.engine.PlaneSweep;
+import com.nuvalence.engine.SweepProgress;
+import com.nuvalence.model.Coverage;
+import com.nuvalence.model.IndexLabels;
+import com.nuvalence.model.IndexPair;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.RectanglePair;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Default Implementation of the Interface {@link RectangleService}.
+ * <p>
+ * Batch operations over at least {@value #PARALLEL_THRESHOLD} {@link Rectangle} find their candidates with a
+ * {@link ParallelSweep} in the common {@link java.util.concurrent.ForkJoinPool}, and smaller ones with a
+ * {@link PlaneSweep} in the calling thread. Both give the same results.
+ * <p>
+ * The operations taking a {@link SweepProgress} also accept null, which is what the ones without it pass.
+ * <p>
+ * It depends on no framework, so it can be created directly by applications embedding the core module.
+ */
+public class RectangleServiceImpl implements RectangleService {
+
+    static final int PARALLEL_THRESHOLD = 100_000;
+
+    private final int parallelThreshold;
+
+    /**
+     * Default Constructor.
+     */
+    public RectangleServiceImpl() {
+        this(PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * @param parallelThreshold the smallest number of {@link Rectangle} for which batch operations run in parallel
+     */
+    RectangleServiceImpl(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAdjacentTo(Rectangle r1, Rectangle r2) {
+        return r1.isAdjacentTo(r2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(Rectangle r1, Rectangle r2) {
+        return r1.contains(r2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean intersects(Rectangle r1, Rectangle r2) {
+        return r1.intersects(r2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Integer> intersectionPoints(Rectangle r1, Rectangle r2) {
+        return r1.intersectionPoints(r2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int intersectionPoints(Rectangle r1, Rectangle r2, int[] coordinates) {
+        return r1.intersectionPoints(r2, coordinates);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAdjacentTo(RectanglePair pair) {
+        return pair.isAdjacent();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(RectanglePair pair) {
+        return pair.contains();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean intersects(RectanglePair pair) {
+        return pair.intersects();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Integer> intersectionPoints(RectanglePair pair) {
+        return pair.intersectionPoints();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Candidates are found by a {@link PlaneSweep} and refined with {@link Rectangle#intersects(Rectangle)}.
+     */
+    @Override
+    public List<IndexPair> intersectingPairs(List<Rectangle> rectangles) {
+        return intersectingPairs(rectangles, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<IndexPair> intersectingPairs(List<Rectangle> rectangles, SweepProgress progress) {
+        Rectangle[] rs = rectangles.toArray(new Rectangle[0]);
+        if (rs.length >= parallelThreshold) {
+            return parallelPairs(rectangles, progress, (i, j) -> rs[i].intersects(rs[j])
+                    ? ParallelSweep.pair(Math.min(i, j), Math.max(i, j)) : ParallelSweep.NO_PAIR);
+        }
+        List<IndexPair> pairs = new ArrayList<>();
+        PlaneSweep.touchingPairs(rectangles, (i, j) -> {
+            if (rs[i].intersects(rs[j])) {
+                pairs.add(new IndexPair(Math.min(i, j), Math.max(i, j)));
+                found(progress);
+            }
+        }, progress);
+        Collections.sort(pairs);
+        return pairs;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Candidates are found by a {@link PlaneSweep} and refined with {@link Rectangle#contains(Rectangle)} in both
+     * directions.
+     */
+    @Override
+    public List<IndexPair> containingPairs(List<Rectangle> rectangles) {
+        return containingPairs(rectangles, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<IndexPair> containingPairs(List<Rectangle> rectangles, SweepProgress progress) {
+        Rectangle[] rs = rectangles.toArray(new Rectangle[0]);
+        if (rs.length >= parallelThreshold) {
+            return parallelPairs(rectangles, progress, (i, j) -> rs[i].contains(rs[j]) ? ParallelSweep.pair(i, j)
+                    : rs[j].contains(rs[i]) ? ParallelSweep.pair(j, i) : ParallelSweep.NO_PAIR);
+        }
+        List<IndexPair> pairs = new ArrayList<>();
+        PlaneSweep.touchingPairs(rectangles, (i, j) -> {
+            if (rs[i].contains(rs[j])) {
+                pairs.add(new IndexPair(i, j));
+                found(progress);
+            } else if (rs[j].contains(rs[i])) {
+                pairs.add(new IndexPair(j, i));
+                found(progress);
+            }
+        }, progress);
+        Collections.sort(pairs);
+        return pairs;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Candidates are found by a {@link PlaneSweep} and refined with {@link Rectangle#isAdjacentTo(Rectangle)}.
+     */
+    @Override
+    public List<IndexPair> adjacentPairs(List<Rectangle> rectangles) {
+        return adjacentPairs(rectangles, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<IndexPair> adjacentPairs(List<Rectangle> rectangles, SweepProgress progress) {
+        Rectangle[] rs = rectangles.toArray(new Rectangle[0]);
+        if (rs.length >= parallelThreshold) {
+            return parallelPairs(rectangles, progress, (i, j) -> rs[i].isAdjacentTo(rs[j])
+                    ? ParallelSweep.pair(Math.min(i, j), Math.max(i, j)) : ParallelSweep.NO_PAIR);
+        }
+        List<IndexPair> pairs = new ArrayList<>();
+        PlaneSweep.touchingPairs(rectangles, (i, j) -> {
+            if (rs[i].isAdjacentTo(rs[j])) {
+                pairs.add(new IndexPair(Math.min(i, j), Math.max(i, j)));
+                found(progress);
+            }
+        }, progress);
+        Collections.sort(pairs);
+        return pairs;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Computed by a {@link CoverageSweep}.
+     */
+    @Override
+    public Coverage coverage(List<Rectangle> rectangles, int k) {
+        BoxEdges edges = BoxEdges.of(rectangles);
+        return CoverageSweep.coverage(edges.getX0(), edges.getY0(), edges.getX1(), edges.getY1(), k);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Every pair found by a {@link PlaneSweep}, or by a {@link ParallelSweep} for large lists, is merged as soon as it
+     * is found into a {@link ConcurrentUnionFind}, so no pair is kept in memory.
+     */
+    @Override
+    public IndexLabels clusters(List<Rectangle> rectangles) {
+        return clusters(rectangles, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IndexLabels clusters(List<Rectangle> rectangles, SweepProgress progress) {
+        BoxEdges edges = BoxEdges.of(rectangles);
+        ConcurrentUnionFind components = new ConcurrentUnionFind(edges.size());
+        if (edges.size() >= parallelThreshold) {
+            ParallelSweep.sortedPairs(edges.getX0(), edges.getY0(), edges.getX1(), edges.getY1(), (p, q) -> {
+                components.union(p, q);
+                return ParallelSweep.NO_PAIR;
+            }, progress);
+        } else {
+            PlaneSweep.touchingPairs(edges.getX0(), edges.getY0(), edges.getX1(), edges.getY1(), components::union,
+                    progress);
+        }
+        int[] labels = new int[edges.size()];
+        int clusters = components.labels(labels);
+        return new IndexLabels(labels, clusters);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Computed by a {@link NestingSweep}.
+     */
+    @Override
+    public IndexLabels nestingForest(List<Rectangle> rectangles) {
+        return nestingForest(rectangles, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IndexLabels nestingForest(List<Rectangle> rectangles, SweepProgress progress) {
+        BoxEdges edges = BoxEdges.of(rectangles);
+        int[] parents = NestingSweep.parents(edges.getX0(), edges.getY0(), edges.getX1(), edges.getY1(), progress);
+        int roots = 0;
+        for (int parent : parents) {
+            if (parent == NestingSweep.NO_PARENT) {
+                roots++;
+            }
+        }
+        return new IndexLabels(parents, roots);
+    }
+
+    private static void found(SweepProgress progress) {
+        if (progress != null) {
+            progress.found(1);
+        }
+    }
+
+    private static List<IndexPair> parallelPairs(List<Rectangle> rectangles, SweepProgress progress,
+                                                 ParallelSweep.PairFunction function) {
+        BoxEdges edges = BoxEdges.of(rectangles);
+        long[] found = ParallelSweep.sortedPairs(edges.getX0(), edges.getY0(), edges.getX1(), edges.getY1(), function,
+                progress);
+        List<IndexPair> pairs = new ArrayList<>(found.length);
+        for (long pair : found) {
+            pairs.add(new IndexPair(ParallelSweep.first(pair), ParallelSweep.second(pair)));
+        }
+        return pairs;
+    }
+
+}
@@ -0,0 +1,517 @@
+package com.nuvalence.store;
+
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.SpatialRelation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Store of fixed-size rectangle records kept off the heap, in segments that are either memory-mapped from a snapshot
+ * file or allocated as direct memory, so opening a snapshot doesn't read it.
+ * <p>
+ * Records are 24 bytes little-endian slots. Slot -1 is the header: a magic number and a format version as int32, then
+ * the number of used slots and the number of live records as int64. Each following slot is a record: the id as int64,
+ * then {@code x}, {@code y}, {@code width} and {@code height} as int32. Ids are assigned in slot order, so record
+ * {@code id} always lives in slot {@code id - 1}. Updates rewrite the record in place, and deletes set its id to 0.
+ * A snapshot file holds the same slots, padded to whole segments of {@value #SEGMENT_SLOTS} slots.
+ * <p>
+ * Snapshots are mapped copy-on-write, so changes stay in memory and never reach the snapshot file by themselves: the
+ * file only changes when {@link #snapshot()} atomically replaces it with the current records. Durability between
+ * snapshots is left to a {@link WriteAheadLog}.
+ * <p>
+ * A snapshot can also be written a few records at a time with {@link #beginSnapshot()}, {@link #copySnapshot(int)}
+ * and {@link #finishSnapshot()}, letting changes go on in between. It still holds the records as they were when it
+ * began: the first change of a record not copied yet keeps the previous content of the record, which is copied in
+ * its place.
+ * <p>
+ * This class isn't thread safe: callers must prevent writes from running concurrently with any other call.
+ */
+public class MappedRectangleStore implements Closeable {
+
+    /**
+     * Callback receiving the records found by a scan.
+     */
+    @FunctionalInterface
+    public interface RecordConsumer {
+        void accept(long id, int x, int y, int width, int height);
+    }
+
+    static final int MAGIC = 0x52454354;
+    static final int VERSION = 1;
+    static final int RECORD_BYTES = 24;
+    static final int SEGMENT_SLOTS = 1 << 20;
+    private static final int SEGMENT_BYTES = SEGMENT_SLOTS * RECORD_BYTES;
+
+    private final Path path;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private long slots;
+    private long live;
+    private long modifications;
+    // read by every change, while a snapshot is finished without excluding them
+    private volatile PendingSnapshot pending;
+
+    private MappedRectangleStore(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Opens the snapshot kept in the given file, creating an empty one if the file doesn't exist. Only the header is
+     * read; the records are paged in from the file when they are first accessed.
+     *
+     * @param path the snapshot file
+     * @return the opened store
+     * @throws IOException if the file can't be opened or isn't a snapshot file
+     */
+    public static MappedRectangleStore open(Path path) throws IOException {
+        MappedRectangleStore store = new MappedRectangleStore(path);
+        if (Files.notExists(path)) {
+            store.segments.add(newSegment());
+            store.writeHeader();
+            store.snapshot();
+        } else {
+            store.map();
+        }
+        return store;
+    }
+
+    /**
+     * Creates an empty store that isn't backed by any file.
+     *
+     * @return the created store
+     */
+    public static MappedRectangleStore temporary() {
+        MappedRectangleStore store = new MappedRectangleStore(null);
+        store.segments.add(newSegment());
+        store.writeHeader();
+        return store;
+    }
+
+    private static ByteBuffer newSegment() {
+        return ByteBuffer.allocateDirect(SEGMENT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Replaces the segments with a copy-on-write mapping of the snapshot file.
+     */
+    private void map() throws IOException {
+        List<ByteBuffer> mapped = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size == 0 || size % SEGMENT_BYTES != 0) {
+                throw new IOException(path + " isn't a rectangle snapshot file");
+            }
+            for (long position = 0; position < size; position += SEGMENT_BYTES) {
+                mapped.add(channel.map(FileChannel.MapMode.PRIVATE, position, SEGMENT_BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN));
+            }
+        }
+        ByteBuffer header = mapped.get(0);
+        long slots = header.getLong(8);
+        long live = header.getLong(16);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException(path + " isn't a rectangle snapshot file");
+        }
+        if (slots < 0 || slots > (long) mapped.size() * SEGMENT_SLOTS - 1 || live < 0 || live > slots) {
+            throw new IOException(path + " is corrupted");
+        }
+        segments.clear();
+        segments.addAll(mapped);
+        this.slots = slots;
+        this.live = live;
+    }
+
+    /**
+     * @return the snapshot file, or null if the store isn't backed by a file
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return the number of used slots, live or deleted, which is also the largest id ever assigned
+     */
+    public long slots() {
+        return slots;
+    }
+
+    /**
+     * @return the number of live records
+     */
+    public long size() {
+        return live;
+    }
+
+    /**
+     * @return the number of changes made since the store was created, which callers can compare to tell if the store
+     * changed in between
+     */
+    public long modifications() {
+        return modifications;
+    }
+
+    /**
+     * Appends a record, under the next id.
+     *
+     * @param r the {@link Rectangle} to be stored
+     * @return the id of the new record
+     */
+    public long append(Rectangle r) {
+        long id = slots + 1;
+        put(id, r);
+        return id;
+    }
+
+    /**
+     * Writes the record with the given id, whether or not it is live, and extends the used slots up to it if needed.
+     * Log replay uses it to restore records under their original ids.
+     *
+     * @param id the record id, greater than 0
+     * @param r  the {@link Rectangle} to be stored
+     */
+    public void put(long id, Rectangle r) {
+        long slot = id - 1;
+        while (segmentOf(slot) >= segments.size()) {
+            segments.add(newSegment());
+        }
+        if (!contains(id)) {
+            live++;
+        }
+        write(slot, id, r);
+        slots = Math.max(slots, id);
+        writeHeader();
+    }
+
+    /**
+     * Replaces the {@link Rectangle} of a live record.
+     *
+     * @param id the record id
+     * @param r  the new {@link Rectangle}
+     * @return true if the record was replaced; false if there is no live record with that id
+     */
+    public boolean update(long id, Rectangle r) {
+        if (!contains(id)) {
+            return false;
+        }
+        write(id - 1, id, r);
+        return true;
+    }
+
+    /**
+     * Deletes a live record.
+     *
+     * @param id the record id
+     * @return true if the record was deleted; false if there is no live record with that id
+     */
+    public boolean delete(long id) {
+        if (!contains(id)) {
+            return false;
+        }
+        keepForSnapshot(id - 1);
+        segment(id - 1).putLong(offset(id - 1), 0);
+        live--;
+        modifications++;
+        writeHeader();
+        return true;
+    }
+
+    /**
+     * @param id a record id
+     * @return true if there is a live record with that id; false otherwise
+     */
+    public boolean contains(long id) {
+        return id > 0 && id <= slots && idAt(id - 1) == id;
+    }
+
+    /**
+     * @param id a record id
+     * @return the {@link Rectangle} of the live record with that id, or null if there is none
+     */
+    public Rectangle get(long id) {
+        if (!contains(id)) {
+            return null;
+        }
+        ByteBuffer segment = segment(id - 1);
+        int offset = offset(id - 1);
+        return new Rectangle(segment.getInt(offset + 8), segment.getInt(offset + 12),
+                segment.getInt(offset + 16), segment.getInt(offset + 20));
+    }
+
+    /**
+     * Reports every live record of the slots in [from, to), in slot order, reading them in place.
+     *
+     * @param from     the first slot
+     * @param to       the slot after the last one
+     * @param consumer the callback receiving each record
+     */
+    public void scan(long from, long to, RecordConsumer consumer) {
+        for (long slot = from; slot < to; slot++) {
+            ByteBuffer segment = segment(slot);
+            int offset = offset(slot);
+            long id = segment.getLong(offset);
+            if (id != 0) {
+                consumer.accept(id, segment.getInt(offset + 8), segment.getInt(offset + 12),
+                        segment.getInt(offset + 16), segment.getInt(offset + 20));
+            }
+        }
+    }
+
+    /**
+     * Reports every live record of the slots in [from, to) for which the relation holds with the query, with the
+     * semantics of {@link SpatialRelation#test(Rectangle, Rectangle)}, without creating a {@link Rectangle} for the
+     * records that don't match.
+     *
+     * @param from     the first slot
+     * @param to       the slot after the last one
+     * @param relation the relation to be tested
+     * @param query    the query {@link Rectangle}
+     * @param consumer the callback receiving each matching record
+     */
+    public void scan(long from, long to, SpatialRelation relation, Rectangle query, RecordConsumer consumer) {
+        scan(from, to, (id, x, y, width, height) -> {
+            if (relation.test(x, y, width, height, query)) {
+                consumer.accept(id, x, y, width, height);
+            }
+        });
+    }
+
+    /**
+     * Atomically replaces the snapshot file with the current records: they are written to a temporary file next to
+     * it, which is synced, then moved over the snapshot file. The store keeps using its current segments, so it can
+     * be read while the snapshot is written.
+     *
+     * @throws IOException if the snapshot can't be written
+     * @throws IllegalStateException if the store isn't backed by a file, or a snapshot is already being written
+     */
+    public void snapshot() throws IOException {
+        beginSnapshot();
+        try {
+            copySnapshot(Integer.MAX_VALUE);
+            finishSnapshot();
+        } catch (IOException | RuntimeException e) {
+            abortSnapshot();
+            throw e;
+        }
+    }
+
+    /**
+     * Starts writing a snapshot of the current records to a temporary file next to the snapshot file. The records
+     * are copied by {@link #copySnapshot(int)}, and changes can be made in between.
+     *
+     * @throws IOException if the temporary file can't be created
+     * @throws IllegalStateException if the store isn't backed by a file, or a snapshot is already being written
+     */
+    public void beginSnapshot() throws IOException {
+        if (path == null) {
+            throw new IllegalStateException("The store isn't backed by a file");
+        }
+        if (pending != null) {
+            throw new IllegalStateException("A snapshot is already being written");
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = segments.get(0).duplicate();
+            header.position(0).limit(RECORD_BYTES);
+            writeFully(channel, header, 0);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        pending = new PendingSnapshot(temporary, channel, slots, segments.size());
+    }
+
+    /**
+     * Copies the next records of the snapshot begun by {@link #beginSnapshot()}, as they were when it began.
+     *
+     * @param maxSlots the largest number of slots to copy
+     * @return true if every slot is copied, so the snapshot can be finished; false otherwise
+     * @throws IOException if the records can't be written
+     * @throws IllegalStateException if no snapshot is being written
+     */
+    public boolean copySnapshot(int maxSlots) throws IOException {
+        PendingSnapshot snapshot = pendingSnapshot();
+        long from = snapshot.copied;
+        long to = Math.min(snapshot.slots, from + maxSlots);
+        for (long slot = from; slot < to; ) {
+            int segment = segmentOf(slot);
+            // slot s is in segment (s + 1) / SEGMENT_SLOTS
+            long end = Math.min(to, (long) (segment + 1) * SEGMENT_SLOTS - 1);
+            ByteBuffer records = segments.get(segment).duplicate();
+            records.position(offset(slot)).limit(offset(slot) + (int) (end - slot) * RECORD_BYTES);
+            writeFully(snapshot.channel, records, (slot + 1) * RECORD_BYTES);
+            slot = end;
+        }
+        Map<Long, byte[]> changed = snapshot.previous.subMap(from, to);
+        for (Map.Entry<Long, byte[]> e : changed.entrySet()) {
+            writeFully(snapshot.channel, ByteBuffer.wrap(e.getValue()), (e.getKey() + 1) * RECORD_BYTES);
+        }
+        changed.clear();
+        snapshot.copied = to;
+        return to == snapshot.slots;
+    }
+
+    /**
+     * Syncs the snapshot whose records are all copied, and atomically moves it over the snapshot file. Changes can be
+     * made meanwhile, since they no longer concern the snapshot.
+     *
+     * @throws IOException if the snapshot can't be synced or moved
+     * @throws IllegalStateException if no snapshot is being written, or some of its records aren't copied
+     */
+    public void finishSnapshot() throws IOException {
+        PendingSnapshot snapshot = pendingSnapshot();
+        if (snapshot.copied < snapshot.slots) {
+            throw new IllegalStateException("The snapshot isn't copied");
+        }
+        try (FileChannel channel = snapshot.channel) {
+            // pads the file to whole segments, leaving a sparse tail
+            long size = (long) snapshot.segments * SEGMENT_BYTES;
+            if (channel.size() < size) {
+                writeFully(channel, ByteBuffer.allocate(1), size - 1);
+            }
+            channel.force(true);
+        }
+        Files.move(snapshot.temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        pending = null;
+        Path directory = path.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Gives up the snapshot being written, if any, leaving the snapshot file as it was.
+     */
+    public void abortSnapshot() {
+        PendingSnapshot snapshot = pending;
+        if (snapshot != null) {
+            pending = null;
+            try {
+                snapshot.channel.close();
+                Files.deleteIfExists(snapshot.temporary);
+            } catch (IOException e) {
+                // the temporary file is truncated by the next snapshot
+            }
+        }
+    }
+
+    private PendingSnapshot pendingSnapshot() {
+        PendingSnapshot snapshot = pending;
+        if (snapshot == null) {
+            throw new IllegalStateException("No snapshot is being written");
+        }
+        return snapshot;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Maps the snapshot file again, releasing the memory held by the records changed since it was mapped. The
+     * snapshot must hold the current records, as right after {@link #snapshot()} with no change in between.
+     *
+     * @throws IOException if the snapshot can't be mapped
+     */
+    public void reload() throws IOException {
+        map();
+    }
+
+    /**
+     * Releases the segments, giving up the snapshot being written, if any. Changes made since the last
+     * {@link #snapshot()} are lost.
+     */
+    @Override
+    public void close() {
+        abortSnapshot();
+        segments.clear();
+    }
+
+    /**
+     * Keeps the content of a slot about to change, if it belongs to the snapshot being written and isn't copied yet
+     * nor kept already.
+     */
+    private void keepForSnapshot(long slot) {
+        PendingSnapshot snapshot = pending;
+        if (snapshot != null && slot >= snapshot.copied && slot < snapshot.slots
+                && !snapshot.previous.containsKey(slot)) {
+            byte[] record = new byte[RECORD_BYTES];
+            ByteBuffer segment = segment(slot).duplicate();
+            segment.position(offset(slot));
+            segment.get(record);
+            snapshot.previous.put(slot, record);
+        }
+    }
+
+    private long idAt(long slot) {
+        return segment(slot).getLong(offset(slot));
+    }
+
+    private void write(long slot, long id, Rectangle r) {
+        keepForSnapshot(slot);
+        ByteBuffer segment = segment(slot);
+        int offset = offset(slot);
+        segment.putLong(offset, id);
+        segment.putInt(offset + 8, r.getX());
+        segment.putInt(offset + 12, r.getY());
+        segment.putInt(offset + 16, r.getWidth());
+        segment.putInt(offset + 20, r.getHeight());
+        modifications++;
+    }
+
+    private void writeHeader() {
+        ByteBuffer header = segments.get(0);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putLong(8, slots);
+        header.putLong(16, live);
+    }
+
+    // slot -1 is the header, so slot s starts at byte (s + 1) * RECORD_BYTES
+    private static int segmentOf(long slot) {
+        return (int) ((slot + 1) / SEGMENT_SLOTS);
+    }
+
+    private ByteBuffer segment(long slot) {
+        return segments.get(segmentOf(slot));
+    }
+
+    private static int offset(long slot) {
+        return (int) ((slot + 1) % SEGMENT_SLOTS) * RECORD_BYTES;
+    }
+
+    /**
+     * Snapshot being written: the used slots and segments when it began, the slots copied so far, and the previous
+     * content of the slots changed since it began that aren't copied yet.
+     */
+    private static final class PendingSnapshot {
+        private final Path temporary;
+        private final FileChannel channel;
+        private final long slots;
+        private final int segments;
+        private final TreeMap<Long, byte[]> previous = new TreeMap<>();
+        private long copied;
+
+        private PendingSnapshot(Path temporary, FileChannel channel, long slots, int segments) {
+            this.temporary = temporary;
+            this.channel = channel;
+            this.slots = slots;
+            this.segments = segments;
+        }
+    }
+
+}
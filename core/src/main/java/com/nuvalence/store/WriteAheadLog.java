@@ -0,0 +1,359 @@
+package com.nuvalence.store;
+
+import com.nuvalence.model.Rectangle;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of the changes made to a {@link MappedRectangleStore} since its last snapshot, so they survive a
+ * crash without writing the whole store on every change.
+ * <p>
+ * The file starts with a magic number and a format version as int32, followed by fixed-size 29 bytes little-endian
+ * records: the operation as a byte, the record id as int64, {@code x}, {@code y}, {@code width} and {@code height} as
+ * int32, and a CRC-32C of the previous bytes as int32. Each record holds the state of the store record after the
+ * change, so replaying a record twice, or over a snapshot taken after it, gives the same result. Replay stops at the
+ * first incomplete or corrupted record, which is where a crash during a write leaves the log.
+ * <p>
+ * {@link #append} only hands the record to the operating system. Writers then call {@link #awaitDurable} before
+ * acknowledging the change, and the writers waiting together share one sync: the first one syncs every record
+ * appended so far, while the others wait for it, then sync whatever was appended during that sync.
+ * <p>
+ * A snapshot written while changes go on starts with {@link #rotate()}, which moves the records appended so far to a
+ * previous log file, {@code <path>.old}, and goes on in an empty log. The previous log is deleted by
+ * {@link #discardPrevious()} once the snapshot is in place; until then it is replayed before the log on opening, so a
+ * crash during the snapshot loses no change.
+ */
+public class WriteAheadLog implements Closeable {
+
+    /**
+     * Operations recorded in the log.
+     */
+    public enum Operation {
+        PUT, DELETE
+    }
+
+    /**
+     * Callback receiving the records found by a replay.
+     */
+    @FunctionalInterface
+    public interface RecordConsumer {
+        void accept(Operation operation, long id, int x, int y, int width, int height);
+    }
+
+    static final int MAGIC = 0x5257414C;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int RECORD_BYTES = 29;
+
+    private final Path path;
+    private final Path previous;
+    private FileChannel channel;
+    private final ByteBuffer record = ByteBuffer.allocateDirect(RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32C crc = new CRC32C();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+    private long records;
+    private long appended;
+    private long durable;
+    private boolean syncing;
+
+    private WriteAheadLog(Path path, FileChannel channel) {
+        this.path = path;
+        this.previous = path.resolveSibling(path.getFileName() + ".old");
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the log kept in the given file, creating an empty one if the file doesn't exist, and replays its valid
+     * records, after the ones of the previous log if a snapshot didn't complete. A corrupted tail left by a crash is
+     * cut off, so later records are appended after the valid ones.
+     *
+     * @param path     the log file
+     * @param consumer the callback receiving each valid record, in the order they were appended
+     * @return the opened log
+     * @throws IOException if the file can't be read or isn't a log file
+     */
+    public static WriteAheadLog open(Path path, RecordConsumer consumer) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            WriteAheadLog log = new WriteAheadLog(path, channel);
+            if (Files.exists(log.previous)) {
+                try (FileChannel previous = FileChannel.open(log.previous,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    log.records += replay(previous, log.previous, consumer);
+                }
+            }
+            if (channel.size() < HEADER_BYTES) {
+                log.reset();
+            } else {
+                log.records += replay(channel, path, consumer);
+            }
+            return log;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Replays the valid records of a log file, and cuts off its tail after them.
+     *
+     * @return the number of records replayed
+     */
+    private static long replay(FileChannel channel, Path path, RecordConsumer consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_BYTES * 4096).order(ByteOrder.LITTLE_ENDIAN);
+        channel.position(0);
+        readFully(channel, buffer, HEADER_BYTES);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException(path + " isn't a rectangle log file");
+        }
+        long position = HEADER_BYTES;
+        long records = 0;
+        CRC32C crc = new CRC32C();
+        buffer.clear();
+        while (channel.read(buffer) > 0 || buffer.position() > 0) {
+            buffer.flip();
+            while (buffer.remaining() >= RECORD_BYTES && valid(buffer, crc)) {
+                int start = buffer.position();
+                Operation operation = Operation.values()[buffer.get(start) - 1];
+                consumer.accept(operation, buffer.getLong(start + 1), buffer.getInt(start + 9),
+                        buffer.getInt(start + 13), buffer.getInt(start + 17), buffer.getInt(start + 21));
+                buffer.position(start + RECORD_BYTES);
+                position += RECORD_BYTES;
+                records++;
+            }
+            if (buffer.remaining() >= RECORD_BYTES || channel.position() == channel.size()) {
+                // a corrupted record, or an incomplete one at the end of the file
+                break;
+            }
+            buffer.compact();
+        }
+        channel.truncate(position);
+        channel.position(position);
+        return records;
+    }
+
+    private static boolean valid(ByteBuffer buffer, CRC32C crc) {
+        int start = buffer.position();
+        byte operation = buffer.get(start);
+        if (operation < 1 || operation > Operation.values().length) {
+            return false;
+        }
+        ByteBuffer content = buffer.duplicate();
+        content.position(start).limit(start + RECORD_BYTES - 4);
+        crc.reset();
+        crc.update(content);
+        return (int) crc.getValue() == buffer.getInt(start + RECORD_BYTES - 4);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        buffer.clear().limit(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of log");
+            }
+        }
+    }
+
+    /**
+     * @return the number of records in the log
+     */
+    public long records() {
+        lock.lock();
+        try {
+            return records;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends the state of a store record after a change.
+     *
+     * @param id the record id
+     * @param r  the {@link Rectangle} of the record
+     * @return the sequence number to be passed to {@link #awaitDurable}
+     * @throws IOException if the record can't be written
+     */
+    public long appendPut(long id, Rectangle r) throws IOException {
+        return append(Operation.PUT, id, r.getX(), r.getY(), r.getWidth(), r.getHeight());
+    }
+
+    /**
+     * Appends the deletion of a store record.
+     *
+     * @param id the record id
+     * @return the sequence number to be passed to {@link #awaitDurable}
+     * @throws IOException if the record can't be written
+     */
+    public long appendDelete(long id) throws IOException {
+        return append(Operation.DELETE, id, 0, 0, 0, 0);
+    }
+
+    private long append(Operation operation, long id, int x, int y, int width, int height) throws IOException {
+        lock.lock();
+        try {
+            record.clear();
+            record.put((byte) (operation.ordinal() + 1)).putLong(id).putInt(x).putInt(y).putInt(width).putInt(height);
+            record.flip();
+            crc.reset();
+            crc.update(record);
+            record.limit(RECORD_BYTES).putInt(RECORD_BYTES - 4, (int) crc.getValue());
+            record.position(0);
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            records++;
+            return ++appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the record with the given sequence number, and every record appended before it, are synced to the
+     * file.
+     *
+     * @param sequence the sequence number returned by the append
+     * @throws IOException if the file can't be synced
+     */
+    public void awaitDurable(long sequence) throws IOException {
+        lock.lock();
+        try {
+            while (durable < sequence) {
+                if (syncing) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                long target = appended;
+                FileChannel file = channel;
+                lock.unlock();
+                try {
+                    file.force(false);
+                } finally {
+                    lock.lock();
+                    syncing = false;
+                    synced.signalAll();
+                }
+                durable = Math.max(durable, target);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Empties the log, once the changes it holds are in a snapshot. Writers waiting for their records to be synced
+     * are released, since their changes are in the snapshot.
+     *
+     * @throws IOException if the file can't be truncated
+     */
+    public void reset() throws IOException {
+        lock.lock();
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            channel.truncate(0);
+            channel.write(header, 0);
+            channel.position(HEADER_BYTES);
+            channel.force(true);
+            records = 0;
+            durable = appended;
+            synced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the records appended so far to the previous log, and goes on in an empty log, before a snapshot of the
+     * store starts. Writers waiting for their records to be synced are released, since the previous log is synced. If
+     * the previous log is still there, because the last snapshot didn't complete, the records are appended to it, so
+     * it keeps every change made since the last complete snapshot.
+     *
+     * @throws IOException if the logs can't be written
+     */
+    public void rotate() throws IOException {
+        lock.lock();
+        try {
+            // the channel may be replaced, so no sync must be running on it
+            while (syncing) {
+                synced.awaitUninterruptibly();
+            }
+            channel.force(false);
+            if (Files.exists(previous)) {
+                try (FileChannel target = FileChannel.open(previous, StandardOpenOption.WRITE)) {
+                    long size = channel.size();
+                    for (long position = HEADER_BYTES; position < size; ) {
+                        position += channel.transferTo(position, size - position, target.position(target.size()));
+                    }
+                    target.force(false);
+                }
+                reset();
+                return;
+            }
+            channel.close();
+            Files.move(path, previous, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            reset();
+            syncDirectory();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the previous log, once the snapshot started after {@link #rotate()} is in place.
+     *
+     * @throws IOException if the previous log can't be deleted
+     */
+    public void discardPrevious() throws IOException {
+        lock.lock();
+        try {
+            if (Files.deleteIfExists(previous)) {
+                syncDirectory();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void syncDirectory() throws IOException {
+        try (FileChannel directory = FileChannel.open(path.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        }
+    }
+
+    /**
+     * Syncs and closes the log file.
+     *
+     * @throws IOException if the file can't be synced or closed
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (channel.isOpen()) {
+                channel.force(false);
+                channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.nuvalence.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentUnionFindTest {
+
+    @Test
+    public void newSets_holdOneIndexEach() {
+        ConcurrentUnionFind sets = new ConcurrentUnionFind(3);
+
+        assertEquals(1, sets.find(1));
+        assertArrayEquals(new int[]{0, 1, 2}, sets.labels());
+    }
+
+    @Test
+    public void union_mergesOnce_andNumbersSetsByTheirSmallestIndex() {
+        ConcurrentUnionFind sets = new ConcurrentUnionFind(6);
+
+        assertTrue(sets.union(4, 1));
+        assertTrue(sets.union(5, 4));
+        assertFalse(sets.union(1, 5));
+        assertTrue(sets.union(3, 2));
+
+        assertEquals(1, sets.find(5));
+        assertArrayEquals(new int[]{0, 1, 2, 2, 1, 1}, sets.labels());
+        int[] labels = new int[6];
+        assertEquals(3, sets.labels(labels));
+        assertArrayEquals(sets.labels(), labels);
+    }
+
+    @Test
+    public void concurrentUnions_matchSequentialUnions() throws InterruptedException {
+        int n = 100_000;
+        Random random = new Random(3);
+        int[][] pairs = new int[n][];
+        for (int k = 0; k < n; k++) {
+            pairs[k] = new int[]{random.nextInt(n), random.nextInt(n)};
+        }
+        ConcurrentUnionFind sequential = new ConcurrentUnionFind(n);
+        for (int[] pair : pairs) {
+            sequential.union(pair[0], pair[1]);
+        }
+
+        ConcurrentUnionFind concurrent = new ConcurrentUnionFind(n);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            pool.submit(() -> IntStream.range(0, n).parallel()
+                    .forEach(k -> concurrent.union(pairs[k][0], pairs[k][1]))).join();
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        assertArrayEquals(sequential.labels(), concurrent.labels());
+    }
+}
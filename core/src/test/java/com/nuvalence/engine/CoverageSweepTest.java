@@ -0,0 +1,128 @@
+package com.nuvalence.engine;
+
+import com.nuvalence.model.Coverage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoverageSweepTest {
+
+    @Test
+    public void noBoxes_coverNothing() {
+        int[] none = new int[0];
+        assertEquals(new Coverage(1, 0, 0, List.of()), CoverageSweep.coverage(none, none, none, none, 1));
+    }
+
+    @Test
+    public void tripleOverlap_isCountedOnce() {
+        Coverage coverage = CoverageSweep.coverage(new int[]{0, 1, 2}, new int[]{0, 0, 0}, new int[]{4, 5, 6},
+                new int[]{2, 2, 2}, 3);
+
+        assertEquals(12, coverage.getUnionArea());
+        assertEquals(4, coverage.getCoveredArea());
+        assertEquals(List.of(List.of(2, 0, 4, 0, 4, 2, 2, 2)), coverage.getOutline());
+    }
+
+    @Test
+    public void overlappingBoxes_haveOneCounterclockwiseOutline() {
+        Coverage coverage = CoverageSweep.coverage(new int[]{0, 2}, new int[]{0, 1}, new int[]{3, 5},
+                new int[]{2, 4}, 1);
+
+        assertEquals(6 + 9 - 1, coverage.getUnionArea());
+        assertEquals(List.of(List.of(0, 0, 3, 0, 3, 1, 5, 1, 5, 4, 2, 4, 2, 2, 0, 2)), coverage.getOutline());
+    }
+
+    @Test
+    public void frame_hasClockwiseHole() {
+        // four boxes around the hole [2, 4] x [2, 4]
+        Coverage coverage = CoverageSweep.coverage(new int[]{0, 0, 0, 4}, new int[]{0, 4, 0, 0},
+                new int[]{6, 6, 2, 6}, new int[]{2, 6, 6, 6}, 1);
+
+        assertEquals(32, coverage.getUnionArea());
+        assertEquals(List.of(List.of(0, 0, 6, 0, 6, 6, 0, 6), List.of(2, 2, 2, 4, 4, 4, 4, 2)), coverage.getOutline());
+    }
+
+    @Test
+    public void boxesTouchingAtCorners_keepSeparateRings() {
+        Coverage coverage = CoverageSweep.coverage(new int[]{0, 1, 0}, new int[]{0, 1, 2}, new int[]{1, 2, 1},
+                new int[]{1, 2, 3}, 1);
+
+        assertEquals(3, coverage.getOutline().size());
+        assertEquals(3, area(coverage.getOutline()));
+    }
+
+    @Test
+    public void largeCoordinates_dontOverflow() {
+        int min = Integer.MIN_VALUE / 2;
+        int max = Integer.MAX_VALUE / 2;
+        Coverage coverage = CoverageSweep.coverage(new int[]{min, min}, new int[]{min, min}, new int[]{max, max},
+                new int[]{max, max}, 2);
+
+        long side = (long) max - min;
+        assertEquals(side * side, coverage.getUnionArea());
+        assertEquals(side * side, coverage.getCoveredArea());
+    }
+
+    @Test
+    public void invalidK_isRejected() {
+        int[] none = new int[0];
+        assertThrows(IllegalArgumentException.class, () -> CoverageSweep.coverage(none, none, none, none, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> CoverageSweep.coverage(none, none, none, none, CoverageSweep.MAX_K + 1));
+    }
+
+    @Test
+    public void randomBoxes_matchCountingEveryCell() {
+        Random random = new Random(3);
+        for (int round = 0; round < 50; round++) {
+            int n = 1 + random.nextInt(40);
+            int[] x0 = new int[n];
+            int[] y0 = new int[n];
+            int[] x1 = new int[n];
+            int[] y1 = new int[n];
+            int[][] cells = new int[40][40];
+            for (int i = 0; i < n; i++) {
+                x0[i] = random.nextInt(30);
+                y0[i] = random.nextInt(30);
+                x1[i] = x0[i] + random.nextInt(10);
+                y1[i] = y0[i] + random.nextInt(10);
+                for (int x = x0[i]; x < x1[i]; x++) {
+                    for (int y = y0[i]; y < y1[i]; y++) {
+                        cells[x][y]++;
+                    }
+                }
+            }
+            for (int k = 1; k <= 4; k++) {
+                long union = 0;
+                long covered = 0;
+                for (int[] column : cells) {
+                    for (int c : column) {
+                        union += c >= 1 ? 1 : 0;
+                        covered += c >= k ? 1 : 0;
+                    }
+                }
+                Coverage coverage = CoverageSweep.coverage(x0, y0, x1, y1, k);
+                assertEquals(union, coverage.getUnionArea());
+                assertEquals(covered, coverage.getCoveredArea());
+                // holes run clockwise, so the signed areas of the rings add up to the covered area
+                assertEquals(covered, area(coverage.getOutline()), "round " + round + ", k " + k);
+            }
+        }
+    }
+
+    private static long area(List<List<Integer>> rings) {
+        long twice = 0;
+        for (List<Integer> ring : rings) {
+            int corners = ring.size() / 2;
+            for (int c = 0; c < corners; c++) {
+                int d = (c + 1) % corners;
+                twice += (long) ring.get(2 * c) * ring.get(2 * d + 1) - (long) ring.get(2 * d) * ring.get(2 * c + 1);
+            }
+        }
+        return twice / 2;
+    }
+
+}
@@ -0,0 +1,241 @@
+package com.nuvalence.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NestingSweepTest {
+
+    private static final int NONE = NestingSweep.NO_PARENT;
+
+    @Test
+    public void noBoxes_haveNoParents() {
+        int[] none = new int[0];
+        assertEquals(0, NestingSweep.parents(none, none, none, none).length);
+    }
+
+    @Test
+    public void nestedBoxes_getTheirSmallestContainer() {
+        // two columns on a page, the first holding a paragraph, and a box beside the page
+        int[] parents = NestingSweep.parents(new int[]{2, 0, 3, 11, 6}, new int[]{2, 0, 3, 0, 2},
+                new int[]{5, 10, 4, 12, 9}, new int[]{9, 10, 8, 1, 9});
+
+        assertArrayEquals(new int[]{1, NONE, 0, NONE, 1}, parents);
+    }
+
+    @Test
+    public void identicalContainers_parentIsTheFirstOne() {
+        int[] parents = NestingSweep.parents(new int[]{0, 0, 1}, new int[]{0, 0, 1},
+                new int[]{9, 9, 2}, new int[]{9, 9, 2});
+
+        assertArrayEquals(new int[]{NONE, NONE, 0}, parents);
+    }
+
+    @Test
+    public void sharedEdges_areNotStrictContainment() {
+        // the second box shares its left edge with the first, and the third its top edge with the second
+        int[] parents = NestingSweep.parents(new int[]{0, 0, 1}, new int[]{0, 1, 2},
+                new int[]{10, 5, 3}, new int[]{10, 5, 5});
+
+        assertArrayEquals(new int[]{NONE, NONE, 0}, parents);
+    }
+
+    @Test
+    public void identicalBoxes_doNotContainEachOther() {
+        int[] parents = NestingSweep.parents(new int[]{0, 1, 1}, new int[]{0, 1, 1},
+                new int[]{9, 2, 2}, new int[]{9, 2, 2});
+
+        assertArrayEquals(new int[]{NONE, 0, 0}, parents);
+    }
+
+    @Test
+    public void laminarBoxes_matchBruteForce() {
+        Random random = new Random(11);
+        for (int round = 0; round < 50; round++) {
+            Boxes boxes = new Boxes(2000);
+            // recursive subdivisions with shared edges, shrunk or not, so containers often share edges
+            boxes.split(random, random.nextInt(100) - 50, random.nextInt(100) - 50, 1000, 1000, 0);
+            int[][] b = boxes.shuffled(random);
+
+            // laminar boxes never need the fallback
+            assertArrayEquals(bruteForce(b[0], b[1], b[2], b[3]),
+                    NestingSweep.laminarParents(b[0], b[1], b[2], b[3], null), "round " + round);
+        }
+    }
+
+    @Test
+    public void overlappingBoxes_getTheirSmallestContainer() {
+        // every two boxes overlap, and only the first one contains another one, the second
+        int[] parents = NestingSweep.parents(new int[]{6, 9, 5, 4}, new int[]{5, 8, 5, 7},
+                new int[]{16, 11, 14, 10}, new int[]{13, 11, 10, 11});
+
+        assertArrayEquals(new int[]{NONE, 0, NONE, NONE}, parents);
+    }
+
+    @Test
+    public void overlappingBoxes_matchBruteForce() {
+        Random random = new Random(12);
+        for (int round = 0; round < 50; round++) {
+            int n = 1 + random.nextInt(1500);
+            int spread = 1 + random.nextInt(500);
+            int[] x0 = new int[n];
+            int[] y0 = new int[n];
+            int[] x1 = new int[n];
+            int[] y1 = new int[n];
+            // boxes with no area in some rounds
+            int smallest = round % 5 == 0 ? 0 : 1;
+            for (int i = 0; i < n; i++) {
+                x0[i] = random.nextInt(spread);
+                y0[i] = random.nextInt(spread);
+                x1[i] = x0[i] + smallest + random.nextInt(100);
+                y1[i] = y0[i] + smallest + random.nextInt(100);
+            }
+
+            assertArrayEquals(bruteForce(x0, y0, x1, y1), NestingSweep.parents(x0, y0, x1, y1), "round " + round);
+        }
+    }
+
+    @Test
+    public void laminarBoxesWithAFewCrossings_matchBruteForce() {
+        Random random = new Random(13);
+        for (int round = 0; round < 50; round++) {
+            Boxes boxes = new Boxes(2000);
+            boxes.split(random, 0, 0, 1000, 1000, 0);
+            int[][] b = boxes.shuffled(random);
+            // a box across others, placed anywhere in the sweep
+            int i = random.nextInt(b[0].length);
+            b[0][i] = random.nextInt(1000);
+            b[1][i] = random.nextInt(1000);
+            b[2][i] = b[0][i] + 1 + random.nextInt(300);
+            b[3][i] = b[1][i] + 1 + random.nextInt(300);
+
+            assertArrayEquals(bruteForce(b[0], b[1], b[2], b[3]), NestingSweep.parents(b[0], b[1], b[2], b[3]),
+                    "round " + round);
+        }
+    }
+
+    @Test
+    public void longChainsSharingEdges_areSweptInLinearithmicTime() {
+        // every box shares its left and bottom edges with all of its containers but the last box, which holds them all
+        int n = 200_000;
+        int[] x0 = new int[n + 1];
+        int[] y0 = new int[n + 1];
+        int[] x1 = new int[n + 1];
+        int[] y1 = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            x1[i] = n - i;
+            y1[i] = n - i;
+        }
+        x0[n] = -1;
+        y0[n] = -1;
+        x1[n] = n + 1;
+        y1[n] = n + 1;
+
+        int[] parents = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> NestingSweep.parents(x0, y0, x1, y1));
+
+        for (int i = 0; i < n; i++) {
+            assertEquals(n, parents[i]);
+        }
+        assertEquals(NONE, parents[n]);
+    }
+
+    @Test
+    public void invertedBoxes_areRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> NestingSweep.parents(new int[]{0}, new int[]{0}, new int[]{-1}, new int[]{1}));
+    }
+
+    private static int[] bruteForce(int[] x0, int[] y0, int[] x1, int[] y1) {
+        int n = x0.length;
+        int[] parents = new int[n];
+        for (int i = 0; i < n; i++) {
+            parents[i] = NONE;
+            long smallest = Long.MAX_VALUE;
+            for (int j = 0; j < n; j++) {
+                long area = ((long) x1[j] - x0[j]) * ((long) y1[j] - y0[j]);
+                if (x0[i] > x0[j] && y0[i] > y0[j] && x1[i] < x1[j] && y1[i] < y1[j] && area < smallest) {
+                    smallest = area;
+                    parents[i] = j;
+                }
+            }
+        }
+        return parents;
+    }
+
+    /**
+     * Laminar boxes, built by splitting boxes into two halves or shrinking them.
+     */
+    private static final class Boxes {
+        final int[] x0;
+        final int[] y0;
+        final int[] x1;
+        final int[] y1;
+        int count;
+
+        Boxes(int capacity) {
+            x0 = new int[capacity];
+            y0 = new int[capacity];
+            x1 = new int[capacity];
+            y1 = new int[capacity];
+        }
+
+        void split(Random random, int x, int y, int width, int height, int depth) {
+            if (count == x0.length || width < 1 || height < 1) {
+                return;
+            }
+            x0[count] = x;
+            y0[count] = y;
+            x1[count] = x + width;
+            y1[count] = y + height;
+            count++;
+            if (depth > 8) {
+                return;
+            }
+            switch (random.nextInt(4)) {
+                case 0:
+                    // two halves sharing an edge, both sharing three edges with this box
+                    int w = random.nextInt(width + 1);
+                    split(random, x, y, w, height, depth + 1);
+                    split(random, x + w, y, width - w, height, depth + 1);
+                    break;
+                case 1:
+                    int h = random.nextInt(height + 1);
+                    split(random, x, y, width, h, depth + 1);
+                    split(random, x, y + h, width, height - h, depth + 1);
+                    break;
+                case 2:
+                    // a copy, or a box sharing only some edges with this one
+                    int left = random.nextInt(2);
+                    int bottom = random.nextInt(2);
+                    split(random, x + left, y + bottom, width - left - random.nextInt(2),
+                            height - bottom - random.nextInt(2), depth + 1);
+                    break;
+                default:
+                    split(random, x + width / 4, y + height / 4, width / 2, height / 2, depth + 1);
+                    split(random, x + width / 8, y + height / 8, width / 16, height / 16, depth + 1);
+                    break;
+            }
+        }
+
+        int[][] shuffled(Random random) {
+            int[] order = new int[count];
+            for (int i = 0; i < count; i++) {
+                int j = random.nextInt(i + 1);
+                order[i] = order[j];
+                order[j] = i;
+            }
+            int[][] boxes = new int[4][count];
+            for (int i = 0; i < count; i++) {
+                boxes[0][i] = x0[order[i]];
+                boxes[1][i] = y0[order[i]];
+                boxes[2][i] = x1[order[i]];
+                boxes[3][i] = y1[order[i]];
+            }
+            return boxes;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.nuvalence.engine;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelSweepTest {
+
+    private static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterAll
+    public static void shutDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void emptyInput_findsNoPairs() {
+        int[] none = new int[0];
+        assertEquals(0, ParallelSweep.sortedPairs(none, none, none, none, ParallelSweep::pair, pool, 8).length);
+    }
+
+    @Test
+    public void stripBounds_mergeSharedLeftEdges() {
+        long[] bounds = ParallelSweep.stripBounds(new int[]{5, 5, 5, 5, 5, 5, 9, 9}, 4);
+
+        assertArrayEquals(new long[]{Long.MIN_VALUE, 5, 9, Long.MAX_VALUE}, bounds);
+    }
+
+    @Test
+    public void pairsCrossingStrips_areReportedOnce() {
+        // a wide box crossing every strip, touching narrow boxes in each of them and one at its right edge
+        int[] x0 = {0, 10, 20, 30, 40, 100};
+        int[] y0 = {0, 0, 5, 9, 10, 0};
+        int[] x1 = {100, 11, 21, 31, 41, 101};
+        int[] y1 = {10, 1, 6, 10, 11, 1};
+
+        long[] pairs = ParallelSweep.sortedPairs(x0, y0, x1, y1,
+                (i, j) -> ParallelSweep.pair(Math.min(i, j), Math.max(i, j)), pool, 6);
+
+        assertArrayEquals(new long[]{ParallelSweep.pair(0, 1), ParallelSweep.pair(0, 2), ParallelSweep.pair(0, 3),
+                ParallelSweep.pair(0, 4), ParallelSweep.pair(0, 5)}, pairs);
+    }
+
+    @Test
+    public void progress_countsEachStripMember_andStopsWhenCancelled() {
+        Random random = new Random(4);
+        int n = 50_000;
+        int[] x0 = new int[n];
+        int[] y0 = new int[n];
+        int[] x1 = new int[n];
+        int[] y1 = new int[n];
+        for (int i = 0; i < n; i++) {
+            x0[i] = random.nextInt(100_000);
+            y0[i] = random.nextInt(100_000);
+            x1[i] = x0[i] + random.nextInt(i % 100 == 0 ? 50_000 : 100);
+            y1[i] = y0[i] + random.nextInt(100);
+        }
+
+        SweepProgress progress = new SweepProgress();
+        long[] pairs = ParallelSweep.sortedPairs(x0, y0, x1, y1, ParallelSweep::pair, pool, 16, progress);
+        assertEquals(1.0, progress.fraction());
+        assertArrayEquals(ParallelSweep.sortedPairs(x0, y0, x1, y1, ParallelSweep::pair, pool, 16), pairs);
+
+        SweepProgress cancelled = new SweepProgress();
+        cancelled.cancel();
+        assertThrows(CancellationException.class,
+                () -> ParallelSweep.sortedPairs(x0, y0, x1, y1, ParallelSweep::pair, pool, 16, cancelled));
+        assertThrows(CancellationException.class, () -> PlaneSweep.touchingPairs(x0, y0, x1, y1, (i, j) -> {
+        }, cancelled));
+        assertThrows(CancellationException.class, () -> NestingSweep.parents(x0, y0, x1, y1, cancelled));
+    }
+
+    @Test
+    public void progress_limitingResults_stopsTheSweepPastTheLimit() {
+        Random random = new Random(6);
+        int n = 50_000;
+        int[] x0 = new int[n];
+        int[] y0 = new int[n];
+        int[] x1 = new int[n];
+        int[] y1 = new int[n];
+        for (int i = 0; i < n; i++) {
+            x0[i] = random.nextInt(10_000);
+            y0[i] = random.nextInt(10_000);
+            x1[i] = x0[i] + random.nextInt(100);
+            y1[i] = y0[i] + random.nextInt(100);
+        }
+        long[] expected = ParallelSweep.sortedPairs(x0, y0, x1, y1, ParallelSweep::pair, pool, 16);
+
+        SweepProgress enough = new SweepProgress();
+        enough.limitResults(expected.length);
+        assertArrayEquals(expected, ParallelSweep.sortedPairs(x0, y0, x1, y1, ParallelSweep::pair, pool, 16, enough));
+        assertFalse(enough.isOverLimit());
+
+        SweepProgress tooFew = new SweepProgress();
+        tooFew.limitResults(expected.length - 1);
+        assertThrows(CancellationException.class,
+                () -> ParallelSweep.sortedPairs(x0, y0, x1, y1, ParallelSweep::pair, pool, 16, tooFew));
+        assertTrue(tooFew.isOverLimit());
+        assertTrue(tooFew.isCancelled());
+    }
+
+    @Test
+    public void randomBoxes_matchPlaneSweep_forAnyNumberOfStrips() {
+        Random random = new Random(9);
+        for (int round = 0; round < 10; round++) {
+            int n = 2000;
+            int[] x0 = new int[n];
+            int[] y0 = new int[n];
+            int[] x1 = new int[n];
+            int[] y1 = new int[n];
+            for (int i = 0; i < n; i++) {
+                // some boxes on a coarse lattice so that edges are shared, and some wide ones crossing many strips
+                x0[i] = round % 2 == 0 ? random.nextInt(1000) : random.nextInt(50) * 20;
+                y0[i] = random.nextInt(1000);
+                x1[i] = x0[i] + (i % 50 == 0 ? 400 : random.nextInt(30));
+                y1[i] = y0[i] + random.nextInt(30);
+            }
+            long[] expected = sequential(x0, y0, x1, y1);
+
+            for (int strips : new int[]{1, 2, 7, 64}) {
+                long[] pairs = ParallelSweep.sortedPairs(x0, y0, x1, y1,
+                        (i, j) -> ParallelSweep.pair(Math.min(i, j), Math.max(i, j)), pool, strips);
+                assertArrayEquals(expected, pairs, "strips " + strips);
+            }
+        }
+    }
+
+    @Test
+    public void noPair_isLeftOut() {
+        int[] x0 = {0, 1, 2};
+        int[] y0 = {0, 0, 0};
+        int[] x1 = {5, 5, 5};
+        int[] y1 = {5, 5, 5};
+
+        long[] pairs = ParallelSweep.sortedPairs(x0, y0, x1, y1,
+                (i, j) -> i + j == 2 ? ParallelSweep.NO_PAIR : ParallelSweep.pair(Math.min(i, j), Math.max(i, j)), pool, 2);
+
+        assertArrayEquals(new long[]{ParallelSweep.pair(0, 1), ParallelSweep.pair(1, 2)}, pairs);
+    }
+
+    private static long[] sequential(int[] x0, int[] y0, int[] x1, int[] y1) {
+        long[][] found = {new long[16]};
+        int[] size = {0};
+        PlaneSweep.touchingPairs(x0, y0, x1, y1, (i, j) -> {
+            if (size[0] == found[0].length) {
+                found[0] = Arrays.copyOf(found[0], size[0] * 2);
+            }
+            found[0][size[0]++] = ParallelSweep.pair(Math.min(i, j), Math.max(i, j));
+        });
+        long[] pairs = Arrays.copyOf(found[0], size[0]);
+        Arrays.sort(pairs);
+        return pairs;
+    }
+
+}
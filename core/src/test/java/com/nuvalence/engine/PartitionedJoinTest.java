@@ -0,0 +1,163 @@
+package com.nuvalence.engine;
+
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.SpatialRelation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionedJoinTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    public void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void join_smallBudget_spillsAndChunks_andFindsEachPairOnce() throws IOException {
+        Random random = new Random(4);
+        List<Rectangle> parcels = new ArrayList<>();
+        for (int i = 0; i < 6000; i++) {
+            // parcels on a lattice, so many of them share edges and corners with the zones
+            parcels.add(new Rectangle(random.nextInt(200) * 5, random.nextInt(200) * 5, 5 + random.nextInt(3) * 5, 5));
+        }
+        List<Rectangle> zones = new ArrayList<>();
+        for (int i = 0; i < 800; i++) {
+            zones.add(new Rectangle(random.nextInt(40) * 25, random.nextInt(40) * 25, 25 + random.nextInt(4) * 25, 50));
+        }
+        zones.add(new Rectangle(-100, -100, 1200, 1200));
+        Path left = write("parcels", parcels);
+        Path right = write("zones", zones);
+        // partitions of 100 records, and chunks of the minimum size
+        PartitionedJoin join = new PartitionedJoin(executor, 3, 12 * 2000, dir);
+
+        for (SpatialRelation relation : SpatialRelation.values()) {
+            Set<Long> expected = new TreeSet<>();
+            for (int i = 0; i < parcels.size(); i++) {
+                for (int j = 0; j < zones.size(); j++) {
+                    if (relation.test(parcels.get(i), zones.get(j))) {
+                        expected.add((long) i << 32 | j);
+                    }
+                }
+            }
+            Set<Long> found = new TreeSet<>();
+            long pairs = join.join(PartitionedJoin.scan(left, "left"), PartitionedJoin.scan(right, "right"), relation,
+                    (l, r) -> assertTrue(found.add((long) l << 32 | r), relation + " " + l + " " + r));
+
+            assertEquals(expected, found, relation.toString());
+            assertEquals(expected.size(), pairs);
+        }
+        assertEquals(List.of("parcels", "zones"), files());
+    }
+
+    @Test
+    public void join_disjointExtents_findsNothing() throws IOException {
+        Path left = write("left", List.of(new Rectangle(0, 0, 10, 10)));
+        Path right = write("right", List.of(new Rectangle(11, 0, 10, 10)));
+
+        long pairs = new PartitionedJoin(executor, 3, 1 << 20, dir).join(PartitionedJoin.scan(left, "left"),
+                PartitionedJoin.scan(right, "right"), SpatialRelation.INTERSECTS, (l, r) -> fail());
+
+        assertEquals(0, pairs);
+    }
+
+    @Test
+    public void scan_invalidDataset_isRejected() throws IOException {
+        Path partial = Files.write(dir.resolve("partial"), new byte[20]);
+        Path empty = write("empty", List.of(new Rectangle(0, 0, 1, 1), new Rectangle(0, 0, 0, 1)));
+
+        assertEquals("The left dataset should be made of whole 16 bytes records.",
+                assertThrows(IllegalArgumentException.class, () -> PartitionedJoin.scan(partial, "left")).getMessage());
+        assertEquals("The rectangle 1 of the right dataset isn't valid.",
+                assertThrows(IllegalArgumentException.class, () -> PartitionedJoin.scan(empty, "right")).getMessage());
+    }
+
+    @Test
+    public void join_failingConsumer_stopsTheWorkers_andDeletesThePartitions() throws IOException {
+        List<Rectangle> squares = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            squares.add(new Rectangle(i % 100, i / 100, 2, 2));
+        }
+        Path data = write("squares", squares);
+        PartitionedJoin join = new PartitionedJoin(executor, 3, 12 * 2000, dir);
+        PartitionedJoin.Dataset dataset = PartitionedJoin.scan(data, "left");
+
+        IOException e = assertThrows(IOException.class, () -> join.join(dataset, dataset, SpatialRelation.INTERSECTS,
+                (l, r) -> {
+                    throw new IOException("the client left");
+                }));
+
+        assertEquals("the client left", e.getMessage());
+        assertEquals(List.of("squares"), files());
+    }
+
+    @Test
+    public void join_slowConsumer_onlyHoldsItsOwnWorkers() throws Exception {
+        List<Rectangle> squares = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            squares.add(new Rectangle(i % 100, i / 100, 2, 2));
+        }
+        PartitionedJoin.Dataset dataset = PartitionedJoin.scan(write("squares", squares), "left");
+        CountDownLatch released = new CountDownLatch(1);
+        // the stalled join has a worker of the 3 threads, and many tiles queued behind it
+        CompletableFuture<Long> stalled = CompletableFuture.supplyAsync(() -> {
+            try {
+                return new PartitionedJoin(executor, 1, 12 * 2000, dir).join(dataset, dataset,
+                        SpatialRelation.INTERSECTS, (l, r) -> {
+                            try {
+                                released.await();
+                            } catch (InterruptedException e) {
+                                throw new IOException(e);
+                            }
+                        });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        long pairs = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> new PartitionedJoin(executor, 2,
+                12 * 2000, dir).join(dataset, dataset, SpatialRelation.INTERSECTS, (l, r) -> {
+        }));
+        released.countDown();
+
+        assertEquals(pairs, stalled.get());
+    }
+
+    private Path write(String name, List<Rectangle> rectangles) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(16 * rectangles.size()).order(ByteOrder.LITTLE_ENDIAN);
+        rectangles.forEach(r -> bytes.putInt(r.getX()).putInt(r.getY()).putInt(r.getWidth()).putInt(r.getHeight()));
+        return Files.write(dir.resolve(name), bytes.array());
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.nuvalence.index;
+
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.RectangleBatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoxBufferTest {
+
+    private final List<Rectangle> rectangles = List.of(new Rectangle(0, 0, 2, 3), new Rectangle(-4, 5, 1, 1),
+            new Rectangle(7, -1, 10, 2));
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void listBatchAndFile_giveTheSameBoxes() throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(16 * rectangles.size()).order(ByteOrder.LITTLE_ENDIAN);
+        rectangles.forEach(r -> bytes.putInt(r.getX()).putInt(r.getY()).putInt(r.getWidth()).putInt(r.getHeight()));
+        Path file = Files.write(dir.resolve("rectangles.bin"), bytes.array());
+
+        List<long[]> expected = List.of(new long[]{1, 0, 0, 2, 3}, new long[]{2, -4, 5, -3, 6}, new long[]{3, 7, -1, 17, 1});
+        for (BoxBuffer boxes : List.of(BoxBuffer.of(rectangles), BoxBuffer.of(RectangleBatch.of(rectangles)),
+                BoxBuffer.read(file))) {
+            List<long[]> found = new ArrayList<>();
+            boxes.scan((id, x0, y0, x1, y1) -> found.add(new long[]{id, x0, y0, x1, y1}));
+            assertEquals(expected.size(), found.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertArrayEquals(expected.get(i), found.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void read_partialRecord_isRejected() throws IOException {
+        Path file = Files.write(dir.resolve("rectangles.bin"), new byte[20]);
+
+        assertThrows(IOException.class, () -> BoxBuffer.read(file));
+    }
+
+    @Test
+    public void accept_growsTheColumns_andIndexOfFindsIncreasingIds() {
+        BoxBuffer boxes = new BoxBuffer(1);
+        for (int i = 0; i < 100; i++) {
+            boxes.accept(2L * i + 1, i, i, i + 1, i + 1);
+        }
+
+        assertEquals(100, boxes.size());
+        assertEquals(30, boxes.indexOf(61));
+        assertEquals(30, boxes.getMinX(30));
+        assertTrue(boxes.indexOf(62) < 0);
+    }
+}
@@ -0,0 +1,182 @@
+package com.nuvalence.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressedIndexTest {
+
+    @Test
+    public void emptyIndex_findsNothing() {
+        CompressedIndex index = new CompressedIndex();
+        index.search(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+                (id, x0, y0, x1, y1) -> fail("unexpected entry " + id));
+        assertFalse(index.remove(1, 0, 0, 1, 1));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void search_reportsTouchingBoxes() {
+        CompressedIndex index = new CompressedIndex(0, 0, 20, 20);
+        index.insert(1, 0, 0, 10, 10);
+        index.insert(2, 10, 10, 12, 12);
+        index.insert(3, 13, 13, 14, 14);
+        index.insert(Long.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+        assertEquals(Set.of(1L, 2L, Long.MAX_VALUE), search(index, 10, 10, 10, 10));
+        assertEquals(Set.of(1L, 2L, 3L, Long.MAX_VALUE),
+                search(index, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void remove_needsMatchingIdAndBox() {
+        CompressedIndex index = new CompressedIndex(0, 0, 100, 100);
+        index.insert(1, 0, 0, 2, 2);
+        index.insert(2, -1000, -1000, 1000, 1000);
+
+        assertFalse(index.remove(1, 0, 0, 2, 3));
+        assertFalse(index.remove(3, 0, 0, 2, 2));
+        assertFalse(index.remove(1, -1000, -1000, 1000, 1000));
+        assertTrue(index.remove(1, 0, 0, 2, 2));
+        assertTrue(index.remove(2, -1000, -1000, 1000, 1000));
+        assertEquals(0, index.size());
+        assertEquals(Set.of(), search(index, 0, 0, 2, 2));
+    }
+
+    @Test
+    public void hilbertKeys_visitNeighbouringCellsInTurn() {
+        // the curve starts by filling the bottom left square of 64 by 64 cells
+        int[] cells = new int[64 * 64];
+        for (int x = 0; x < 64; x++) {
+            for (int y = 0; y < 64; y++) {
+                int key = CompressedIndex.hilbert(x, y);
+                assertTrue(key < cells.length, x + " " + y);
+                cells[key] = x << 8 | y;
+            }
+        }
+        for (int key = 1; key < cells.length; key++) {
+            int dx = Math.abs((cells[key] >> 8) - (cells[key - 1] >> 8));
+            int dy = Math.abs((cells[key] & 0xff) - (cells[key - 1] & 0xff));
+            assertEquals(1, dx + dy, "key " + key);
+        }
+    }
+
+    @Test
+    public void randomInsertsAndRemoves_splitBlocks_andMatchBruteForce() {
+        Random random = new Random(7);
+        CompressedIndex index = new CompressedIndex(-500, -500, 500, 500);
+        Map<Long, int[]> boxes = new HashMap<>();
+        for (int i = 0; i < 40_000; i++) {
+            // ids in no order, and a few boxes reaching outside the extent
+            long id = random.nextInt(1 << 30);
+            int x = random.nextInt(1000) - 500;
+            int y = random.nextInt(1000) - 500;
+            int size = i % 100 == 0 ? 3000 : 30;
+            int[] box = {x, y, x + random.nextInt(size), y + random.nextInt(size)};
+            if (boxes.putIfAbsent(id, box) == null) {
+                index.insert(id, box[0], box[1], box[2], box[3]);
+            }
+        }
+        assertTrue(index.blocks() > 2 * CompressedIndex.GROUP_BLOCKS, "groups weren't split");
+        Long[] ids = boxes.keySet().toArray(new Long[0]);
+        for (int i = 0; i < ids.length; i += 3) {
+            int[] box = boxes.remove(ids[i]);
+            assertTrue(index.remove(ids[i], box[0], box[1], box[2], box[3]));
+        }
+        assertEquals(boxes.size(), index.size());
+
+        assertMatchesBruteForce(index, boxes, random);
+        for (Map.Entry<Long, int[]> e : boxes.entrySet()) {
+            int[] b = e.getValue();
+            assertTrue(index.remove(e.getKey(), b[0], b[1], b[2], b[3]));
+        }
+        assertEquals(0, index.size());
+        assertEquals(0, index.blocks());
+    }
+
+    @Test
+    public void sameCenters_spanSeveralBlocks_andCanAllBeRemoved() {
+        CompressedIndex index = new CompressedIndex(0, 0, 1000, 1000);
+        for (long id = 1; id <= 1000; id++) {
+            index.insert(id, 500, 500, 510, 510);
+        }
+        index.insert(0, 0, 0, 1, 1);
+        assertTrue(index.blocks() > 4);
+
+        for (long id = 1000; id >= 1; id--) {
+            assertTrue(index.remove(id, 500, 500, 510, 510), "id " + id);
+        }
+        assertEquals(Set.of(0L), search(index, 0, 0, 1000, 1000));
+    }
+
+    @Test
+    public void load_compressesTheBoxes_andKeepsAcceptingChanges() {
+        Random random = new Random(11);
+        BoxBuffer buffer = new BoxBuffer();
+        Map<Long, int[]> boxes = new HashMap<>();
+        for (long id = 1; id <= 100_000; id++) {
+            int x = random.nextInt(100_000);
+            int y = random.nextInt(100_000);
+            int[] box = {x, y, x + 1 + random.nextInt(100), y + 1 + random.nextInt(100)};
+            boxes.put(id, box);
+            buffer.accept(id, box[0], box[1], box[2], box[3]);
+        }
+        CompressedIndex index = new CompressedIndex(0, 0, 100_100, 100_100);
+        index.insert(-1, 0, 0, 1, 1);
+
+        index.load(buffer);
+        assertEquals(100_000, index.size());
+        assertEquals((100_000 + CompressedIndex.BLOCK_ENTRIES - 1) / CompressedIndex.BLOCK_ENTRIES, index.blocks());
+        assertTrue(index.encodedBytes() < 8 * 100_000, index.encodedBytes() + " bytes");
+        assertEquals(100_000, buffer.size());
+
+        for (long id = 100_001; id <= 110_000; id++) {
+            int x = random.nextInt(100_000);
+            int y = random.nextInt(100_000);
+            int[] box = {x, y, x + 1 + random.nextInt(100), y + 1 + random.nextInt(100)};
+            boxes.put(id, box);
+            index.insert(id, box[0], box[1], box[2], box[3]);
+        }
+        for (long id = 1; id <= 110_000; id += 7) {
+            int[] box = boxes.remove(id);
+            assertTrue(index.remove(id, box[0], box[1], box[2], box[3]));
+        }
+        assertEquals(boxes.size(), index.size());
+        assertMatchesBruteForce(index, boxes, random);
+
+        index.load(new BoxBuffer());
+        assertEquals(0, index.size());
+        assertEquals(Set.of(), search(index, 0, 0, 100_000, 100_000));
+    }
+
+    private static void assertMatchesBruteForce(CompressedIndex index, Map<Long, int[]> boxes, Random random) {
+        int extent = boxes.values().stream().mapToInt(b -> b[2]).max().orElse(0);
+        for (int q = 0; q < 300; q++) {
+            int x = random.nextInt(extent + 200) - 200;
+            int y = random.nextInt(extent + 200) - 200;
+            int size = q % 10 == 0 ? extent / 2 : Math.max(1, extent / 50);
+            int x1 = x + random.nextInt(size);
+            int y1 = y + random.nextInt(size);
+            Set<Long> expected = new TreeSet<>();
+            boxes.forEach((id, b) -> {
+                if (b[0] <= x1 && x <= b[2] && b[1] <= y1 && y <= b[3]) {
+                    expected.add(id);
+                }
+            });
+            assertEquals(expected, search(index, x, y, x1, y1));
+        }
+    }
+
+    private static Set<Long> search(CompressedIndex index, int x0, int y0, int x1, int y1) {
+        Set<Long> found = new TreeSet<>();
+        index.search(x0, y0, x1, y1, (id, bx0, by0, bx1, by1) -> assertTrue(found.add(id)));
+        return found;
+    }
+
+}
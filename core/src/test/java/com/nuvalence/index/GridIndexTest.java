@@ -0,0 +1,138 @@
+package com.nuvalence.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GridIndexTest {
+
+    @Test
+    public void emptyGrid_findsNothing() {
+        GridIndex grid = new GridIndex(0, 0, 10, 10);
+        grid.search(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+                (id, x0, y0, x1, y1) -> fail("unexpected entry " + id));
+        assertEquals(0, grid.size());
+    }
+
+    @Test
+    public void search_reportsTouchingBoxesOnce() {
+        GridIndex grid = new GridIndex(0, 0, 4, 4);
+        grid.insert(1, 0, 0, 10, 10);
+        grid.insert(2, 10, 10, 12, 12);
+        grid.insert(3, 13, 13, 14, 14);
+        grid.insert(4, -1000, -1000, 1000, 1000);
+
+        assertEquals(Set.of(1L, 2L, 4L), search(grid, 10, 10, 10, 10));
+        assertEquals(Set.of(1L, 2L, 3L, 4L), search(grid, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void remove_needsMatchingIdAndBox() {
+        GridIndex grid = new GridIndex(0, 0, 4, 4);
+        grid.insert(1, 0, 0, 2, 2);
+        grid.insert(2, -1000, -1000, 1000, 1000);
+
+        assertFalse(grid.remove(1, 0, 0, 2, 3));
+        assertFalse(grid.remove(3, 0, 0, 2, 2));
+        assertFalse(grid.remove(1, -1000, -1000, 1000, 1000));
+        assertTrue(grid.remove(1, 0, 0, 2, 2));
+        assertTrue(grid.remove(2, -1000, -1000, 1000, 1000));
+        assertEquals(0, grid.size());
+        assertEquals(Set.of(), search(grid, 0, 0, 2, 2));
+    }
+
+    @Test
+    public void tinyCells_areRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new GridIndex(0, 0, GridIndex.MIN_CELL_SIZE - 1, 10));
+    }
+
+    @Test
+    public void randomInsertsAndRemoves_matchBruteForce() {
+        Random random = new Random(7);
+        GridIndex grid = new GridIndex(-3, 5, 20, 12);
+        Map<Long, int[]> boxes = new HashMap<>();
+        for (long id = 0; id < 5000; id++) {
+            int x = random.nextInt(1000) - 500;
+            int y = random.nextInt(1000) - 500;
+            int size = id % 100 == 0 ? 300 : 30;
+            int[] box = {x, y, x + random.nextInt(size), y + random.nextInt(size)};
+            boxes.put(id, box);
+            grid.insert(id, box[0], box[1], box[2], box[3]);
+        }
+        for (long id = 0; id < 5000; id += 3) {
+            int[] box = boxes.remove(id);
+            assertTrue(grid.remove(id, box[0], box[1], box[2], box[3]));
+        }
+        assertEquals(boxes.size(), grid.size());
+
+        for (int q = 0; q < 300; q++) {
+            int x = random.nextInt(1200) - 600;
+            int y = random.nextInt(1200) - 600;
+            // mostly small searches, with a few covering more cells than are occupied
+            int extent = q % 10 == 0 ? 5000 : 100;
+            int x1 = x + random.nextInt(extent);
+            int y1 = y + random.nextInt(extent);
+            Set<Long> expected = new TreeSet<>();
+            boxes.forEach((id, b) -> {
+                if (b[0] <= x1 && x <= b[2] && b[1] <= y1 && y <= b[3]) {
+                    expected.add(id);
+                }
+            });
+            assertEquals(expected, search(grid, x, y, x1, y1));
+        }
+
+        for (Map.Entry<Long, int[]> e : boxes.entrySet()) {
+            int[] b = e.getValue();
+            assertTrue(grid.remove(e.getKey(), b[0], b[1], b[2], b[3]));
+        }
+        assertEquals(0, grid.size());
+    }
+
+    @Test
+    public void movingBoxes_onlyKeepOccupiedCells() {
+        Random random = new Random(11);
+        GridIndex grid = new GridIndex(0, 0, 10, 10);
+        int[][] boxes = new int[200][];
+        for (int step = 0; step < 50; step++) {
+            // the boxes drift far away, so every cell they leave must be freed
+            int offset = step * 1000;
+            for (int id = 0; id < boxes.length; id++) {
+                int[] b = boxes[id];
+                if (b != null) {
+                    assertTrue(grid.remove(id, b[0], b[1], b[2], b[3]));
+                }
+                int x = offset + random.nextInt(200);
+                int y = offset + random.nextInt(200);
+                boxes[id] = new int[]{x, y, x + random.nextInt(15), y + random.nextInt(15)};
+                grid.insert(id, x, y, boxes[id][2], boxes[id][3]);
+            }
+            Set<Long> cells = new TreeSet<>();
+            for (int[] b : boxes) {
+                for (int cx = Math.floorDiv(b[0], 10); cx <= Math.floorDiv(b[2], 10); cx++) {
+                    for (int cy = Math.floorDiv(b[1], 10); cy <= Math.floorDiv(b[3], 10); cy++) {
+                        cells.add(((long) cx << 32) | (cy & 0xFFFFFFFFL));
+                    }
+                }
+            }
+            assertEquals(cells.size(), grid.cellCount());
+            assertEquals(boxes.length, search(grid, offset, offset, offset + 300, offset + 300).size());
+        }
+        for (int id = 0; id < boxes.length; id++) {
+            assertTrue(grid.remove(id, boxes[id][0], boxes[id][1], boxes[id][2], boxes[id][3]));
+        }
+        assertEquals(0, grid.cellCount());
+    }
+
+    private static Set<Long> search(GridIndex grid, int x0, int y0, int x1, int y1) {
+        Set<Long> found = new TreeSet<>();
+        grid.search(x0, y0, x1, y1, (id, bx0, by0, bx1, by1) -> assertTrue(found.add(id)));
+        return found;
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.nuvalence.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexStrategyTest {
+
+    @Test
+    public void statistics_summarizeTheBoxes() {
+        DatasetStatistics statistics = statistics(List.of(new int[]{0, 0, 10, 20}, new int[]{30, -10, 60, 10}));
+
+        assertEquals(2, statistics.getCount());
+        assertEquals(0, statistics.getMinX());
+        assertEquals(-10, statistics.getMinY());
+        assertEquals(60, statistics.getMaxX());
+        assertEquals(20, statistics.getMaxY());
+        assertEquals(20, statistics.getMeanWidth(), 1e-9);
+        assertEquals(20, statistics.getMeanHeight(), 1e-9);
+        assertEquals(0.5, statistics.getWidthVariation(), 1e-9);
+        assertEquals(0, statistics.getHeightVariation(), 1e-9);
+    }
+
+    @Test
+    public void auto_picksGridForEvenTiles() {
+        Random random = new Random(1);
+        List<int[]> tiles = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            int x = random.nextInt(10_000);
+            int y = random.nextInt(10_000);
+            tiles.add(new int[]{x, y, x + 40 + random.nextInt(20), y + 40 + random.nextInt(20)});
+        }
+        DatasetStatistics statistics = statistics(tiles);
+        assertTrue(statistics.getSkew() < 0.5, statistics.toString());
+
+        SpatialIndex index = IndexStrategy.AUTO.create(statistics);
+        assertEquals(GridIndex.class, index.getClass());
+        // tiles about 100 apart, so cells of 200 hold about 4 of them
+        assertEquals(200, ((GridIndex) index).getCellWidth(), 5);
+    }
+
+    @Test
+    public void auto_picksTreeForFewVariedOrClusteredBoxes() {
+        Random random = new Random(2);
+        List<int[]> varied = new ArrayList<>();
+        List<int[]> clustered = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            int x = random.nextInt(10_000);
+            int y = random.nextInt(10_000);
+            int size = (int) Math.exp(random.nextDouble() * 8);
+            varied.add(new int[]{x, y, x + size, y + size});
+            int center = (i % 3) * 5_000;
+            clustered.add(new int[]{center + x / 100, center + y / 100, center + x / 100 + 50, center + y / 100 + 50});
+        }
+
+        assertEquals(RTree.class, IndexStrategy.AUTO.create(statistics(varied.subList(0, 100))).getClass());
+        assertEquals(RTree.class, IndexStrategy.AUTO.create(statistics(varied)).getClass());
+        assertEquals(RTree.class, IndexStrategy.AUTO.create(statistics(clustered)).getClass());
+        assertEquals(GridIndex.class, IndexStrategy.GRID.create(statistics(clustered)).getClass());
+        assertEquals(RTree.class, IndexStrategy.RTREE.create(statistics(varied)).getClass());
+    }
+
+    @Test
+    public void grid_acceptsEmptyAndDegenerateDatasets() {
+        assertEquals(GridIndex.class, IndexStrategy.GRID.create(statistics(List.of())).getClass());
+        GridIndex points = (GridIndex) IndexStrategy.GRID.create(statistics(List.of(new int[]{5, 5, 5, 5}, new int[]{5, 5, 5, 5})));
+        assertEquals(GridIndex.MIN_CELL_SIZE, points.getCellWidth());
+    }
+
+    @Test
+    public void compressed_isKeyedOverTheExtent_andPickedForHugeDatasets() {
+        List<int[]> boxes = List.of(new int[]{0, 0, 10, 10}, new int[]{990, 990, 1000, 1000});
+
+        CompressedIndex index = (CompressedIndex) IndexStrategy.COMPRESSED.create(statistics(boxes));
+        assertEquals(0, index.key(0, 0, 0, 0));
+        assertEquals(CompressedIndex.class, IndexStrategy.COMPRESSED.create(statistics(List.of())).getClass());
+        DatasetStatistics huge = DatasetStatistics.of(consumer -> {
+            for (int i = 0; i < IndexStrategy.MIN_COMPRESSED_COUNT; i++) {
+                consumer.accept(i, i % 4096, i / 4096, i % 4096 + 1, i / 4096 + 1);
+            }
+        });
+        assertEquals(CompressedIndex.class, IndexStrategy.AUTO.create(huge).getClass());
+    }
+
+    private static DatasetStatistics statistics(List<int[]> boxes) {
+        return DatasetStatistics.of(consumer -> {
+            for (int i = 0; i < boxes.size(); i++) {
+                int[] b = boxes.get(i);
+                consumer.accept(i, b[0], b[1], b[2], b[3]);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.nuvalence.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NearestEntriesTest {
+
+    @Test
+    public void squaredDistance_isZeroForTouchingBoxes() {
+        assertEquals(0, NearestEntries.squaredDistance(0, 0, 2, 2, 2, 2, 3, 3));
+        assertEquals(25, NearestEntries.squaredDistance(0, 0, 2, 2, 5, 6, 7, 8));
+        assertEquals(9, NearestEntries.squaredDistance(0, 0, 2, 2, -5, 1, -3, 1));
+    }
+
+    @Test
+    public void offer_keepsTheNearest_tiesById() {
+        NearestEntries nearest = new NearestEntries(3, 0, 0, 0, 0);
+        nearest.offer(7, 5, 0, 6, 1);
+        nearest.offer(3, 0, 1, 1, 2);
+        nearest.offer(9, 0, 5, 1, 6);
+        nearest.offer(1, 0, 5, 1, 6);
+        nearest.offer(2, 9, 9, 9, 9);
+
+        assertEquals(3, nearest.size());
+        assertTrue(nearest.reaches(25));
+        assertFalse(nearest.reaches(26));
+        assertEquals(List.of(3L, 1L, 7L), report(nearest));
+    }
+
+    @Test
+    public void everyIndex_findsTheSameNearestEntriesAsBruteForce() {
+        List<Supplier<SpatialIndex>> indexes = List.of(RTree::new, () -> new GridIndex(-7, 3, 25, 15),
+                () -> new GridIndex(0, 0, 4, 4), () -> new CompressedIndex(-400, -1000, 400, 1000));
+        Random random = new Random(17);
+        List<int[]> boxes = new ArrayList<>();
+        for (int id = 0; id < 4000; id++) {
+            int x = random.nextInt(2000) - 1000;
+            int y = random.nextInt(2000) - 1000;
+            // clusters of small boxes, and a few large ones kept apart by the grid
+            int size = id % 200 == 0 ? 1500 : 1 + random.nextInt(20);
+            boxes.add(new int[]{id, x / 3, y, x / 3 + size, y + random.nextInt(size)});
+        }
+        for (Supplier<SpatialIndex> supplier : indexes) {
+            SpatialIndex index = supplier.get();
+            for (int[] box : boxes) {
+                index.insert(box[0], box[1], box[2], box[3], box[4]);
+            }
+            for (int q = 0; q < 200; q++) {
+                int x = random.nextInt(4000) - 2000;
+                int y = random.nextInt(4000) - 2000;
+                // points, boxes, and a few queries far from every box
+                int extent = q % 3 == 0 ? 0 : random.nextInt(300);
+                if (q % 50 == 0) {
+                    x = Integer.MAX_VALUE - extent;
+                }
+                int k = 1 + random.nextInt(q % 7 == 0 ? 5000 : 20);
+                NearestEntries nearest = new NearestEntries(k, x, y, x + extent, y + extent);
+                index.nearest(nearest);
+
+                assertEquals(bruteForce(boxes, k, nearest), report(nearest), index.getClass().getSimpleName());
+            }
+        }
+    }
+
+    private static List<Long> bruteForce(List<int[]> boxes, int k, NearestEntries query) {
+        List<int[]> sorted = new ArrayList<>(boxes);
+        sorted.sort(Comparator.<int[]>comparingDouble(b -> query.squaredDistance(b[1], b[2], b[3], b[4]))
+                .thenComparingInt(b -> b[0]));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < Math.min(k, sorted.size()); i++) {
+            ids.add((long) sorted.get(i)[0]);
+        }
+        return ids;
+    }
+
+    private static List<Long> report(NearestEntries nearest) {
+        List<Long> ids = new ArrayList<>();
+        nearest.report((id, x0, y0, x1, y1) -> ids.add(id));
+        return ids;
+    }
+}
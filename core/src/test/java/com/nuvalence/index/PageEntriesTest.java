@@ -0,0 +1,72 @@
+package com.nuvalence.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageEntriesTest {
+
+    @Test
+    public void offer_keepsTheSmallestIdsAfterTheCursor() {
+        PageEntries page = new PageEntries(3, 2);
+        page.offer(9, 0, 0, 1, 1);
+        page.offer(2, 0, 0, 1, 1);
+        page.offer(5, 5, 6, 7, 8);
+        page.offer(3, 0, 0, 1, 1);
+        page.offer(4, 1, 2, 3, 4);
+
+        assertEquals(2, page.size());
+        assertTrue(page.hasMore());
+        List<String> reported = new ArrayList<>();
+        page.report((id, x0, y0, x1, y1) -> reported.add(id + ":" + x0 + "," + y0 + "," + x1 + "," + y1));
+        assertEquals(List.of("4:1,2,3,4", "5:5,6,7,8"), reported);
+    }
+
+    @Test
+    public void offer_fewerEntriesThanTheLimit_hasNoMore() {
+        PageEntries page = new PageEntries(0, 2);
+        page.offer(7, 0, 0, 1, 1);
+        page.offer(1, 0, 0, 1, 1);
+
+        assertFalse(page.hasMore());
+        assertEquals(List.of(1L, 7L), report(page));
+        assertThrows(IllegalArgumentException.class, () -> new PageEntries(0, 0));
+    }
+
+    @Test
+    public void pages_visitEveryIdOnce() {
+        Random random = new Random(3);
+        List<Long> ids = LongStream.rangeClosed(1, 1000).boxed().collect(Collectors.toList());
+        Collections.shuffle(ids, random);
+        for (int limit : new int[]{1, 17, 100, 999, 1000, 5000}) {
+            List<Long> visited = new ArrayList<>();
+            long cursor = 0;
+            boolean more = true;
+            while (more) {
+                PageEntries page = new PageEntries(cursor, limit);
+                ids.forEach(id -> page.offer(id, 0, 0, 1, 1));
+                List<Long> reported = report(page);
+                visited.addAll(reported);
+                more = page.hasMore();
+                if (more) {
+                    cursor = reported.get(reported.size() - 1);
+                }
+            }
+
+            assertEquals(LongStream.rangeClosed(1, 1000).boxed().collect(Collectors.toList()), visited, "limit " + limit);
+        }
+    }
+
+    private static List<Long> report(PageEntries page) {
+        List<Long> ids = new ArrayList<>();
+        page.report((id, x0, y0, x1, y1) -> ids.add(id));
+        return ids;
+    }
+}
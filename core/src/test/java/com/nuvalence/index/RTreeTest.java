@@ -0,0 +1,154 @@
+package com.nuvalence.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RTreeTest {
+
+    @Test
+    public void emptyTree_findsNothing() {
+        RTree tree = new RTree();
+        tree.search(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+                (id, x0, y0, x1, y1) -> fail("unexpected entry " + id));
+        assertEquals(0, tree.size());
+        assertEquals(1, tree.height());
+    }
+
+    @Test
+    public void search_reportsTouchingBoxes() {
+        RTree tree = new RTree();
+        tree.insert(1, 0, 0, 2, 2);
+        tree.insert(2, 2, 2, 4, 4);
+        tree.insert(3, 5, 5, 6, 6);
+
+        assertEquals(Set.of(1L, 2L), search(tree, 2, 2, 2, 2));
+    }
+
+    @Test
+    public void remove_needsMatchingIdAndBox() {
+        RTree tree = new RTree();
+        tree.insert(1, 0, 0, 2, 2);
+
+        assertFalse(tree.remove(1, 0, 0, 2, 3));
+        assertFalse(tree.remove(2, 0, 0, 2, 2));
+        assertTrue(tree.remove(1, 0, 0, 2, 2));
+        assertEquals(0, tree.size());
+    }
+
+    @Test
+    public void randomInsertsAndRemoves_matchBruteForce() {
+        Random random = new Random(7);
+        RTree tree = new RTree();
+        Map<Long, int[]> boxes = new HashMap<>();
+        for (long id = 0; id < 5000; id++) {
+            int x = random.nextInt(1000);
+            int y = random.nextInt(1000);
+            int[] box = {x, y, x + 1 + random.nextInt(30), y + 1 + random.nextInt(30)};
+            boxes.put(id, box);
+            tree.insert(id, box[0], box[1], box[2], box[3]);
+        }
+        for (long id = 0; id < 5000; id += 3) {
+            int[] box = boxes.remove(id);
+            assertTrue(tree.remove(id, box[0], box[1], box[2], box[3]));
+        }
+        assertEquals(boxes.size(), tree.size());
+        assertTrue(tree.height() > 1);
+
+        for (int q = 0; q < 200; q++) {
+            int x = random.nextInt(1000);
+            int y = random.nextInt(1000);
+            int x1 = x + random.nextInt(100);
+            int y1 = y + random.nextInt(100);
+            Set<Long> expected = new TreeSet<>();
+            boxes.forEach((id, b) -> {
+                if (b[0] <= x1 && x <= b[2] && b[1] <= y1 && y <= b[3]) {
+                    expected.add(id);
+                }
+            });
+            assertEquals(expected, search(tree, x, y, x1, y1));
+        }
+
+        for (Map.Entry<Long, int[]> e : boxes.entrySet()) {
+            int[] b = e.getValue();
+            assertTrue(tree.remove(e.getKey(), b[0], b[1], b[2], b[3]));
+        }
+        assertEquals(0, tree.size());
+        assertEquals(1, tree.height());
+    }
+
+    @Test
+    public void load_packsTheBoxes_andKeepsAcceptingChanges() {
+        Random random = new Random(9);
+        BoxBuffer buffer = new BoxBuffer();
+        Map<Long, int[]> boxes = new HashMap<>();
+        for (long id = 1; id <= 20_000; id++) {
+            int x = random.nextInt(5000);
+            int y = random.nextInt(5000);
+            int[] box = {x, y, x + 1 + random.nextInt(30), y + 1 + random.nextInt(30)};
+            boxes.put(id, box);
+            buffer.accept(id, box[0], box[1], box[2], box[3]);
+        }
+        RTree tree = new RTree();
+        tree.insert(0, 0, 0, 1, 1);
+
+        tree.load(buffer);
+        // 1250 full leaves, 79 nodes above them, 5 above those, and the root
+        assertEquals(20_000, tree.size());
+        assertEquals(4, tree.height());
+
+        for (long id = 1; id <= 20_000; id += 3) {
+            int[] box = boxes.remove(id);
+            assertTrue(tree.remove(id, box[0], box[1], box[2], box[3]));
+        }
+        for (long id = 20_001; id <= 21_000; id++) {
+            int[] box = {random.nextInt(5000), random.nextInt(5000), 0, 0};
+            box[2] = box[0] + 10;
+            box[3] = box[1] + 10;
+            boxes.put(id, box);
+            tree.insert(id, box[0], box[1], box[2], box[3]);
+        }
+        assertEquals(boxes.size(), tree.size());
+        for (int q = 0; q < 200; q++) {
+            int x = random.nextInt(5000);
+            int y = random.nextInt(5000);
+            int x1 = x + random.nextInt(200);
+            int y1 = y + random.nextInt(200);
+            Set<Long> expected = new TreeSet<>();
+            boxes.forEach((id, b) -> {
+                if (b[0] <= x1 && x <= b[2] && b[1] <= y1 && y <= b[3]) {
+                    expected.add(id);
+                }
+            });
+            assertEquals(expected, search(tree, x, y, x1, y1));
+        }
+    }
+
+    @Test
+    public void load_fewOrNoBoxes_buildsASingleLeaf() {
+        RTree tree = new RTree();
+        tree.load(new BoxBuffer());
+        assertEquals(0, tree.size());
+        assertEquals(Set.of(), search(tree, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE));
+
+        BoxBuffer buffer = new BoxBuffer();
+        buffer.accept(1, -5, -5, 0, 0);
+        buffer.accept(2, Integer.MAX_VALUE - 1, 0, Integer.MAX_VALUE, 1);
+        tree.load(buffer);
+        assertEquals(1, tree.height());
+        assertEquals(Set.of(1L, 2L), search(tree, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE));
+    }
+
+    private static Set<Long> search(RTree tree, int x0, int y0, int x1, int y1) {
+        Set<Long> found = new TreeSet<>();
+        tree.search(x0, y0, x1, y1, (id, bx0, by0, bx1, by1) -> assertTrue(found.add(id)));
+        return found;
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.nuvalence.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RectangleBatchTest {
+
+    @Test
+    public void emptyBatch_marksNothing() {
+        RectangleBatch batch = new RectangleBatch(0);
+        long[] mask = batch.newMask();
+
+        assertEquals(0, mask.length);
+        assertEquals(0, batch.intersecting(new Rectangle(0, 0, 1, 1), mask));
+    }
+
+    @Test
+    public void add_growsAndPrecomputesEdges() {
+        RectangleBatch batch = new RectangleBatch(0);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, batch.add(i, -i, 2, 3));
+        }
+
+        assertEquals(100, batch.size());
+        assertEquals(new Rectangle(42, -42, 2, 3), batch.get(42));
+        assertEquals(44, batch.getRight(42));
+        assertEquals(-39, batch.getTop(42));
+        assertEquals(100, batch.asList().size());
+        assertEquals(new Rectangle(42, -42, 2, 3), batch.asList().get(42));
+    }
+
+    @Test
+    public void predicates_matchRectangleMethods_onRandomRectangles() {
+        Random random = new Random(3);
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            // includes degenerate and invalid rectangles, which must behave exactly as in Rectangle
+            rectangles.add(new Rectangle(random.nextInt(30) - 15, random.nextInt(30) - 15,
+                    random.nextInt(12) - 1, random.nextInt(12) - 1));
+        }
+        RectangleBatch batch = RectangleBatch.of(rectangles);
+        long[] mask = batch.newMask();
+
+        for (int q = 0; q < 200; q++) {
+            Rectangle query = rectangles.get(random.nextInt(rectangles.size()));
+
+            int count = batch.intersecting(query, mask);
+            assertMask(mask, count, rectangles, r -> r.intersects(query));
+            count = batch.containing(query, mask);
+            assertMask(mask, count, rectangles, r -> r.contains(query));
+            count = batch.containedBy(query, mask);
+            assertMask(mask, count, rectangles, query::contains);
+            count = batch.adjacent(query, mask);
+            assertMask(mask, count, rectangles, r -> r.isAdjacentTo(query));
+        }
+    }
+
+    @Test
+    public void intersectionPoints_matchRectangleMethod_onRandomRectangles() {
+        Random random = new Random(5);
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            rectangles.add(new Rectangle(random.nextInt(20), random.nextInt(20), 1 + random.nextInt(8), 1 + random.nextInt(8)));
+        }
+        RectangleBatch batch = RectangleBatch.of(rectangles);
+        int[] coordinates = new int[Shape.MAX_INTERSECTION_COORDINATES];
+
+        for (int q = 0; q < 50; q++) {
+            Rectangle query = rectangles.get(random.nextInt(rectangles.size()));
+            for (int row = 0; row < rectangles.size(); row++) {
+                List<Integer> expected = rectangles.get(row).intersectionPoints(query);
+                int count = batch.intersectionPoints(row, query, coordinates);
+                assertEquals(expected.size(), count);
+                for (int k = 0; k < count; k++) {
+                    assertEquals(expected.get(k), coordinates[k]);
+                }
+            }
+        }
+    }
+
+    private static void assertMask(long[] mask, int count, List<Rectangle> rectangles,
+                                   Predicate<Rectangle> expected) {
+        int marked = 0;
+        for (int row = 0; row < rectangles.size(); row++) {
+            assertEquals(expected.test(rectangles.get(row)), RectangleBatch.isMarked(mask, row), "row " + row);
+            if (RectangleBatch.isMarked(mask, row)) {
+                marked++;
+            }
+        }
+        assertEquals(marked, count);
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.nuvalence.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RectanglePairTest {
+
+    @Test
+    public void predicates_matchRectangleMethods_onRandomRectangles() {
+        Random random = new Random(5);
+        for (int i = 0; i < 10_000; i++) {
+            // includes degenerate and invalid rectangles, which must behave exactly as in Rectangle
+            Rectangle r1 = new Rectangle(random.nextInt(30) - 15, random.nextInt(30) - 15,
+                    random.nextInt(12) - 1, random.nextInt(12) - 1);
+            Rectangle r2 = new Rectangle(random.nextInt(30) - 15, random.nextInt(30) - 15,
+                    random.nextInt(12) - 1, random.nextInt(12) - 1);
+            RectanglePair pair = new RectanglePair(r1.getX(), r1.getY(), r1.getWidth(), r1.getHeight(),
+                    r2.getX(), r2.getY(), r2.getWidth(), r2.getHeight());
+
+            assertEquals(r1, pair.getFirst());
+            assertEquals(r2, pair.getSecond());
+            assertEquals(r1.getWidth() > 0 && r1.getHeight() > 0 && r2.getWidth() > 0 && r2.getHeight() > 0,
+                    pair.isValid());
+            assertEquals(r1.isAdjacentTo(r2), pair.isAdjacent(), pair.toString());
+            assertEquals(r1.contains(r2), pair.contains(), pair.toString());
+            assertEquals(r1.intersects(r2), pair.intersects(), pair.toString());
+            assertEquals(r1.intersectionPoints(r2), pair.intersectionPoints(), pair.toString());
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ package com.nuvalence.model;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -250,6 +251,30 @@ public class RectangleTest {
         assertTrue(r1.isAdjacentTo(r2));
     }
 
+    /**
+     * Tests that rectangle 2 is not adjacent to rectangle 1 when their vertical sides lie on the same line but don't
+     * share any point.
+     */
+    @Test
+    public void rectangle2_onSameVerticalLineButApart_isNotAdjacentTo_rectangle1() {
+        r1 = new Rectangle(0, 0, 5, 3);
+        r2 = new Rectangle(-3, 10, 3, 3);
+        assertFalse(r1.isAdjacentTo(r2));
+        assertFalse(r2.isAdjacentTo(r1));
+    }
+
+    /**
+     * Tests that rectangle 2 is not adjacent to rectangle 1 when their horizontal sides lie on the same line but don't
+     * share any point.
+     */
+    @Test
+    public void rectangle2_onSameHorizontalLineButApart_isNotAdjacentTo_rectangle1() {
+        r1 = new Rectangle(0, 0, 5, 3);
+        r2 = new Rectangle(10, -3, 3, 3);
+        assertFalse(r1.isAdjacentTo(r2));
+        assertFalse(r2.isAdjacentTo(r1));
+    }
+
     // ***** Start tests for Intersection *****
 
     /**
@@ -265,6 +290,14 @@ public class RectangleTest {
         assertFalse(r1.intersects(r2));
     }
 
+    @Test
+    public void rectangle2_belowRectangle1_doesNotIntersect_rectangle1() {
+        r1 = new Rectangle(0, 10, 2, 2);
+        r2 = new Rectangle(0, 5, 2, 2);
+        assertFalse(r1.intersects(r2));
+        assertFalse(r2.intersects(r1));
+    }
+
     @Test
     public void rectangle2_intersects_rectangle1FromBottom() {
         r1 = new Rectangle(0, 0, 3, 3);
@@ -355,4 +388,42 @@ public class RectangleTest {
         assertEquals(List.of(0, 1, 3, 1, 3, 2, 0, 2), r1.intersectionPoints(r2));
     }
 
+    @Test
+    public void intersectionPointsIntoArray_matchesListResult() {
+        r1 = new Rectangle(0, 0, 3, 3);
+        int[] coordinates = new int[Shape.MAX_INTERSECTION_COORDINATES];
+
+        assertEquals(4, r1.intersectionPoints(new Rectangle(2, 2, 2, 2), coordinates));
+        assertArrayEquals(new int[]{3, 2, 2, 3}, Arrays.copyOf(coordinates, 4));
+
+        assertEquals(8, r1.intersectionPoints(new Rectangle(1, -1, 1, 5), coordinates));
+        assertArrayEquals(new int[]{1, 0, 2, 0, 2, 3, 1, 3}, coordinates);
+
+        assertEquals(0, r1.intersectionPoints(new Rectangle(-2, -2, 1, 1), coordinates));
+        assertEquals(List.of(), r1.intersectionPoints(new Rectangle(-2, -2, 1, 1)));
+    }
+
+    // ***** Start tests for Distance *****
+
+    @Test
+    public void distance_isZeroForOverlappingOrTouchingRectangles() {
+        r1 = new Rectangle(0, 0, 3, 3);
+
+        assertEquals(0, r1.distanceTo(new Rectangle(1, 1, 5, 5)));
+        assertEquals(0, r1.distanceTo(new Rectangle(3, 3, 1, 1)));
+        assertEquals(0, r1.distanceTo(1, 3));
+    }
+
+    @Test
+    public void distance_isMeasuredBetweenClosestPoints() {
+        r1 = new Rectangle(0, 0, 3, 3);
+
+        assertEquals(2, r1.distanceTo(new Rectangle(5, 1, 1, 1)));
+        assertEquals(2, new Rectangle(5, 1, 1, 1).distanceTo(r1));
+        assertEquals(5, r1.distanceTo(new Rectangle(-4, -5, 1, 1)));
+        assertEquals(5, r1.distanceTo(6, 7));
+        assertEquals(Math.sqrt(2) * (1L << 32), new Rectangle(Integer.MIN_VALUE, Integer.MIN_VALUE, 1, 1)
+                .distanceTo(new Rectangle(Integer.MAX_VALUE, Integer.MAX_VALUE, 1, 1)), 4);
+    }
+
 }
@@ -0,0 +1,150 @@
+package com.nuvalence.service;
+
+import com.nuvalence.model.Coverage;
+import com.nuvalence.model.IndexPair;
+import com.nuvalence.model.Rectangle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RectangleServiceImplTest {
+
+    private final RectangleService rectangleService = new RectangleServiceImpl();
+
+    // ***** Start tests for batch operations *****
+
+    @Test
+    public void batch_emptyList_findsNoPairs() {
+        assertTrue(rectangleService.intersectingPairs(List.of()).isEmpty());
+        assertTrue(rectangleService.containingPairs(List.of()).isEmpty());
+        assertTrue(rectangleService.adjacentPairs(List.of()).isEmpty());
+    }
+
+    @Test
+    public void batch_findsEveryKindOfPair() {
+        List<Rectangle> rectangles = List.of(
+                new Rectangle(0, 0, 3, 3),
+                new Rectangle(1, 1, 1, 1),
+                new Rectangle(3, 0, 2, 2),
+                new Rectangle(4, 1, 3, 3),
+                new Rectangle(20, 20, 1, 1));
+
+        assertEquals(List.of(new IndexPair(0, 1), new IndexPair(2, 3)), rectangleService.intersectingPairs(rectangles));
+        assertEquals(List.of(new IndexPair(0, 1)), rectangleService.containingPairs(rectangles));
+        assertEquals(List.of(new IndexPair(0, 2)), rectangleService.adjacentPairs(rectangles));
+    }
+
+    @Test
+    public void batch_reportsContainerFirst() {
+        List<Rectangle> rectangles = List.of(new Rectangle(1, 1, 1, 1), new Rectangle(0, 0, 3, 3));
+
+        assertEquals(List.of(new IndexPair(1, 0)), rectangleService.containingPairs(rectangles));
+    }
+
+    @Test
+    public void batch_identicalRectangles_intersectButDoNotContainEachOther() {
+        List<Rectangle> rectangles = List.of(new Rectangle(0, 0, 2, 2), new Rectangle(0, 0, 2, 2));
+
+        assertEquals(List.of(new IndexPair(0, 1)), rectangleService.intersectingPairs(rectangles));
+        assertTrue(rectangleService.containingPairs(rectangles).isEmpty());
+        assertTrue(rectangleService.adjacentPairs(rectangles).isEmpty());
+    }
+
+    @Test
+    public void batch_matchesPairwiseOperations_onRandomRectangles() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            List<Rectangle> rectangles = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                rectangles.add(new Rectangle(random.nextInt(40) - 20, random.nextInt(40) - 20,
+                        1 + random.nextInt(10), 1 + random.nextInt(10)));
+            }
+
+            List<IndexPair> intersecting = new ArrayList<>();
+            List<IndexPair> containing = new ArrayList<>();
+            List<IndexPair> adjacent = new ArrayList<>();
+            for (int i = 0; i < rectangles.size(); i++) {
+                for (int j = 0; j < rectangles.size(); j++) {
+                    Rectangle r1 = rectangles.get(i);
+                    Rectangle r2 = rectangles.get(j);
+                    if (i < j && rectangleService.intersects(r1, r2)) {
+                        intersecting.add(new IndexPair(i, j));
+                    }
+                    if (i != j && rectangleService.contains(r1, r2)) {
+                        containing.add(new IndexPair(i, j));
+                    }
+                    if (i < j && rectangleService.isAdjacentTo(r1, r2)) {
+                        adjacent.add(new IndexPair(i, j));
+                    }
+                }
+            }
+
+            assertEquals(intersecting, rectangleService.intersectingPairs(rectangles));
+            assertEquals(containing, rectangleService.containingPairs(rectangles));
+            assertEquals(adjacent, rectangleService.adjacentPairs(rectangles));
+        }
+    }
+
+    @Test
+    public void coverage_countsOverlapsOnce() {
+        List<Rectangle> rectangles = List.of(new Rectangle(0, 0, 4, 4), new Rectangle(2, 2, 4, 4), new Rectangle(1, 1, 2, 2));
+
+        Coverage coverage = rectangleService.coverage(rectangles, 2);
+
+        assertEquals(16 + 16 - 4, coverage.getUnionArea());
+        assertEquals(4 + 4 - 1, coverage.getCoveredArea());
+        assertEquals(List.of(List.of(1, 1, 3, 1, 3, 2, 4, 2, 4, 4, 2, 4, 2, 3, 1, 3)), coverage.getOutline());
+    }
+
+    @Test
+    public void clusters_joinTouchingRectanglesTransitively() {
+        List<Rectangle> rectangles = List.of(
+                new Rectangle(10, 10, 1, 1),
+                new Rectangle(0, 0, 2, 2),
+                new Rectangle(2, 0, 2, 1),   // shares a side with the second one
+                new Rectangle(20, 20, 1, 1),
+                new Rectangle(4, 1, 1, 1),   // shares a corner with the third one
+                new Rectangle(11, 12, 1, 1)); // one unit away from the first one
+
+        assertEquals(List.of(0, 1, 1, 2, 1, 3), rectangleService.clusters(rectangles));
+        assertEquals(List.of(), rectangleService.clusters(List.of()));
+    }
+
+    @Test
+    public void batch_parallelSweep_matchesSequentialSweep() {
+        RectangleService parallelService = new RectangleServiceImpl(0);
+        Random random = new Random(5);
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            rectangles.add(new Rectangle(random.nextInt(300), random.nextInt(300),
+                    random.nextInt(20), random.nextInt(20)));
+        }
+
+        assertEquals(rectangleService.intersectingPairs(rectangles), parallelService.intersectingPairs(rectangles));
+        assertEquals(rectangleService.containingPairs(rectangles), parallelService.containingPairs(rectangles));
+        assertEquals(rectangleService.adjacentPairs(rectangles), parallelService.adjacentPairs(rectangles));
+        assertEquals(rectangleService.clusters(rectangles), parallelService.clusters(rectangles));
+    }
+
+    @Test
+    public void batch_negativeSize_isRejected() {
+        RectangleService parallelService = new RectangleServiceImpl(0);
+        // a box whose right edge is left of its left edge would leave the sweep before entering it
+        List<Rectangle> rectangles = List.of(new Rectangle(0, 0, 4, 4), new Rectangle(10, 0, -20, 2),
+                new Rectangle(2, 2, 1, 1));
+
+        for (RectangleService service : List.of(rectangleService, parallelService)) {
+            assertThrows(IllegalArgumentException.class, () -> service.intersectingPairs(rectangles));
+            assertThrows(IllegalArgumentException.class, () -> service.containingPairs(rectangles));
+            assertThrows(IllegalArgumentException.class, () -> service.adjacentPairs(rectangles));
+            assertThrows(IllegalArgumentException.class, () -> service.clusters(rectangles));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> rectangleService.intersectingPairs(List.of(new Rectangle(0, 0, 1, -1))));
+    }
+
+}
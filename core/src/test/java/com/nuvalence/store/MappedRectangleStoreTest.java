@@ -0,0 +1,205 @@
+package com.nuvalence.store;
+
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.SpatialRelation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedRectangleStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void reopen_keepsRecords() throws IOException {
+        Path file = dir.resolve("rectangles.store");
+        try (MappedRectangleStore store = MappedRectangleStore.open(file)) {
+            assertEquals(1, store.append(new Rectangle(0, 0, 1, 1)));
+            assertEquals(2, store.append(new Rectangle(2, 2, 3, 3)));
+            assertEquals(3, store.append(new Rectangle(4, 4, 1, 1)));
+            assertTrue(store.update(2, new Rectangle(-5, -5, 2, 2)));
+            assertTrue(store.delete(1));
+            store.snapshot();
+        }
+
+        try (MappedRectangleStore store = MappedRectangleStore.open(file)) {
+            assertEquals(3, store.slots());
+            assertEquals(2, store.size());
+            assertNull(store.get(1));
+            assertEquals(new Rectangle(-5, -5, 2, 2), store.get(2));
+            assertEquals(new Rectangle(4, 4, 1, 1), store.get(3));
+            assertEquals(4, store.append(new Rectangle(7, 7, 1, 1)));
+        }
+    }
+
+    @Test
+    public void changesAfterSnapshot_stayInMemory() throws IOException {
+        Path file = dir.resolve("rectangles.store");
+        try (MappedRectangleStore store = MappedRectangleStore.open(file)) {
+            store.append(new Rectangle(0, 0, 1, 1));
+            store.snapshot();
+            store.reload();
+            store.append(new Rectangle(2, 2, 1, 1));
+            store.delete(1);
+            assertEquals(new Rectangle(2, 2, 1, 1), store.get(2));
+            assertEquals(1, store.size());
+        }
+
+        try (MappedRectangleStore store = MappedRectangleStore.open(file)) {
+            assertEquals(1, store.slots());
+            assertEquals(new Rectangle(0, 0, 1, 1), store.get(1));
+        }
+    }
+
+    @Test
+    public void snapshotWrittenWhileChanging_holdsRecordsWhenItBegan() throws IOException {
+        Path file = dir.resolve("rectangles.store");
+        int count = MappedRectangleStore.SEGMENT_SLOTS + 10;
+        try (MappedRectangleStore store = MappedRectangleStore.open(file)) {
+            for (int i = 0; i < count; i++) {
+                store.append(new Rectangle(i, i, 1, 1));
+            }
+            store.beginSnapshot();
+            assertFalse(store.copySnapshot(100));
+            // changes of copied and uncopied records, records added after it began, and a second change of a record
+            assertTrue(store.update(5, new Rectangle(-1, -1, 9, 9)));
+            assertTrue(store.delete(count - 1));
+            assertTrue(store.update(count, new Rectangle(-2, -2, 9, 9)));
+            assertTrue(store.update(count, new Rectangle(-3, -3, 9, 9)));
+            store.append(new Rectangle(-4, -4, 9, 9));
+            assertThrows(IllegalStateException.class, store::finishSnapshot);
+            int chunks = 1;
+            while (!store.copySnapshot(1 << 16)) {
+                chunks++;
+            }
+            assertTrue(chunks > 1);
+            store.finishSnapshot();
+            assertEquals(count + 1, store.slots());
+            assertNull(store.get(count - 1));
+            assertEquals(new Rectangle(-3, -3, 9, 9), store.get(count));
+        }
+
+        try (MappedRectangleStore store = MappedRectangleStore.open(file)) {
+            assertEquals(count, store.slots());
+            assertEquals(count, store.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals(new Rectangle(i, i, 1, 1), store.get(i + 1));
+            }
+        }
+    }
+
+    @Test
+    public void abortedSnapshot_leavesSnapshotFile() throws IOException {
+        Path file = dir.resolve("rectangles.store");
+        try (MappedRectangleStore store = MappedRectangleStore.open(file)) {
+            store.append(new Rectangle(0, 0, 1, 1));
+            store.beginSnapshot();
+            assertThrows(IllegalStateException.class, store::beginSnapshot);
+            store.copySnapshot(Integer.MAX_VALUE);
+            store.abortSnapshot();
+            assertThrows(IllegalStateException.class, () -> store.copySnapshot(1));
+            assertFalse(Files.exists(dir.resolve("rectangles.store.tmp")));
+        }
+
+        try (MappedRectangleStore store = MappedRectangleStore.open(file)) {
+            assertEquals(0, store.slots());
+        }
+    }
+
+    @Test
+    public void put_restoresRecordsUnderTheirIds() {
+        try (MappedRectangleStore store = MappedRectangleStore.temporary()) {
+            store.put(3, new Rectangle(0, 0, 1, 1));
+            store.put(3, new Rectangle(1, 1, 1, 1));
+
+            assertEquals(3, store.slots());
+            assertEquals(1, store.size());
+            assertNull(store.get(1));
+            assertEquals(new Rectangle(1, 1, 1, 1), store.get(3));
+            assertEquals(4, store.append(new Rectangle(2, 2, 1, 1)));
+        }
+    }
+
+    @Test
+    public void updateAndDelete_unknownId_doNothing() {
+        try (MappedRectangleStore store = MappedRectangleStore.temporary()) {
+            store.append(new Rectangle(0, 0, 1, 1));
+            assertTrue(store.delete(1));
+
+            assertFalse(store.delete(1));
+            assertFalse(store.update(1, new Rectangle(0, 0, 1, 1)));
+            assertFalse(store.update(0, new Rectangle(0, 0, 1, 1)));
+            assertFalse(store.delete(2));
+            assertEquals(0, store.size());
+        }
+    }
+
+    @Test
+    public void append_growsAcrossSegments() throws IOException {
+        Path file = dir.resolve("rectangles.store");
+        int count = MappedRectangleStore.SEGMENT_SLOTS + 10;
+        try (MappedRectangleStore store = MappedRectangleStore.open(file)) {
+            for (int i = 0; i < count; i++) {
+                store.append(new Rectangle(i, -i, 1, 2));
+            }
+            store.snapshot();
+        }
+
+        try (MappedRectangleStore store = MappedRectangleStore.open(file)) {
+            assertEquals(count, store.size());
+            long[] sum = new long[1];
+            store.scan(0, store.slots(), (id, x, y, width, height) -> {
+                assertEquals(id - 1, x);
+                assertEquals(1 - id, y);
+                sum[0]++;
+            });
+            assertEquals(count, sum[0]);
+            assertEquals(new Rectangle(count - 1, 1 - count, 1, 2), store.get(count));
+        }
+    }
+
+    @Test
+    public void scan_followsRectangleSemantics() {
+        Random random = new Random(7);
+        List<Rectangle> rectangles = new ArrayList<>();
+        try (MappedRectangleStore store = MappedRectangleStore.temporary()) {
+            for (int i = 0; i < 500; i++) {
+                Rectangle r = new Rectangle(random.nextInt(20), random.nextInt(20), 1 + random.nextInt(8), 1 + random.nextInt(8));
+                rectangles.add(r);
+                store.append(r);
+            }
+            for (int q = 0; q < 50; q++) {
+                Rectangle query = new Rectangle(random.nextInt(20), random.nextInt(20), 1 + random.nextInt(8), 1 + random.nextInt(8));
+                for (SpatialRelation relation : SpatialRelation.values()) {
+                    List<Long> expected = new ArrayList<>();
+                    for (int i = 0; i < rectangles.size(); i++) {
+                        if (relation.test(rectangles.get(i), query)) {
+                            expected.add(i + 1L);
+                        }
+                    }
+                    List<Long> actual = new ArrayList<>();
+                    store.scan(0, store.slots(), relation, query, (id, x, y, width, height) -> actual.add(id));
+                    assertEquals(expected, actual, relation + " " + query);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void open_otherFile_fails() throws IOException {
+        Path file = dir.resolve("other.store");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThrows(IOException.class, () -> MappedRectangleStore.open(file));
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.nuvalence.store;
+
+import com.nuvalence.model.Rectangle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteAheadLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void reopen_replaysRecordsInOrder() throws IOException {
+        Path file = dir.resolve("rectangles.wal");
+        try (WriteAheadLog log = WriteAheadLog.open(file, (operation, id, x, y, width, height) -> fail("empty log"))) {
+            log.awaitDurable(log.appendPut(1, new Rectangle(0, 0, 1, 2)));
+            log.awaitDurable(log.appendDelete(1));
+            log.awaitDurable(log.appendPut(2, new Rectangle(-3, 4, 5, 6)));
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (WriteAheadLog log = WriteAheadLog.open(file, (operation, id, x, y, width, height) ->
+                replayed.add(operation + " " + id + " " + x + " " + y + " " + width + " " + height))) {
+            assertEquals(3, log.records());
+        }
+        assertEquals(List.of("PUT 1 0 0 1 2", "DELETE 1 0 0 0 0", "PUT 2 -3 4 5 6"), replayed);
+    }
+
+    @Test
+    public void reopen_cutsOffTornTail() throws IOException {
+        Path file = dir.resolve("rectangles.wal");
+        try (WriteAheadLog log = WriteAheadLog.open(file, (operation, id, x, y, width, height) -> {
+        })) {
+            log.appendPut(1, new Rectangle(0, 0, 1, 1));
+            log.appendPut(2, new Rectangle(1, 1, 1, 1));
+        }
+        // a crash in the middle of the second record
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(WriteAheadLog.HEADER_BYTES + WriteAheadLog.RECORD_BYTES + 10);
+        }
+
+        List<Long> replayed = new ArrayList<>();
+        try (WriteAheadLog log = WriteAheadLog.open(file, (operation, id, x, y, width, height) -> replayed.add(id))) {
+            log.appendPut(3, new Rectangle(2, 2, 1, 1));
+        }
+        assertEquals(List.of(1L), replayed);
+
+        replayed.clear();
+        WriteAheadLog.open(file, (operation, id, x, y, width, height) -> replayed.add(id)).close();
+        assertEquals(List.of(1L, 3L), replayed);
+    }
+
+    @Test
+    public void reopen_stopsAtCorruptedRecord() throws IOException {
+        Path file = dir.resolve("rectangles.wal");
+        try (WriteAheadLog log = WriteAheadLog.open(file, (operation, id, x, y, width, height) -> {
+        })) {
+            for (int i = 1; i <= 3; i++) {
+                log.appendPut(i, new Rectangle(i, i, 1, 1));
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), WriteAheadLog.HEADER_BYTES + WriteAheadLog.RECORD_BYTES + 12);
+        }
+
+        List<Long> replayed = new ArrayList<>();
+        WriteAheadLog.open(file, (operation, id, x, y, width, height) -> replayed.add(id)).close();
+
+        assertEquals(List.of(1L), replayed);
+        assertEquals(WriteAheadLog.HEADER_BYTES + WriteAheadLog.RECORD_BYTES, Files.size(file));
+    }
+
+    @Test
+    public void reset_emptiesLog() throws IOException {
+        Path file = dir.resolve("rectangles.wal");
+        try (WriteAheadLog log = WriteAheadLog.open(file, (operation, id, x, y, width, height) -> {
+        })) {
+            long sequence = log.appendPut(1, new Rectangle(0, 0, 1, 1));
+            log.reset();
+            // the change is in a snapshot, so there is nothing left to wait for
+            log.awaitDurable(sequence);
+            assertEquals(0, log.records());
+        }
+
+        WriteAheadLog.open(file, (operation, id, x, y, width, height) -> fail("empty log")).close();
+    }
+
+    @Test
+    public void rotate_keepsPreviousLogUntilDiscarded() throws IOException {
+        Path file = dir.resolve("rectangles.wal");
+        Path previous = dir.resolve("rectangles.wal.old");
+        try (WriteAheadLog log = WriteAheadLog.open(file, (operation, id, x, y, width, height) -> fail("empty log"))) {
+            long sequence = log.appendPut(1, new Rectangle(0, 0, 1, 1));
+            log.rotate();
+            // the previous log is synced, so there is nothing left to wait for
+            log.awaitDurable(sequence);
+            assertEquals(0, log.records());
+            assertTrue(Files.exists(previous));
+            log.awaitDurable(log.appendPut(2, new Rectangle(1, 1, 1, 1)));
+        }
+
+        // a snapshot that didn't complete: the previous log is replayed first, and rotating again appends to it
+        List<Long> replayed = new ArrayList<>();
+        try (WriteAheadLog log = WriteAheadLog.open(file, (operation, id, x, y, width, height) -> replayed.add(id))) {
+            assertEquals(List.of(1L, 2L), replayed);
+            assertEquals(2, log.records());
+            log.rotate();
+            log.awaitDurable(log.appendPut(3, new Rectangle(2, 2, 1, 1)));
+        }
+
+        replayed.clear();
+        try (WriteAheadLog log = WriteAheadLog.open(file, (operation, id, x, y, width, height) -> replayed.add(id))) {
+            assertEquals(List.of(1L, 2L, 3L), replayed);
+            log.rotate();
+            log.discardPrevious();
+            assertFalse(Files.exists(previous));
+        }
+
+        WriteAheadLog.open(file, (operation, id, x, y, width, height) -> fail("empty log")).close();
+    }
+
+    @Test
+    public void concurrentWriters_areAllDurable() throws Exception {
+        Path file = dir.resolve("rectangles.wal");
+        int writers = 8;
+        int changes = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try (WriteAheadLog log = WriteAheadLog.open(file, (operation, id, x, y, width, height) -> {
+        })) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < changes; i++) {
+                        log.awaitDurable(log.appendPut(writer * changes + i + 1, new Rectangle(writer, i, 1, 1)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        boolean[] seen = new boolean[writers * changes + 1];
+        WriteAheadLog.open(file, (operation, id, x, y, width, height) -> seen[(int) id] = true).close();
+        for (int id = 1; id < seen.length; id++) {
+            assertTrue(seen[id], "missing " + id);
+        }
+    }
+
+}
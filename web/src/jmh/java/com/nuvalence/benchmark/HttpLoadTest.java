@@ -0,0 +1,181 @@
+package com.nuvalence.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Closed-loop load test against a running application, used to compare the execution modes selected by
+ * {@code rectangle.execution.mode}. It isn't a JMH benchmark, since it measures the whole server over HTTP.
+ * <p>
+ * Each client sends {@code GET /contains} requests back to back for the given duration, then the throughput and the
+ * latency percentiles are printed. Optionally, slow clients first open {@code POST /stream/intersects} uploads that
+ * send one line per second, which hold a request thread for as long as they last, as a burst of slow clients would.
+ * <p>
+ * Usage: {@code HttpLoadTest <baseUrl> <clients> <seconds> [slowStreams]}
+ */
+public class HttpLoadTest {
+
+    private static final String PAIR = "[{\"x\":0,\"y\":0,\"width\":3,\"height\":3},"
+            + "{\"x\":1,\"y\":1,\"width\":1,\"height\":1}]";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: HttpLoadTest <baseUrl> <clients> <seconds> [slowStreams]");
+            System.exit(1);
+        }
+        String baseUrl = args[0];
+        int clients = Integer.parseInt(args[1]);
+        int seconds = Integer.parseInt(args[2]);
+        int slowStreams = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        List<CompletableFuture<HttpResponse<Void>>> streams = new ArrayList<>();
+        for (int i = 0; i < slowStreams; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/stream/intersects"))
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new SlowLines(running)))
+                    .build();
+            streams.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        if (slowStreams > 0) {
+            // lets the slow uploads reach the server before measuring
+            Thread.sleep(2000);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/contains"))
+                .header("Content-Type", "application/json")
+                .method("GET", HttpRequest.BodyPublishers.ofString(PAIR))
+                .timeout(Duration.ofSeconds(seconds + 30L))
+                .build();
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        int[] errors = new int[clients];
+        Thread[] threads = new Thread[clients];
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        for (int c = 0; c < clients; c++) {
+            int id = c;
+            threads[c] = new Thread(() -> {
+                long[] samples = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() != 200) {
+                            errors[id]++;
+                        }
+                    } catch (IOException e) {
+                        errors[id]++;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - start;
+                }
+                latencies[id] = samples;
+                counts[id] = count;
+            });
+            threads[c].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        running.set(false);
+
+        int total = 0;
+        int failed = 0;
+        for (int c = 0; c < clients; c++) {
+            total += counts[c];
+            failed += errors[c];
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+        System.out.printf("clients=%d slowStreams=%d requests=%d errors=%d throughput=%.0f req/s "
+                        + "p50=%.2f ms p99=%.2f ms max=%.2f ms%n",
+                clients, slowStreams, total, failed, total / (double) seconds,
+                percentile(all, 0.50), percentile(all, 0.99), percentile(all, 1.0));
+        for (CompletableFuture<HttpResponse<Void>> stream : streams) {
+            stream.cancel(true);
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    /**
+     * Request body sending one NDJSON pair per second until the test ends.
+     */
+    private static final class SlowLines extends InputStream {
+        private final AtomicBoolean running;
+        private final byte[] line = (PAIR + "\n").getBytes(StandardCharsets.UTF_8);
+        private int position = line.length;
+
+        SlowLines(AtomicBoolean running) {
+            this.running = running;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0];
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position == line.length) {
+                if (!running.get()) {
+                    return -1;
+                }
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return -1;
+                }
+                position = 0;
+            }
+            int n = Math.min(len, line.length - position);
+            System.arraycopy(line, position, b, off, n);
+            position += n;
+            return n;
+        }
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.nuvalence.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.RectanglePair;
+import com.nuvalence.service.RectangleService;
+import com.nuvalence.service.RectangleServiceImpl;
+import com.nuvalence.web.converter.RectangleJsonHttpMessageConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the reading of the {@code List<Rectangle>} request bodies, with Jackson's data binding, using an
+ * {@link ObjectMapper} configured the same way as the one Spring Boot builds, and with the streaming
+ * {@link RectangleJsonHttpMessageConverter}. The pair benchmarks time a whole {@code /intersects} request as the
+ * controller handles it, from the body to the answer of the service, before and after the converter was added.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBindingBenchmark {
+
+    @Param({"2", "1000"})
+    private int size;
+
+    private static final Type RECTANGLE_LIST = new ParameterizedTypeReference<List<Rectangle>>() {
+    }.getType();
+
+    private final RectangleService rectangleService = new RectangleServiceImpl();
+    private ObjectReader reader;
+    private RectangleJsonHttpMessageConverter converter;
+    private HttpInputMessage body;
+    private HttpInputMessage pairBody;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new ParameterNamesModule()).build();
+        reader = objectMapper.readerFor(new TypeReference<List<Rectangle>>() {
+        });
+        converter = new RectangleJsonHttpMessageConverter(objectMapper);
+        List<Rectangle> rectangles = RectangleDistribution.RANDOM.generate(size, 42);
+        body = input(objectMapper.writeValueAsBytes(rectangles.subList(0, size)));
+        pairBody = input(objectMapper.writeValueAsBytes(rectangles.subList(0, 2)));
+    }
+
+    @Benchmark
+    public List<Rectangle> readRectangleList() throws IOException {
+        return reader.readValue(body.getBody());
+    }
+
+    @Benchmark
+    public Object streamRectangleList() throws IOException {
+        return converter.read(RECTANGLE_LIST, null, body);
+    }
+
+    @Benchmark
+    public boolean pairRequestDataBinding() throws IOException {
+        List<Rectangle> rectangles = reader.readValue(pairBody.getBody());
+        for (Rectangle r : rectangles) {
+            if (r.getWidth() <= 0 || r.getHeight() <= 0) {
+                throw new IllegalArgumentException();
+            }
+        }
+        return rectangleService.intersects(rectangles.get(0), rectangles.get(1));
+    }
+
+    @Benchmark
+    public boolean pairRequestStreaming() throws IOException {
+        RectanglePair rectangles = (RectanglePair) converter.read(RectanglePair.class, null, pairBody);
+        if (!rectangles.isValid()) {
+            throw new IllegalArgumentException();
+        }
+        return rectangleService.intersects(rectangles);
+    }
+
+    private static HttpInputMessage input(byte[] bytes) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentLength(bytes.length);
+        return new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(bytes);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+}
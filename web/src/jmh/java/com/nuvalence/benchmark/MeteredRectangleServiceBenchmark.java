@@ -0,0 +1,70 @@
+package com.nuvalence.benchmark;
+
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.service.MeteredRectangleService;
+import com.nuvalence.service.RectangleService;
+import com.nuvalence.service.RectangleServiceImpl;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of the {@link MeteredRectangleService} metrics over {@link RectangleServiceImpl}, recording
+ * into a Prometheus registry as in production. Run it with {@code -prof gc} to check that recording doesn't
+ * allocate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeteredRectangleServiceBenchmark {
+
+    private final RectangleService plain = new RectangleServiceImpl();
+    private final RectangleService metered = new MeteredRectangleService(new RectangleServiceImpl(),
+            new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+    private final int[] coordinates = new int[Rectangle.MAX_INTERSECTION_COORDINATES];
+    private Rectangle r1;
+    private Rectangle r2;
+
+    @Setup
+    public void setUp() {
+        List<Rectangle> rectangles = RectangleDistribution.RANDOM.generate(2, 42);
+        r1 = rectangles.get(0);
+        r2 = rectangles.get(1);
+    }
+
+    @Benchmark
+    public boolean plainContains() {
+        return plain.contains(r1, r2);
+    }
+
+    @Benchmark
+    public boolean meteredContains() {
+        return metered.contains(r1, r2);
+    }
+
+    @Benchmark
+    public int plainIntersectionPoints() {
+        return plain.intersectionPoints(r1, r2, coordinates);
+    }
+
+    @Benchmark
+    public int meteredIntersectionPoints() {
+        return metered.intersectionPoints(r1, r2, coordinates);
+    }
+
+}
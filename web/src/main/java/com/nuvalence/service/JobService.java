@@ -0,0 +1,96 @@
+package com.nuvalence.service;
+
+import com.nuvalence.model.Job;
+import com.nuvalence.model.JobOperation;
+import com.nuvalence.model.JobState;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.RectangleBatch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Interface describing the background execution of long {@link RectangleService} operations as {@link Job}, whose
+ * progress can be polled, which can be cancelled, and whose result is read a chunk at a time.
+ */
+public interface JobService {
+
+    /**
+     * Callback reading the {@link Rectangle} of a {@link Job}, such as a request body.
+     */
+    @FunctionalInterface
+    interface RectangleReader {
+        /**
+         * @param batch the {@link RectangleBatch} receiving a row for each {@link Rectangle}, in order
+         * @throws IOException if the {@link Rectangle} can't be read
+         */
+        void readInto(RectangleBatch batch) throws IOException;
+    }
+
+    /**
+     * Queues a {@link Job} running an operation over the {@link Rectangle} of a reader. Room for the
+     * {@link Rectangle} is held as they are read, so the {@link Job} is rejected as soon as it doesn't fit, before
+     * reading any of them if no room is left, and the rest of them is left unread.
+     *
+     * @param operation the {@link JobOperation} to be run
+     * @param reader    the {@link RectangleReader} reading the {@link Rectangle} the operation runs over
+     * @return the {@link Job} created
+     * @throws RejectedExecutionException if too many {@link Job} or {@link Rectangle} are already held
+     * @throws IOException                if the reader fails
+     */
+    Job submit(JobOperation operation, RectangleReader reader) throws IOException;
+
+    /**
+     * Queues a {@link Job} running an operation over a list of {@link Rectangle}.
+     *
+     * @param operation  the {@link JobOperation} to be run
+     * @param rectangles the {@link Rectangle} the operation runs over
+     * @return the {@link Job} created
+     * @throws RejectedExecutionException if too many {@link Job} or {@link Rectangle} are already held
+     */
+    default Job submit(JobOperation operation, List<Rectangle> rectangles) {
+        try {
+            return submit(operation, batch -> rectangles.forEach(batch::add));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Finds a {@link Job} by id.
+     *
+     * @param id the id of the {@link Job}
+     * @return the current state of the {@link Job}, or empty if no {@link Job} has the id
+     */
+    Optional<Job> get(long id);
+
+    /**
+     * Asks a {@link Job} to stop. A queued {@link Job} is cancelled right away, and a running one as soon as its
+     * sweep notices, which leaves it {@link JobState#RUNNING} meanwhile.
+     *
+     * @param id the id of the {@link Job}
+     * @return the state of the {@link Job} after the request, or empty if no {@link Job} has the id
+     */
+    Optional<Job> cancel(long id);
+
+    /**
+     * Reads a chunk of the result of a {@link Job} that succeeded.
+     *
+     * @param id     the id of the {@link Job}
+     * @param offset the position of the first element of the chunk in the result
+     * @param limit  the largest number of elements of the chunk
+     * @return the elements of the result from the offset, or empty if no {@link Job} with the id succeeded
+     */
+    Optional<List<?>> result(long id, long offset, int limit);
+
+    /**
+     * Cancels a {@link Job} if it didn't finish, and forgets it along with its result.
+     *
+     * @param id the id of the {@link Job}
+     * @return true if a {@link Job} had the id; false otherwise
+     */
+    boolean delete(long id);
+}
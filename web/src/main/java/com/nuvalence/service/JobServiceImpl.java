@@ -0,0 +1,381 @@
+package com.nuvalence.service;
+
+import com.nuvalence.engine.SweepProgress;
+import com.nuvalence.model.Job;
+import com.nuvalence.model.JobOperation;
+import com.nuvalence.model.JobState;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.RectangleBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Default Implementation of the Interface {@link JobService}, running the {@link Job} on a fixed number of worker
+ * threads fed by a bounded queue, so a burst of submissions waits in the queue or is rejected instead of exhausting
+ * the memory.
+ * <p>
+ * Admission is also bounded by the number of elements the jobs hold: the {@link Rectangle} of the jobs that didn't
+ * finish, plus the results of the jobs that succeeded. A submission that would take that number past
+ * {@code rectangle.jobs.max-rectangles} is rejected: its {@link Rectangle} are read into a {@link RectangleBatch}
+ * holding room for them {@value #RESERVED_ROWS} at a time, so it is rejected as soon as one doesn't fit, without the
+ * rest of them being read. Jobs keep their {@link Rectangle} in that batch until they run, and the elements are released when a job fails or is cancelled,
+ * is deleted, or is forgotten {@code rectangle.jobs.retention} after it finished. The result of a running job is held
+ * to the same budget: its sweep is limited to the elements left when it starts, plus its own {@link Rectangle}, and a
+ * job finding more fails instead of exhausting the memory.
+ * <p>
+ * Progress is the fraction of the {@link Rectangle} swept, from the {@link SweepProgress} of the operation, and
+ * cancelling a running job cancels that progress, which stops the sweep the next time it advances.
+ */
+@Service
+public class JobServiceImpl implements JobService {
+
+    static final String TOO_MANY_RESULTS = "The result holds more elements than the jobs may hold";
+    static final int RESERVED_ROWS = 1 << 16;
+
+    private static final Logger log = LoggerFactory.getLogger(JobServiceImpl.class);
+
+    private final RectangleService rectangleService;
+    private final ThreadPoolExecutor executor;
+    private final long maxRectangles;
+    private final Duration retention;
+    private final Map<Long, JobTask> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicLong held = new AtomicLong();
+
+    /**
+     * Default Constructor.
+     *
+     * @param rectangleService an instance of {@link RectangleService}.
+     * @param workers          the number of jobs running at the same time
+     * @param queueCapacity    the number of jobs waiting for a worker, beyond which submissions are rejected
+     * @param maxRectangles    the number of elements the jobs may hold, beyond which submissions are rejected
+     * @param retention        how long finished jobs are kept
+     */
+    @Autowired
+    public JobServiceImpl(RectangleService rectangleService,
+                          @Value("${rectangle.jobs.workers:2}") int workers,
+                          @Value("${rectangle.jobs.queue-capacity:16}") int queueCapacity,
+                          @Value("${rectangle.jobs.max-rectangles:20000000}") long maxRectangles,
+                          @Value("${rectangle.jobs.retention:PT15M}") Duration retention) {
+        this(rectangleService, newExecutor(workers, queueCapacity), maxRectangles, retention);
+    }
+
+    JobServiceImpl(RectangleService rectangleService, ThreadPoolExecutor executor, long maxRectangles,
+                   Duration retention) {
+        this.rectangleService = rectangleService;
+        this.executor = executor;
+        this.maxRectangles = maxRectangles;
+        this.retention = retention;
+    }
+
+    static ThreadPoolExecutor newExecutor(int workers, int queueCapacity) {
+        AtomicInteger threads = new AtomicInteger();
+        return new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "rectangle-job-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Job submit(JobOperation operation, RectangleReader reader) throws IOException {
+        ReservedBatch rectangles = new ReservedBatch();
+        rectangles.reserveRoom();
+        try {
+            reader.readInto(rectangles);
+        } catch (IOException | RuntimeException | Error e) {
+            held.addAndGet(-rectangles.reserved);
+            throw e;
+        }
+        int size = rectangles.size();
+        // only the room of the rows read stays held
+        held.addAndGet(size - rectangles.reserved);
+        JobTask task = new JobTask(ids.incrementAndGet(), operation, rectangles);
+        jobs.put(task.id, task);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(task.id);
+            held.addAndGet(-size);
+            throw e;
+        }
+        return task.snapshot();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Job> get(long id) {
+        return Optional.ofNullable(jobs.get(id)).map(JobTask::snapshot);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Job> cancel(long id) {
+        JobTask task = jobs.get(id);
+        if (task == null) {
+            return Optional.empty();
+        }
+        task.cancel();
+        return Optional.of(task.snapshot());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<List<?>> result(long id, long offset, int limit) {
+        JobTask task = jobs.get(id);
+        List<?> result = task == null ? null : task.result;
+        if (result == null) {
+            return Optional.empty();
+        }
+        int from = (int) Math.min(offset, result.size());
+        int to = (int) Math.min(result.size(), (long) from + limit);
+        return Optional.of(new ArrayList<>(result.subList(from, to)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean delete(long id) {
+        JobTask task = jobs.remove(id);
+        if (task == null) {
+            return false;
+        }
+        task.discard();
+        return true;
+    }
+
+    /**
+     * Forgets the jobs that finished more than the retention ago, releasing their results.
+     */
+    @Scheduled(fixedDelayString = "${rectangle.jobs.retention:PT15M}",
+            initialDelayString = "${rectangle.jobs.retention:PT15M}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        jobs.values().removeIf(task -> {
+            boolean expired = task.expiredAt(now, retention.toNanos());
+            if (expired) {
+                task.discard();
+            }
+            return expired;
+        });
+    }
+
+    /**
+     * Stops the workers, interrupting the running jobs.
+     */
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(task -> task.progress.cancel());
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return the number of elements held by the jobs, for tests
+     */
+    long held() {
+        return held.get();
+    }
+
+    /**
+     * Holds room for up to the given number of elements, as much as is left.
+     *
+     * @return the number of elements room was held for, 0 if none is left
+     */
+    private long reserveUpTo(long size) {
+        while (true) {
+            long current = held.get();
+            long room = Math.min(size, maxRectangles - current);
+            if (room <= 0) {
+                return 0;
+            }
+            if (held.compareAndSet(current, current + room)) {
+                return room;
+            }
+        }
+    }
+
+    private boolean reserve(long size) {
+        while (true) {
+            long current = held.get();
+            if (current + size > maxRectangles) {
+                return false;
+            }
+            if (held.compareAndSet(current, current + size)) {
+                return true;
+            }
+        }
+    }
+
+    private List<?> compute(JobOperation operation, List<Rectangle> rectangles, SweepProgress progress) {
+        switch (operation) {
+            case INTERSECTS:
+                return rectangleService.intersectingPairs(rectangles, progress);
+            case CONTAINS:
+                return rectangleService.containingPairs(rectangles, progress);
+            case ADJACENT:
+                return rectangleService.adjacentPairs(rectangles, progress);
+            case CLUSTERS:
+                return rectangleService.clusters(rectangles, progress);
+            default:
+                return rectangleService.nestingForest(rectangles, progress);
+        }
+    }
+
+    /**
+     * A {@link RectangleBatch} holding room in the elements held before its rows are added, {@value #RESERVED_ROWS}
+     * rows at a time.
+     */
+    private final class ReservedBatch extends RectangleBatch {
+        long reserved;
+
+        ReservedBatch() {
+            super(16);
+        }
+
+        @Override
+        public int add(int x, int y, int width, int height) {
+            if (size() == reserved) {
+                reserveRoom();
+            }
+            return super.add(x, y, width, height);
+        }
+
+        void reserveRoom() {
+            long room = reserveUpTo(RESERVED_ROWS);
+            if (room == 0) {
+                throw new RejectedExecutionException("The jobs already hold too many rectangles");
+            }
+            reserved += room;
+        }
+    }
+
+    /**
+     * A job and its state. Transitions are synchronized on the task, and the fields read by the other threads are
+     * volatile.
+     */
+    private final class JobTask implements Runnable {
+        final long id;
+        final JobOperation operation;
+        final int size;
+        final SweepProgress progress = new SweepProgress();
+        volatile JobState state = JobState.QUEUED;
+        volatile List<?> result;
+        volatile String error;
+        RectangleBatch rectangles;
+        long finishedAt;
+        boolean discarded;
+
+        JobTask(long id, JobOperation operation, RectangleBatch rectangles) {
+            this.id = id;
+            this.operation = operation;
+            this.size = rectangles.size();
+            this.rectangles = rectangles;
+        }
+
+        @Override
+        public void run() {
+            RectangleBatch input;
+            synchronized (this) {
+                if (state != JobState.QUEUED) {
+                    return;
+                }
+                state = JobState.RUNNING;
+                input = rectangles;
+            }
+            long start = System.nanoTime();
+            // the result replaces the Rectangle of the job in the elements held
+            progress.limitResults(maxRectangles - held.get() + size);
+            try {
+                finish(JobState.SUCCEEDED, compute(operation, input.asList(), progress), null);
+            } catch (CancellationException e) {
+                if (progress.isOverLimit()) {
+                    finish(JobState.FAILED, null, TOO_MANY_RESULTS);
+                } else {
+                    finish(JobState.CANCELLED, null, null);
+                }
+            } catch (RuntimeException | Error e) {
+                // an Error such as an OutOfMemoryError must release the elements held as well
+                log.warn("Job {} failed.", id, e);
+                finish(JobState.FAILED, null, e.getMessage());
+            }
+            log.info("Job {} ({} over {} rectangles) ended {} in {} ms.", id, operation, size, state,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+
+        private synchronized void finish(JobState outcome, List<?> output, String failure) {
+            rectangles = null;
+            // the result replaces the Rectangle in the elements held, unless other jobs took the room it needs
+            if (outcome == JobState.SUCCEEDED && !discarded && reserve(output.size() - size)) {
+                result = output;
+            } else {
+                held.addAndGet(-size);
+                if (outcome == JobState.SUCCEEDED && !discarded) {
+                    outcome = JobState.FAILED;
+                    failure = TOO_MANY_RESULTS;
+                }
+            }
+            error = failure;
+            finishedAt = System.nanoTime();
+            state = outcome;
+        }
+
+        synchronized void cancel() {
+            progress.cancel();
+            if (state == JobState.QUEUED) {
+                executor.remove(this);
+                finish(JobState.CANCELLED, null, null);
+            }
+        }
+
+        synchronized void discard() {
+            discarded = true;
+            cancel();
+            if (result != null) {
+                held.addAndGet(-result.size());
+                result = null;
+            }
+        }
+
+        synchronized boolean expiredAt(long now, long retention) {
+            return state.isFinal() && now - finishedAt > retention;
+        }
+
+        Job snapshot() {
+            JobState current = state;
+            List<?> output = result;
+            return new Job(id, operation, current, size, current == JobState.SUCCEEDED ? 1 : progress.fraction(),
+                    output == null ? 0 : output.size(), error);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.nuvalence.service;
+
+import com.nuvalence.engine.PartitionedJoin;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.SpatialRelation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Interface describing the join of two datasets of {@link Rectangle} too large to be held in memory, kept in files in
+ * the binary wire format.
+ */
+public interface JoinService {
+
+    /**
+     * A join whose datasets were checked, holding one of the slots of the running joins until it is closed.
+     */
+    interface Join extends Closeable {
+        /**
+         * Runs the join.
+         *
+         * @param consumer the callback receiving the position of the left and the right {@link Rectangle} of each
+         *                 pair found, in no particular order
+         * @return the number of pairs found
+         * @throws IOException if a dataset can't be read, or the consumer fails
+         */
+        long run(PartitionedJoin.PairConsumer consumer) throws IOException;
+
+        /**
+         * Releases the slot of the join.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Checks two dataset files and reserves a slot to join them.
+     *
+     * @param left     the file of the left dataset
+     * @param right    the file of the right dataset
+     * @param relation the {@link SpatialRelation} holding between the left and the right {@link Rectangle} of each
+     *                 pair
+     * @return the {@link Join}, to be run and closed
+     * @throws IllegalArgumentException   if a file isn't made of whole records of valid {@link Rectangle}
+     * @throws RejectedExecutionException if too many joins are running
+     * @throws IOException                if a file can't be read
+     */
+    Join prepare(Path left, Path right, SpatialRelation relation) throws IOException;
+}
@@ -0,0 +1,113 @@
+package com.nuvalence.service;
+
+import com.nuvalence.engine.PartitionedJoin;
+import com.nuvalence.model.SpatialRelation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Default Implementation of the Interface {@link JoinService}, running a {@link PartitionedJoin} on a fixed number of
+ * worker threads split between the joins.
+ * <p>
+ * Each of the {@code rectangle.join.max-running} joins gets its own share of the {@code rectangle.join.workers} threads,
+ * at least one, so a join whose client reads its pairs slowly only stalls its own workers.
+ * <p>
+ * Each join may keep {@code rectangle.join.memory-budget} bytes in memory and spills the rest to
+ * {@code rectangle.join.temporary-directory}, and at most {@code rectangle.join.max-running} joins run at the same time,
+ * so the memory used by the joins is bounded whatever the size of their datasets.
+ */
+@Service
+public class JoinServiceImpl implements JoinService {
+
+    private static final Logger log = LoggerFactory.getLogger(JoinServiceImpl.class);
+
+    private final ExecutorService executor;
+    private final PartitionedJoin partitionedJoin;
+    private final Semaphore running;
+
+    /**
+     * Default Constructor.
+     *
+     * @param workers            the number of threads joining the tiles of the joins, split between them
+     * @param maxRunning         the number of joins running at the same time, beyond which new ones are rejected
+     * @param memoryBudget       the memory a join may use
+     * @param temporaryDirectory the directory where joins spill their partitions
+     */
+    @Autowired
+    public JoinServiceImpl(@Value("${rectangle.join.workers:4}") int workers,
+                           @Value("${rectangle.join.max-running:2}") int maxRunning,
+                           @Value("${rectangle.join.memory-budget:256MB}") DataSize memoryBudget,
+                           @Value("${rectangle.join.temporary-directory:${java.io.tmpdir}}") Path temporaryDirectory) {
+        int joinWorkers = Math.max(1, workers / maxRunning);
+        this.executor = newExecutor(joinWorkers * maxRunning);
+        this.partitionedJoin = new PartitionedJoin(executor, joinWorkers, memoryBudget.toBytes(), temporaryDirectory);
+        this.running = new Semaphore(maxRunning);
+    }
+
+    private static ExecutorService newExecutor(int workers) {
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "rectangle-join-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Join prepare(Path left, Path right, SpatialRelation relation) throws IOException {
+        if (!running.tryAcquire()) {
+            throw new RejectedExecutionException("Too many joins are running");
+        }
+        try {
+            PartitionedJoin.Dataset lefts = PartitionedJoin.scan(left, "left");
+            PartitionedJoin.Dataset rights = PartitionedJoin.scan(right, "right");
+            AtomicBoolean closed = new AtomicBoolean();
+            return new Join() {
+                @Override
+                public long run(PartitionedJoin.PairConsumer consumer) throws IOException {
+                    long start = System.nanoTime();
+                    long pairs = partitionedJoin.join(lefts, rights, relation, consumer);
+                    log.info("Joined {} with {} rectangles ({}) into {} pairs in {} ms.", lefts.getCount(),
+                            rights.getCount(), relation, pairs, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    return pairs;
+                }
+
+                @Override
+                public void close() {
+                    if (closed.compareAndSet(false, true)) {
+                        running.release();
+                    }
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            running.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Stops the workers.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,387 @@
+package com.nuvalence.service;
+
+import com.nuvalence.engine.SweepProgress;
+import com.nuvalence.model.Coverage;
+import com.nuvalence.model.IndexLabels;
+import com.nuvalence.model.IndexPair;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.RectanglePair;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the Interface {@link RectangleService} that records Micrometer metrics around
+ * {@link RectangleServiceImpl}, and is the one injected wherever a {@link RectangleService} is needed.
+ * <p>
+ * Each operation has, tagged by {@code operation}:
+ * <ul>
+ *     <li>a {@code rectangle.operation} timer, with a percentile histogram</li>
+ *     <li>a {@code rectangle.operation.results} counter, tagged by {@code result}: true or false for the
+ *     predicates, empty or nonempty for the intersection points, pairs for the number of pairs found by the
+ *     batch operations, clusters for the number of clusters found, and roots for the number of {@link Rectangle}
+ *     without a parent in the nesting forest</li>
+ *     <li>for the operations taking a list, a {@code rectangle.operation.payload} summary of the number of
+ *     {@link Rectangle} received</li>
+ * </ul>
+ * Every meter is registered up front, and durations are recorded from {@link System#nanoTime()}, so recording
+ * allocates nothing.
+ */
+@Primary
+@Service
+public class MeteredRectangleService implements RectangleService {
+
+    static final String TIMER = "rectangle.operation";
+    static final String RESULTS = "rectangle.operation.results";
+    static final String PAYLOAD = "rectangle.operation.payload";
+
+    private final RectangleServiceImpl delegate;
+
+    private final Timer adjacentTimer;
+    private final Counter adjacentTrue;
+    private final Counter adjacentFalse;
+
+    private final Timer containsTimer;
+    private final Counter containsTrue;
+    private final Counter containsFalse;
+
+    private final Timer intersectsTimer;
+    private final Counter intersectsTrue;
+    private final Counter intersectsFalse;
+
+    private final Timer intersectionTimer;
+    private final Counter intersectionEmpty;
+    private final Counter intersectionNonEmpty;
+
+    private final Timer intersectingPairsTimer;
+    private final Counter intersectingPairsFound;
+    private final DistributionSummary intersectingPairsPayload;
+
+    private final Timer containingPairsTimer;
+    private final Counter containingPairsFound;
+    private final DistributionSummary containingPairsPayload;
+
+    private final Timer adjacentPairsTimer;
+    private final Counter adjacentPairsFound;
+    private final DistributionSummary adjacentPairsPayload;
+
+    private final Timer coverageTimer;
+    private final DistributionSummary coveragePayload;
+
+    private final Timer clustersTimer;
+    private final Counter clustersFound;
+    private final DistributionSummary clustersPayload;
+
+    private final Timer nestingTimer;
+    private final Counter nestingRoots;
+    private final DistributionSummary nestingPayload;
+
+    /**
+     * Default Constructor.
+     *
+     * @param delegate an instance of {@link RectangleServiceImpl}, doing the actual work.
+     * @param registry the {@link MeterRegistry} the meters are registered to.
+     */
+    @Autowired
+    public MeteredRectangleService(RectangleServiceImpl delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+
+        adjacentTimer = timer(registry, "adjacent");
+        adjacentTrue = counter(registry, "adjacent", "true");
+        adjacentFalse = counter(registry, "adjacent", "false");
+
+        containsTimer = timer(registry, "contains");
+        containsTrue = counter(registry, "contains", "true");
+        containsFalse = counter(registry, "contains", "false");
+
+        intersectsTimer = timer(registry, "intersects");
+        intersectsTrue = counter(registry, "intersects", "true");
+        intersectsFalse = counter(registry, "intersects", "false");
+
+        intersectionTimer = timer(registry, "intersection");
+        intersectionEmpty = counter(registry, "intersection", "empty");
+        intersectionNonEmpty = counter(registry, "intersection", "nonempty");
+
+        intersectingPairsTimer = timer(registry, "batch.intersects");
+        intersectingPairsFound = counter(registry, "batch.intersects", "pairs");
+        intersectingPairsPayload = payload(registry, "batch.intersects");
+
+        containingPairsTimer = timer(registry, "batch.contains");
+        containingPairsFound = counter(registry, "batch.contains", "pairs");
+        containingPairsPayload = payload(registry, "batch.contains");
+
+        adjacentPairsTimer = timer(registry, "batch.adjacent");
+        adjacentPairsFound = counter(registry, "batch.adjacent", "pairs");
+        adjacentPairsPayload = payload(registry, "batch.adjacent");
+
+        coverageTimer = timer(registry, "coverage");
+        coveragePayload = payload(registry, "coverage");
+
+        clustersTimer = timer(registry, "clusters");
+        clustersFound = counter(registry, "clusters", "clusters");
+        clustersPayload = payload(registry, "clusters");
+
+        nestingTimer = timer(registry, "nesting");
+        nestingRoots = counter(registry, "nesting", "roots");
+        nestingPayload = payload(registry, "nesting");
+    }
+
+    private static Timer timer(MeterRegistry registry, String operation) {
+        return Timer.builder(TIMER)
+                .description("Time spent in each RectangleService operation")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+    }
+
+    private static Counter counter(MeterRegistry registry, String operation, String result) {
+        return Counter.builder(RESULTS)
+                .description("Outcomes of each RectangleService operation")
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static DistributionSummary payload(MeterRegistry registry, String operation) {
+        return DistributionSummary.builder(PAYLOAD)
+                .description("Number of Rectangles received by each batch operation")
+                .baseUnit("rectangles")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAdjacentTo(Rectangle r1, Rectangle r2) {
+        long start = System.nanoTime();
+        boolean result = delegate.isAdjacentTo(r1, r2);
+        adjacentTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (result ? adjacentTrue : adjacentFalse).increment();
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(Rectangle r1, Rectangle r2) {
+        long start = System.nanoTime();
+        boolean result = delegate.contains(r1, r2);
+        containsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (result ? containsTrue : containsFalse).increment();
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean intersects(Rectangle r1, Rectangle r2) {
+        long start = System.nanoTime();
+        boolean result = delegate.intersects(r1, r2);
+        intersectsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (result ? intersectsTrue : intersectsFalse).increment();
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Integer> intersectionPoints(Rectangle r1, Rectangle r2) {
+        long start = System.nanoTime();
+        List<Integer> result = delegate.intersectionPoints(r1, r2);
+        intersectionTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (result.isEmpty() ? intersectionEmpty : intersectionNonEmpty).increment();
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int intersectionPoints(Rectangle r1, Rectangle r2, int[] coordinates) {
+        long start = System.nanoTime();
+        int result = delegate.intersectionPoints(r1, r2, coordinates);
+        intersectionTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (result == 0 ? intersectionEmpty : intersectionNonEmpty).increment();
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAdjacentTo(RectanglePair pair) {
+        long start = System.nanoTime();
+        boolean result = delegate.isAdjacentTo(pair);
+        adjacentTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (result ? adjacentTrue : adjacentFalse).increment();
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(RectanglePair pair) {
+        long start = System.nanoTime();
+        boolean result = delegate.contains(pair);
+        containsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (result ? containsTrue : containsFalse).increment();
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean intersects(RectanglePair pair) {
+        long start = System.nanoTime();
+        boolean result = delegate.intersects(pair);
+        intersectsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (result ? intersectsTrue : intersectsFalse).increment();
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Integer> intersectionPoints(RectanglePair pair) {
+        long start = System.nanoTime();
+        List<Integer> result = delegate.intersectionPoints(pair);
+        intersectionTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (result.isEmpty() ? intersectionEmpty : intersectionNonEmpty).increment();
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<IndexPair> intersectingPairs(List<Rectangle> rectangles) {
+        return intersectingPairs(rectangles, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<IndexPair> intersectingPairs(List<Rectangle> rectangles, SweepProgress progress) {
+        long start = System.nanoTime();
+        List<IndexPair> result = delegate.intersectingPairs(rectangles, progress);
+        intersectingPairsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        intersectingPairsPayload.record(rectangles.size());
+        intersectingPairsFound.increment(result.size());
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<IndexPair> containingPairs(List<Rectangle> rectangles) {
+        return containingPairs(rectangles, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<IndexPair> containingPairs(List<Rectangle> rectangles, SweepProgress progress) {
+        long start = System.nanoTime();
+        List<IndexPair> result = delegate.containingPairs(rectangles, progress);
+        containingPairsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        containingPairsPayload.record(rectangles.size());
+        containingPairsFound.increment(result.size());
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<IndexPair> adjacentPairs(List<Rectangle> rectangles) {
+        return adjacentPairs(rectangles, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<IndexPair> adjacentPairs(List<Rectangle> rectangles, SweepProgress progress) {
+        long start = System.nanoTime();
+        List<IndexPair> result = delegate.adjacentPairs(rectangles, progress);
+        adjacentPairsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        adjacentPairsPayload.record(rectangles.size());
+        adjacentPairsFound.increment(result.size());
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Coverage coverage(List<Rectangle> rectangles, int k) {
+        long start = System.nanoTime();
+        Coverage result = delegate.coverage(rectangles, k);
+        coverageTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        coveragePayload.record(rectangles.size());
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IndexLabels clusters(List<Rectangle> rectangles) {
+        return clusters(rectangles, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IndexLabels clusters(List<Rectangle> rectangles, SweepProgress progress) {
+        long start = System.nanoTime();
+        IndexLabels result = delegate.clusters(rectangles, progress);
+        clustersTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        clustersPayload.record(rectangles.size());
+        clustersFound.increment(result.getGroups());
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IndexLabels nestingForest(List<Rectangle> rectangles) {
+        return nestingForest(rectangles, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IndexLabels nestingForest(List<Rectangle> rectangles, SweepProgress progress) {
+        long start = System.nanoTime();
+        IndexLabels result = delegate.nestingForest(rectangles, progress);
+        nestingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        nestingPayload.record(rectangles.size());
+        nestingRoots.increment(result.getGroups());
+        return result;
+    }
+}
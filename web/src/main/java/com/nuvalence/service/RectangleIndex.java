@@ -0,0 +1,109 @@
+package com.nuvalence.service;
+
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.SpatialRelation;
+import com.nuvalence.model.StoredRectangle;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+
+/**
+ * Interface describing a stateful collection of {@link Rectangle}, kept under stable ids and indexed for spatial
+ * queries.
+ */
+public interface RectangleIndex {
+
+    /**
+     * Callback receiving each change to the stored {@link Rectangle}.
+     */
+    @FunctionalInterface
+    interface ChangeListener {
+        /**
+         * @param id       the id of the changed {@link Rectangle}
+         * @param previous the {@link Rectangle} stored under the id before the change, or null if it was inserted
+         * @param current  the {@link Rectangle} stored under the id after the change, or null if it was deleted
+         */
+        void changed(long id, Rectangle previous, Rectangle current);
+    }
+
+    /**
+     * Stores each {@link Rectangle} of the list under a new id.
+     *
+     * @param rectangles the {@link Rectangle} to be stored
+     * @return the {@link StoredRectangle} created, in the same order as the specified list
+     */
+    List<StoredRectangle> insert(List<Rectangle> rectangles);
+
+    /**
+     * Finds a stored {@link Rectangle} by id.
+     *
+     * @param id the id of the stored {@link Rectangle}
+     * @return the {@link StoredRectangle}, or empty if no {@link Rectangle} is stored under the id
+     */
+    Optional<StoredRectangle> get(long id);
+
+    /**
+     * Replaces the {@link Rectangle} stored under an id.
+     *
+     * @param id        the id of the stored {@link Rectangle}
+     * @param rectangle the new {@link Rectangle}
+     * @return the updated {@link StoredRectangle}, or empty if no {@link Rectangle} is stored under the id
+     */
+    Optional<StoredRectangle> update(long id, Rectangle rectangle);
+
+    /**
+     * Removes the {@link Rectangle} stored under an id.
+     *
+     * @param id the id of the stored {@link Rectangle}
+     * @return true if a {@link Rectangle} was stored under the id; false otherwise
+     */
+    boolean delete(long id);
+
+    /**
+     * Finds every stored {@link Rectangle} that holds the specified relation with the query {@link Rectangle}.
+     *
+     * @param relation the {@link SpatialRelation} between the stored {@link Rectangle} and the query
+     * @param query    the query {@link Rectangle}
+     * @return the matching {@link StoredRectangle}, sorted by id
+     */
+    List<StoredRectangle> query(SpatialRelation relation, Rectangle query);
+
+    /**
+     * Finds one page of the stored {@link Rectangle} that hold the specified relation with the query
+     * {@link Rectangle}: the ones with the smallest ids after a cursor. Ids are stable, so following the cursors from
+     * 0 visits every match once, and {@link Rectangle} stored meanwhile are found in the later pages.
+     *
+     * @param relation the {@link SpatialRelation} between the stored {@link Rectangle} and the query
+     * @param query    the query {@link Rectangle}
+     * @param after    the cursor: the id of the last {@link StoredRectangle} of the previous page, or 0
+     * @param limit    the largest number of {@link StoredRectangle} in the page, 1 or more
+     * @param consumer the callback receiving the matching {@link StoredRectangle} of the page, sorted by id
+     * @return the cursor of the next page, or empty if this page holds the last matches
+     */
+    OptionalLong query(SpatialRelation relation, Rectangle query, long after, int limit, Consumer<StoredRectangle> consumer);
+
+    /**
+     * Finds the k stored {@link Rectangle} nearest to the query, as measured by {@link Rectangle#distanceTo(Rectangle)}.
+     *
+     * @param query the query {@link Rectangle}, or a point given as a {@link Rectangle} with no width and no height
+     * @param k     the number of {@link Rectangle} to find, 1 or more
+     * @return up to k {@link StoredRectangle}, nearest first, and by id when they are as near
+     */
+    List<StoredRectangle> nearest(Rectangle query, int k);
+
+    /**
+     * Registers a listener called after each insert, update and delete, while no other change can happen, so
+     * listeners see the changes in the order they are made. Listeners must return quickly, and must not call the
+     * index.
+     *
+     * @param listener the {@link ChangeListener} to be called
+     */
+    void addListener(ChangeListener listener);
+
+    /**
+     * @return the number of stored {@link Rectangle}
+     */
+    long size();
+}
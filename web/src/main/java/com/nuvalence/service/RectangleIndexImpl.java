@@ -0,0 +1,585 @@
+package com.nuvalence.service;
+
+import com.nuvalence.index.BoxBuffer;
+import com.nuvalence.index.DatasetStatistics;
+import com.nuvalence.index.IndexStrategy;
+import com.nuvalence.index.NearestEntries;
+import com.nuvalence.index.PageEntries;
+import com.nuvalence.index.SpatialIndex;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.SpatialRelation;
+import com.nuvalence.model.StoredRectangle;
+import com.nuvalence.store.MappedRectangleStore;
+import com.nuvalence.store.WriteAheadLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Default Implementation of the Interface {@link RectangleIndex}, keeping the {@link Rectangle} in a
+ * {@link MappedRectangleStore} and indexing them with a {@link SpatialIndex}, so queries only test the stored
+ * {@link Rectangle} near the query.
+ * <p>
+ * The {@link Rectangle} found in the store when it is opened are loaded into an index in the background, all at once
+ * with {@link SpatialIndex#load(BoxBuffer)}, so the service is ready as soon as the store is open. The store slots
+ * before {@code indexed} are in the index, and queries scan the remaining ones in place, so they give the same results
+ * while the index is being built.
+ * <p>
+ * The kind of index is given by an {@link IndexStrategy}, from the {@link DatasetStatistics} of the stored
+ * {@link Rectangle}. Unless it is always an R-tree, the index is built again in the background from fresh statistics
+ * each time the number of stored {@link Rectangle} doubles, so it keeps suiting them as they change.
+ * <p>
+ * When the store is backed by a snapshot file, each change is first appended to a {@link WriteAheadLog}, and is only
+ * acknowledged once the log is synced. Writers sync the log after releasing the lock, so concurrent writers share
+ * syncs. The snapshot is periodically replaced with the current {@link Rectangle} while changes go on, and the log
+ * records made before it are then discarded.
+ */
+@Service
+public class RectangleIndexImpl implements RectangleIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RectangleIndexImpl.class);
+    private static final int INDEX_CHUNK = 1 << 16;
+    private static final int PAGE_SCAN_CHUNK = 1 << 14;
+
+    private final MappedRectangleStore store;
+    private final WriteAheadLog writeAheadLog;
+    private final IndexStrategy strategy;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean indexing = new AtomicBoolean();
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private SpatialIndex index;
+    private long indexed;
+    // ids of the slots copied by a rebuild that changed while it loads its index, and how many slots it copied
+    private Set<Long> changedWhileLoading;
+    private long loadedSlots;
+    private long evaluatedSize;
+    private long snapshotModifications;
+
+    /**
+     * Creates an index over an empty temporary store.
+     */
+    public RectangleIndexImpl() {
+        this(MappedRectangleStore.temporary(), Optional.empty(), IndexStrategy.AUTO);
+    }
+
+    /**
+     * Default Constructor.
+     *
+     * @param store         the {@link MappedRectangleStore} keeping the {@link Rectangle}
+     * @param writeAheadLog the {@link WriteAheadLog} receiving each change, if changes must survive crashes
+     * @param strategy      the {@link IndexStrategy} picking the kind of index
+     */
+    @Autowired
+    public RectangleIndexImpl(MappedRectangleStore store, Optional<WriteAheadLog> writeAheadLog,
+                              @Value("${rectangle.index.strategy:auto}") IndexStrategy strategy) {
+        this.store = store;
+        this.writeAheadLog = writeAheadLog.orElse(null);
+        this.strategy = strategy;
+        this.index = strategy.create(DatasetStatistics.of(consumer -> {
+        }));
+    }
+
+    /**
+     * Starts indexing the {@link Rectangle} found in the store in a background thread, once the application is ready,
+     * so it doesn't slow the startup down.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startIndexing() {
+        if (store.slots() > 0) {
+            startRebuild();
+        }
+    }
+
+    private void startRebuild() {
+        if (indexing.compareAndSet(false, true)) {
+            Thread indexer = new Thread(() -> {
+                try {
+                    rebuildIndex();
+                } finally {
+                    indexing.set(false);
+                }
+            }, "rectangle-indexer");
+            indexer.setDaemon(true);
+            indexer.start();
+        }
+    }
+
+    /**
+     * Builds a new index, picked by the strategy from the statistics of the stored {@link Rectangle}, and loads them
+     * into it at once with {@link SpatialIndex#load(BoxBuffer)}. The boxes are copied under the read lock and loaded
+     * without holding any lock, so the current index keeps answering queries and following changes meanwhile.
+     * Changes made to the copied slots during the load are replayed on the new index before it replaces the current
+     * one, and the slots appended meanwhile are indexed afterwards.
+     */
+    void rebuildIndex() {
+        long start = System.nanoTime();
+        BoxBuffer boxes = new BoxBuffer();
+        long slots;
+        Set<Long> changed = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            slots = store.slots();
+            store.scan(0, slots, (id, x, y, width, height) -> boxes.accept(id, x, y, x + width, y + height));
+            // only writers read these fields, and they are excluded by the read lock
+            loadedSlots = slots;
+            changedWhileLoading = changed;
+        } finally {
+            lock.readLock().unlock();
+        }
+        DatasetStatistics statistics = DatasetStatistics.of(boxes::scan);
+        SpatialIndex rebuilt = strategy.create(statistics);
+        rebuilt.load(boxes);
+        lock.writeLock().lock();
+        try {
+            for (long id : changed) {
+                int i = boxes.indexOf(id);
+                if (i >= 0) {
+                    rebuilt.remove(id, boxes.getMinX(i), boxes.getMinY(i), boxes.getMaxX(i), boxes.getMaxY(i));
+                }
+                Rectangle r = store.get(id);
+                if (r != null) {
+                    rebuilt.insert(id, r.getX(), r.getY(), r.getX() + r.getWidth(), r.getY() + r.getHeight());
+                }
+            }
+            changedWhileLoading = null;
+            index = rebuilt;
+            indexed = slots;
+            evaluatedSize = statistics.getCount();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded {} stored rectangles into {} for {} in {} ms.", boxes.size(), rebuilt.getClass().getSimpleName(),
+                statistics, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        indexStored();
+    }
+
+    /**
+     * @return the current index, for tests
+     */
+    SpatialIndex getIndex() {
+        lock.readLock().lock();
+        try {
+            return index;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes every store slot that isn't indexed yet, holding the write lock for one chunk at a time so requests
+     * go on in between.
+     */
+    void indexStored() {
+        long start = System.nanoTime();
+        long count;
+        do {
+            lock.writeLock().lock();
+            try {
+                long to = Math.min(indexed + INDEX_CHUNK, store.slots());
+                store.scan(indexed, to, (id, x, y, width, height) -> index.insert(id, x, y, x + width, y + height));
+                indexed = to;
+                count = store.slots() - indexed;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } while (count > 0);
+        log.info("Indexed {} stored rectangles in {} ms.", getIndex().size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<StoredRectangle> insert(List<Rectangle> rectangles) {
+        List<StoredRectangle> stored = new ArrayList<>(rectangles.size());
+        long sequence = 0;
+        boolean grown;
+        lock.writeLock().lock();
+        try {
+            for (Rectangle r : rectangles) {
+                boolean caughtUp = indexed == store.slots();
+                if (writeAheadLog != null) {
+                    sequence = writeAheadLog.appendPut(store.slots() + 1, r);
+                }
+                long id = store.append(r);
+                if (caughtUp) {
+                    index.insert(id, r.getX(), r.getY(), r.getX() + r.getWidth(), r.getY() + r.getHeight());
+                    indexed++;
+                }
+                stored.add(new StoredRectangle(id, r));
+                changed(id, null, r);
+            }
+            grown = strategy != IndexStrategy.RTREE
+                    && store.size() >= Math.max(2 * evaluatedSize, IndexStrategy.MIN_GRID_COUNT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(sequence);
+        if (grown) {
+            startRebuild();
+        }
+        return stored;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<StoredRectangle> get(long id) {
+        lock.readLock().lock();
+        try {
+            Rectangle r = store.get(id);
+            return r == null ? Optional.empty() : Optional.of(new StoredRectangle(id, r));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<StoredRectangle> update(long id, Rectangle rectangle) {
+        long sequence = 0;
+        lock.writeLock().lock();
+        try {
+            Rectangle previous = store.get(id);
+            if (previous == null) {
+                return Optional.empty();
+            }
+            if (writeAheadLog != null) {
+                sequence = writeAheadLog.appendPut(id, rectangle);
+            }
+            store.update(id, rectangle);
+            if (id <= indexed) {
+                index.remove(id, previous.getX(), previous.getY(),
+                        previous.getX() + previous.getWidth(), previous.getY() + previous.getHeight());
+                index.insert(id, rectangle.getX(), rectangle.getY(),
+                        rectangle.getX() + rectangle.getWidth(), rectangle.getY() + rectangle.getHeight());
+            }
+            loadedChanged(id);
+            changed(id, previous, rectangle);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(sequence);
+        return Optional.of(new StoredRectangle(id, rectangle));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean delete(long id) {
+        long sequence = 0;
+        lock.writeLock().lock();
+        try {
+            Rectangle previous = store.get(id);
+            if (previous == null) {
+                return false;
+            }
+            if (writeAheadLog != null) {
+                sequence = writeAheadLog.appendDelete(id);
+            }
+            store.delete(id);
+            if (id <= indexed) {
+                index.remove(id, previous.getX(), previous.getY(),
+                        previous.getX() + previous.getWidth(), previous.getY() + previous.getHeight());
+            }
+            loadedChanged(id);
+            changed(id, previous, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(sequence);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Records a change of a slot copied by a rebuild, so it is replayed on the index being loaded. Called under the
+     * write lock.
+     */
+    private void loadedChanged(long id) {
+        if (changedWhileLoading != null && id <= loadedSlots) {
+            changedWhileLoading.add(id);
+        }
+    }
+
+    /**
+     * Calls the listeners, under the write lock. A failing listener doesn't fail the change, which is already made.
+     */
+    private void changed(long id, Rectangle previous, Rectangle current) {
+        for (ChangeListener listener : listeners) {
+            try {
+                listener.changed(id, previous, current);
+            } catch (RuntimeException e) {
+                log.warn("A listener failed on the change of rectangle {}.", id, e);
+            }
+        }
+    }
+
+    private void awaitDurable(long sequence) {
+        if (sequence > 0) {
+            try {
+                writeAheadLog.awaitDurable(sequence);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Replaces the snapshot file of the store with the current {@link Rectangle}, if anything changed since the last
+     * snapshot, without blocking changes while it is written. The log is rotated and the snapshot begun together, so
+     * the previous log holds the changes before the snapshot, and is discarded once it is in place. The records are
+     * then copied {@value #INDEX_CHUNK} slots at a time, each chunk under the read lock, so changes only wait for one
+     * chunk, and the snapshot is synced without any lock held.
+     * <p>
+     * The method is both scheduled and called on shutdown, so it is synchronized to keep two snapshots from running
+     * together.
+     */
+    @Scheduled(fixedDelayString = "${rectangle.store.snapshot-interval:PT1M}",
+            initialDelayString = "${rectangle.store.snapshot-interval:PT1M}")
+    @PreDestroy
+    public synchronized void snapshot() {
+        if (store.getPath() == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        long modifications;
+        long size;
+        try {
+            lock.readLock().lock();
+            try {
+                modifications = store.modifications();
+                if (modifications == snapshotModifications) {
+                    return;
+                }
+                if (writeAheadLog != null) {
+                    writeAheadLog.rotate();
+                }
+                store.beginSnapshot();
+                size = store.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+            boolean copied;
+            do {
+                lock.readLock().lock();
+                try {
+                    copied = store.copySnapshot(INDEX_CHUNK);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            } while (!copied);
+            store.finishSnapshot();
+            if (writeAheadLog != null) {
+                writeAheadLog.discardPrevious();
+            }
+            snapshotModifications = modifications;
+        } catch (IOException e) {
+            // the previous log is kept, and the next snapshot starts over
+            store.abortSnapshot();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            store.abortSnapshot();
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            // the changed records were copied to the new snapshot, so their memory can be released
+            if (store.modifications() == modifications) {
+                store.reload();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Wrote a snapshot of {} stored rectangles in {} ms.", size,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<StoredRectangle> query(SpatialRelation relation, Rectangle query) {
+        List<StoredRectangle> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            index.search(query.getX(), query.getY(), query.getX() + query.getWidth(), query.getY() + query.getHeight(),
+                    (id, x0, y0, x1, y1) -> {
+                        if (relation.test(x0, y0, x1 - x0, y1 - y0, query)) {
+                            matches.add(new StoredRectangle(id, new Rectangle(x0, y0, x1 - x0, y1 - y0)));
+                        }
+                    });
+            store.scan(indexed, store.slots(), relation, query,
+                    (id, x, y, width, height) -> matches.add(new StoredRectangle(id, new Rectangle(x, y, width, height))));
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingLong(StoredRectangle::getId));
+        return matches;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each page is found one of two ways, whichever is expected to be cheaper, so paging through the matches doesn't
+     * repeat the whole search for every page. The window search of the index reports every match whatever the
+     * cursor, so it is given up once it has reported sqrt(slots after the cursor * limit) boxes. There are then at
+     * least that many matches, and the page is rather found by scanning the store slots in id order from the cursor,
+     * where the previous page stopped since record id lives in slot id - 1, until the page is full: about
+     * (slots after the cursor * limit / matches) slots, fewer than the search gave up at. Either way, a page costs
+     * O(sqrt(slots * limit)), whichever page it is.
+     * <p>
+     * The search runs under the read lock, and the scan takes it for {@value #PAGE_SCAN_CHUNK} slots at a time, so
+     * changes wait for one chunk at most. At most {@code limit} matches are kept, in a {@link PageEntries}, and the
+     * consumer is called once the lock is released, so a slow consumer doesn't hold changes back.
+     */
+    @Override
+    public OptionalLong query(SpatialRelation relation, Rectangle query, long after, int limit,
+                              Consumer<StoredRectangle> consumer) {
+        long from = Math.max(after, 0);
+        PageEntries page = searchPage(relation, query, from, limit);
+        if (page == null) {
+            page = scanPage(relation, query, from, limit);
+        }
+        long[] last = new long[1];
+        page.report((id, x0, y0, x1, y1) -> {
+            consumer.accept(new StoredRectangle(id, new Rectangle(x0, y0, x1 - x0, y1 - y0)));
+            last[0] = id;
+        });
+        return page.hasMore() ? OptionalLong.of(last[0]) : OptionalLong.empty();
+    }
+
+    /**
+     * Finds a page with the window search of the index, unless it reports more boxes than scanning the store from the
+     * cursor is expected to cost.
+     *
+     * @return the page, or null if the search was given up
+     */
+    private PageEntries searchPage(SpatialRelation relation, Rectangle query, long from, int limit) {
+        PageEntries page = new PageEntries(from, limit);
+        lock.readLock().lock();
+        try {
+            long slots = store.slots();
+            long budget = Math.max(limit, (long) Math.sqrt((double) Math.max(0, slots - from) * limit));
+            long[] seen = new long[1];
+            index.search(query.getX(), query.getY(), query.getX() + query.getWidth(), query.getY() + query.getHeight(),
+                    (id, x0, y0, x1, y1) -> {
+                        if (++seen[0] > budget) {
+                            throw new CancellationException();
+                        }
+                        if (relation.test(x0, y0, x1 - x0, y1 - y0, query)) {
+                            page.offer(id, x0, y0, x1, y1);
+                        }
+                    });
+            // record id lives in slot id - 1, so the slots before the cursor hold no id after it
+            store.scan(Math.max(indexed, from), slots, relation, query,
+                    (id, x, y, width, height) -> page.offer(id, x, y, x + width, y + height));
+            return page;
+        } catch (CancellationException e) {
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds a page by scanning the store slots in id order from the cursor, until a match is found past a full page.
+     */
+    private PageEntries scanPage(SpatialRelation relation, Rectangle query, long from, int limit) {
+        PageEntries page = new PageEntries(from, limit);
+        for (long slot = from; !page.hasMore(); ) {
+            lock.readLock().lock();
+            try {
+                long to = Math.min(slot + PAGE_SCAN_CHUNK, store.slots());
+                if (slot >= to) {
+                    break;
+                }
+                store.scan(slot, to, relation, query,
+                        (id, x, y, width, height) -> page.offer(id, x, y, x + width, y + height));
+                slot = to;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return page;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The index only visits the parts that may hold one of the k nearest {@link Rectangle}, and the store slots not
+     * indexed yet are scanned in place.
+     */
+    @Override
+    public List<StoredRectangle> nearest(Rectangle query, int k) {
+        NearestEntries nearest = new NearestEntries(k, query.getX(), query.getY(),
+                query.getX() + query.getWidth(), query.getY() + query.getHeight());
+        lock.readLock().lock();
+        try {
+            index.nearest(nearest);
+            store.scan(indexed, store.slots(), (id, x, y, width, height) -> nearest.offer(id, x, y, x + width, y + height));
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<StoredRectangle> found = new ArrayList<>(nearest.size());
+        nearest.report((id, x0, y0, x1, y1) -> found.add(new StoredRectangle(id, new Rectangle(x0, y0, x1 - x0, y1 - y0))));
+        return found;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return store.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+}
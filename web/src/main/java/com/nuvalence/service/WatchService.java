@@ -0,0 +1,56 @@
+package com.nuvalence.service;
+
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.WatchEvent;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Interface describing watches over regions of the plane, which receive a {@link WatchEvent} each time a stored
+ * {@link Rectangle} starts or stops intersecting their region.
+ */
+public interface WatchService {
+
+    /**
+     * Receiver of the events of a watch. Its methods are called from one thread at a time.
+     */
+    interface WatchListener {
+        /**
+         * @param event the {@link WatchEvent} to be delivered
+         * @throws IOException if the event can't be delivered, which ends the watch
+         */
+        void onEvent(WatchEvent event) throws IOException;
+
+        /**
+         * Called once when the watch ends, after the last event, unless delivering an event failed.
+         *
+         * @param reason why the watch ended
+         */
+        void onClose(String reason);
+    }
+
+    /**
+     * Starts watching a region. The listener first receives an {@link com.nuvalence.model.WatchEventType#ENTER}
+     * event for each stored {@link Rectangle} already intersecting the region, then the events of the later changes.
+     *
+     * @param region   the watched region
+     * @param listener the {@link WatchListener} receiving the events
+     * @return the id of the watch
+     * @throws RejectedExecutionException if too many watches are open
+     */
+    long watch(Rectangle region, WatchListener listener);
+
+    /**
+     * Ends a watch.
+     *
+     * @param id the id of the watch
+     * @return true if a watch had the id; false otherwise
+     */
+    boolean unwatch(long id);
+
+    /**
+     * @return the number of open watches
+     */
+    int size();
+}
@@ -0,0 +1,342 @@
+package com.nuvalence.service;
+
+import com.nuvalence.index.RTree;
+import com.nuvalence.index.SpatialIndex;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.SpatialRelation;
+import com.nuvalence.model.StoredRectangle;
+import com.nuvalence.model.WatchEvent;
+import com.nuvalence.model.WatchEventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Default Implementation of the Interface {@link WatchService}, listening to the changes of the {@link RectangleIndex}
+ * and keeping the watched regions in an {@link RTree}, so each change only tests the watches whose region is near the
+ * {@link Rectangle} before or after it.
+ * <p>
+ * Changes are matched while the index holds its write lock, so the events of a watch are in the order of the changes.
+ * They are queued per watch, and sent by a small pool of threads, so a slow client doesn't hold changes back. A watch
+ * whose queue reaches {@code rectangle.watches.queue-capacity} events is closed, and its client must watch again.
+ * <p>
+ * A new watch receives the stored {@link Rectangle} intersecting its region, found by a query once the watch is
+ * registered. The events queued meanwhile may already be reflected by the query, so until the queue is first drained,
+ * the ids the client was told are inside are tracked, and events that wouldn't change them are dropped.
+ */
+@Service
+public class WatchServiceImpl implements WatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchServiceImpl.class);
+
+    private final RectangleIndex rectangleIndex;
+    private final ExecutorService senders;
+    private final int maxWatches;
+    private final int queueCapacity;
+    private final Map<Long, Watch> watches = new ConcurrentHashMap<>();
+    private final SpatialIndex regions = new RTree();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong ids = new AtomicLong();
+
+    /**
+     * Default Constructor.
+     *
+     * @param rectangleIndex the {@link RectangleIndex} whose changes are watched
+     * @param senders        the number of threads sending the events
+     * @param maxWatches     the number of open watches, beyond which new ones are rejected
+     * @param queueCapacity  the number of events queued for a watch, beyond which it is closed
+     */
+    @Autowired
+    public WatchServiceImpl(RectangleIndex rectangleIndex,
+                            @Value("${rectangle.watches.senders:4}") int senders,
+                            @Value("${rectangle.watches.max-watches:1000}") int maxWatches,
+                            @Value("${rectangle.watches.queue-capacity:10000}") int queueCapacity) {
+        this(rectangleIndex, newSenders(senders), maxWatches, queueCapacity);
+    }
+
+    WatchServiceImpl(RectangleIndex rectangleIndex, ExecutorService senders, int maxWatches, int queueCapacity) {
+        this.rectangleIndex = rectangleIndex;
+        this.senders = senders;
+        this.maxWatches = maxWatches;
+        this.queueCapacity = queueCapacity;
+        rectangleIndex.addListener(this::changed);
+    }
+
+    private static ExecutorService newSenders(int senders) {
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(senders, runnable -> {
+            Thread thread = new Thread(runnable, "rectangle-watch-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long watch(Rectangle region, WatchListener listener) {
+        Watch watch = new Watch(ids.incrementAndGet(), region, listener);
+        lock.writeLock().lock();
+        try {
+            if (watches.size() >= maxWatches) {
+                throw new RejectedExecutionException("Too many watches are open");
+            }
+            watches.put(watch.id, watch);
+            regions.insert(watch.id, region.getX(), region.getY(),
+                    region.getX() + region.getWidth(), region.getY() + region.getHeight());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        senders.execute(() -> catchUp(watch));
+        return watch.id;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean unwatch(long id) {
+        Watch watch = remove(id);
+        if (watch == null) {
+            return false;
+        }
+        close(watch, "The watch was ended.");
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return watches.size();
+    }
+
+    /**
+     * Stops the senders.
+     */
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    /**
+     * Queues an event for each watch whose region the {@link Rectangle} entered or left: the watches found near the
+     * previous {@link Rectangle} that it intersected, and those found near the current one that it didn't.
+     */
+    void changed(long id, Rectangle previous, Rectangle current) {
+        lock.readLock().lock();
+        try {
+            if (previous != null) {
+                search(previous, watch -> {
+                    if (previous.intersects(watch.region) && (current == null || !current.intersects(watch.region))) {
+                        offer(watch, new WatchEvent(watch.id, WatchEventType.EXIT,
+                                new StoredRectangle(id, current == null ? previous : current)));
+                    }
+                });
+            }
+            if (current != null) {
+                search(current, watch -> {
+                    if (current.intersects(watch.region) && (previous == null || !previous.intersects(watch.region))) {
+                        offer(watch, new WatchEvent(watch.id, WatchEventType.ENTER, new StoredRectangle(id, current)));
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void search(Rectangle r, Consumer<Watch> consumer) {
+        regions.search(r.getX(), r.getY(), r.getX() + r.getWidth(), r.getY() + r.getHeight(),
+                (watchId, x0, y0, x1, y1) -> {
+                    Watch watch = watches.get(watchId);
+                    if (watch != null) {
+                        consumer.accept(watch);
+                    }
+                });
+    }
+
+    private void offer(Watch watch, WatchEvent event) {
+        boolean full;
+        boolean schedule = false;
+        synchronized (watch) {
+            if (watch.closed) {
+                return;
+            }
+            full = watch.queue.size() >= queueCapacity;
+            if (!full) {
+                watch.queue.add(event);
+                schedule = !watch.scheduled && watch.caughtUp;
+                watch.scheduled |= schedule;
+            }
+        }
+        if (full) {
+            // the region is removed by the sender, as the lock of the regions is held here
+            close(watch, "Too many events are waiting to be sent.");
+        } else if (schedule) {
+            senders.execute(() -> drain(watch));
+        }
+    }
+
+    /**
+     * Stops queueing events for a watch, and has the sender tell its listener why once the event being sent is.
+     */
+    private void close(Watch watch, String reason) {
+        boolean schedule;
+        synchronized (watch) {
+            if (watch.closed) {
+                return;
+            }
+            watch.closed = true;
+            watch.queue.clear();
+            watch.reason = reason;
+            schedule = !watch.scheduled && watch.caughtUp;
+            watch.scheduled |= schedule;
+        }
+        if (schedule) {
+            senders.execute(() -> drain(watch));
+        }
+    }
+
+    private Watch remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Watch watch = watches.remove(id);
+            if (watch != null) {
+                Rectangle region = watch.region;
+                regions.remove(id, region.getX(), region.getY(),
+                        region.getX() + region.getWidth(), region.getY() + region.getHeight());
+            }
+            return watch;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ends a watch whose listener failed, without telling it.
+     */
+    private void fail(Watch watch) {
+        remove(watch.id);
+        synchronized (watch) {
+            watch.closed = true;
+            watch.queue.clear();
+            watch.reason = null;
+        }
+    }
+
+    /**
+     * Sends the stored {@link Rectangle} intersecting the region, then the events queued meanwhile that change what
+     * the client was told.
+     */
+    private void catchUp(Watch watch) {
+        Set<Long> inside = new HashSet<>();
+        try {
+            for (StoredRectangle stored : rectangleIndex.query(SpatialRelation.INTERSECTS, watch.region)) {
+                if (watch.closed) {
+                    break;
+                }
+                inside.add(stored.getId());
+                watch.listener.onEvent(new WatchEvent(watch.id, WatchEventType.ENTER, stored));
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(watch);
+            return;
+        }
+        synchronized (watch) {
+            watch.inside = inside;
+            watch.caughtUp = true;
+            watch.scheduled = true;
+        }
+        drain(watch);
+    }
+
+    /**
+     * Sends the queued events until the queue is empty, or tells the listener why the service closed the watch.
+     */
+    private void drain(Watch watch) {
+        while (true) {
+            WatchEvent event;
+            String reason = null;
+            synchronized (watch) {
+                event = watch.queue.poll();
+                if (event == null || watch.closed) {
+                    // the events queued after the catch-up query are exact, so tracking the ids is over
+                    watch.inside = null;
+                    watch.scheduled = false;
+                    reason = watch.reason;
+                    watch.reason = null;
+                    event = null;
+                } else if (watch.inside != null) {
+                    long id = event.getRectangle().getId();
+                    boolean changes = event.getType() == WatchEventType.ENTER ? watch.inside.add(id)
+                            : watch.inside.remove(id);
+                    if (!changes) {
+                        continue;
+                    }
+                }
+            }
+            if (event == null) {
+                if (reason != null) {
+                    remove(watch.id);
+                    log.debug("Closed watch {}: {}", watch.id, reason);
+                    try {
+                        watch.listener.onClose(reason);
+                    } catch (RuntimeException e) {
+                        log.debug("The listener of watch {} failed on its closing.", watch.id, e);
+                    }
+                }
+                return;
+            }
+            try {
+                watch.listener.onEvent(event);
+            } catch (IOException | RuntimeException e) {
+                fail(watch);
+                return;
+            }
+        }
+    }
+
+    /**
+     * A watch and its queue of events, guarded by the watch itself.
+     */
+    private static final class Watch {
+        final long id;
+        final Rectangle region;
+        final WatchListener listener;
+        final ArrayDeque<WatchEvent> queue = new ArrayDeque<>();
+        // ids the client was told are inside, until the events queued during the catch-up are sent
+        Set<Long> inside;
+        // why the service closed the watch, until the listener is told
+        String reason;
+        boolean caughtUp;
+        boolean scheduled;
+        volatile boolean closed;
+
+        Watch(long id, Rectangle region, WatchListener listener) {
+            this.id = id;
+            this.region = region;
+            this.listener = listener;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.nuvalence.web.configuration;
+
+import com.nuvalence.service.MeteredRectangleService;
+import com.nuvalence.service.RectangleServiceImpl;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Declares the beans of the classes of the core module, which carry no framework annotations so they can be embedded
+ * in applications not running Spring.
+ */
+@Configuration
+public class CoreConfig {
+
+    /**
+     * @return the {@link RectangleServiceImpl} doing the work of the {@link MeteredRectangleService}
+     */
+    @Bean
+    public RectangleServiceImpl rectangleServiceImpl() {
+        return new RectangleServiceImpl();
+    }
+}
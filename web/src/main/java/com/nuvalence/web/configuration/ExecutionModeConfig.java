@@ -0,0 +1,49 @@
+package com.nuvalence.web.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Selects how requests are executed, through the {@code rectangle.execution.mode} property:
+ * <ul>
+ *     <li>{@code platform} (default): Tomcat's bounded pool of platform threads, one per request in progress</li>
+ *     <li>{@code virtual}: one virtual thread per request, so requests blocked on I/O, such as slow streaming
+ *     uploads, don't hold a pool thread and can't starve the other requests</li>
+ * </ul>
+ * Virtual threads need JDK 21 or newer. The application is compiled for Java 11, so the executor is looked up at
+ * runtime, and older JDKs keep the platform threads.
+ */
+@Configuration
+public class ExecutionModeConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionModeConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "rectangle.execution.mode", havingValue = "virtual")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        if (executor == null) {
+            log.warn("Virtual threads need JDK 21 or newer, running on {}; requests will use platform threads.",
+                    System.getProperty("java.version"));
+            return protocolHandler -> {
+            };
+        }
+        log.info("Requests will run on virtual threads.");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
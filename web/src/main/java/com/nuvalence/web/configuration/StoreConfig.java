@@ -0,0 +1,59 @@
+package com.nuvalence.web.configuration;
+
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.store.MappedRectangleStore;
+import com.nuvalence.store.WriteAheadLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens the {@link MappedRectangleStore} keeping the stored Rectangles. When the {@code rectangle.store.path} property
+ * is set, the store is a snapshot in that file, and the changes made since the snapshot are replayed from the
+ * {@link WriteAheadLog} in the same path with a {@code .wal} suffix, so they survive restarts and crashes. Otherwise
+ * the Rectangles are only kept in memory.
+ */
+@Configuration
+@EnableScheduling
+public class StoreConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(StoreConfig.class);
+
+    @Bean(destroyMethod = "close")
+    public MappedRectangleStore mappedRectangleStore(@Value("${rectangle.store.path:}") String path) throws IOException {
+        if (path.isEmpty()) {
+            return MappedRectangleStore.temporary();
+        }
+        long start = System.nanoTime();
+        MappedRectangleStore store = MappedRectangleStore.open(Paths.get(path));
+        log.info("Opened rectangle snapshot {} with {} rectangles in {} ms.", path, store.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return store;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty("rectangle.store.path")
+    public WriteAheadLog writeAheadLog(MappedRectangleStore store, @Value("${rectangle.store.path}") String path)
+            throws IOException {
+        long start = System.nanoTime();
+        WriteAheadLog writeAheadLog = WriteAheadLog.open(Paths.get(path + ".wal"),
+                (operation, id, x, y, width, height) -> {
+                    if (operation == WriteAheadLog.Operation.PUT) {
+                        store.put(id, new Rectangle(x, y, width, height));
+                    } else {
+                        store.delete(id);
+                    }
+                });
+        log.info("Replayed {} logged changes in {} ms, the store has {} rectangles.", writeAheadLog.records(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), store.size());
+        return writeAheadLog;
+    }
+}
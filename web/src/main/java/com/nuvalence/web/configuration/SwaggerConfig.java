@@ -1,5 +1,7 @@
 package com.nuvalence.web.configuration;
 
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.RectanglePair;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import springfox.documentation.builders.PathSelectors;
@@ -10,9 +12,13 @@ import springfox.documentation.spring.web.plugins.Docket;
 @Configuration
 public class SwaggerConfig {
 
+    /**
+     * Documents the {@link RectanglePair} request bodies as the lists of {@link Rectangle} they are read from.
+     */
     @Bean
     public Docket api() {
         return new Docket(DocumentationType.SWAGGER_2)
+                .directModelSubstitute(RectanglePair.class, Rectangle[].class)
                 .select()
                 .apis(RequestHandlerSelectors.any())
                 .paths(PathSelectors.any())
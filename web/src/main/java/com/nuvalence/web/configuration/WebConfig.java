@@ -0,0 +1,38 @@
+package com.nuvalence.web.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nuvalence.web.converter.RectangleBinaryHttpMessageConverter;
+import com.nuvalence.web.converter.RectangleJsonHttpMessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Default Constructor.
+     *
+     * @param objectMapper the {@link ObjectMapper} of the application.
+     */
+    @Autowired
+    public WebConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Puts the streaming JSON converter before the default ones, so it reads the {@link com.nuvalence.model.Rectangle}
+     * request bodies in place of Jackson's data binding, and appends the binary converter after them, so JSON is still
+     * picked when any media type is accepted.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new RectangleJsonHttpMessageConverter(objectMapper));
+        converters.add(new RectangleBinaryHttpMessageConverter());
+    }
+}
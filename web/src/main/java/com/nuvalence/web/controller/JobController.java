@@ -0,0 +1,155 @@
+package com.nuvalence.web.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nuvalence.model.Job;
+import com.nuvalence.model.JobOperation;
+import com.nuvalence.model.JobState;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.service.JobService;
+import com.nuvalence.web.converter.RectangleBinaryHttpMessageConverter;
+import com.nuvalence.web.converter.RectangleJsonHttpMessageConverter;
+import com.nuvalence.web.converter.RectangleMediaType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Class used to expose the API endpoints of the {@link Job} running long operations in the background.
+ */
+@RestController
+@RequestMapping("/jobs")
+public class JobController {
+
+    static final int MAX_CHUNK = 100_000;
+
+    private final JobService jobService;
+    private final RectangleJsonHttpMessageConverter jsonConverter;
+    private final RectangleBinaryHttpMessageConverter binaryConverter = new RectangleBinaryHttpMessageConverter();
+
+    /**
+     * Default Constructor.
+     *
+     * @param jobService   an instance of {@link JobService}.
+     * @param objectMapper the {@link ObjectMapper} whose {@link com.fasterxml.jackson.core.JsonFactory} reads the
+     *                     JSON bodies.
+     */
+    @Autowired
+    public JobController(JobService jobService, ObjectMapper objectMapper) {
+        this.jobService = jobService;
+        this.jsonConverter = new RectangleJsonHttpMessageConverter(objectMapper);
+    }
+
+    /**
+     * Entrypoint for running an operation over valid {@link Rectangle} in the background.
+     * <p>
+     * The body isn't bound as a request body, but read by the {@link JobService} into the compact rows the
+     * {@link Job} keeps, while it holds room for them, so a submission that doesn't fit is rejected before the rest of
+     * its body is read.
+     *
+     * @param operation the {@link JobOperation} to be run
+     * @param request   the request, whose body is a list of valid {@link Rectangle}, as JSON or in the binary format
+     * @return the {@link Job} created, with its location
+     * @throws IOException if the body can't be read
+     */
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, RectangleMediaType.APPLICATION_RECTANGLES_VALUE})
+    public ResponseEntity<Job> submit(@RequestParam JobOperation operation, HttpServletRequest request) throws IOException {
+        HttpInputMessage body = new ServletServerHttpRequest(request);
+        boolean binary = RectangleMediaType.APPLICATION_RECTANGLES.includes(body.getHeaders().getContentType());
+        try {
+            Job job = jobService.submit(operation, batch -> {
+                if (binary) {
+                    binaryConverter.readInto(body, batch);
+                } else {
+                    jsonConverter.readInto(body, batch);
+                }
+                RectangleValidator.requireValid(batch);
+            });
+            return ResponseEntity.accepted().location(URI.create("/jobs/" + job.getId())).body(job);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many jobs are in progress, try again later.");
+        }
+    }
+
+    /**
+     * Entrypoint for polling the state and progress of a {@link Job}.
+     *
+     * @param id the id of the {@link Job}
+     * @return the {@link Job}
+     */
+    @GetMapping(path = "/{id}")
+    public ResponseEntity<Job> get(@PathVariable long id) {
+        return ResponseEntity.ok(jobService.get(id).orElseThrow(() -> notFound(id)));
+    }
+
+    /**
+     * Entrypoint for cancelling a {@link Job}.
+     *
+     * @param id the id of the {@link Job}
+     * @return the {@link Job}, cancelled if it was queued, and cancelled shortly if it was running
+     */
+    @PostMapping(path = "/{id}/cancel")
+    public ResponseEntity<Job> cancel(@PathVariable long id) {
+        return ResponseEntity.ok(jobService.cancel(id).orElseThrow(() -> notFound(id)));
+    }
+
+    /**
+     * Entrypoint for reading a chunk of the result of a {@link Job} that succeeded.
+     *
+     * @param id     the id of the {@link Job}
+     * @param offset the position of the first element of the chunk in the result
+     * @param limit  the largest number of elements of the chunk, between 1 and {@value #MAX_CHUNK}
+     * @return the elements of the result from the offset
+     */
+    @GetMapping(path = "/{id}/result")
+    public ResponseEntity<List<?>> result(@PathVariable long id, @RequestParam(defaultValue = "0") long offset,
+                                          @RequestParam(defaultValue = "10000") int limit) {
+        if (offset < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "offset should not be negative.");
+        }
+        if (limit < 1 || limit > MAX_CHUNK) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit should be between 1 and " + MAX_CHUNK + ".");
+        }
+        Job job = jobService.get(id).orElseThrow(() -> notFound(id));
+        if (job.getState() != JobState.SUCCEEDED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The job " + id + " is " + job.getState() + ".");
+        }
+        return ResponseEntity.ok(jobService.result(id, offset, limit).orElseThrow(() -> notFound(id)));
+    }
+
+    /**
+     * Entrypoint for forgetting a {@link Job} and its result, cancelling it if it didn't finish.
+     *
+     * @param id the id of the {@link Job}
+     * @return an empty response
+     */
+    @DeleteMapping(path = "/{id}")
+    public ResponseEntity<Void> delete(@PathVariable long id) {
+        if (jobService.delete(id)) {
+            return ResponseEntity.noContent().build();
+        } else {
+            throw notFound(id);
+        }
+    }
+
+    private ResponseStatusException notFound(long id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "No job has the id " + id + ".");
+    }
+
+}
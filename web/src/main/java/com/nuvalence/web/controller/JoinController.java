@@ -0,0 +1,102 @@
+package com.nuvalence.web.controller;
+
+import com.nuvalence.model.IndexPair;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.SpatialRelation;
+import com.nuvalence.service.JoinService;
+import com.nuvalence.web.stream.JoinWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Class used to expose the API endpoint joining two large datasets of {@link Rectangle}.
+ */
+@RestController
+@RequestMapping("/join")
+public class JoinController {
+
+    private final JoinService joinService;
+    private final JoinWriter joinWriter;
+    private final Path temporaryDirectory;
+
+    /**
+     * Default Constructor.
+     *
+     * @param joinService        an instance of {@link JoinService}.
+     * @param joinWriter         an instance of {@link JoinWriter}.
+     * @param temporaryDirectory the directory where the uploaded datasets are kept during the join
+     */
+    @Autowired
+    public JoinController(JoinService joinService, JoinWriter joinWriter,
+                          @Value("${rectangle.join.temporary-directory:${java.io.tmpdir}}") Path temporaryDirectory) {
+        this.joinService = joinService;
+        this.joinWriter = joinWriter;
+        this.temporaryDirectory = temporaryDirectory;
+    }
+
+    /**
+     * Entrypoint for finding every pair of a {@link Rectangle} of the left dataset and a {@link Rectangle} of the
+     * right dataset between which a relation holds. Both datasets are uploaded as parts in the binary wire format.
+     *
+     * @param relation the {@link SpatialRelation} between the left and the right {@link Rectangle} of each pair
+     * @param left     the left dataset
+     * @param right    the right dataset
+     * @return the {@link IndexPair} of the positions of the left and the right {@link Rectangle} of each pair, in no
+     * particular order, streamed to the client as they are found
+     * @throws IOException if the datasets can't be stored
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> join(@RequestParam(defaultValue = "INTERSECTS") SpatialRelation relation,
+                                                      @RequestPart MultipartFile left,
+                                                      @RequestPart MultipartFile right) throws IOException {
+        Path leftFile = Files.createTempFile(temporaryDirectory, "join-left-", ".rectangles");
+        Path rightFile = Files.createTempFile(temporaryDirectory, "join-right-", ".rectangles");
+        JoinService.Join join;
+        try {
+            left.transferTo(leftFile);
+            right.transferTo(rightFile);
+            join = joinService.prepare(leftFile, rightFile, relation);
+        } catch (IllegalArgumentException e) {
+            delete(leftFile, rightFile);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            delete(leftFile, rightFile);
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many joins are running, try again later.");
+        } catch (IOException | RuntimeException e) {
+            delete(leftFile, rightFile);
+            throw e;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> {
+                    try (join) {
+                        joinWriter.write(join, out);
+                    } finally {
+                        delete(leftFile, rightFile);
+                    }
+                });
+    }
+
+    private static void delete(Path... files) throws IOException {
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+}
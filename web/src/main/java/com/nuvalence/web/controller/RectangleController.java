@@ -0,0 +1,177 @@
+package com.nuvalence.web.controller;
+
+import com.nuvalence.engine.CoverageSweep;
+import com.nuvalence.model.Coverage;
+import com.nuvalence.model.IndexPair;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.RectanglePair;
+import com.nuvalence.service.RectangleService;
+import com.nuvalence.web.converter.RectangleMediaType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Class used to expose API endpoints.
+ */
+@RestController
+public class RectangleController {
+
+    private static final String INVALID_PAIR = "The JSON should contain exactly 2 valid Rectangles.";
+
+    private final RectangleService rectangleService;
+
+    /**
+     * Default Constructor.
+     *
+     * @param rectangleService an instance of {@link RectangleService}.
+     */
+    @Autowired
+    public RectangleController(RectangleService rectangleService) {
+        this.rectangleService = rectangleService;
+    }
+
+    /**
+     * Entrypoint for checking if a valid {@link Rectangle} contains another valid {@link Rectangle}.
+     *
+     * @param rectangles a pair of valid {@link Rectangle}
+     * @return true if the specified {@link Rectangle} r2 is contained entirely inside the {@link Rectangle} r1; false otherwise
+     */
+    @GetMapping(path = "/contains", consumes = {MediaType.APPLICATION_JSON_VALUE, RectangleMediaType.APPLICATION_RECTANGLES_VALUE})
+    public ResponseEntity<Boolean> oneContainsOther(@RequestBody RectanglePair rectangles) {
+        return ResponseEntity.ok(rectangleService.contains(requirePair(rectangles)));
+    }
+
+    /**
+     * Entrypoint for checking if a valid {@link Rectangle} is adjacent another valid {@link Rectangle}.
+     *
+     * @param rectangles a pair of valid {@link Rectangle}
+     * @return true if the specified {@link Rectangle} r1 is adjacent to the {@link Rectangle} r2; false otherwise
+     */
+    @GetMapping(path = "/adjacent", consumes = {MediaType.APPLICATION_JSON_VALUE, RectangleMediaType.APPLICATION_RECTANGLES_VALUE})
+    public ResponseEntity<Boolean> oneAdjacentToOther(@RequestBody RectanglePair rectangles) {
+        return ResponseEntity.ok(rectangleService.isAdjacentTo(requirePair(rectangles)));
+    }
+
+    /**
+     * Entrypoint for checking if a valid {@link Rectangle} intersects another valid {@link Rectangle}.
+     *
+     * @param rectangles a pair of valid {@link Rectangle}
+     * @return true if the specified {@link Rectangle} r2 intersects the {@link Rectangle} r1; false otherwise
+     */
+    @GetMapping(path = "/intersects", consumes = {MediaType.APPLICATION_JSON_VALUE, RectangleMediaType.APPLICATION_RECTANGLES_VALUE})
+    public ResponseEntity<Boolean> oneIntersectsOther(@RequestBody RectanglePair rectangles) {
+        return ResponseEntity.ok(rectangleService.intersects(requirePair(rectangles)));
+    }
+
+    /**
+     * Entrypoint for calculating the coordinates where a valid {@link Rectangle} r1 intersects another valid {@link Rectangle} r2.
+     *
+     * @param rectangles a pair of valid {@link Rectangle}
+     * @return a {@link List} containing the coordinates where {@link Rectangle} r1 and {@link Rectangle} r2 intersect
+     */
+    @GetMapping(path = "/intersection", consumes = {MediaType.APPLICATION_JSON_VALUE, RectangleMediaType.APPLICATION_RECTANGLES_VALUE})
+    public ResponseEntity<List> getIntersectionPoints(@RequestBody RectanglePair rectangles) {
+        return ResponseEntity.ok(rectangleService.intersectionPoints(requirePair(rectangles)));
+    }
+
+    /**
+     * Entrypoint for finding every pair of valid {@link Rectangle} that intersect each other.
+     *
+     * @param rectangles a list of valid {@link Rectangle}
+     * @return the {@link IndexPair} list of positions in the request of the {@link Rectangle} that intersect each other
+     */
+    @GetMapping(path = "/batch/intersects", consumes = {MediaType.APPLICATION_JSON_VALUE, RectangleMediaType.APPLICATION_RECTANGLES_VALUE})
+    public ResponseEntity<List<IndexPair>> getIntersectingPairs(@RequestBody List<Rectangle> rectangles) {
+        return ResponseEntity.ok(rectangleService.intersectingPairs(RectangleValidator.requireValid(rectangles)));
+    }
+
+    /**
+     * Entrypoint for finding every pair of valid {@link Rectangle} where the first one entirely contains the second one.
+     *
+     * @param rectangles a list of valid {@link Rectangle}
+     * @return the {@link IndexPair} list of positions in the request of each containing and contained {@link Rectangle}
+     */
+    @GetMapping(path = "/batch/contains", consumes = {MediaType.APPLICATION_JSON_VALUE, RectangleMediaType.APPLICATION_RECTANGLES_VALUE})
+    public ResponseEntity<List<IndexPair>> getContainingPairs(@RequestBody List<Rectangle> rectangles) {
+        return ResponseEntity.ok(rectangleService.containingPairs(RectangleValidator.requireValid(rectangles)));
+    }
+
+    /**
+     * Entrypoint for finding every pair of valid {@link Rectangle} that are adjacent to each other.
+     *
+     * @param rectangles a list of valid {@link Rectangle}
+     * @return the {@link IndexPair} list of positions in the request of the {@link Rectangle} that are adjacent to each other
+     */
+    @GetMapping(path = "/batch/adjacent", consumes = {MediaType.APPLICATION_JSON_VALUE, RectangleMediaType.APPLICATION_RECTANGLES_VALUE})
+    public ResponseEntity<List<IndexPair>> getAdjacentPairs(@RequestBody List<Rectangle> rectangles) {
+        return ResponseEntity.ok(rectangleService.adjacentPairs(RectangleValidator.requireValid(rectangles)));
+    }
+
+    /**
+     * Entrypoint for computing the area covered by valid {@link Rectangle}, once however many of them overlap, along
+     * with the area covered by at least k of them and the outline of that area.
+     *
+     * @param rectangles a list of valid {@link Rectangle}
+     * @param k          the number of {@link Rectangle} a point must be covered by, between 1 and
+     *                   {@value CoverageSweep#MAX_K}
+     * @return the {@link Coverage} of the {@link Rectangle}
+     */
+    @GetMapping(path = "/coverage", consumes = {MediaType.APPLICATION_JSON_VALUE, RectangleMediaType.APPLICATION_RECTANGLES_VALUE})
+    public ResponseEntity<Coverage> getCoverage(@RequestBody List<Rectangle> rectangles,
+                                                @RequestParam(defaultValue = "1") int k) {
+        if (k < 1 || k > CoverageSweep.MAX_K) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "k should be between 1 and " + CoverageSweep.MAX_K + ".");
+        }
+        RectangleValidator.requireValid(rectangles);
+        try {
+            return ResponseEntity.ok(rectangleService.coverage(rectangles, k));
+        } catch (ArithmeticException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The covered area is too large.");
+        }
+    }
+
+    /**
+     * Entrypoint for grouping valid {@link Rectangle} into clusters of {@link Rectangle} that overlap or touch each
+     * other, directly or through other members of the cluster.
+     *
+     * @param rectangles a list of valid {@link Rectangle}
+     * @return the cluster of each {@link Rectangle}, at its position in the request, numbered from 0
+     */
+    @GetMapping(path = "/clusters", consumes = {MediaType.APPLICATION_JSON_VALUE, RectangleMediaType.APPLICATION_RECTANGLES_VALUE})
+    public ResponseEntity<List<Integer>> getClusters(@RequestBody List<Rectangle> rectangles) {
+        return ResponseEntity.ok(rectangleService.clusters(RectangleValidator.requireValid(rectangles)));
+    }
+
+    /**
+     * Entrypoint for building the nesting forest of valid {@link Rectangle}, where the parent of each one is the
+     * smallest {@link Rectangle} that wholly contains it.
+     *
+     * @param rectangles a list of valid {@link Rectangle}
+     * @return the position in the request of the parent of each {@link Rectangle}, at its position in the request, or
+     * -1 for the {@link Rectangle} no other one contains
+     */
+    @GetMapping(path = "/nesting", consumes = {MediaType.APPLICATION_JSON_VALUE, RectangleMediaType.APPLICATION_RECTANGLES_VALUE})
+    public ResponseEntity<List<Integer>> getNestingForest(@RequestBody List<Rectangle> rectangles) {
+        return ResponseEntity.ok(rectangleService.nestingForest(RectangleValidator.requireValid(rectangles)));
+    }
+
+    /**
+     * Rejects the request unless it holds 2 valid {@link Rectangle}.
+     */
+    private static RectanglePair requirePair(RectanglePair rectangles) {
+        if (rectangles == null || !rectangles.isValid()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, INVALID_PAIR);
+        }
+        return rectangles;
+    }
+
+}
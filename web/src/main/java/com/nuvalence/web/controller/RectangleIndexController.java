@@ -0,0 +1,188 @@
+package com.nuvalence.web.controller;
+
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.SpatialRelation;
+import com.nuvalence.model.StoredRectangle;
+import com.nuvalence.service.RectangleIndex;
+import com.nuvalence.web.converter.RectangleMediaType;
+import com.nuvalence.web.stream.QueryPageWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class used to expose the API endpoints of the stored {@link Rectangle} collection.
+ */
+@RestController
+@RequestMapping("/rectangles")
+public class RectangleIndexController {
+
+    static final int MAX_NEAREST = 1000;
+    static final int MAX_PAGE = 100_000;
+    private static final String INVALID_QUERY = "The query should be a valid Rectangle.";
+
+    private final RectangleIndex rectangleIndex;
+    private final QueryPageWriter queryPageWriter;
+
+    /**
+     * Default Constructor.
+     *
+     * @param rectangleIndex  an instance of {@link RectangleIndex}.
+     * @param queryPageWriter an instance of {@link QueryPageWriter}.
+     */
+    @Autowired
+    public RectangleIndexController(RectangleIndex rectangleIndex, QueryPageWriter queryPageWriter) {
+        this.rectangleIndex = rectangleIndex;
+        this.queryPageWriter = queryPageWriter;
+    }
+
+    /**
+     * Entrypoint for storing valid {@link Rectangle}.
+     *
+     * @param rectangles a list of valid {@link Rectangle}
+     * @return the {@link StoredRectangle} created, in the same order as the request
+     */
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, RectangleMediaType.APPLICATION_RECTANGLES_VALUE})
+    public ResponseEntity<List<StoredRectangle>> insert(@RequestBody List<Rectangle> rectangles) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(rectangleIndex.insert(RectangleValidator.requireValid(rectangles)));
+    }
+
+    /**
+     * Entrypoint for finding a stored {@link Rectangle} by id.
+     *
+     * @param id the id of the stored {@link Rectangle}
+     * @return the {@link StoredRectangle}
+     */
+    @GetMapping(path = "/{id}")
+    public ResponseEntity<StoredRectangle> get(@PathVariable long id) {
+        return ResponseEntity.ok(rectangleIndex.get(id).orElseThrow(() -> notFound(id)));
+    }
+
+    /**
+     * Entrypoint for replacing the {@link Rectangle} stored under an id with another valid {@link Rectangle}.
+     *
+     * @param id        the id of the stored {@link Rectangle}
+     * @param rectangle a valid {@link Rectangle}
+     * @return the updated {@link StoredRectangle}
+     */
+    @PutMapping(path = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, RectangleMediaType.APPLICATION_RECTANGLES_VALUE})
+    public ResponseEntity<StoredRectangle> update(@PathVariable long id, @RequestBody Rectangle rectangle) {
+        RectangleValidator.requireValid(rectangle, "The JSON should contain a valid Rectangle.");
+        return ResponseEntity.ok(rectangleIndex.update(id, rectangle).orElseThrow(() -> notFound(id)));
+    }
+
+    /**
+     * Entrypoint for removing the {@link Rectangle} stored under an id.
+     *
+     * @param id the id of the stored {@link Rectangle}
+     * @return an empty response
+     */
+    @DeleteMapping(path = "/{id}")
+    public ResponseEntity<Void> delete(@PathVariable long id) {
+        if (rectangleIndex.delete(id)) {
+            return ResponseEntity.noContent().build();
+        } else {
+            throw notFound(id);
+        }
+    }
+
+    /**
+     * Entrypoint for finding every stored {@link Rectangle} holding a relation with a valid query {@link Rectangle}.
+     *
+     * @param relation the {@link SpatialRelation} between the stored {@link Rectangle} and the query
+     * @param x        the bottom left X coordinate of the query
+     * @param y        the bottom left Y coordinate of the query
+     * @param width    the width of the query
+     * @param height   the height of the query
+     * @return the matching {@link StoredRectangle}, sorted by id, at most {@value #MAX_PAGE} of them
+     */
+    @GetMapping(path = "/query")
+    public ResponseEntity<List<StoredRectangle>> query(@RequestParam(defaultValue = "INTERSECTS") SpatialRelation relation,
+                                                       @RequestParam int x, @RequestParam int y,
+                                                       @RequestParam int width, @RequestParam int height) {
+        Rectangle query = RectangleValidator.requireValid(new Rectangle(x, y, width, height), INVALID_QUERY);
+        List<StoredRectangle> matches = new ArrayList<>();
+        if (rectangleIndex.query(relation, query, 0, MAX_PAGE, matches::add).isPresent()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "The query matches more than " + MAX_PAGE + " Rectangles, use /rectangles/query/page.");
+        }
+        return ResponseEntity.ok(matches);
+    }
+
+    /**
+     * Entrypoint for finding a page of the stored {@link Rectangle} holding a relation with a valid query
+     * {@link Rectangle}, streamed to the client as it is written.
+     *
+     * @param relation the {@link SpatialRelation} between the stored {@link Rectangle} and the query
+     * @param x        the bottom left X coordinate of the query
+     * @param y        the bottom left Y coordinate of the query
+     * @param width    the width of the query
+     * @param height   the height of the query
+     * @param after    the cursor returned with the previous page, or 0 for the first page
+     * @param limit    the largest number of {@link Rectangle} in the page, between 1 and {@value #MAX_PAGE}
+     * @return the matching {@link StoredRectangle} with the smallest ids after the cursor, sorted by id, and the cursor
+     * of the next page
+     */
+    @GetMapping(path = "/query/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> queryPage(@RequestParam(defaultValue = "INTERSECTS") SpatialRelation relation,
+                                                           @RequestParam int x, @RequestParam int y,
+                                                           @RequestParam int width, @RequestParam int height,
+                                                           @RequestParam(defaultValue = "0") long after,
+                                                           @RequestParam(defaultValue = "1000") int limit) {
+        Rectangle query = RectangleValidator.requireValid(new Rectangle(x, y, width, height), INVALID_QUERY);
+        if (after < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The cursor should not be negative.");
+        }
+        if (limit < 1 || limit > MAX_PAGE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit should be between 1 and " + MAX_PAGE + ".");
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> queryPageWriter.write(relation, query, after, limit, out));
+    }
+
+    /**
+     * Entrypoint for finding the stored {@link Rectangle} nearest to a query point or {@link Rectangle}.
+     *
+     * @param x      the X coordinate of the query point, or the bottom left X coordinate of the query
+     * @param y      the Y coordinate of the query point, or the bottom left Y coordinate of the query
+     * @param width  the width of the query, 0 for a point
+     * @param height the height of the query, 0 for a point
+     * @param k      the number of {@link Rectangle} to find, between 1 and {@value #MAX_NEAREST}
+     * @return up to k {@link StoredRectangle}, nearest first
+     */
+    @GetMapping(path = "/nearest")
+    public ResponseEntity<List<StoredRectangle>> nearest(@RequestParam int x, @RequestParam int y,
+                                                         @RequestParam(defaultValue = "0") int width,
+                                                         @RequestParam(defaultValue = "0") int height,
+                                                         @RequestParam(defaultValue = "10") int k) {
+        if (k < 1 || k > MAX_NEAREST) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "k should be between 1 and " + MAX_NEAREST + ".");
+        }
+        if (width < 0 || height < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The query should be a point or a valid Rectangle.");
+        }
+        return ResponseEntity.ok(rectangleIndex.nearest(new Rectangle(x, y, width, height), k));
+    }
+
+    private ResponseStatusException notFound(long id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "No Rectangle is stored under the id " + id + ".");
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.nuvalence.web.controller;
+
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.web.stream.PairOperation;
+import com.nuvalence.web.stream.PairStreamProcessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Class used to expose the streaming API endpoints, which apply an operation to every pair of {@link Rectangle} of a
+ * newline-delimited JSON request body.
+ */
+@RestController
+public class RectangleStreamController {
+
+    private final PairStreamProcessor pairStreamProcessor;
+
+    /**
+     * Default Constructor.
+     *
+     * @param pairStreamProcessor an instance of {@link PairStreamProcessor}.
+     */
+    @Autowired
+    public RectangleStreamController(PairStreamProcessor pairStreamProcessor) {
+        this.pairStreamProcessor = pairStreamProcessor;
+    }
+
+    /**
+     * Entrypoint for checking, for each line, if a valid {@link Rectangle} contains another valid {@link Rectangle}.
+     *
+     * @param request  a request whose body has one list of exactly 2 valid {@link Rectangle} per line
+     * @param response a response receiving one line per pair, true or false
+     * @throws IOException if reading the request or writing the response fails
+     */
+    @PostMapping(path = "/stream/contains", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamContains(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        stream(PairOperation.CONTAINS, request, response);
+    }
+
+    /**
+     * Entrypoint for checking, for each line, if a valid {@link Rectangle} is adjacent to another valid {@link Rectangle}.
+     *
+     * @param request  a request whose body has one list of exactly 2 valid {@link Rectangle} per line
+     * @param response a response receiving one line per pair, true or false
+     * @throws IOException if reading the request or writing the response fails
+     */
+    @PostMapping(path = "/stream/adjacent", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamAdjacent(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        stream(PairOperation.ADJACENT, request, response);
+    }
+
+    /**
+     * Entrypoint for checking, for each line, if a valid {@link Rectangle} intersects another valid {@link Rectangle}.
+     *
+     * @param request  a request whose body has one list of exactly 2 valid {@link Rectangle} per line
+     * @param response a response receiving one line per pair, true or false
+     * @throws IOException if reading the request or writing the response fails
+     */
+    @PostMapping(path = "/stream/intersects", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamIntersects(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        stream(PairOperation.INTERSECTS, request, response);
+    }
+
+    /**
+     * Entrypoint for calculating, for each line, the coordinates where a valid {@link Rectangle} intersects another
+     * valid {@link Rectangle}.
+     *
+     * @param request  a request whose body has one list of exactly 2 valid {@link Rectangle} per line
+     * @param response a response receiving one line per pair, a list of coordinates
+     * @throws IOException if reading the request or writing the response fails
+     */
+    @PostMapping(path = "/stream/intersection", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamIntersection(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        stream(PairOperation.INTERSECTION, request, response);
+    }
+
+    private void stream(PairOperation operation, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        pairStreamProcessor.process(operation, request.getInputStream(), response.getOutputStream());
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.nuvalence.web.controller;
+
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.RectangleBatch;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Checks shared by the controllers to reject requests holding a {@link Rectangle} whose width or height isn't
+ * positive.
+ */
+final class RectangleValidator {
+
+    static final String INVALID_RECTANGLES = "The JSON should contain only valid Rectangles.";
+
+    private RectangleValidator() {
+    }
+
+    /**
+     * Rejects the request unless it holds a list of valid {@link Rectangle}.
+     *
+     * @param rectangles the {@link Rectangle} of the request
+     * @return the {@link Rectangle} of the request
+     */
+    static List<Rectangle> requireValid(List<Rectangle> rectangles) {
+        if (rectangles == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, INVALID_RECTANGLES);
+        }
+        for (Rectangle r : rectangles) {
+            if (!isValid(r)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, INVALID_RECTANGLES);
+            }
+        }
+        return rectangles;
+    }
+
+    /**
+     * Rejects the request unless every row of its {@link RectangleBatch} is a valid {@link Rectangle}.
+     *
+     * @param batch the {@link RectangleBatch} of the request
+     * @return the {@link RectangleBatch} of the request
+     */
+    static RectangleBatch requireValid(RectangleBatch batch) {
+        for (int row = 0; row < batch.size(); row++) {
+            if (batch.getWidth(row) <= 0 || batch.getHeight(row) <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, INVALID_RECTANGLES);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Rejects the request unless it holds a valid {@link Rectangle}.
+     *
+     * @param rectangle the {@link Rectangle} of the request
+     * @param message   the reason given when it isn't valid
+     * @return the {@link Rectangle} of the request
+     */
+    static Rectangle requireValid(Rectangle rectangle, String message) {
+        if (rectangle == null || !isValid(rectangle)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
+        }
+        return rectangle;
+    }
+
+    /**
+     * @return true if the width and height of the {@link Rectangle} are positive; false otherwise
+     */
+    static boolean isValid(Rectangle r) {
+        return r.getWidth() > 0 && r.getHeight() > 0;
+    }
+}
@@ -0,0 +1,107 @@
+package com.nuvalence.web.controller;
+
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.WatchEvent;
+import com.nuvalence.service.WatchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Class used to expose the API endpoints of the watches over regions of the plane, streaming a {@link WatchEvent} as a
+ * Server-Sent Event each time a stored {@link Rectangle} starts or stops intersecting the watched region.
+ */
+@RestController
+@RequestMapping("/watches")
+public class WatchController {
+
+    private final WatchService watchService;
+    private final Duration timeout;
+
+    /**
+     * Default Constructor.
+     *
+     * @param watchService an instance of {@link WatchService}.
+     * @param timeout      how long a watch stays open, after which the client must watch again
+     */
+    @Autowired
+    public WatchController(WatchService watchService, @Value("${rectangle.watches.timeout:PT30M}") Duration timeout) {
+        this.watchService = watchService;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Entrypoint for watching a valid {@link Rectangle} region. The stream starts with an {@code ENTER} event for each
+     * stored {@link Rectangle} already intersecting the region, and ends with a {@code closed} event.
+     *
+     * @param x      the x coordinate of the region
+     * @param y      the y coordinate of the region
+     * @param width  the width of the region
+     * @param height the height of the region
+     * @return the stream of {@link WatchEvent}, with the location of the watch
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> watch(@RequestParam int x, @RequestParam int y,
+                                            @RequestParam int width, @RequestParam int height) {
+        Rectangle region = RectangleValidator.requireValid(new Rectangle(x, y, width, height),
+                "The region should be a valid Rectangle.");
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        long id;
+        try {
+            id = watchService.watch(region, new WatchService.WatchListener() {
+                @Override
+                public void onEvent(WatchEvent event) throws IOException {
+                    emitter.send(SseEmitter.event().name(event.getType().name()).data(event, MediaType.APPLICATION_JSON));
+                }
+
+                @Override
+                public void onClose(String reason) {
+                    try {
+                        emitter.send(SseEmitter.event().name("closed").data(reason, MediaType.TEXT_PLAIN));
+                        emitter.complete();
+                    } catch (IOException | IllegalStateException e) {
+                        // the stream was already completed by the client or the timeout
+                        emitter.completeWithError(e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many watches are open, try again later.");
+        }
+        emitter.onCompletion(() -> watchService.unwatch(id));
+        emitter.onTimeout(() -> watchService.unwatch(id));
+        emitter.onError(e -> watchService.unwatch(id));
+        return ResponseEntity.ok().location(URI.create("/watches/" + id)).body(emitter);
+    }
+
+    /**
+     * Entrypoint for ending a watch, which completes its stream.
+     *
+     * @param id the id of the watch
+     * @return an empty response
+     */
+    @DeleteMapping(path = "/{id}")
+    public ResponseEntity<Void> unwatch(@PathVariable long id) {
+        if (watchService.unwatch(id)) {
+            return ResponseEntity.noContent().build();
+        } else {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No watch has the id " + id + ".");
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.nuvalence.web.converter;
+
+import com.nuvalence.model.IndexPair;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.RectangleBatch;
+import com.nuvalence.model.RectanglePair;
+import com.nuvalence.model.StoredRectangle;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link org.springframework.http.converter.HttpMessageConverter} for the {@link RectangleMediaType} binary wire format.
+ * <p>
+ * It reads {@link Rectangle}, lists of {@link Rectangle} and {@link RectanglePair} request bodies, decoding each record
+ * straight into the value read, with no intermediate copy, and writes every response type of the API. Controllers can
+ * also read a body into a {@link RectangleBatch} with {@link #readInto}. It must be
+ * registered after the JSON converter, so that JSON stays the default when the client accepts any media type.
+ */
+public class RectangleBinaryHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    static final int RECTANGLE_BYTES = 16;
+    private static final int BUFFER_BYTES = 8192;
+    // the Content-Length is only trusted up to this many rows, the list grows past it as records are read
+    private static final int MAX_INITIAL_CAPACITY = 1 << 16;
+
+    /**
+     * Default constructor.
+     */
+    public RectangleBinaryHttpMessageConverter() {
+        super(RectangleMediaType.APPLICATION_RECTANGLES);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return (type == Rectangle.class || type == RectanglePair.class || isListOf(type, Rectangle.class))
+                && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        boolean writable = Boolean.class.isAssignableFrom(clazz)
+                || Rectangle.class.isAssignableFrom(clazz)
+                || StoredRectangle.class.isAssignableFrom(clazz)
+                || RectangleBatch.class.isAssignableFrom(clazz)
+                || (Collection.class.isAssignableFrom(clazz) && (!(type instanceof ParameterizedType)
+                || isListOf(type, Integer.class) || isListOf(type, IndexPair.class)
+                || isListOf(type, Rectangle.class) || isListOf(type, StoredRectangle.class)));
+        return writable && canWrite(mediaType);
+    }
+
+    private static boolean isListOf(Type type, Class<?> element) {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            return parameterized.getRawType() instanceof Class
+                    && Collection.class.isAssignableFrom((Class<?>) parameterized.getRawType())
+                    && parameterized.getActualTypeArguments()[0] == element;
+        }
+        return false;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return read(type, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, inputMessage);
+    }
+
+    private Object read(Type type, HttpInputMessage inputMessage) throws IOException {
+        byte[] record = new byte[RECTANGLE_BYTES];
+        ByteBuffer buffer = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+        InputStream in = new BufferedInputStream(inputMessage.getBody(), BUFFER_BYTES);
+        int n;
+        if (type == Rectangle.class || type == RectanglePair.class) {
+            boolean pair = type == RectanglePair.class;
+            String message = pair ? "The body should contain exactly 2 Rectangles." : "The body should contain exactly 1 Rectangle.";
+            int[] values = new int[pair ? 8 : 4];
+            int count = 0;
+            while ((n = in.readNBytes(record, 0, RECTANGLE_BYTES)) == RECTANGLE_BYTES) {
+                if (count * 4 == values.length) {
+                    throw new HttpMessageNotReadableException(message, inputMessage);
+                }
+                for (int k = 0; k < 4; k++) {
+                    values[count * 4 + k] = buffer.getInt(k * 4);
+                }
+                count++;
+            }
+            requireWholeRecords(n, inputMessage);
+            if (count * 4 != values.length) {
+                throw new HttpMessageNotReadableException(message, inputMessage);
+            }
+            return pair ? new RectanglePair(values[0], values[1], values[2], values[3], values[4], values[5], values[6], values[7])
+                    : new Rectangle(values[0], values[1], values[2], values[3]);
+        }
+        long length = inputMessage.getHeaders().getContentLength();
+        List<Rectangle> rectangles = new ArrayList<>(length > 0 ? (int) Math.min(length / RECTANGLE_BYTES, MAX_INITIAL_CAPACITY) : 16);
+        while ((n = in.readNBytes(record, 0, RECTANGLE_BYTES)) == RECTANGLE_BYTES) {
+            rectangles.add(new Rectangle(buffer.getInt(0), buffer.getInt(4), buffer.getInt(8), buffer.getInt(12)));
+        }
+        requireWholeRecords(n, inputMessage);
+        return rectangles;
+    }
+
+    /**
+     * Reads a list of {@link Rectangle} body straight into the rows of a {@link RectangleBatch}.
+     *
+     * @param inputMessage the request holding the body
+     * @param batch        the {@link RectangleBatch} receiving a row for each record
+     * @throws HttpMessageNotReadableException if the body isn't made of whole records
+     * @throws IOException                     if the body can't be read
+     */
+    public void readInto(HttpInputMessage inputMessage, RectangleBatch batch) throws IOException {
+        byte[] record = new byte[RECTANGLE_BYTES];
+        ByteBuffer buffer = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+        InputStream in = new BufferedInputStream(inputMessage.getBody(), BUFFER_BYTES);
+        int n;
+        while ((n = in.readNBytes(record, 0, RECTANGLE_BYTES)) == RECTANGLE_BYTES) {
+            batch.add(buffer.getInt(0), buffer.getInt(4), buffer.getInt(8), buffer.getInt(12));
+        }
+        requireWholeRecords(n, inputMessage);
+    }
+
+    private static void requireWholeRecords(int remainder, HttpInputMessage inputMessage) {
+        if (remainder != 0) {
+            throw new HttpMessageNotReadableException("The body length should be a multiple of " + RECTANGLE_BYTES + " bytes.", inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream out = outputMessage.getBody();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                if (buffer.remaining() < 24) {
+                    flush(buffer, out);
+                }
+                put(element, buffer);
+            }
+        } else if (value instanceof RectangleBatch) {
+            RectangleBatch batch = (RectangleBatch) value;
+            for (int i = 0; i < batch.size(); i++) {
+                if (buffer.remaining() < RECTANGLE_BYTES) {
+                    flush(buffer, out);
+                }
+                buffer.putInt(batch.getX(i)).putInt(batch.getY(i)).putInt(batch.getWidth(i)).putInt(batch.getHeight(i));
+            }
+        } else {
+            put(value, buffer);
+        }
+        flush(buffer, out);
+    }
+
+    private static void put(Object value, ByteBuffer buffer) {
+        if (value instanceof Rectangle) {
+            putRectangle((Rectangle) value, buffer);
+        } else if (value instanceof StoredRectangle) {
+            StoredRectangle stored = (StoredRectangle) value;
+            buffer.putLong(stored.getId());
+            putRectangle(stored.getRectangle(), buffer);
+        } else if (value instanceof IndexPair) {
+            IndexPair pair = (IndexPair) value;
+            buffer.putInt(pair.getFirst()).putInt(pair.getSecond());
+        } else if (value instanceof Integer) {
+            buffer.putInt((Integer) value);
+        } else if (value instanceof Boolean) {
+            buffer.put((byte) ((Boolean) value ? 1 : 0));
+        } else {
+            throw new HttpMessageNotWritableException("No binary record for " + value.getClass().getName() + ".");
+        }
+    }
+
+    private static void putRectangle(Rectangle r, ByteBuffer buffer) {
+        buffer.putInt(r.getX()).putInt(r.getY()).putInt(r.getWidth()).putInt(r.getHeight());
+    }
+
+    private static void flush(ByteBuffer buffer, OutputStream out) throws IOException {
+        out.write(buffer.array(), 0, buffer.position());
+        buffer.clear();
+    }
+
+}
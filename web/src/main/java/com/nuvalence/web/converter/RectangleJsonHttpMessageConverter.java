@@ -0,0 +1,245 @@
+package com.nuvalence.web.converter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.RectangleBatch;
+import com.nuvalence.model.RectanglePair;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link org.springframework.http.converter.HttpMessageConverter} reading JSON lists of {@link Rectangle} request
+ * bodies, as lists of {@link Rectangle} or, for the pairwise endpoints, as a {@link RectanglePair}, without Jackson's
+ * data binding. Controllers can also read a body into a {@link RectangleBatch} with {@link #readInto}.
+ * <p>
+ * The body is read token by token with Jackson's streaming parser, and the {@code x}, {@code y}, {@code width} and
+ * {@code height} of each object go straight into four ints, so no reflection, creator buffer or boxed value is
+ * involved. The JSON accepted is the one data binding accepts with the {@link ObjectMapper} of Spring Boot: missing
+ * fields are 0, unknown fields are ignored, and numbers may be given as decimals or strings.
+ * <p>
+ * Reading stops at the first {@link Rectangle} whose width or height isn't positive, and the body is rejected with an
+ * {@link HttpMessageNotReadableException} without the rest of it being parsed, as is a pair body that doesn't hold
+ * exactly 2 {@link Rectangle}. The converter only reads, and must be registered before the Jackson one, which still
+ * reads every other body and writes every response.
+ */
+public class RectangleJsonHttpMessageConverter implements GenericHttpMessageConverter<Object> {
+
+    static final String INVALID_LIST = "The JSON should be a list of Rectangles.";
+    static final String INVALID_RECTANGLES = "The JSON should contain only valid Rectangles.";
+    static final String INVALID_PAIR = "The JSON should contain exactly 2 valid Rectangles.";
+    // the size of the shortest JSON Rectangle, to size the value read from the body length
+    private static final int MIN_RECTANGLE_CHARACTERS = 35;
+    private static final int MAX_INITIAL_CAPACITY = 1 << 16;
+    private static final List<MediaType> MEDIA_TYPES = List.of(MediaType.APPLICATION_JSON,
+            new MediaType("application", "*+json"));
+
+    private final JsonFactory jsonFactory;
+
+    /**
+     * Default constructor.
+     *
+     * @param objectMapper the {@link ObjectMapper} whose {@link JsonFactory} reads the bodies.
+     */
+    public RectangleJsonHttpMessageConverter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes() {
+        return MEDIA_TYPES;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return canRead(clazz, null, mediaType);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return (type == RectanglePair.class || isRectangleList(type)) && isSupported(mediaType);
+    }
+
+    private static boolean isSupported(MediaType mediaType) {
+        if (mediaType == null) {
+            return true;
+        }
+        for (MediaType supported : MEDIA_TYPES) {
+            if (supported.includes(mediaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true for the types an {@link ArrayList} of {@link Rectangle} can be assigned to
+     */
+    private static boolean isRectangleList(Type type) {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            return parameterized.getRawType() instanceof Class
+                    && ((Class<?>) parameterized.getRawType()).isAssignableFrom(ArrayList.class)
+                    && parameterized.getActualTypeArguments()[0] == Rectangle.class;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public Object read(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read((Type) clazz, inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return read(type, inputMessage);
+    }
+
+    private Object read(Type type, HttpInputMessage inputMessage) throws IOException {
+        if (type == RectanglePair.class) {
+            int[] values = readValues(inputMessage, true, null);
+            return values == null ? null
+                    : new RectanglePair(values[0], values[1], values[2], values[3], values[4], values[5], values[6], values[7]);
+        }
+        long length = inputMessage.getHeaders().getContentLength();
+        int capacity = length > 0 ? (int) Math.min(Math.max(length / MIN_RECTANGLE_CHARACTERS, 1), MAX_INITIAL_CAPACITY) : 16;
+        List<Rectangle> rectangles = new ArrayList<>(capacity);
+        int[] values = readValues(inputMessage, false,
+                row -> rectangles.add(new Rectangle(row[0], row[1], row[2], row[3])));
+        return values == null ? null : rectangles;
+    }
+
+    /**
+     * Reads a JSON list of {@link Rectangle} body straight into the rows of a {@link RectangleBatch}, with the same
+     * checks as a list read by the converter.
+     *
+     * @param inputMessage the request holding the body
+     * @param batch        the {@link RectangleBatch} receiving a row for each {@link Rectangle}
+     * @throws HttpMessageNotReadableException if the body isn't a list of valid {@link Rectangle}
+     * @throws IOException                     if the body can't be read
+     */
+    public void readInto(HttpInputMessage inputMessage, RectangleBatch batch) throws IOException {
+        if (readValues(inputMessage, false, row -> batch.add(row[0], row[1], row[2], row[3])) == null) {
+            throw new HttpMessageNotReadableException(INVALID_LIST, inputMessage);
+        }
+    }
+
+    /**
+     * Reads the body token by token, handing the values of each {@link Rectangle} of a list to the consumer, or
+     * keeping both {@link Rectangle} of a pair.
+     *
+     * @return the values of the pair, or of the last {@link Rectangle} of a list, or null if the body is JSON null
+     */
+    private int[] readValues(HttpInputMessage inputMessage, boolean pair, Consumer<int[]> rows) throws IOException {
+        // a pair keeps both Rectangle, one after the other
+        int[] values = new int[pair ? 8 : 4];
+        int count = 0;
+        try (JsonParser parser = jsonFactory.createParser(inputMessage.getBody())) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new HttpMessageNotReadableException(INVALID_LIST, inputMessage);
+            }
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new HttpMessageNotReadableException(INVALID_LIST, inputMessage);
+                }
+                if (pair && count == 2) {
+                    throw new HttpMessageNotReadableException(INVALID_PAIR, inputMessage);
+                }
+                int offset = pair ? count * 4 : 0;
+                readRectangle(parser, values, offset);
+                if (values[offset + 2] <= 0 || values[offset + 3] <= 0) {
+                    throw new HttpMessageNotReadableException(pair ? INVALID_PAIR : INVALID_RECTANGLES, inputMessage);
+                }
+                if (!pair) {
+                    rows.accept(values);
+                }
+                count++;
+            }
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getOriginalMessage(), e, inputMessage);
+        }
+        if (pair && count != 2) {
+            throw new HttpMessageNotReadableException(INVALID_PAIR, inputMessage);
+        }
+        return values;
+    }
+
+    /**
+     * Reads the fields of a JSON object into the x, y, width and height of a {@link Rectangle}, from the given offset,
+     * leaving 0 for the missing ones.
+     */
+    private static void readRectangle(JsonParser parser, int[] values, int offset) throws IOException {
+        values[offset] = 0;
+        values[offset + 1] = 0;
+        values[offset + 2] = 0;
+        values[offset + 3] = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            // field names are canonicalized by the parser, so they are compared without being copied
+            int slot = "x".equals(name) ? 0 : "y".equals(name) ? 1 : "width".equals(name) ? 2 : "height".equals(name) ? 3 : -1;
+            if (slot >= 0) {
+                values[offset + slot] = intValue(parser, token);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static int intValue(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getIntValue();
+            case VALUE_NULL:
+                return 0;
+            case VALUE_STRING:
+                try {
+                    return Integer.parseInt(parser.getText().trim());
+                } catch (NumberFormatException e) {
+                    throw new JsonParseException(parser, "The " + parser.getCurrentName() + " of a Rectangle should be an int.");
+                }
+            default:
+                throw new JsonParseException(parser, "The " + parser.getCurrentName() + " of a Rectangle should be an int.");
+        }
+    }
+
+    @Override
+    public void write(Object value, MediaType contentType, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("The Rectangle JSON converter only reads request bodies.");
+    }
+
+    @Override
+    public void write(Object value, Type type, MediaType contentType, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("The Rectangle JSON converter only reads request bodies.");
+    }
+}
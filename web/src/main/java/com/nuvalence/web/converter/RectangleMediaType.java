@@ -0,0 +1,33 @@
+package com.nuvalence.web.converter;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Media types of the compact binary wire format, an alternative to JSON for the {@link com.nuvalence.model.Rectangle}
+ * payloads.
+ * <p>
+ * Every value is a sequence of fixed-size little-endian records, with no header: a list is just its records one after
+ * the other, so its length is the body length divided by the record size.
+ * <ul>
+ *     <li>Rectangle: x, y, width and height, as 4 int32 (16 bytes)</li>
+ *     <li>StoredRectangle: the id as int64, followed by the Rectangle record (24 bytes)</li>
+ *     <li>IndexPair: first and second, as 2 int32 (8 bytes)</li>
+ *     <li>Integer: one int32 (4 bytes), used for the intersection coordinates</li>
+ *     <li>Boolean: one byte, 1 for true and 0 for false</li>
+ * </ul>
+ */
+public final class RectangleMediaType {
+
+    /**
+     * Media type of the binary wire format.
+     */
+    public static final String APPLICATION_RECTANGLES_VALUE = "application/x-rectangles";
+
+    /**
+     * Media type of the binary wire format.
+     */
+    public static final MediaType APPLICATION_RECTANGLES = MediaType.valueOf(APPLICATION_RECTANGLES_VALUE);
+
+    private RectangleMediaType() {
+    }
+}
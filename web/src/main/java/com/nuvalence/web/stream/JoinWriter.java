@@ -0,0 +1,55 @@
+package com.nuvalence.web.stream;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nuvalence.model.IndexPair;
+import com.nuvalence.service.JoinService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Runs a {@link JoinService.Join} and writes its pairs as a JSON list of {@link IndexPair} as they are found, so the
+ * result is never held in memory.
+ */
+@Component
+public class JoinWriter {
+
+    private final JsonFactory jsonFactory;
+
+    /**
+     * Default Constructor.
+     *
+     * @param objectMapper the {@link ObjectMapper} whose {@link JsonFactory} writes the pairs.
+     */
+    @Autowired
+    public JoinWriter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Runs a join and writes the pairs it finds.
+     *
+     * @param join the {@link JoinService.Join} to be run
+     * @param out  the output receiving the JSON list of pairs
+     * @return the number of pairs written
+     * @throws IOException if the join or writing the output fails
+     */
+    public long write(JoinService.Join join, OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            long pairs = join.run((left, right) -> {
+                generator.writeStartObject();
+                generator.writeNumberField("first", left);
+                generator.writeNumberField("second", right);
+                generator.writeEndObject();
+            });
+            generator.writeEndArray();
+            return pairs;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.nuvalence.web.stream;
+
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.service.RectangleService;
+
+/**
+ * The {@link RectangleService} operations that can be applied to each pair of a stream.
+ */
+public enum PairOperation {
+
+    /**
+     * {@link RectangleService#contains(Rectangle, Rectangle)}, producing true or false.
+     */
+    CONTAINS,
+
+    /**
+     * {@link RectangleService#isAdjacentTo(Rectangle, Rectangle)}, producing true or false.
+     */
+    ADJACENT,
+
+    /**
+     * {@link RectangleService#intersects(Rectangle, Rectangle)}, producing true or false.
+     */
+    INTERSECTS,
+
+    /**
+     * {@link RectangleService#intersectionPoints(Rectangle, Rectangle, int[])}, producing an array of coordinates.
+     */
+    INTERSECTION
+}
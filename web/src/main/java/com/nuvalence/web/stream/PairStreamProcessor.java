@@ -0,0 +1,158 @@
+package com.nuvalence.web.stream;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.Shape;
+import com.nuvalence.service.RectangleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Applies a {@link PairOperation} to a stream of newline-delimited JSON pairs, writing one result line per pair.
+ * <p>
+ * Each input line holds a JSON list with exactly 2 valid {@link Rectangle}, as the body of the pairwise endpoints. Lines
+ * are read and answered one at a time with Jackson's streaming parser and generator, so memory use doesn't depend on
+ * the size of the stream, and a client that stops reading results also stops the reading of its input. Output is
+ * flushed whenever no more input is ready to be read, so results aren't held back while the client is sending.
+ * <p>
+ * A line that isn't a list of exactly 2 valid {@link Rectangle} produces an error line, and the stream goes on. Input
+ * that isn't JSON produces an error line and ends the stream, since the following lines can't be found reliably.
+ */
+@Component
+public class PairStreamProcessor {
+
+    static final String INVALID_PAIR = "Each line should contain exactly 2 valid Rectangles.";
+    static final String INVALID_JSON = "The stream should contain one JSON list per line.";
+
+    private final RectangleService rectangleService;
+    private final JsonFactory jsonFactory;
+
+    /**
+     * Default Constructor.
+     *
+     * @param rectangleService an instance of {@link RectangleService}.
+     * @param objectMapper     the {@link ObjectMapper} whose {@link JsonFactory} reads and writes the streams.
+     */
+    @Autowired
+    public PairStreamProcessor(RectangleService rectangleService, ObjectMapper objectMapper) {
+        this.rectangleService = rectangleService;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Reads every pair of the input and writes the result of the operation for each one.
+     *
+     * @param operation the {@link PairOperation} applied to each pair
+     * @param in        the newline-delimited JSON input
+     * @param out       the newline-delimited JSON output
+     * @return the number of lines written
+     * @throws IOException if reading or writing the streams fails
+     */
+    public long process(PairOperation operation, InputStream in, OutputStream out) throws IOException {
+        long lines = 0;
+        int[] values = new int[8];
+        int[] coordinates = new int[Shape.MAX_INTERSECTION_COORDINATES];
+        try (JsonParser parser = jsonFactory.createParser(in);
+             JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != null) {
+                    if (readPair(parser, token, values)) {
+                        writeResult(operation, generator, values, coordinates);
+                    } else {
+                        writeError(generator, INVALID_PAIR);
+                    }
+                    lines++;
+                    if (in.available() == 0) {
+                        generator.flush();
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                writeError(generator, INVALID_JSON);
+                lines++;
+            }
+            if (lines > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Reads one root-level value, skipping it entirely. Returns true if it was a list of exactly 2 valid
+     * {@link Rectangle}, whose x, y, width and height are written into values.
+     */
+    private static boolean readPair(JsonParser parser, JsonToken token, int[] values) throws IOException {
+        if (token != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return false;
+        }
+        boolean valid = true;
+        int count = 0;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (count < 2 && token == JsonToken.START_OBJECT) {
+                valid &= readRectangle(parser, values, count * 4);
+            } else {
+                parser.skipChildren();
+                valid = false;
+            }
+            count++;
+        }
+        return valid && count == 2;
+    }
+
+    private static boolean readRectangle(JsonParser parser, int[] values, int offset) throws IOException {
+        int found = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            token = parser.nextToken();
+            int slot = "x".equals(name) ? 0 : "y".equals(name) ? 1 : "width".equals(name) ? 2 : "height".equals(name) ? 3 : -1;
+            if (slot >= 0 && token == JsonToken.VALUE_NUMBER_INT) {
+                values[offset + slot] = parser.getIntValue();
+                found |= 1 << slot;
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return found == 0b1111 && values[offset + 2] > 0 && values[offset + 3] > 0;
+    }
+
+    private void writeResult(PairOperation operation, JsonGenerator generator, int[] v, int[] coordinates) throws IOException {
+        Rectangle r1 = new Rectangle(v[0], v[1], v[2], v[3]);
+        Rectangle r2 = new Rectangle(v[4], v[5], v[6], v[7]);
+        switch (operation) {
+            case CONTAINS:
+                generator.writeBoolean(rectangleService.contains(r1, r2));
+                break;
+            case ADJACENT:
+                generator.writeBoolean(rectangleService.isAdjacentTo(r1, r2));
+                break;
+            case INTERSECTS:
+                generator.writeBoolean(rectangleService.intersects(r1, r2));
+                break;
+            default:
+                int count = rectangleService.intersectionPoints(r1, r2, coordinates);
+                generator.writeArray(coordinates, 0, count);
+        }
+    }
+
+    private static void writeError(JsonGenerator generator, String message) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("error", message);
+        generator.writeEndObject();
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.nuvalence.web.stream;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.SpatialRelation;
+import com.nuvalence.model.StoredRectangle;
+import com.nuvalence.service.RectangleIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.OptionalLong;
+
+/**
+ * Writes a page of the stored {@link Rectangle} matching a query as a JSON object, with the matches in
+ * {@code rectangles} and the cursor of the next page in {@code next}, null after the last page.
+ * <p>
+ * The matches are written with Jackson's streaming generator as the {@link RectangleIndex} reports them, so no list of
+ * the page is built, and the generator buffer is sent to the client whenever it fills up.
+ */
+@Component
+public class QueryPageWriter {
+
+    private final RectangleIndex rectangleIndex;
+    private final JsonFactory jsonFactory;
+
+    /**
+     * Default Constructor.
+     *
+     * @param rectangleIndex an instance of {@link RectangleIndex}.
+     * @param objectMapper   the {@link ObjectMapper} whose {@link JsonFactory} writes the pages.
+     */
+    @Autowired
+    public QueryPageWriter(RectangleIndex rectangleIndex, ObjectMapper objectMapper) {
+        this.rectangleIndex = rectangleIndex;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Finds a page of the stored {@link Rectangle} holding a relation with a query and writes it.
+     *
+     * @param relation the {@link SpatialRelation} between the stored {@link Rectangle} and the query
+     * @param query    the query {@link Rectangle}
+     * @param after    the cursor: the id of the last {@link StoredRectangle} of the previous page, or 0
+     * @param limit    the largest number of {@link StoredRectangle} in the page, 1 or more
+     * @param out      the output receiving the JSON page
+     * @return the number of {@link StoredRectangle} written
+     * @throws IOException if writing the output fails
+     */
+    public long write(SpatialRelation relation, Rectangle query, long after, int limit, OutputStream out) throws IOException {
+        long[] count = new long[1];
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("rectangles");
+            OptionalLong next;
+            try {
+                next = rectangleIndex.query(relation, query, after, limit, stored -> {
+                    try {
+                        writeStored(generator, stored);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    count[0]++;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+            if (next.isPresent()) {
+                generator.writeNumberField("next", next.getAsLong());
+            } else {
+                generator.writeNullField("next");
+            }
+            generator.writeEndObject();
+        }
+        return count[0];
+    }
+
+    private static void writeStored(JsonGenerator generator, StoredRectangle stored) throws IOException {
+        Rectangle r = stored.getRectangle();
+        generator.writeStartObject();
+        generator.writeNumberField("id", stored.getId());
+        generator.writeObjectFieldStart("rectangle");
+        generator.writeNumberField("x", r.getX());
+        generator.writeNumberField("y", r.getY());
+        generator.writeNumberField("height", r.getHeight());
+        generator.writeNumberField("width", r.getWidth());
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+}
@@ -0,0 +1,207 @@
+package com.nuvalence.service;
+
+import com.nuvalence.engine.SweepProgress;
+import com.nuvalence.model.IndexLabels;
+import com.nuvalence.model.Job;
+import com.nuvalence.model.JobOperation;
+import com.nuvalence.model.JobState;
+import com.nuvalence.model.Rectangle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobServiceImplTest {
+
+    private final RectangleService rectangleService = new RectangleServiceImpl();
+    private final ThreadPoolExecutor executor = JobServiceImpl.newExecutor(1, 1);
+    private final List<Rectangle> rectangles = List.of(
+            new Rectangle(0, 0, 4, 4),
+            new Rectangle(1, 1, 1, 1),
+            new Rectangle(4, 0, 2, 2),
+            new Rectangle(20, 20, 1, 1),
+            new Rectangle(21, 21, 3, 3),
+            new Rectangle(40, 0, 1, 1));
+
+    @AfterEach
+    public void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void submit_runsTheOperation_andReadsTheResultInChunks() throws InterruptedException {
+        JobServiceImpl jobService = new JobServiceImpl(rectangleService, executor, 1000, Duration.ofHours(1));
+
+        Job job = awaitFinal(jobService, jobService.submit(JobOperation.CLUSTERS, rectangles).getId());
+
+        assertEquals(new Job(job.getId(), JobOperation.CLUSTERS, JobState.SUCCEEDED, 6, 1, 6, null), job);
+        List<Object> result = new ArrayList<>(jobService.result(job.getId(), 0, 4).orElseThrow());
+        result.addAll(jobService.result(job.getId(), 4, 4).orElseThrow());
+        assertEquals(rectangleService.clusters(rectangles), result);
+        assertEquals(List.of(), jobService.result(job.getId(), 10, 4).orElseThrow());
+        assertEquals(6, jobService.held());
+
+        assertTrue(jobService.delete(job.getId()));
+        assertTrue(jobService.get(job.getId()).isEmpty());
+        assertTrue(jobService.result(job.getId(), 0, 4).isEmpty());
+        assertEquals(0, jobService.held());
+    }
+
+    @Test
+    public void submit_pastTheRectangleBudget_stopsReadingTheRectangles() throws Exception {
+        JobServiceImpl jobService = new JobServiceImpl(rectangleService, executor, 10, Duration.ofHours(1));
+        int[] read = new int[1];
+        JobService.RectangleReader reader = batch -> {
+            for (Rectangle r : rectangles) {
+                batch.add(r);
+                read[0]++;
+            }
+        };
+
+        awaitFinal(jobService, jobService.submit(JobOperation.CLUSTERS, reader).getId());
+        // the 4 rectangles left room for are read, the fifth one is rejected and the rest is never read
+        read[0] = 0;
+        assertThrows(RejectedExecutionException.class, () -> jobService.submit(JobOperation.NESTING, reader));
+        assertEquals(4, read[0]);
+        assertEquals(6, jobService.held());
+
+        awaitFinal(jobService, jobService.submit(JobOperation.NESTING, rectangles.subList(0, 4)).getId());
+        // no room is left, so nothing is read
+        read[0] = 0;
+        assertThrows(RejectedExecutionException.class, () -> jobService.submit(JobOperation.NESTING, reader));
+        assertEquals(0, read[0]);
+        assertEquals(10, jobService.held());
+    }
+
+    @Test
+    public void submit_pastTheRectangleBudget_isRejected() throws InterruptedException {
+        JobServiceImpl jobService = new JobServiceImpl(rectangleService, executor, 10, Duration.ofHours(1));
+
+        Job first = awaitFinal(jobService, jobService.submit(JobOperation.CLUSTERS, rectangles).getId());
+        // the 6 labels found are held, so the next 6 rectangles don't fit
+        assertEquals(6, jobService.held());
+        assertThrows(RejectedExecutionException.class, () -> jobService.submit(JobOperation.NESTING, rectangles));
+        assertEquals(JobState.SUCCEEDED,
+                awaitFinal(jobService, jobService.submit(JobOperation.NESTING, rectangles.subList(0, 4)).getId()).getState());
+        assertEquals(10, jobService.held());
+
+        jobService.delete(first.getId());
+        assertEquals(4, jobService.held());
+        assertEquals(JobState.SUCCEEDED, awaitFinal(jobService, jobService.submit(JobOperation.ADJACENT, rectangles).getId()).getState());
+    }
+
+    @Test
+    public void run_resultPastTheBudget_failsAndReleasesTheElements() throws InterruptedException {
+        JobServiceImpl jobService = new JobServiceImpl(rectangleService, executor, 10, Duration.ofHours(1));
+        // 6 copies of a Rectangle make 15 intersecting pairs, more than the 10 elements the jobs may hold
+        List<Rectangle> copies = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            copies.add(new Rectangle(0, 0, 2, 2));
+        }
+
+        Job job = awaitFinal(jobService, jobService.submit(JobOperation.INTERSECTS, copies).getId());
+
+        assertEquals(JobState.FAILED, job.getState());
+        assertEquals(JobServiceImpl.TOO_MANY_RESULTS, job.getError());
+        assertTrue(jobService.result(job.getId(), 0, 10).isEmpty());
+        assertEquals(0, jobService.held());
+        assertEquals(JobState.SUCCEEDED,
+                awaitFinal(jobService, jobService.submit(JobOperation.INTERSECTS, copies.subList(0, 4)).getId()).getState());
+    }
+
+    @Test
+    public void run_errorInTheOperation_failsAndReleasesTheElements() throws InterruptedException {
+        RectangleService exhausted = new RectangleServiceImpl() {
+            @Override
+            public IndexLabels clusters(List<Rectangle> rectangles, SweepProgress progress) {
+                throw new OutOfMemoryError("Java heap space");
+            }
+        };
+        JobServiceImpl jobService = new JobServiceImpl(exhausted, executor, 1000, Duration.ofHours(1));
+
+        Job job = awaitFinal(jobService, jobService.submit(JobOperation.CLUSTERS, rectangles).getId());
+
+        assertEquals(JobState.FAILED, job.getState());
+        assertEquals("Java heap space", job.getError());
+        assertEquals(0, jobService.held());
+        assertEquals(JobState.SUCCEEDED,
+                awaitFinal(jobService, jobService.submit(JobOperation.NESTING, rectangles).getId()).getState());
+    }
+
+    @Test
+    public void submit_fullQueue_isRejected_andQueuedJobsAreCancelledRightAway() throws InterruptedException {
+        JobServiceImpl jobService = new JobServiceImpl(rectangleService, executor, 1000, Duration.ofHours(1));
+        CountDownLatch busy = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                busy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Job queued = jobService.submit(JobOperation.CLUSTERS, rectangles);
+        assertEquals(JobState.QUEUED, queued.getState());
+        assertThrows(RejectedExecutionException.class, () -> jobService.submit(JobOperation.CLUSTERS, rectangles));
+        assertEquals(6, jobService.held());
+
+        assertEquals(JobState.CANCELLED, jobService.cancel(queued.getId()).orElseThrow().getState());
+        assertEquals(0, jobService.held());
+        assertEquals(0, executor.getQueue().size());
+        busy.countDown();
+        assertTrue(jobService.cancel(queued.getId() + 1).isEmpty());
+    }
+
+    @Test
+    public void cancel_runningJob_stopsItsSweep() throws InterruptedException {
+        JobServiceImpl jobService = new JobServiceImpl(rectangleService, executor, 10_000_000, Duration.ofHours(1));
+        Random random = new Random(2);
+        List<Rectangle> many = new ArrayList<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            many.add(new Rectangle(random.nextInt(100_000), random.nextInt(100_000), 1 + random.nextInt(100), 1 + random.nextInt(100)));
+        }
+
+        long id = jobService.submit(JobOperation.INTERSECTS, many).getId();
+        while (jobService.get(id).orElseThrow().getState() == JobState.QUEUED) {
+            Thread.sleep(1);
+        }
+        jobService.cancel(id);
+
+        Job job = awaitFinal(jobService, id);
+        assertEquals(JobState.CANCELLED, job.getState());
+        assertTrue(job.getProgress() < 1);
+        assertTrue(jobService.result(id, 0, 10).isEmpty());
+        assertEquals(0, jobService.held());
+    }
+
+    @Test
+    public void evictExpired_forgetsFinishedJobs() throws InterruptedException {
+        JobServiceImpl jobService = new JobServiceImpl(rectangleService, executor, 1000, Duration.ZERO);
+
+        long id = awaitFinal(jobService, jobService.submit(JobOperation.CONTAINS, rectangles).getId()).getId();
+        Thread.sleep(1);
+        jobService.evictExpired();
+
+        assertTrue(jobService.get(id).isEmpty());
+        assertEquals(0, jobService.held());
+    }
+
+    private static Job awaitFinal(JobService jobService, long id) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        Job job = jobService.get(id).orElseThrow();
+        while (!job.getState().isFinal()) {
+            assertTrue(System.nanoTime() < deadline, "job " + id + " didn't finish");
+            Thread.sleep(5);
+            job = jobService.get(id).orElseThrow();
+        }
+        return job;
+    }
+}
@@ -0,0 +1,90 @@
+package com.nuvalence.service;
+
+import com.nuvalence.model.IndexPair;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.RectanglePair;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MeteredRectangleServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RectangleService rectangleService = new MeteredRectangleService(new RectangleServiceImpl(), registry);
+
+    private final Rectangle outer = new Rectangle(0, 0, 3, 3);
+    private final Rectangle inner = new Rectangle(1, 1, 1, 1);
+    private final Rectangle far = new Rectangle(10, 10, 1, 1);
+
+    @Test
+    public void metered_registersEveryMeterUpFront() {
+        for (String operation : List.of("adjacent", "contains", "intersects", "intersection",
+                "batch.intersects", "batch.contains", "batch.adjacent", "coverage", "clusters", "nesting")) {
+            assertNotNull(registry.find(MeteredRectangleService.TIMER).tag("operation", operation).timer(), operation);
+        }
+        assertEquals(13, registry.find(MeteredRectangleService.RESULTS).counters().size());
+        assertEquals(6, registry.find(MeteredRectangleService.PAYLOAD).summaries().size());
+    }
+
+    @Test
+    public void metered_predicates_countOutcomes() {
+        assertTrue(rectangleService.contains(outer, inner));
+        assertFalse(rectangleService.contains(outer, far));
+        assertFalse(rectangleService.contains(inner, outer));
+        assertTrue(rectangleService.intersects(outer, new Rectangle(2, 2, 3, 3)));
+        assertTrue(rectangleService.contains(new RectanglePair(0, 0, 3, 3, 1, 1, 1, 1)));
+        assertFalse(rectangleService.intersects(new RectanglePair(0, 0, 3, 3, 10, 10, 1, 1)));
+
+        assertEquals(4, registry.get(MeteredRectangleService.TIMER).tag("operation", "contains").timer().count());
+        assertEquals(2, count("contains", "true"));
+        assertEquals(2, count("contains", "false"));
+        assertEquals(1, count("intersects", "true"));
+        assertEquals(1, count("intersects", "false"));
+    }
+
+    @Test
+    public void metered_intersectionPoints_countsEmptyIntersections() {
+        assertEquals(List.of(), rectangleService.intersectionPoints(outer, far));
+        assertEquals(4, rectangleService.intersectionPoints(outer, new Rectangle(2, 2, 3, 3), new int[8]));
+        assertEquals(List.of(), rectangleService.intersectionPoints(new RectanglePair(0, 0, 3, 3, 10, 10, 1, 1)));
+
+        assertEquals(3, registry.get(MeteredRectangleService.TIMER).tag("operation", "intersection").timer().count());
+        assertEquals(2, count("intersection", "empty"));
+        assertEquals(1, count("intersection", "nonempty"));
+    }
+
+    @Test
+    public void metered_batch_recordsPayloadAndPairs() {
+        List<Rectangle> rectangles = List.of(outer, inner, far);
+
+        assertEquals(List.of(new IndexPair(0, 1)), rectangleService.containingPairs(rectangles));
+
+        assertEquals(1, count("batch.contains", "pairs"));
+        assertEquals(3, registry.get(MeteredRectangleService.PAYLOAD).tag("operation", "batch.contains").summary().totalAmount());
+        assertEquals(1, registry.get(MeteredRectangleService.TIMER).tag("operation", "batch.contains").timer().count());
+    }
+
+    @Test
+    public void metered_clusters_countsClusters() {
+        assertEquals(List.of(0, 0, 1), rectangleService.clusters(List.of(outer, inner, far)));
+
+        assertEquals(2, count("clusters", "clusters"));
+        assertEquals(3, registry.get(MeteredRectangleService.PAYLOAD).tag("operation", "clusters").summary().totalAmount());
+    }
+
+    @Test
+    public void metered_nestingForest_countsRoots() {
+        assertEquals(List.of(-1, 0, -1), rectangleService.nestingForest(List.of(outer, inner, far)));
+
+        assertEquals(2, count("nesting", "roots"));
+        assertEquals(3, registry.get(MeteredRectangleService.PAYLOAD).tag("operation", "nesting").summary().totalAmount());
+    }
+
+    private double count(String operation, String result) {
+        return registry.get(MeteredRectangleService.RESULTS).tag("operation", operation).tag("result", result).counter().count();
+    }
+
+}
@@ -0,0 +1,307 @@
+package com.nuvalence.service;
+
+import com.nuvalence.index.CompressedIndex;
+import com.nuvalence.index.GridIndex;
+import com.nuvalence.index.IndexStrategy;
+import com.nuvalence.index.RTree;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.SpatialRelation;
+import com.nuvalence.model.StoredRectangle;
+import com.nuvalence.store.MappedRectangleStore;
+import com.nuvalence.store.WriteAheadLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RectangleIndexImplTest {
+
+    private final RectangleIndex rectangleIndex = new RectangleIndexImpl();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void insert_assignsSequentialIds() {
+        List<StoredRectangle> stored = rectangleIndex.insert(List.of(new Rectangle(0, 0, 1, 1), new Rectangle(2, 2, 1, 1)));
+
+        assertEquals(List.of(new StoredRectangle(1, new Rectangle(0, 0, 1, 1)), new StoredRectangle(2, new Rectangle(2, 2, 1, 1))), stored);
+        assertEquals(Optional.of(stored.get(1)), rectangleIndex.get(2));
+        assertEquals(2, rectangleIndex.size());
+    }
+
+    @Test
+    public void updateAndDelete_unknownId_doNothing() {
+        assertTrue(rectangleIndex.update(1, new Rectangle(0, 0, 1, 1)).isEmpty());
+        assertFalse(rectangleIndex.delete(1));
+        assertEquals(0, rectangleIndex.size());
+    }
+
+    @Test
+    public void query_followsRectangleSemantics() {
+        rectangleIndex.insert(List.of(
+                new Rectangle(0, 0, 10, 10),
+                new Rectangle(4, 4, 2, 2),
+                new Rectangle(10, 0, 5, 5),
+                new Rectangle(30, 30, 1, 1)));
+        Rectangle query = new Rectangle(3, 3, 4, 4);
+
+        assertEquals(List.of(1L, 2L), ids(rectangleIndex.query(SpatialRelation.INTERSECTS, query)));
+        assertEquals(List.of(1L), ids(rectangleIndex.query(SpatialRelation.CONTAINS, query)));
+        assertEquals(List.of(2L), ids(rectangleIndex.query(SpatialRelation.CONTAINED_BY, query)));
+        assertEquals(List.of(3L), ids(rectangleIndex.query(SpatialRelation.ADJACENT, new Rectangle(15, 1, 2, 2))));
+    }
+
+    @Test
+    public void query_seesUpdatesAndDeletes() {
+        rectangleIndex.insert(List.of(new Rectangle(0, 0, 2, 2), new Rectangle(5, 5, 2, 2)));
+        Rectangle query = new Rectangle(0, 0, 3, 3);
+
+        rectangleIndex.update(2, new Rectangle(1, 1, 2, 2));
+        assertEquals(List.of(1L, 2L), ids(rectangleIndex.query(SpatialRelation.INTERSECTS, query)));
+
+        rectangleIndex.delete(1);
+        assertEquals(List.of(2L), ids(rectangleIndex.query(SpatialRelation.INTERSECTS, query)));
+    }
+
+    @Test
+    public void reopenedStore_answersQueriesBeforeAndAfterIndexing() throws IOException {
+        Path file = dir.resolve("rectangles.store");
+        try (MappedRectangleStore store = MappedRectangleStore.open(file)) {
+            RectangleIndexImpl index = new RectangleIndexImpl(store, Optional.empty(), IndexStrategy.AUTO);
+            index.insert(List.of(
+                    new Rectangle(0, 0, 10, 10),
+                    new Rectangle(4, 4, 2, 2),
+                    new Rectangle(30, 30, 1, 1)));
+            index.snapshot();
+        }
+
+        try (MappedRectangleStore store = MappedRectangleStore.open(file)) {
+            RectangleIndexImpl reopened = new RectangleIndexImpl(store, Optional.empty(), IndexStrategy.AUTO);
+            Rectangle query = new Rectangle(3, 3, 4, 4);
+            assertEquals(3, reopened.size());
+            assertEquals(List.of(1L, 2L), ids(reopened.query(SpatialRelation.INTERSECTS, query)));
+
+            // mutations made before the stored Rectangles are indexed
+            reopened.delete(1);
+            reopened.update(3, new Rectangle(5, 5, 1, 1));
+            reopened.insert(List.of(new Rectangle(6, 6, 4, 4)));
+            assertEquals(List.of(2L, 3L, 4L), ids(reopened.query(SpatialRelation.INTERSECTS, query)));
+
+            reopened.indexStored();
+            assertEquals(List.of(2L, 3L, 4L), ids(reopened.query(SpatialRelation.INTERSECTS, query)));
+            reopened.update(2, new Rectangle(40, 40, 1, 1));
+            reopened.insert(List.of(new Rectangle(3, 3, 1, 1)));
+            assertEquals(List.of(3L, 4L, 5L), ids(reopened.query(SpatialRelation.INTERSECTS, query)));
+        }
+    }
+
+    @Test
+    public void queryPages_followCursors_beforeAndAfterIndexing() throws IOException {
+        Path file = dir.resolve("rectangles.store");
+        Random random = new Random(8);
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            rectangles.add(new Rectangle(random.nextInt(100), random.nextInt(100), 1 + random.nextInt(20), 1 + random.nextInt(20)));
+        }
+        try (MappedRectangleStore store = MappedRectangleStore.open(file)) {
+            new RectangleIndexImpl(store, Optional.empty(), IndexStrategy.AUTO).insert(rectangles);
+            store.snapshot();
+        }
+
+        try (MappedRectangleStore store = MappedRectangleStore.open(file)) {
+            RectangleIndexImpl reopened = new RectangleIndexImpl(store, Optional.empty(), IndexStrategy.AUTO);
+            Rectangle query = new Rectangle(20, 20, 50, 50);
+            for (SpatialRelation relation : SpatialRelation.values()) {
+                List<StoredRectangle> expected = reopened.query(relation, query);
+                assertEquals(expected, pages(reopened, relation, query, 7));
+                assertEquals(expected, pages(reopened, relation, query, 1000));
+            }
+
+            reopened.indexStored();
+            reopened.delete(3);
+            for (SpatialRelation relation : SpatialRelation.values()) {
+                assertEquals(reopened.query(relation, query), pages(reopened, relation, query, 7));
+            }
+
+            // a Rectangle stored between two pages is found in a later one
+            List<StoredRectangle> first = new ArrayList<>();
+            long cursor = reopened.query(SpatialRelation.INTERSECTS, query, 0, 5, first::add).orElseThrow();
+            reopened.insert(List.of(new Rectangle(30, 30, 1, 1)));
+            List<StoredRectangle> rest = pages(reopened, SpatialRelation.INTERSECTS, query, cursor, 7);
+            assertEquals(5, first.size());
+            assertEquals(cursor, first.get(4).getId());
+            assertEquals(301L, rest.get(rest.size() - 1).getId());
+        }
+    }
+
+    @Test
+    public void queryPages_manyMatches_scanOnFromTheCursor() {
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (int i = 0; i < 40_000; i++) {
+            // the matches all come after a whole scan chunk of Rectangles far from the query
+            rectangles.add(i < 20_000 ? new Rectangle(1000 + i % 100, 1000, 1, 1) : new Rectangle(i % 50, i % 30, 2, 2));
+        }
+        rectangleIndex.insert(rectangles);
+        Rectangle query = new Rectangle(0, 0, 60, 40);
+        rectangleIndex.delete(20_005);
+
+        List<StoredRectangle> expected = rectangleIndex.query(SpatialRelation.INTERSECTS, query);
+        assertEquals(19_999, expected.size());
+        assertEquals(expected, pages(rectangleIndex, SpatialRelation.INTERSECTS, query, 3));
+        assertEquals(expected, pages(rectangleIndex, SpatialRelation.INTERSECTS, query, 5000));
+    }
+
+    @Test
+    public void queryPage_lastPage_hasNoCursor() {
+        rectangleIndex.insert(List.of(new Rectangle(0, 0, 2, 2), new Rectangle(1, 1, 2, 2), new Rectangle(9, 9, 1, 1)));
+        Rectangle query = new Rectangle(0, 0, 3, 3);
+        List<StoredRectangle> page = new ArrayList<>();
+
+        assertEquals(OptionalLong.of(1), rectangleIndex.query(SpatialRelation.INTERSECTS, query, 0, 1, page::add));
+        assertEquals(OptionalLong.empty(), rectangleIndex.query(SpatialRelation.INTERSECTS, query, 1, 1, page::add));
+        assertEquals(OptionalLong.empty(), rectangleIndex.query(SpatialRelation.INTERSECTS, query, 2, 1, page::add));
+        assertEquals(List.of(1L, 2L), ids(page));
+    }
+
+    @Test
+    public void nearest_ranksByDistance_beforeAndAfterIndexing() throws IOException {
+        Path file = dir.resolve("rectangles.store");
+        try (MappedRectangleStore store = MappedRectangleStore.open(file)) {
+            RectangleIndexImpl index = new RectangleIndexImpl(store, Optional.empty(), IndexStrategy.AUTO);
+            index.insert(List.of(
+                    new Rectangle(10, 0, 2, 2),
+                    new Rectangle(0, 3, 1, 1),
+                    new Rectangle(-3, -4, 1, 1),
+                    new Rectangle(-1, -1, 2, 2)));
+            index.snapshot();
+        }
+
+        try (MappedRectangleStore store = MappedRectangleStore.open(file)) {
+            RectangleIndexImpl reopened = new RectangleIndexImpl(store, Optional.empty(), IndexStrategy.AUTO);
+            reopened.insert(List.of(new Rectangle(0, -4, 1, 1)));
+            // the point (0, 0) is inside the fourth Rectangle, 3 away from the second and the fifth
+            assertEquals(List.of(4L, 2L, 5L), ids(reopened.nearest(new Rectangle(0, 0, 0, 0), 3)));
+
+            reopened.indexStored();
+            assertEquals(List.of(4L, 2L, 5L, 3L, 1L), ids(reopened.nearest(new Rectangle(0, 0, 0, 0), 10)));
+            assertEquals(List.of(1L), ids(reopened.nearest(new Rectangle(13, 1, 5, 5), 1)));
+        }
+    }
+
+    @Test
+    public void crash_recoversLoggedChanges() throws IOException {
+        Path file = dir.resolve("rectangles.store");
+        Path logFile = dir.resolve("rectangles.store.wal");
+        try (MappedRectangleStore store = MappedRectangleStore.open(file);
+             WriteAheadLog log = WriteAheadLog.open(logFile, (operation, id, x, y, width, height) -> {
+             })) {
+            RectangleIndexImpl index = new RectangleIndexImpl(store, Optional.of(log), IndexStrategy.AUTO);
+            index.insert(List.of(new Rectangle(0, 0, 1, 1), new Rectangle(2, 2, 1, 1)));
+            index.snapshot();
+            index.insert(List.of(new Rectangle(4, 4, 1, 1)));
+            index.update(1, new Rectangle(6, 6, 1, 1));
+            index.delete(2);
+            // crashes without a snapshot
+        }
+
+        try (MappedRectangleStore store = MappedRectangleStore.open(file);
+             WriteAheadLog log = WriteAheadLog.open(logFile, (operation, id, x, y, width, height) -> {
+                 if (operation == WriteAheadLog.Operation.PUT) {
+                     store.put(id, new Rectangle(x, y, width, height));
+                 } else {
+                     store.delete(id);
+                 }
+             })) {
+            assertEquals(3, log.records());
+            RectangleIndexImpl recovered = new RectangleIndexImpl(store, Optional.of(log), IndexStrategy.AUTO);
+            recovered.indexStored();
+
+            assertEquals(2, recovered.size());
+            assertEquals(List.of(new StoredRectangle(1, new Rectangle(6, 6, 1, 1)), new StoredRectangle(3, new Rectangle(4, 4, 1, 1))),
+                    recovered.query(SpatialRelation.INTERSECTS, new Rectangle(0, 0, 10, 10)));
+            recovered.snapshot();
+            assertEquals(0, log.records());
+        }
+    }
+
+    @Test
+    public void everyStrategy_matchesPairwiseSemantics() {
+        Random random = new Random(11);
+        List<Rectangle> tiles = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            // similar tiles on a coarse lattice, so many of them share edges or corners
+            tiles.add(new Rectangle(random.nextInt(60) * 5, random.nextInt(60) * 5, 5 + random.nextInt(2) * 5, 5));
+        }
+        tiles.add(new Rectangle(-50, -50, 150, 150));
+
+        for (IndexStrategy strategy : IndexStrategy.values()) {
+            RectangleIndexImpl index = new RectangleIndexImpl(MappedRectangleStore.temporary(), Optional.empty(), strategy);
+            index.insert(tiles);
+            index.rebuildIndex();
+            assertEquals(strategy == IndexStrategy.RTREE ? RTree.class
+                            : strategy == IndexStrategy.COMPRESSED ? CompressedIndex.class : GridIndex.class,
+                    index.getIndex().getClass());
+
+            for (int q = 0; q < 100; q++) {
+                Rectangle query = new Rectangle(random.nextInt(70) * 5 - 25, random.nextInt(70) * 5 - 25,
+                        random.nextInt(8) * 5, random.nextInt(8) * 5);
+                for (SpatialRelation relation : SpatialRelation.values()) {
+                    List<Long> expected = new ArrayList<>();
+                    for (int i = 0; i < tiles.size(); i++) {
+                        if (relation.test(tiles.get(i), query)) {
+                            expected.add(i + 1L);
+                        }
+                    }
+                    assertEquals(expected, ids(index.query(relation, query)), strategy + " " + relation + " " + query);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void autoStrategy_keepsTheTreeForClusteredRectangles() {
+        Random random = new Random(3);
+        List<Rectangle> clustered = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int center = (i % 4) * 100_000;
+            clustered.add(new Rectangle(center + random.nextInt(100), center + random.nextInt(100),
+                    1 + random.nextInt(1_000), 1 + random.nextInt(10)));
+        }
+        RectangleIndexImpl index = new RectangleIndexImpl(MappedRectangleStore.temporary(), Optional.empty(), IndexStrategy.AUTO);
+        index.insert(clustered);
+        index.rebuildIndex();
+
+        assertEquals(RTree.class, index.getIndex().getClass());
+    }
+
+    private static List<StoredRectangle> pages(RectangleIndex index, SpatialRelation relation, Rectangle query, int limit) {
+        return pages(index, relation, query, 0, limit);
+    }
+
+    private static List<StoredRectangle> pages(RectangleIndex index, SpatialRelation relation, Rectangle query,
+                                               long after, int limit) {
+        List<StoredRectangle> found = new ArrayList<>();
+        OptionalLong cursor = OptionalLong.of(after);
+        while (cursor.isPresent()) {
+            int before = found.size();
+            cursor = index.query(relation, query, cursor.getAsLong(), limit, found::add);
+            assertTrue(found.size() - before <= limit);
+        }
+        return found;
+    }
+
+    private static List<Long> ids(List<StoredRectangle> stored) {
+        return stored.stream().map(StoredRectangle::getId).collect(Collectors.toList());
+    }
+
+}
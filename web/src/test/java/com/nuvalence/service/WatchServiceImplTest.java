@@ -0,0 +1,147 @@
+package com.nuvalence.service;
+
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.StoredRectangle;
+import com.nuvalence.model.WatchEvent;
+import com.nuvalence.model.WatchEventType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WatchServiceImplTest {
+
+    private final RectangleIndex rectangleIndex = new RectangleIndexImpl();
+    private final ExecutorService senders = Executors.newFixedThreadPool(2);
+    private final Rectangle region = new Rectangle(10, 10, 10, 10);
+
+    @AfterEach
+    public void shutDown() {
+        senders.shutdownNow();
+    }
+
+    @Test
+    public void watch_sendsTheRectanglesInside_thenThoseEnteringAndLeaving() throws InterruptedException {
+        WatchServiceImpl watchService = new WatchServiceImpl(rectangleIndex, senders, 10, 100);
+        rectangleIndex.insert(List.of(new Rectangle(15, 15, 2, 2), new Rectangle(0, 0, 2, 2)));
+        Recorder recorder = new Recorder();
+
+        long watch = watchService.watch(region, recorder);
+        assertEquals(event(watch, WatchEventType.ENTER, 1, new Rectangle(15, 15, 2, 2)), recorder.next());
+
+        rectangleIndex.insert(List.of(new Rectangle(19, 19, 5, 5)));
+        assertEquals(event(watch, WatchEventType.ENTER, 3, new Rectangle(19, 19, 5, 5)), recorder.next());
+        // a move staying inside, a move outside, and a rectangle touching the region only by an edge
+        rectangleIndex.update(1, new Rectangle(16, 16, 2, 2));
+        rectangleIndex.update(1, new Rectangle(40, 40, 2, 2));
+        assertEquals(event(watch, WatchEventType.EXIT, 1, new Rectangle(40, 40, 2, 2)), recorder.next());
+        rectangleIndex.insert(List.of(new Rectangle(20, 10, 1, 1)));
+        rectangleIndex.update(2, new Rectangle(9, 9, 2, 2));
+        assertEquals(event(watch, WatchEventType.ENTER, 2, new Rectangle(9, 9, 2, 2)), recorder.next());
+        rectangleIndex.delete(3);
+        assertEquals(event(watch, WatchEventType.EXIT, 3, new Rectangle(19, 19, 5, 5)), recorder.next());
+
+        assertTrue(watchService.unwatch(watch));
+        rectangleIndex.insert(List.of(new Rectangle(12, 12, 1, 1)));
+        assertEquals("The watch was ended.", recorder.next());
+        assertNull(recorder.events.poll(50, TimeUnit.MILLISECONDS));
+        assertFalse(watchService.unwatch(watch));
+        assertEquals(0, watchService.size());
+    }
+
+    @Test
+    public void watch_pastTheMaximum_isRejected() {
+        WatchServiceImpl watchService = new WatchServiceImpl(rectangleIndex, senders, 1, 100);
+
+        long watch = watchService.watch(region, new Recorder());
+        assertThrows(RejectedExecutionException.class, () -> watchService.watch(region, new Recorder()));
+
+        watchService.unwatch(watch);
+        watchService.watch(region, new Recorder());
+        assertEquals(1, watchService.size());
+    }
+
+    @Test
+    public void watch_slowListener_isClosedWhenItsQueueIsFull() throws InterruptedException {
+        WatchServiceImpl watchService = new WatchServiceImpl(rectangleIndex, senders, 10, 2);
+        rectangleIndex.insert(List.of(new Rectangle(15, 15, 2, 2)));
+        CountDownLatch blocked = new CountDownLatch(1);
+        Recorder recorder = new Recorder() {
+            @Override
+            public void onEvent(WatchEvent event) {
+                super.onEvent(event);
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        long watch = watchService.watch(region, recorder);
+        assertEquals(event(watch, WatchEventType.ENTER, 1, new Rectangle(15, 15, 2, 2)), recorder.next());
+        for (int i = 0; i < 3; i++) {
+            rectangleIndex.insert(List.of(new Rectangle(11 + i, 11, 1, 1)));
+        }
+        blocked.countDown();
+
+        assertEquals("Too many events are waiting to be sent.", recorder.next());
+        assertNull(recorder.events.poll(50, TimeUnit.MILLISECONDS));
+        assertEquals(0, watchService.size());
+    }
+
+    @Test
+    public void watch_failingListener_isEnded() throws InterruptedException {
+        WatchServiceImpl watchService = new WatchServiceImpl(rectangleIndex, senders, 10, 100);
+        CountDownLatch failed = new CountDownLatch(1);
+
+        watchService.watch(region, new Recorder() {
+            @Override
+            public void onEvent(WatchEvent event) {
+                failed.countDown();
+                throw new IllegalStateException("gone");
+            }
+        });
+        rectangleIndex.insert(List.of(new Rectangle(15, 15, 2, 2)));
+
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (watchService.size() > 0) {
+            assertTrue(System.nanoTime() < deadline, "the watch wasn't ended");
+            Thread.sleep(1);
+        }
+    }
+
+    private static WatchEvent event(long watch, WatchEventType type, long id, Rectangle rectangle) {
+        return new WatchEvent(watch, type, new StoredRectangle(id, rectangle));
+    }
+
+    private static class Recorder implements WatchService.WatchListener {
+        final BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onEvent(WatchEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onClose(String reason) {
+            events.add(reason);
+        }
+
+        Object next() throws InterruptedException {
+            Object next = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(next, "no event was received");
+            return next;
+        }
+    }
+}
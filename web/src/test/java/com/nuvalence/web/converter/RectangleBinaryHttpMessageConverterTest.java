@@ -0,0 +1,149 @@
+package com.nuvalence.web.converter;
+
+import com.nuvalence.model.IndexPair;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.RectanglePair;
+import com.nuvalence.model.StoredRectangle;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RectangleBinaryHttpMessageConverterTest {
+
+    private static final Type RECTANGLE_LIST = new ParameterizedTypeReference<List<Rectangle>>() {
+    }.getType();
+
+    private final RectangleBinaryHttpMessageConverter converter = new RectangleBinaryHttpMessageConverter();
+
+    @Test
+    public void canRead_onlyRectangleBodiesInBinary() {
+        assertTrue(converter.canRead(RECTANGLE_LIST, null, RectangleMediaType.APPLICATION_RECTANGLES));
+        assertTrue(converter.canRead(Rectangle.class, null, RectangleMediaType.APPLICATION_RECTANGLES));
+        assertTrue(converter.canRead(RectanglePair.class, null, RectangleMediaType.APPLICATION_RECTANGLES));
+        assertFalse(converter.canRead(RECTANGLE_LIST, null, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(String.class, null, RectangleMediaType.APPLICATION_RECTANGLES));
+    }
+
+    @Test
+    public void read_decodesLittleEndianRecords() throws IOException {
+        byte[] body = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(0).putInt(0).putInt(3).putInt(3)
+                .putInt(1).putInt(-1).putInt(1).putInt(2)
+                .array();
+
+        assertEquals(List.of(new Rectangle(0, 0, 3, 3), new Rectangle(1, -1, 1, 2)),
+                converter.read(RECTANGLE_LIST, null, input(body)));
+    }
+
+    @Test
+    public void read_pair_needsExactly2Records() throws IOException {
+        byte[] body = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(0).putInt(0).putInt(3).putInt(3)
+                .putInt(1).putInt(-1).putInt(1).putInt(2)
+                .array();
+
+        assertEquals(new RectanglePair(0, 0, 3, 3, 1, -1, 1, 2), converter.read(RectanglePair.class, null, input(body)));
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(RectanglePair.class, null, input(Arrays.copyOf(body, 16))));
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(RectanglePair.class, null, input(Arrays.copyOf(body, 48))));
+    }
+
+    @Test
+    public void read_rectangle_needsExactly1Record() throws IOException {
+        byte[] body = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(0).putInt(0).putInt(3).putInt(3)
+                .putInt(1).putInt(-1).putInt(1).putInt(2)
+                .array();
+
+        assertEquals(new Rectangle(0, 0, 3, 3), converter.read(Rectangle.class, null, input(Arrays.copyOf(body, 16))));
+        assertThrows(HttpMessageNotReadableException.class, () -> converter.read(Rectangle.class, null, input(body)));
+        assertThrows(HttpMessageNotReadableException.class, () -> converter.read(Rectangle.class, null, input(new byte[0])));
+    }
+
+    @Test
+    public void read_truncatedRecord_isRejected() {
+        assertThrows(HttpMessageNotReadableException.class, () -> converter.read(RECTANGLE_LIST, null, input(new byte[20])));
+    }
+
+    @Test
+    public void read_hugeContentLength_isNotTrusted() throws IOException {
+        byte[] body = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN).putInt(1).putInt(2).putInt(3).putInt(4).array();
+        HttpInputMessage input = input(body);
+        input.getHeaders().setContentLength(Long.MAX_VALUE);
+
+        assertEquals(List.of(new Rectangle(1, 2, 3, 4)), converter.read(RECTANGLE_LIST, null, input));
+    }
+
+    @Test
+    public void write_encodesEveryResponseType() throws IOException {
+        assertArrayEquals(new byte[]{1}, write(true));
+        assertArrayEquals(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putInt(2).putInt(7).array(),
+                write(List.of(new IndexPair(2, 7))));
+        assertArrayEquals(ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN)
+                        .putLong(9).putInt(1).putInt(2).putInt(3).putInt(4).array(),
+                write(new StoredRectangle(9, new Rectangle(1, 2, 3, 4))));
+    }
+
+    @Test
+    public void writeThenRead_roundTripsLargeLists() throws IOException {
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            rectangles.add(new Rectangle(i, -i, i + 1, 2 * i + 1));
+        }
+
+        assertEquals(rectangles, converter.read(RECTANGLE_LIST, null, input(write(rectangles))));
+    }
+
+    private byte[] write(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HttpHeaders headers = new HttpHeaders();
+        converter.write(value, null, RectangleMediaType.APPLICATION_RECTANGLES, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return out;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        });
+        return out.toByteArray();
+    }
+
+    private static HttpInputMessage input(byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentLength(body.length);
+        return new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(body);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.nuvalence.web.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.RectanglePair;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RectangleJsonHttpMessageConverterTest {
+
+    private static final Type RECTANGLE_LIST = new ParameterizedTypeReference<List<Rectangle>>() {
+    }.getType();
+    private static final Type RECTANGLE_SET = new ParameterizedTypeReference<Set<Rectangle>>() {
+    }.getType();
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new ParameterNamesModule()).build();
+    private final RectangleJsonHttpMessageConverter converter = new RectangleJsonHttpMessageConverter(objectMapper);
+
+    @Test
+    public void canRead_onlyRectangleBodiesInJson() {
+        assertTrue(converter.canRead(RECTANGLE_LIST, null, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canRead(RectanglePair.class, null, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canRead(RECTANGLE_LIST, null, MediaType.parseMediaType("application/problem+json")));
+        assertFalse(converter.canRead(RECTANGLE_SET, null, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(Rectangle.class, null, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(RECTANGLE_LIST, null, RectangleMediaType.APPLICATION_RECTANGLES));
+        assertFalse(converter.canWrite(RECTANGLE_LIST, null, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(RectanglePair.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void read_matchesDataBinding() throws IOException {
+        String json = "[{\"x\":0,\"y\":0,\"width\":3,\"height\":3},"
+                + "{\"height\":2,\"comment\":{\"tags\":[1,{}]},\"y\":-1,\"width\":\"1\",\"x\":1.0},"
+                + "{\"width\":5,\"height\":7,\"x\":null}]";
+
+        List<Rectangle> expected = objectMapper.readValue(json, objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, Rectangle.class));
+        assertEquals(List.of(new Rectangle(0, 0, 3, 3), new Rectangle(1, -1, 1, 2), new Rectangle(0, 0, 5, 7)), expected);
+        assertEquals(expected, converter.read(RECTANGLE_LIST, null, input(json)));
+
+        assertEquals(new RectanglePair(0, 0, 3, 3, 1, -1, 1, 2), converter.read(RectanglePair.class, null,
+                input(json.substring(0, json.lastIndexOf(",{")) + "]")));
+    }
+
+    @Test
+    public void read_invalidRectangle_isRejected() {
+        String json = "[{\"x\":0,\"y\":0,\"width\":3,\"height\":3},{\"x\":1,\"y\":1,\"width\":0,\"height\":3},{\"x\": oops";
+
+        HttpMessageNotReadableException list = assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(RECTANGLE_LIST, null, input(json)));
+        assertEquals(RectangleJsonHttpMessageConverter.INVALID_RECTANGLES, list.getMessage());
+        HttpMessageNotReadableException pair = assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(RectanglePair.class, null, input(json)));
+        assertEquals(RectangleJsonHttpMessageConverter.INVALID_PAIR, pair.getMessage());
+    }
+
+    @Test
+    public void read_pairOfOtherSize_isRejected() {
+        String rectangle = "{\"x\":0,\"y\":0,\"width\":3,\"height\":3}";
+        for (String json : new String[]{"[]", "[" + rectangle + "]", "[" + rectangle + "," + rectangle + "," + rectangle + "]"}) {
+            HttpMessageNotReadableException e = assertThrows(HttpMessageNotReadableException.class,
+                    () -> converter.read(RectanglePair.class, null, input(json)), json);
+            assertEquals(RectangleJsonHttpMessageConverter.INVALID_PAIR, e.getMessage());
+        }
+    }
+
+    @Test
+    public void read_emptyAndNullBodies() throws IOException {
+        assertEquals(List.of(), converter.read(RECTANGLE_LIST, null, input("[]")));
+        assertNull(converter.read(RECTANGLE_LIST, null, input("null")));
+        assertNull(converter.read(RectanglePair.class, null, input("null")));
+    }
+
+    @Test
+    public void read_otherJson_isRejected() {
+        for (String json : new String[]{"{\"x\":0}", "[1, 2]", "[{\"x\":[0]}]", "[{\"x\":\"zero\"}]",
+                "[{\"x\":4294967296}]", "[{\"x\":0,\"y\":0,\"width\":1,\"height\":1}", ""}) {
+            assertThrows(HttpMessageNotReadableException.class,
+                    () -> converter.read(RECTANGLE_LIST, null, input(json)), json);
+        }
+    }
+
+    private static HttpInputMessage input(String json) {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentLength(body.length);
+        return new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(body);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.nuvalence.web.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nuvalence.service.RectangleServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PairStreamProcessorTest {
+
+    private final PairStreamProcessor processor = new PairStreamProcessor(new RectangleServiceImpl(), new ObjectMapper());
+
+    @Test
+    public void process_writesOneLinePerPair() throws IOException {
+        String input = "[{\"x\": 0,\"y\": 0,\"width\": 3,\"height\": 3}, {\"x\": 1,\"y\": 1,\"width\": 1,\"height\": 1}]\n"
+                + "[{\"x\": 0,\"y\": 0,\"width\": 3,\"height\": 3}, {\"x\": 5,\"y\": 5,\"width\": 1,\"height\": 1}]\n";
+
+        assertEquals("true\nfalse\n", process(PairOperation.CONTAINS, input));
+        assertEquals("true\nfalse\n", process(PairOperation.INTERSECTS, input));
+        assertEquals("false\nfalse\n", process(PairOperation.ADJACENT, input));
+    }
+
+    @Test
+    public void process_intersection_writesCoordinates() throws IOException {
+        String input = "[{\"x\": 0,\"y\": 0,\"width\": 3,\"height\": 3}, {\"x\": 1,\"y\": -1,\"width\": 1,\"height\": 2}]\n"
+                + "[{\"x\": 0,\"y\": 0,\"width\": 3,\"height\": 3}, {\"x\": 5,\"y\": 5,\"width\": 1,\"height\": 1}]";
+
+        assertEquals("[1,0,2,0]\n[]\n", process(PairOperation.INTERSECTION, input));
+    }
+
+    @Test
+    public void process_invalidPair_writesErrorAndGoesOn() throws IOException {
+        String input = "[{\"x\": 0,\"y\": 0,\"width\": 0,\"height\": 3}, {\"x\": 1,\"y\": 1,\"width\": 1,\"height\": 1}]\n"
+                + "[{\"x\": 0,\"y\": 0,\"width\": 3,\"height\": 3}]\n"
+                + "{\"x\": 0}\n"
+                + "[{\"x\": 0,\"y\": 0,\"width\": 3,\"height\": 3,\"color\": [1, 2]}, {\"x\": 1,\"y\": 1,\"width\": 1,\"height\": 1}]\n";
+        String error = "{\"error\":\"" + PairStreamProcessor.INVALID_PAIR + "\"}\n";
+
+        assertEquals(error + error + error + "true\n", process(PairOperation.CONTAINS, input));
+    }
+
+    @Test
+    public void process_malformedJson_writesErrorAndStops() throws IOException {
+        String input = "[{\"x\": 0,\"y\": 0,\"width\": 3,\"height\": 3}, {\"x\": 1,\"y\": 1,\"width\": 1,\"height\": 1}]\n"
+                + "[{\"x\": 0,,}]\n"
+                + "[{\"x\": 0,\"y\": 0,\"width\": 3,\"height\": 3}, {\"x\": 1,\"y\": 1,\"width\": 1,\"height\": 1}]\n";
+
+        assertEquals("true\n{\"error\":\"" + PairStreamProcessor.INVALID_JSON + "\"}\n", process(PairOperation.CONTAINS, input));
+    }
+
+    @Test
+    public void process_emptyInput_writesNothing() throws IOException {
+        assertEquals("", process(PairOperation.CONTAINS, ""));
+    }
+
+    private String process(PairOperation operation, String input) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        processor.process(operation, new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+}
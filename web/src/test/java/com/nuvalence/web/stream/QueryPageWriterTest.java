@@ -0,0 +1,50 @@
+package com.nuvalence.web.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nuvalence.model.Rectangle;
+import com.nuvalence.model.SpatialRelation;
+import com.nuvalence.service.RectangleIndex;
+import com.nuvalence.service.RectangleIndexImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryPageWriterTest {
+
+    private final RectangleIndex rectangleIndex = new RectangleIndexImpl();
+    private final QueryPageWriter writer = new QueryPageWriter(rectangleIndex, new ObjectMapper());
+
+    @Test
+    public void write_writesThePageAndTheNextCursor() throws IOException {
+        rectangleIndex.insert(List.of(new Rectangle(0, 0, 2, 2), new Rectangle(9, 9, 1, 1), new Rectangle(1, -1, 1, 2)));
+        Rectangle query = new Rectangle(0, 0, 3, 3);
+
+        assertEquals("{\"rectangles\":[{\"id\":1,\"rectangle\":{\"x\":0,\"y\":0,\"height\":2,\"width\":2}}],\"next\":1}",
+                write(query, 0, 1));
+        assertEquals("{\"rectangles\":[{\"id\":3,\"rectangle\":{\"x\":1,\"y\":-1,\"height\":2,\"width\":1}}],\"next\":null}",
+                write(query, 1, 1));
+        assertEquals("{\"rectangles\":[],\"next\":null}", write(query, 3, 1));
+    }
+
+    @Test
+    public void write_matchesTheJsonOfStoredRectangles() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        rectangleIndex.insert(List.of(new Rectangle(-5, 4, 8, 3), new Rectangle(2, 2, 1, 1)));
+        Rectangle query = new Rectangle(0, 0, 10, 10);
+
+        String expected = "{\"rectangles\":" + objectMapper.writeValueAsString(rectangleIndex.query(SpatialRelation.INTERSECTS, query))
+                + ",\"next\":null}";
+        assertEquals(expected, write(query, 0, 10));
+    }
+
+    private String write(Rectangle query, long after, int limit) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(SpatialRelation.INTERSECTS, query, after, limit, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}